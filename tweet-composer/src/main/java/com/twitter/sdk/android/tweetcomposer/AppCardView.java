@@ -27,8 +27,7 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
-import com.squareup.picasso.Transformation;
+import com.twitter.sdk.android.core.ImageRequest;
 
 public class AppCardView extends LinearLayout {
     ImageView appImageView;
@@ -74,15 +73,13 @@ public class AppCardView extends LinearLayout {
 
     void setImage(Uri uri) {
         final int radius = getResources().getDimensionPixelSize(R.dimen.tw__card_radius_medium);
-        final Transformation transformation = new RoundedCornerTransformation.Builder()
-                .setRadii(radius, radius, 0, 0)
-                .build();
-        Picasso.with(getContext())
-                .load(uri)
-                .transform(transformation)
+        final ImageRequest request = new ImageRequest.Builder()
+                .setUrl(uri.toString())
+                .setCornerRadii(radius, radius, 0, 0)
                 .fit()
                 .centerCrop()
-                .into(appImageView);
+                .build();
+        TweetComposer.getInstance().getImageLoader().load(request, appImageView, null);
     }
 
     void setAppName(String name) {
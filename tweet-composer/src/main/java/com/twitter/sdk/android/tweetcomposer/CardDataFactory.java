@@ -31,16 +31,24 @@ class CardDataFactory {
      * @return App Card CardData instance.
      */
     static CardData createAppCardData(Card card, Long mediaId, String advertisingId) {
+        return createAppCardBuilder(card, advertisingId)
+                .image(getCardMedia(mediaId))
+                .build();
+    }
+
+    /**
+     * @return App Card CardData builder with all fields except the image, which needs the id of
+     * the uploaded media.
+     */
+    static CardData.Builder createAppCardBuilder(Card card, String advertisingId) {
         return new CardData.Builder()
                 .card(APP_CARD_TYPE)
-                .image(getCardMedia(mediaId))
                 .appIPhoneId(card.appIPhoneId)
                 .appIPadId(card.appIPadId)
                 .appGooglePlayId(card.appGooglePlayId)
                 .cardData("{}")
                 .ctaKey(APP_CARD_CTA_KEY)
-                .deviceId(advertisingId)
-                .build();
+                .deviceId(advertisingId);
     }
 
     /**
@@ -18,15 +18,16 @@
 package com.twitter.sdk.android.tweetcomposer;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.twitter.sdk.android.core.AuthenticatedClient;
 import com.twitter.sdk.android.core.Session;
 import com.twitter.sdk.android.core.TwitterApiClient;
 import com.twitter.sdk.android.core.TwitterAuthConfig;
 import com.twitter.sdk.android.core.TwitterCore;
 import com.twitter.sdk.android.core.TwitterSession;
-import com.twitter.sdk.android.core.models.SafeListAdapter;
-import com.twitter.sdk.android.core.models.SafeMapAdapter;
+import com.twitter.sdk.android.core.internal.CancellableCallbackExecutor;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
+import com.twitter.sdk.android.core.internal.PriorityExecutor;
+import com.twitter.sdk.android.core.models.FieldProjection;
 import com.twitter.sdk.android.tweetcomposer.internal.CardService;
 
 import java.util.concurrent.ExecutorService;
@@ -34,7 +35,6 @@ import java.util.concurrent.ExecutorService;
 import javax.net.ssl.SSLSocketFactory;
 
 import retrofit.RestAdapter;
-import retrofit.android.MainThreadExecutor;
 import retrofit.converter.GsonConverter;
 
 class ComposerApiClient extends TwitterApiClient {
@@ -45,16 +45,14 @@ class ComposerApiClient extends TwitterApiClient {
                      SSLSocketFactory sslSocketFactory, ExecutorService executorService) {
         super(session);
 
-        final Gson gson = new GsonBuilder()
-                .registerTypeAdapterFactory(new SafeListAdapter())
-                .registerTypeAdapterFactory(new SafeMapAdapter())
-                .create();
+        final Gson gson = GsonRegistry.getApiGson(FieldProjection.ALL, null);
 
         cardsAdapter = new RestAdapter.Builder()
                 .setClient(new AuthenticatedClient(authConfig, session, sslSocketFactory))
                 .setEndpoint(CARDS_ENDPOINT)
                 .setConverter(new GsonConverter(gson))
-                .setExecutors(executorService, new MainThreadExecutor())
+                .setExecutors(new PriorityExecutor(executorService),
+                        new CancellableCallbackExecutor())
                 .build();
     }
 
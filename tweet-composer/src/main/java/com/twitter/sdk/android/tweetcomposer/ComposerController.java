@@ -31,6 +31,8 @@ import com.twitter.sdk.android.core.TwitterSession;
 import com.twitter.sdk.android.core.internal.TwitterApiConstants;
 import com.twitter.sdk.android.core.models.User;
 
+import java.util.UUID;
+
 class ComposerController {
     ComposerView composerView;
     TwitterSession session;
@@ -114,6 +116,8 @@ class ComposerController {
             intent.putExtra(TweetUploadService.EXTRA_USER_TOKEN, session.getAuthToken());
             intent.putExtra(TweetUploadService.EXTRA_TWEET_TEXT, text);
             intent.putExtra(TweetUploadService.EXTRA_TWEET_CARD, card);
+            // identifies the upload's saved progress across retries and process restarts
+            intent.putExtra(TweetUploadService.EXTRA_UPLOAD_ID, UUID.randomUUID().toString());
             composerView.getContext().startService(intent);
             finisher.finish();
         }
@@ -33,7 +33,8 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.ImageRequest;
 import com.twitter.sdk.android.core.internal.UserUtils;
 import com.twitter.sdk.android.core.internal.util.ObservableScrollView;
 import com.twitter.sdk.android.core.models.User;
@@ -52,7 +53,7 @@ public class ComposerView extends LinearLayout {
     ViewGroup cardView;
     ComposerController.ComposerCallbacks callbacks;
 
-    private Picasso imageLoader;
+    private ImageLoader imageLoader;
 
     public ComposerView(Context context) {
         this(context, null);
@@ -70,7 +71,9 @@ public class ComposerView extends LinearLayout {
     }
 
     private void init(Context context) {
-        imageLoader = Picasso.with(getContext());
+        if (!isInEditMode()) {
+            imageLoader = TweetComposer.getInstance().getImageLoader();
+        }
         // TODO: make color vary depending on the style
         mediaBg = new ColorDrawable(context.getResources()
                 .getColor(R.color.tw__composer_light_gray));
@@ -155,7 +158,11 @@ public class ComposerView extends LinearLayout {
                 UserUtils.AvatarSize.REASONABLY_SMALL);
         if (imageLoader != null) {
             // Passing null url will not trigger any request, but will set the placeholder bg
-            imageLoader.load(url).placeholder(mediaBg).into(avatarView);
+            final ImageRequest request = new ImageRequest.Builder()
+                    .setUrl(url)
+                    .setPlaceholder(mediaBg)
+                    .build();
+            imageLoader.load(request, avatarView, null);
         }
     }
 
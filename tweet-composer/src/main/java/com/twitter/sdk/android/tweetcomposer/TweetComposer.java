@@ -24,10 +24,13 @@ import android.content.pm.ResolveInfo;
 import android.net.Uri;
 import android.text.TextUtils;
 
+import com.squareup.picasso.Picasso;
+import com.twitter.sdk.android.core.ImageLoader;
 import com.twitter.sdk.android.core.Session;
 import com.twitter.sdk.android.core.SessionManager;
 import com.twitter.sdk.android.core.TwitterCore;
 import com.twitter.sdk.android.core.TwitterSession;
+import com.twitter.sdk.android.core.internal.PicassoImageLoader;
 import com.twitter.sdk.android.core.internal.scribe.DefaultScribeClient;
 
 import io.fabric.sdk.android.Fabric;
@@ -55,6 +58,7 @@ public class TweetComposer extends Kit<Void> {
     String advertisingId;
     SessionManager<TwitterSession> sessionManager;
     private ScribeClient scribeClient;
+    private volatile ImageLoader imageLoader;
 
     public TweetComposer() {
         this.apiClients = new ConcurrentHashMap<>();
@@ -101,6 +105,22 @@ public class TweetComposer extends Kit<Void> {
         return Fabric.getKit(TweetComposer.class);
     }
 
+    /**
+     * Sets the ImageLoader which the composer loads avatars and card images with, in place of the
+     * default Picasso based loader.
+     * @param imageLoader the ImageLoader of the app
+     */
+    public void setImageLoader(ImageLoader imageLoader) {
+        this.imageLoader = imageLoader;
+    }
+
+    ImageLoader getImageLoader() {
+        if (imageLoader == null) {
+            imageLoader = new PicassoImageLoader(Picasso.with(getContext()));
+        }
+        return imageLoader;
+    }
+
     protected ScribeClient getScribeClient() {
         return scribeClient;
     }
@@ -17,26 +17,27 @@
 
 package com.twitter.sdk.android.tweetcomposer;
 
-import android.app.IntentService;
+import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
-import android.net.Uri;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
 
-import com.twitter.sdk.android.core.Callback;
-import com.twitter.sdk.android.core.Result;
-import com.twitter.sdk.android.core.TwitterAuthToken;
 import com.twitter.sdk.android.core.TwitterException;
 import com.twitter.sdk.android.core.TwitterSession;
-import com.twitter.sdk.android.core.models.Media;
-import com.twitter.sdk.android.core.models.Tweet;
-import com.twitter.sdk.android.tweetcomposer.internal.CardCreate;
-import com.twitter.sdk.android.tweetcomposer.internal.CardData;
+import com.twitter.sdk.android.core.internal.ChunkedUploader;
+import com.twitter.sdk.android.core.internal.UploadSession;
+import com.twitter.sdk.android.core.services.MediaService;
 
 import java.io.File;
+import java.util.concurrent.Executor;
 
 import io.fabric.sdk.android.Fabric;
-import retrofit.mime.TypedFile;
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+import io.fabric.sdk.android.services.persistence.PreferenceStoreImpl;
 
-public class TweetUploadService extends IntentService {
+public class TweetUploadService extends Service {
     public static final String UPLOAD_SUCCESS
             = "com.twitter.sdk.android.tweetcomposer.UPLOAD_SUCCESS";
     public static final String UPLOAD_FAILURE
@@ -48,14 +49,13 @@ public class TweetUploadService extends IntentService {
     static final String EXTRA_USER_TOKEN = "EXTRA_USER_TOKEN";
     static final String EXTRA_TWEET_TEXT = "EXTRA_TWEET_TEXT";
     static final String EXTRA_TWEET_CARD = "EXTRA_TWEET_CARD";
-    private static final int PLACEHOLDER_ID = -1;
-    private static final String PLACEHOLDER_SCREEN_NAME = "";
+    static final String EXTRA_UPLOAD_ID = "EXTRA_UPLOAD_ID";
+    static final String UPLOAD_PREF_FILE_NAME = "tweet_upload";
     DependencyProvider dependencyProvider;
 
-    TwitterSession twitterSession;
-    String tweetText;
-    Card tweetCard;
-    Intent intent;
+    UploadPipeline pipeline;
+    Handler mainHandler;
+    int lastStartId;
 
     public TweetUploadService() {
         this(new DependencyProvider());
@@ -63,96 +63,59 @@ public class TweetUploadService extends IntentService {
 
     // testing purposes
     TweetUploadService(DependencyProvider dependencyProvider) {
-        super("TweetUploadService");
+        super();
         this.dependencyProvider = dependencyProvider;
     }
 
     @Override
-    protected void onHandleIntent(Intent intent) {
-        final TwitterAuthToken token = intent.getParcelableExtra(EXTRA_USER_TOKEN);
-        this.intent = intent;
-        twitterSession = new TwitterSession(token, PLACEHOLDER_ID, PLACEHOLDER_SCREEN_NAME);
-        tweetText = intent.getStringExtra(EXTRA_TWEET_TEXT);
-        tweetCard = (Card) intent.getSerializableExtra(EXTRA_TWEET_CARD);
-
-        if (Card.isAppCard(tweetCard)) {
-            uploadAppCardTweet(twitterSession, tweetText, tweetCard);
-        } else {
-            uploadTweet(twitterSession, tweetText);
-        }
-    }
-
-    void uploadTweet(TwitterSession session, final String text) {
-        final ComposerApiClient client = dependencyProvider.getComposerApiClient(session);
-        client.getComposerStatusesService().update(text, null, new Callback<Tweet>() {
-            @Override
-            public void success(Result<Tweet> result) {
-                sendSuccessBroadcast(result.data.getId());
-                stopSelf();
-            }
-
+    public void onCreate() {
+        super.onCreate();
+        mainHandler = new Handler(Looper.getMainLooper());
+        final UploadStateStore stateStore = dependencyProvider.getUploadStateStore(this);
+        pipeline = new UploadPipeline(this, dependencyProvider, stateStore,
+                dependencyProvider.getExecutor(), UploadPipeline.DEFAULT_MAX_CONCURRENT_UPLOADS,
+                new PipelineListener());
+        dependencyProvider.getExecutor().execute(new Runnable() {
             @Override
-            public void failure(TwitterException exception) {
-                fail(exception);
+            public void run() {
+                stateStore.clearStale(System.currentTimeMillis());
             }
         });
     }
 
-    void uploadAppCardTweet(TwitterSession session, final String text, final Card card) {
-        final ComposerApiClient client = dependencyProvider.getComposerApiClient(session);
-
-        final Uri uri = Uri.parse(card.imageUri);
-        final String path = FileUtils.getPath(TweetUploadService.this, uri);
-        if (path == null) {
-            fail(new TwitterException("Uri file path resolved to null"));
-            return;
+    /**
+     * Queues the upload. The intent is redelivered if the process dies before all uploads
+     * finished, and the upload resumes from its last completed step.
+     */
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        lastStartId = startId;
+        if (intent != null) {
+            pipeline.enqueue(intent);
+        } else {
+            stopIfIdle();
         }
-        final File file = new File(path);
-        final String mimeType = FileUtils.getMimeType(file);
-        final TypedFile media = new TypedFile(mimeType, file);
+        return START_REDELIVER_INTENT;
+    }
 
-        client.getMediaService().upload(media, null, null, new Callback<Media>() {
-            @Override
-            public void success(Result<Media> result) {
-                final CardData cardData = CardDataFactory.createAppCardData(card,
-                        result.data.mediaId, dependencyProvider.getAdvertisingId());
-                client.getCardService().create(cardData, new Callback<CardCreate>() {
-                    @Override
-                    public void success(Result<CardCreate> result) {
-                        final String cardUri = result.data.cardUri;
-                        client.getComposerStatusesService().update(text, cardUri,
-                                new Callback<Tweet>() {
-                                    @Override
-                                    public void success(Result<Tweet> result) {
-                                        sendSuccessBroadcast(result.data.getId());
-                                        stopSelf();
-                                    }
-
-                                    @Override
-                                    public void failure(TwitterException exception) {
-                                        fail(exception);
-                                    }
-                                });
-                    }
-
-                    @Override
-                    public void failure(TwitterException exception) {
-                        fail(exception);
-                    }
-                });
-            }
+    @Override
+    public IBinder onBind(Intent intent) {
+        return null;
+    }
 
-            @Override
-            public void failure(TwitterException exception) {
-                fail(exception);
-            }
-        });
+    /*
+     * Runs on the main thread, as onStartCommand does, so no upload is queued between the idle
+     * check and stopping.
+     */
+    void stopIfIdle() {
+        if (pipeline.isIdle()) {
+            stopSelf(lastStartId);
+        }
     }
 
-    void fail(TwitterException e) {
+    void fail(Intent intent, TwitterException e) {
         sendFailureBroadcast(intent);
         Fabric.getLogger().e(TAG, "Post Tweet failed", e);
-        stopSelf();
     }
 
     void sendSuccessBroadcast(long tweetId) {
@@ -167,6 +130,29 @@ public class TweetUploadService extends IntentService {
         sendBroadcast(intent);
     }
 
+    class PipelineListener implements UploadPipeline.Listener {
+
+        @Override
+        public void onSuccess(Intent intent, long tweetId) {
+            sendSuccessBroadcast(tweetId);
+        }
+
+        @Override
+        public void onFailure(Intent intent, TwitterException exception) {
+            fail(intent, exception);
+        }
+
+        @Override
+        public void onIdle() {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    stopIfIdle();
+                }
+            });
+        }
+    }
+
     /*
      * Mockable class that provides ComposerController dependencies.
      */
@@ -179,5 +165,24 @@ public class TweetUploadService extends IntentService {
         String getAdvertisingId() {
             return TweetComposer.getInstance().getAdvertisingId();
         }
+
+        Executor getExecutor() {
+            return TweetComposer.getInstance().getFabric().getExecutorService();
+        }
+
+        UploadStateStore getUploadStateStore(Context context) {
+            return new UploadStateStore(new PreferenceStoreImpl(context, UPLOAD_PREF_FILE_NAME));
+        }
+
+        UploadImagePreprocessor getImagePreprocessor(Context context) {
+            return new UploadImagePreprocessor(new File(context.getCacheDir(),
+                    UploadImagePreprocessor.DIRECTORY_NAME));
+        }
+
+        ChunkedUploader getChunkedUploader(MediaService mediaService,
+                PersistenceStrategy<UploadSession> sessionStore) {
+            return new ChunkedUploader(mediaService, sessionStore,
+                    ChunkedUploader.DEFAULT_CHUNK_SIZE);
+        }
     }
 }
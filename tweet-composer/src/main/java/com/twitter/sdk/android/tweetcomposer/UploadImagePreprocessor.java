@@ -0,0 +1,354 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import io.fabric.sdk.android.Fabric;
+import io.fabric.sdk.android.services.common.CommonUtils;
+
+/**
+ * Prepares JPEG images for upload. The image is decoded with a sample size bounded by the
+ * available memory, scaled down to the largest size Twitter serves, rotated upright according to
+ * its EXIF orientation and recompressed, which also strips its metadata. JPEGs which are already
+ * upright, within the largest size and within {@link #TARGET_BYTES} are not recompressed, since
+ * that only loses quality. Their metadata segments, which may hold the location the photo was
+ * taken at, are removed from the file instead. Other image types are uploaded as they are.
+ */
+class UploadImagePreprocessor {
+    static final String DIRECTORY_NAME = "tw__upload";
+    static final String MIME_TYPE_JPEG = "image/jpeg";
+    // Longest side of the largest photo size Twitter serves
+    static final int MAX_DIMENSION = 2048;
+    // Lower quality is used while the image is larger than this
+    static final int TARGET_BYTES = 1024 * 1024;
+    static final int DEFAULT_QUALITY = 85;
+    static final int MIN_QUALITY = 55;
+    static final int QUALITY_STEP = 10;
+    // Fraction of the heap a decoded image may use
+    private static final int MEMORY_DIVIDER = 4;
+    // Decoded RGB_565 pixels
+    private static final int BYTES_PER_PIXEL = 2;
+    private static final String FILE_EXTENSION = ".jpg";
+    private static final String PARTIAL_SUFFIX = ".part";
+    // JPEG markers
+    private static final int MARKER_PREFIX = 0xFF;
+    private static final int MARKER_SOI = 0xD8;
+    private static final int MARKER_EOI = 0xD9;
+    private static final int MARKER_SOS = 0xDA;
+    // EXIF and XMP
+    private static final int MARKER_APP1 = 0xE1;
+    // IPTC
+    private static final int MARKER_APP13 = 0xED;
+    private static final int MARKER_COM = 0xFE;
+
+    private final File outputDir;
+    private final long maxDecodeBytes;
+
+    UploadImagePreprocessor(File outputDir) {
+        this(outputDir, Runtime.getRuntime().maxMemory() / MEMORY_DIVIDER);
+    }
+
+    UploadImagePreprocessor(File outputDir, long maxDecodeBytes) {
+        this.outputDir = outputDir;
+        this.maxDecodeBytes = maxDecodeBytes;
+    }
+
+    /**
+     * Returns the file to upload in place of the given image. The processed image is kept until
+     * {@link #release} so a retried upload sends the same file and can resume.
+     * @param file the image file
+     * @param mimeType MIME-type of the image
+     * @return the processed image, or the given file if it is not a JPEG or can not be processed
+     */
+    File process(File file, String mimeType) {
+        if (!MIME_TYPE_JPEG.equals(mimeType)) {
+            return file;
+        }
+        final File output = getOutputFile(file);
+        if (output.exists()) {
+            return output;
+        }
+        try {
+            final BitmapFactory.Options options = decodeBounds(file);
+            if (options.outWidth <= 0 || options.outHeight <= 0) {
+                return file;
+            }
+            final int orientation = readOrientation(file);
+            if (canSkipRecompression(options.outWidth, options.outHeight, file.length(),
+                    orientation)) {
+                final byte[] stripped = stripMetadata(readFile(file));
+                if (stripped != null) {
+                    moveIntoPlace(stripped, output);
+                    return output;
+                }
+                // not a well-formed JPEG, recompressing still removes its metadata
+            }
+            final Bitmap bitmap = decode(file, options, orientation);
+            if (bitmap == null) {
+                return file;
+            }
+            try {
+                write(bitmap, output);
+            } finally {
+                bitmap.recycle();
+            }
+            return output;
+        } catch (IOException | OutOfMemoryError e) {
+            Fabric.getLogger().e(TweetUploadService.TAG, "Upload image preprocessing failed", e);
+            return file;
+        }
+    }
+
+    /**
+     * Deletes the processed image once it has been uploaded.
+     */
+    void release(File file, File uploaded) {
+        if (!file.equals(uploaded)) {
+            uploaded.delete();
+        }
+    }
+
+    /**
+     * @return a file named after the source path, size and modification time, so a retry finds
+     *          the image processed by an earlier attempt
+     */
+    File getOutputFile(File file) {
+        final String key = file.getAbsolutePath() + ":" + file.length() + ":"
+                + file.lastModified();
+        return new File(outputDir, CommonUtils.sha1(key) + FILE_EXTENSION);
+    }
+
+    static BitmapFactory.Options decodeBounds(File file) {
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        return options;
+    }
+
+    /**
+     * @param options the options the bounds of the image were decoded with
+     */
+    Bitmap decode(File file, BitmapFactory.Options options, int orientation) {
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = calculateSampleSize(options.outWidth, options.outHeight,
+                MAX_DIMENSION, maxDecodeBytes);
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        final Bitmap decoded = BitmapFactory.decodeFile(file.getAbsolutePath(), options);
+        if (decoded == null) {
+            return null;
+        }
+
+        final Matrix matrix = getOrientationMatrix(orientation);
+        final float scale = calculateScale(decoded.getWidth(), decoded.getHeight(),
+                MAX_DIMENSION);
+        matrix.preScale(scale, scale);
+        if (matrix.isIdentity()) {
+            return decoded;
+        }
+        final Bitmap transformed = Bitmap.createBitmap(decoded, 0, 0, decoded.getWidth(),
+                decoded.getHeight(), matrix, true);
+        if (transformed != decoded) {
+            decoded.recycle();
+        }
+        return transformed;
+    }
+
+    /**
+     * Compresses the bitmap at decreasing quality until it fits {@link #TARGET_BYTES} or the
+     * minimum quality is reached, then moves it into place.
+     */
+    void write(Bitmap bitmap, File output) throws IOException {
+        ByteArrayOutputStream bytes;
+        int quality = DEFAULT_QUALITY;
+        do {
+            bytes = new ByteArrayOutputStream();
+            compress(bitmap, quality, bytes);
+            quality -= QUALITY_STEP;
+        } while (bytes.size() > TARGET_BYTES && quality >= MIN_QUALITY);
+        moveIntoPlace(bytes.toByteArray(), output);
+    }
+
+    /**
+     * Writes the image next to the output file, then renames it so an interrupted write never
+     * leaves a partial image to be reused.
+     */
+    void moveIntoPlace(byte[] image, File output) throws IOException {
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IOException("Unable to create " + outputDir);
+        }
+        final File partial = new File(output.getPath() + PARTIAL_SUFFIX);
+        final OutputStream out = new FileOutputStream(partial);
+        try {
+            out.write(image);
+        } finally {
+            CommonUtils.closeQuietly(out);
+        }
+        if (!partial.renameTo(output)) {
+            partial.delete();
+            throw new IOException("Unable to rename " + partial);
+        }
+    }
+
+    void compress(Bitmap bitmap, int quality, OutputStream out) {
+        bitmap.compress(Bitmap.CompressFormat.JPEG, quality, out);
+    }
+
+    static byte[] readFile(File file) throws IOException {
+        final byte[] bytes = new byte[(int) file.length()];
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            CommonUtils.closeQuietly(in);
+        }
+        return bytes;
+    }
+
+    /**
+     * Removes the EXIF, XMP, IPTC and comment segments of a JPEG. The image data and the
+     * segments needed to display it, like its color profile, are copied unchanged.
+     * @return the JPEG without its metadata, or null if it is not a well-formed JPEG
+     */
+    static byte[] stripMetadata(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != MARKER_PREFIX
+                || (jpeg[1] & 0xFF) != MARKER_SOI) {
+            return null;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(jpeg.length);
+        out.write(jpeg, 0, 2);
+        int pos = 2;
+        while (pos + 4 <= jpeg.length) {
+            if ((jpeg[pos] & 0xFF) != MARKER_PREFIX) {
+                return null;
+            }
+            final int marker = jpeg[pos + 1] & 0xFF;
+            if (marker == MARKER_PREFIX) {
+                // fill byte before a marker
+                pos++;
+                continue;
+            }
+            if (marker == MARKER_SOS) {
+                // the scan data and everything after it holds no metadata segments
+                out.write(jpeg, pos, jpeg.length - pos);
+                return out.toByteArray();
+            }
+            if (marker == MARKER_EOI) {
+                return null;
+            }
+            final int segmentLength = ((jpeg[pos + 2] & 0xFF) << 8) | (jpeg[pos + 3] & 0xFF);
+            if (segmentLength < 2 || pos + 2 + segmentLength > jpeg.length) {
+                return null;
+            }
+            if (marker != MARKER_APP1 && marker != MARKER_APP13 && marker != MARKER_COM) {
+                out.write(jpeg, pos, 2 + segmentLength);
+            }
+            pos += 2 + segmentLength;
+        }
+        return null;
+    }
+
+    static int readOrientation(File file) {
+        try {
+            return new ExifInterface(file.getAbsolutePath()).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            return ExifInterface.ORIENTATION_NORMAL;
+        }
+    }
+
+    /**
+     * @return true if the image needs no scaling, rotation or recompression before upload
+     */
+    static boolean canSkipRecompression(int width, int height, long length, int orientation) {
+        final boolean upright = orientation == ExifInterface.ORIENTATION_NORMAL
+                || orientation == ExifInterface.ORIENTATION_UNDEFINED;
+        return upright && Math.max(width, height) <= MAX_DIMENSION && length <= TARGET_BYTES;
+    }
+
+    /**
+     * @return the largest power of two sample size which keeps the longest side at least
+     *          maxDimension, raised further until the decoded image fits in maxBytes
+     */
+    static int calculateSampleSize(int width, int height, int maxDimension, long maxBytes) {
+        final int longestSide = Math.max(width, height);
+        int sampleSize = 1;
+        while (longestSide / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        while ((long) (width / sampleSize) * (height / sampleSize) * BYTES_PER_PIXEL
+                > maxBytes) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * @return the scale which fits the longest side within maxDimension, never more than 1
+     */
+    static float calculateScale(int width, int height, int maxDimension) {
+        final int longestSide = Math.max(width, height);
+        return longestSide > maxDimension ? (float) maxDimension / longestSide : 1f;
+    }
+
+    /**
+     * @return a matrix which turns an image with the given EXIF orientation upright
+     */
+    static Matrix getOrientationMatrix(int orientation) {
+        final Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                break;
+        }
+        return matrix;
+    }
+}
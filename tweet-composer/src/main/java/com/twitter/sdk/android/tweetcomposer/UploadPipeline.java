@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.Result;
+import com.twitter.sdk.android.core.TwitterAuthToken;
+import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.TwitterSession;
+import com.twitter.sdk.android.core.internal.ChunkedUploader;
+import com.twitter.sdk.android.core.models.Media;
+import com.twitter.sdk.android.core.models.Tweet;
+import com.twitter.sdk.android.tweetcomposer.internal.CardCreate;
+import com.twitter.sdk.android.tweetcomposer.internal.CardData;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import io.fabric.sdk.android.Fabric;
+
+/**
+ * Runs Tweet uploads, up to a maximum number at a time. An app card Tweet uploads its image
+ * while its card data is prepared, creates the card once both are done, then posts the Tweet.
+ * The result of each completed step is saved in the {@link UploadStateStore}, so an upload
+ * restarted after process death or retried after a failure skips the completed steps.
+ */
+class UploadPipeline {
+    static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 2;
+    private static final long PLACEHOLDER_ID = -1;
+    private static final String PLACEHOLDER_SCREEN_NAME = "";
+
+    /**
+     * Receives the outcome of uploads. Methods may be called from any thread.
+     */
+    interface Listener {
+        void onSuccess(Intent intent, long tweetId);
+
+        void onFailure(Intent intent, TwitterException exception);
+
+        /**
+         * Called when the last running upload finished and none are queued.
+         */
+        void onIdle();
+    }
+
+    private final Context context;
+    private final TweetUploadService.DependencyProvider dependencyProvider;
+    private final UploadStateStore stateStore;
+    private final Executor executor;
+    private final int maxConcurrentUploads;
+    private final Listener listener;
+    // leave these package accessible for testing
+    final Deque<Intent> pending;
+    int running;
+
+    UploadPipeline(Context context, TweetUploadService.DependencyProvider dependencyProvider,
+            UploadStateStore stateStore, Executor executor, int maxConcurrentUploads,
+            Listener listener) {
+        this.context = context;
+        this.dependencyProvider = dependencyProvider;
+        this.stateStore = stateStore;
+        this.executor = executor;
+        this.maxConcurrentUploads = maxConcurrentUploads;
+        this.listener = listener;
+        this.pending = new ArrayDeque<>();
+    }
+
+    /**
+     * Queues the upload described by a {@link TweetUploadService} intent.
+     */
+    void enqueue(Intent intent) {
+        synchronized (this) {
+            pending.add(intent);
+        }
+        startPending();
+    }
+
+    synchronized boolean isIdle() {
+        return running == 0 && pending.isEmpty();
+    }
+
+    private void startPending() {
+        final List<UploadTask> tasks = new ArrayList<>();
+        synchronized (this) {
+            while (running < maxConcurrentUploads && !pending.isEmpty()) {
+                running++;
+                tasks.add(new UploadTask(pending.poll()));
+            }
+        }
+        for (final UploadTask task : tasks) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    task.start();
+                }
+            });
+        }
+    }
+
+    void onTaskFinished() {
+        final boolean idle;
+        synchronized (this) {
+            running--;
+            idle = running == 0 && pending.isEmpty();
+        }
+        if (idle) {
+            listener.onIdle();
+        } else {
+            startPending();
+        }
+    }
+
+    /**
+     * The steps of a single Tweet upload. Steps complete on callback and executor threads, so
+     * the shared progress is guarded by the task's lock.
+     */
+    class UploadTask {
+        final Intent intent;
+        private String uploadId;
+        private String text;
+        private Card card;
+        private ComposerApiClient client;
+        private UploadState state;
+        private CardData.Builder cardBuilder;
+        private boolean cardRequested;
+        private boolean finished;
+
+        UploadTask(Intent intent) {
+            this.intent = intent;
+        }
+
+        void start() {
+            try {
+                startSteps();
+            } catch (RuntimeException e) {
+                failStep(e);
+            }
+        }
+
+        private void startSteps() {
+            final TwitterAuthToken token =
+                    intent.getParcelableExtra(TweetUploadService.EXTRA_USER_TOKEN);
+            final TwitterSession session =
+                    new TwitterSession(token, PLACEHOLDER_ID, PLACEHOLDER_SCREEN_NAME);
+            text = intent.getStringExtra(TweetUploadService.EXTRA_TWEET_TEXT);
+            card = (Card) intent.getSerializableExtra(TweetUploadService.EXTRA_TWEET_CARD);
+            client = dependencyProvider.getComposerApiClient(session);
+
+            uploadId = intent.getStringExtra(TweetUploadService.EXTRA_UPLOAD_ID);
+            if (uploadId == null) {
+                // without an id from the composer the upload can not be resumed
+                uploadId = UUID.randomUUID().toString();
+            }
+            final long now = System.currentTimeMillis();
+            final UploadState restored = stateStore.restore(uploadId, now);
+            synchronized (this) {
+                state = restored == null ? new UploadState(uploadId, 0, null, now) : restored;
+            }
+            if (restored == null) {
+                stateStore.save(state);
+            }
+
+            if (state.isPosted()) {
+                // a redelivered intent of an upload which posted before the process died
+                Fabric.getLogger().d(TweetUploadService.TAG,
+                        "Skipping upload, Tweet already posted: " + state.tweetId);
+                skip();
+            } else if (!Card.isAppCard(card)) {
+                postTweet(null);
+            } else if (state.hasCard()) {
+                postTweet(state.cardUri);
+            } else {
+                prepareCard();
+                if (state.hasMedia()) {
+                    maybeCreateCard();
+                } else {
+                    uploadMedia();
+                }
+            }
+        }
+
+        void prepareCard() {
+            executor.execute(new Step() {
+                @Override
+                void runStep() {
+                    final CardData.Builder builder = CardDataFactory.createAppCardBuilder(card,
+                            dependencyProvider.getAdvertisingId());
+                    synchronized (UploadTask.this) {
+                        cardBuilder = builder;
+                    }
+                    maybeCreateCard();
+                }
+            });
+        }
+
+        void uploadMedia() {
+            executor.execute(new Step() {
+                @Override
+                void runStep() {
+                    final String path = FileUtils.getPath(context, Uri.parse(card.imageUri));
+                    if (path == null) {
+                        fail(new TwitterException("Uri file path resolved to null"));
+                        return;
+                    }
+                    final File file = new File(path);
+                    final String mimeType = FileUtils.getMimeType(file);
+                    // downscaled and recompressed, which keeps the same MIME-type
+                    final UploadImagePreprocessor preprocessor =
+                            dependencyProvider.getImagePreprocessor(context);
+                    final File uploadFile = preprocessor.process(file, mimeType);
+
+                    // uploads in segments, a retry continues after the last segment received
+                    final ChunkedUploader uploader = dependencyProvider.getChunkedUploader(
+                            client.getMediaService(), stateStore.getSessionStore(uploadId));
+                    uploader.upload(uploadFile, mimeType, new Callback<Media>() {
+                        @Override
+                        public void success(Result<Media> result) {
+                            preprocessor.release(file, uploadFile);
+                            onMediaUploaded(result.data.mediaId);
+                        }
+
+                        @Override
+                        public void failure(TwitterException exception) {
+                            fail(exception);
+                        }
+                    });
+                }
+            });
+        }
+
+        void onMediaUploaded(long mediaId) {
+            final UploadState uploaded;
+            synchronized (this) {
+                state = state.withMediaId(mediaId, System.currentTimeMillis());
+                uploaded = state;
+            }
+            stateStore.save(uploaded);
+            maybeCreateCard();
+        }
+
+        /**
+         * Creates the card once both the media upload and the card data are done.
+         */
+        void maybeCreateCard() {
+            final CardData cardData;
+            synchronized (this) {
+                if (finished || cardRequested || !state.hasMedia() || cardBuilder == null) {
+                    return;
+                }
+                cardRequested = true;
+                cardData = cardBuilder.image(CardDataFactory.getCardMedia(state.mediaId))
+                        .build();
+            }
+            client.getCardService().create(cardData, new Callback<CardCreate>() {
+                @Override
+                public void success(Result<CardCreate> result) {
+                    final UploadState created;
+                    synchronized (UploadTask.this) {
+                        state = state.withCardUri(result.data.cardUri,
+                                System.currentTimeMillis());
+                        created = state;
+                    }
+                    stateStore.save(created);
+                    postTweet(created.cardUri);
+                }
+
+                @Override
+                public void failure(TwitterException exception) {
+                    fail(exception);
+                }
+            });
+        }
+
+        void postTweet(String cardUri) {
+            client.getComposerStatusesService().update(text, cardUri, new Callback<Tweet>() {
+                @Override
+                public void success(Result<Tweet> result) {
+                    // kept until stale rather than cleared, see UploadState#isPosted
+                    final UploadState posted;
+                    synchronized (UploadTask.this) {
+                        state = state.withTweetId(result.data.getId(),
+                                System.currentTimeMillis());
+                        posted = state;
+                    }
+                    stateStore.save(posted);
+                    stateStore.clearSession(uploadId);
+                    if (finish()) {
+                        listener.onSuccess(intent, result.data.getId());
+                        onTaskFinished();
+                    }
+                }
+
+                @Override
+                public void failure(TwitterException exception) {
+                    fail(exception);
+                }
+            });
+        }
+
+        /**
+         * Fails the upload with an error thrown by a step rather than reported to a callback,
+         * so the upload still finishes and frees its slot.
+         */
+        void failStep(RuntimeException e) {
+            Fabric.getLogger().e(TweetUploadService.TAG, "Upload step failed", e);
+            fail(new TwitterException("Upload step failed", e));
+        }
+
+        /**
+         * Reports the first failure of the upload. Completed steps stay saved for a retry.
+         */
+        void fail(TwitterException exception) {
+            if (finish()) {
+                listener.onFailure(intent, exception);
+                onTaskFinished();
+            }
+        }
+
+        /**
+         * Finishes the task without reporting a result, its Tweet was reported when posted.
+         */
+        void skip() {
+            if (finish()) {
+                onTaskFinished();
+            }
+        }
+
+        /**
+         * @return true if the task was not finished before
+         */
+        private synchronized boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        private synchronized boolean isFinished() {
+            return finished;
+        }
+
+        /**
+         * A step run on the executor. Steps of a finished upload are skipped.
+         */
+        abstract class Step implements Runnable {
+            @Override
+            public final void run() {
+                if (isFinished()) {
+                    return;
+                }
+                try {
+                    runStep();
+                } catch (RuntimeException e) {
+                    failStep(e);
+                }
+            }
+
+            abstract void runStep();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import android.text.TextUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
+
+import io.fabric.sdk.android.Fabric;
+import io.fabric.sdk.android.services.persistence.SerializationStrategy;
+
+/**
+ * Results of the completed steps of a Tweet upload, saved so a restarted or retried upload
+ * continues with the first step which has not completed.
+ */
+class UploadState {
+
+    @SerializedName("upload_id")
+    final String uploadId;
+
+    // 0 until the media upload is finalized
+    @SerializedName("media_id")
+    final long mediaId;
+
+    // null until the card is created
+    @SerializedName("card_uri")
+    final String cardUri;
+
+    // 0 until the Tweet is posted
+    @SerializedName("tweet_id")
+    final long tweetId;
+
+    @SerializedName("updated_at")
+    final long updatedAt;
+
+    UploadState(String uploadId, long mediaId, String cardUri, long updatedAt) {
+        this(uploadId, mediaId, cardUri, 0, updatedAt);
+    }
+
+    UploadState(String uploadId, long mediaId, String cardUri, long tweetId, long updatedAt) {
+        this.uploadId = uploadId;
+        this.mediaId = mediaId;
+        this.cardUri = cardUri;
+        this.tweetId = tweetId;
+        this.updatedAt = updatedAt;
+    }
+
+    UploadState withMediaId(long mediaId, long currentTimeMillis) {
+        return new UploadState(uploadId, mediaId, cardUri, tweetId, currentTimeMillis);
+    }
+
+    UploadState withCardUri(String cardUri, long currentTimeMillis) {
+        return new UploadState(uploadId, mediaId, cardUri, tweetId, currentTimeMillis);
+    }
+
+    UploadState withTweetId(long tweetId, long currentTimeMillis) {
+        return new UploadState(uploadId, mediaId, cardUri, tweetId, currentTimeMillis);
+    }
+
+    boolean hasMedia() {
+        return mediaId != 0;
+    }
+
+    boolean hasCard() {
+        return cardUri != null;
+    }
+
+    /**
+     * @return true if the Tweet was posted, in which case a redelivered intent must not post it
+     * again
+     */
+    boolean isPosted() {
+        return tweetId != 0;
+    }
+
+    static class Serializer implements SerializationStrategy<UploadState> {
+
+        private final Gson gson;
+
+        Serializer() {
+            this.gson = GsonRegistry.getDefaultGson();
+        }
+
+        @Override
+        public String serialize(UploadState state) {
+            if (state != null) {
+                try {
+                    return gson.toJson(state);
+                } catch (Exception e) {
+                    Fabric.getLogger().d(TweetUploadService.TAG, e.getMessage());
+                }
+            }
+            return "";
+        }
+
+        @Override
+        public UploadState deserialize(String serializedState) {
+            if (!TextUtils.isEmpty(serializedState)) {
+                try {
+                    return gson.fromJson(serializedState, UploadState.class);
+                } catch (Exception e) {
+                    Fabric.getLogger().d(TweetUploadService.TAG, e.getMessage());
+                }
+            }
+            return null;
+        }
+    }
+}
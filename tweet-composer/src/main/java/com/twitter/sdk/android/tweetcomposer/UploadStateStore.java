@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import com.twitter.sdk.android.core.internal.UploadSession;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+import io.fabric.sdk.android.services.persistence.PreferenceStore;
+import io.fabric.sdk.android.services.persistence.PreferenceStoreStrategy;
+
+/**
+ * Keeps the {@link UploadState} and chunked media upload session of each Tweet upload in
+ * preferences, keyed by upload id. States older than {@link #MAX_STATE_AGE_MILLIS} are ignored,
+ * as their media may have expired on the server. The state of a posted Tweet is kept until it
+ * is stale, so an intent redelivered in the meantime is recognized as already posted.
+ */
+class UploadStateStore {
+    static final long MAX_STATE_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    static final String PREF_KEY_STATE_PREFIX = "upload_state_";
+    static final String PREF_KEY_SESSION_PREFIX = "upload_session_";
+
+    private final PreferenceStore preferenceStore;
+    private final UploadState.Serializer serializer;
+
+    UploadStateStore(PreferenceStore preferenceStore) {
+        this.preferenceStore = preferenceStore;
+        this.serializer = new UploadState.Serializer();
+    }
+
+    /**
+     * @return the saved state of the upload, or null if there is none or it is too old
+     */
+    UploadState restore(String uploadId, long currentTimeMillis) {
+        final UploadState state = serializer.deserialize(
+                preferenceStore.get().getString(getStateKey(uploadId), null));
+        if (state == null || isStale(state, currentTimeMillis)) {
+            return null;
+        }
+        return state;
+    }
+
+    void save(UploadState state) {
+        preferenceStore.save(preferenceStore.edit()
+                .putString(getStateKey(state.uploadId), serializer.serialize(state)));
+    }
+
+    /**
+     * Removes the media upload session of the upload, keeping its state.
+     */
+    void clearSession(String uploadId) {
+        preferenceStore.save(preferenceStore.edit().remove(getSessionKey(uploadId)));
+    }
+
+    /**
+     * Removes the state and media upload session of the upload.
+     */
+    void clear(String uploadId) {
+        preferenceStore.save(preferenceStore.edit()
+                .remove(getStateKey(uploadId))
+                .remove(getSessionKey(uploadId)));
+    }
+
+    /**
+     * Removes the states of uploads which were abandoned too long ago to resume.
+     */
+    void clearStale(long currentTimeMillis) {
+        for (Map.Entry<String, ?> entry : preferenceStore.get().getAll().entrySet()) {
+            if (!entry.getKey().startsWith(PREF_KEY_STATE_PREFIX)) {
+                continue;
+            }
+            final Object value = entry.getValue();
+            final UploadState state = value instanceof String ?
+                    serializer.deserialize((String) value) : null;
+            if (state == null) {
+                preferenceStore.save(preferenceStore.edit().remove(entry.getKey()));
+            } else if (isStale(state, currentTimeMillis)) {
+                clear(state.uploadId);
+            }
+        }
+    }
+
+    /**
+     * @return storage for the chunked media upload session of the upload
+     */
+    PersistenceStrategy<UploadSession> getSessionStore(String uploadId) {
+        return new PreferenceStoreStrategy<>(preferenceStore, new UploadSession.Serializer(),
+                getSessionKey(uploadId));
+    }
+
+    static boolean isStale(UploadState state, long currentTimeMillis) {
+        return currentTimeMillis - state.updatedAt > MAX_STATE_AGE_MILLIS;
+    }
+
+    static String getStateKey(String uploadId) {
+        return PREF_KEY_STATE_PREFIX + uploadId;
+    }
+
+    static String getSessionKey(String uploadId) {
+        return PREF_KEY_SESSION_PREFIX + uploadId;
+    }
+}
@@ -19,6 +19,7 @@ package com.twitter.sdk.android.tweetcomposer.internal;
 
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 
 /**
  * CardData for upload to the internal Twitter CardService.
@@ -99,7 +100,7 @@ public class CardData {
         private final Gson gson;
 
         Serializer() {
-            this.gson = new Gson();
+            this.gson = GsonRegistry.getDefaultGson();
         }
 
         String serialize(CardData data) {
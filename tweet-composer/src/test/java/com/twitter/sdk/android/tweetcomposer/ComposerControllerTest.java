@@ -198,6 +198,7 @@ public class ComposerControllerTest extends AndroidTestCase {
                 intent.getComponent().getClassName());
         assertEquals(mockAuthToken, intent.getParcelableExtra(TweetUploadService.EXTRA_USER_TOKEN));
         assertEquals(mockCard, intent.getSerializableExtra(TweetUploadService.EXTRA_TWEET_CARD));
+        assertNotNull(intent.getStringExtra(TweetUploadService.EXTRA_UPLOAD_ID));
         verify(mockComposerScribeClient).click(eq(mockCard),
                 eq(ScribeConstants.SCRIBE_TWEET_ELEMENT));
     }
@@ -17,19 +17,12 @@
 
 package com.twitter.sdk.android.tweetcomposer;
 
+import android.app.Service;
 import android.content.Context;
 import android.content.Intent;
-import android.net.Uri;
 import android.test.AndroidTestCase;
 
-import com.twitter.sdk.android.core.Callback;
-import com.twitter.sdk.android.core.Result;
-import com.twitter.sdk.android.core.TwitterAuthToken;
 import com.twitter.sdk.android.core.TwitterException;
-import com.twitter.sdk.android.core.TwitterSession;
-import com.twitter.sdk.android.core.models.Tweet;
-import com.twitter.sdk.android.core.models.TweetBuilder;
-import com.twitter.sdk.android.core.services.MediaService;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -39,11 +32,14 @@ import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
 
+import java.util.concurrent.Executor;
+
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
-import static org.mockito.Matchers.eq;
-import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -51,90 +47,91 @@ import static org.mockito.Mockito.when;
 @RunWith(RobolectricGradleTestRunner.class)
 @Config(constants = BuildConfig.class, sdk = 21)
 public class TweetUploadServiceTest extends AndroidTestCase {
-    private static final String EXPECTED_TWEET_TEXT = "tweet text";
+    private static final int TEST_START_ID = 3;
+    private static final long TEST_TWEET_ID = 123L;
 
     private Context context;
-    private ComposerApiClient mockComposerApiClient;
-    private StatusesService mockStatusesService;
-    private ArgumentCaptor<Callback> callbackCaptor;
-    private MediaService mockMediaService;
+    private UploadPipeline mockPipeline;
     private TweetUploadService.DependencyProvider mockDependencyProvider;
     private TweetUploadService service;
 
     @Before
     public void setUp() throws Exception {
         context = RuntimeEnvironment.application;
-        mockMediaService = mock(MediaService.class);
-        mockStatusesService = mock(StatusesService.class);
-        callbackCaptor = ArgumentCaptor.forClass(Callback.class);
-
-        mockComposerApiClient = mock(ComposerApiClient.class);
-        when(mockComposerApiClient.getComposerStatusesService()).thenReturn(mockStatusesService);
-        when(mockComposerApiClient.getMediaService()).thenReturn(mockMediaService);
-
+        mockPipeline = mock(UploadPipeline.class);
         mockDependencyProvider = mock(TweetUploadService.DependencyProvider.class);
-        when(mockDependencyProvider.getComposerApiClient(any(TwitterSession.class)))
-                .thenReturn(mockComposerApiClient);
+        when(mockDependencyProvider.getExecutor()).thenReturn(mock(Executor.class));
+        when(mockDependencyProvider.getUploadStateStore(any(Context.class)))
+                .thenReturn(mock(UploadStateStore.class));
 
-        when(mockDependencyProvider.getComposerApiClient(any(TwitterSession.class)))
-                .thenReturn(mockComposerApiClient);
         service = spy(new TweetUploadService(mockDependencyProvider));
+        doNothing().when(service).stopSelf(anyInt());
+        service.onCreate();
+        service.pipeline = mockPipeline;
     }
 
     @Test
-    public void testOnHandleIntent() {
-        final TwitterAuthToken mockToken = mock(TwitterAuthToken.class);
-        final Card mockCard = mock(Card.class);
+    public void testOnCreate() {
+        final TweetUploadService service = new TweetUploadService(mockDependencyProvider);
+        service.onCreate();
+        assertNotNull(service.pipeline);
+        verify(mockDependencyProvider).getUploadStateStore(service);
+    }
 
+    @Test
+    public void testOnStartCommand() {
         final Intent intent = new Intent(context, TweetUploadService.class);
-        intent.putExtra(TweetUploadService.EXTRA_USER_TOKEN, mockToken);
-        intent.putExtra(TweetUploadService.EXTRA_TWEET_TEXT, EXPECTED_TWEET_TEXT);
-        intent.putExtra(TweetUploadService.EXTRA_TWEET_CARD, mockCard);
-        service.onHandleIntent(intent);
-
-        assertEquals(service.twitterSession.getAuthToken(), mockToken);
-        assertEquals(service.tweetText, EXPECTED_TWEET_TEXT);
-        assertEquals(service.tweetCard, mockCard);
-        verify(service).uploadTweet(any(TwitterSession.class), eq(EXPECTED_TWEET_TEXT));
+        final int result = service.onStartCommand(intent, 0, TEST_START_ID);
+
+        assertEquals(Service.START_REDELIVER_INTENT, result);
+        assertEquals(TEST_START_ID, service.lastStartId);
+        verify(mockPipeline).enqueue(intent);
     }
 
     @Test
-    public void testOnHandleIntent_withAppCard() {
-        final TwitterAuthToken mockToken = mock(TwitterAuthToken.class);
-        final Card appCard = new Card.AppCardBuilder(context).imageUri(mock(Uri.class)).build();
+    public void testOnStartCommand_nullIntent() {
+        when(mockPipeline.isIdle()).thenReturn(true);
+        service.onStartCommand(null, 0, TEST_START_ID);
 
-        final Intent intent = new Intent(context, TweetUploadService.class);
-        intent.putExtra(TweetUploadService.EXTRA_USER_TOKEN, mockToken);
-        intent.putExtra(TweetUploadService.EXTRA_TWEET_TEXT, EXPECTED_TWEET_TEXT);
-        intent.putExtra(TweetUploadService.EXTRA_TWEET_CARD, appCard);
-        service.onHandleIntent(intent);
-
-        assertEquals(service.twitterSession.getAuthToken(), mockToken);
-        assertEquals(service.tweetText, EXPECTED_TWEET_TEXT);
-        assertEquals(service.tweetCard, appCard);
-        verify(service).uploadAppCardTweet(any(TwitterSession.class), eq(EXPECTED_TWEET_TEXT),
-                eq(appCard));
+        verify(mockPipeline, never()).enqueue(any(Intent.class));
+        verify(service).stopSelf(TEST_START_ID);
     }
 
     @Test
-    public void testUploadTweet_success() {
-        service.uploadTweet(mock(TwitterSession.class), EXPECTED_TWEET_TEXT);
-        verify(mockStatusesService).update(eq(EXPECTED_TWEET_TEXT), isNull(String.class),
-                callbackCaptor.capture());
-        final Tweet tweet =  new TweetBuilder().setId(123L).build();
-        callbackCaptor.getValue().success(new Result<>(tweet, null));
-        verify(service).sendSuccessBroadcast(eq(123L));
-        verify(service).stopSelf();
+    public void testStopIfIdle() {
+        service.lastStartId = TEST_START_ID;
+        when(mockPipeline.isIdle()).thenReturn(true);
+        service.stopIfIdle();
+        verify(service).stopSelf(TEST_START_ID);
+    }
+
+    @Test
+    public void testStopIfIdle_uploadsRunning() {
+        when(mockPipeline.isIdle()).thenReturn(false);
+        service.stopIfIdle();
+        verify(service, never()).stopSelf(anyInt());
+    }
+
+    @Test
+    public void testPipelineListener_onSuccess() {
+        service.new PipelineListener().onSuccess(mock(Intent.class), TEST_TWEET_ID);
+        verify(service).sendSuccessBroadcast(TEST_TWEET_ID);
+    }
+
+    @Test
+    public void testPipelineListener_onFailure() {
+        final Intent mockIntent = mock(Intent.class);
+        service.new PipelineListener().onFailure(mockIntent, mock(TwitterException.class));
+        verify(service).sendFailureBroadcast(mockIntent);
+        verify(service, never()).sendSuccessBroadcast(anyLong());
     }
 
     @Test
-    public void testUploadTweet_failure() {
-        service.uploadTweet(mock(TwitterSession.class), EXPECTED_TWEET_TEXT);
-        verify(mockStatusesService).update(eq(EXPECTED_TWEET_TEXT), isNull(String.class),
-                callbackCaptor.capture());
-        callbackCaptor.getValue().failure(mock(TwitterException.class));
-        verify(service).sendFailureBroadcast(any(Intent.class));
-        verify(service).stopSelf();
+    public void testPipelineListener_onIdle() {
+        service.lastStartId = TEST_START_ID;
+        when(mockPipeline.isIdle()).thenReturn(true);
+        service.new PipelineListener().onIdle();
+        verify(service).stopSelf(TEST_START_ID);
     }
 
     @Test
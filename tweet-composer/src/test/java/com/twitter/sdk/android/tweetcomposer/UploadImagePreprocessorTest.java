@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class UploadImagePreprocessorTest {
+    private static final byte[] SOI = bytes(0xFF, 0xD8);
+    private static final byte[] APP0_JFIF = bytes(0xFF, 0xE0, 0x00, 0x07, 'J', 'F', 'I', 'F', 0);
+    private static final byte[] APP1_EXIF = bytes(0xFF, 0xE1, 0x00, 0x08, 'E', 'x', 'i', 'f', 0, 0);
+    private static final byte[] APP2_ICC = bytes(0xFF, 0xE2, 0x00, 0x04, 1, 2);
+    private static final byte[] APP13_IPTC = bytes(0xFF, 0xED, 0x00, 0x04, 3, 4);
+    private static final byte[] COM = bytes(0xFF, 0xFE, 0x00, 0x05, 'g', 'p', 's');
+    private static final byte[] DQT = bytes(0xFF, 0xDB, 0x00, 0x04, 5, 6);
+    // start of scan, scan data and end of image
+    private static final byte[] SCAN = bytes(0xFF, 0xDA, 0x00, 0x02, 7, 0xFF, 0xE1, 8, 0xFF, 0xD9);
+    private static final int TEST_MAX_DIMENSION = 2048;
+    private static final long TEST_MAX_BYTES = 64 * 1024 * 1024;
+
+    private File outputDir;
+    private File image;
+    private UploadImagePreprocessor preprocessor;
+
+    @Before
+    public void setUp() throws Exception {
+        final File cacheDir = RuntimeEnvironment.application.getCacheDir();
+        outputDir = new File(cacheDir, UploadImagePreprocessor.DIRECTORY_NAME);
+        image = new File(cacheDir, "image.jpg");
+        writeFile(image, "image");
+        preprocessor = new UploadImagePreprocessor(outputDir, TEST_MAX_BYTES);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        image.delete();
+        final File[] files = outputDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testCalculateSampleSize() {
+        assertEquals(1, UploadImagePreprocessor.calculateSampleSize(1024, 768,
+                TEST_MAX_DIMENSION, TEST_MAX_BYTES));
+        assertEquals(1, UploadImagePreprocessor.calculateSampleSize(4000, 3000,
+                TEST_MAX_DIMENSION, TEST_MAX_BYTES));
+        assertEquals(2, UploadImagePreprocessor.calculateSampleSize(4096, 3072,
+                TEST_MAX_DIMENSION, TEST_MAX_BYTES));
+        assertEquals(2, UploadImagePreprocessor.calculateSampleSize(3000, 5000,
+                TEST_MAX_DIMENSION, TEST_MAX_BYTES));
+    }
+
+    @Test
+    public void testCalculateSampleSize_boundedByMemory() {
+        // 4000x3000 RGB_565 needs 24MB, 2000x1500 needs 6MB
+        assertEquals(2, UploadImagePreprocessor.calculateSampleSize(4000, 3000,
+                TEST_MAX_DIMENSION, 8 * 1024 * 1024));
+    }
+
+    @Test
+    public void testCalculateScale() {
+        assertEquals(1f, UploadImagePreprocessor.calculateScale(1024, 768, TEST_MAX_DIMENSION),
+                0f);
+        assertEquals(0.5f, UploadImagePreprocessor.calculateScale(3072, 4096,
+                TEST_MAX_DIMENSION), 0f);
+    }
+
+    @Test
+    public void testCanUploadUnchanged() {
+        assertTrue(UploadImagePreprocessor.canSkipRecompression(2048, 1536,
+                UploadImagePreprocessor.TARGET_BYTES, ExifInterface.ORIENTATION_NORMAL));
+        assertTrue(UploadImagePreprocessor.canSkipRecompression(1024, 768, 1024,
+                ExifInterface.ORIENTATION_UNDEFINED));
+    }
+
+    @Test
+    public void testCanUploadUnchanged_tooLarge() {
+        assertFalse(UploadImagePreprocessor.canSkipRecompression(2049, 1536, 1024,
+                ExifInterface.ORIENTATION_NORMAL));
+        assertFalse(UploadImagePreprocessor.canSkipRecompression(1536, 2049, 1024,
+                ExifInterface.ORIENTATION_NORMAL));
+        assertFalse(UploadImagePreprocessor.canSkipRecompression(1024, 768,
+                UploadImagePreprocessor.TARGET_BYTES + 1, ExifInterface.ORIENTATION_NORMAL));
+    }
+
+    @Test
+    public void testCanUploadUnchanged_rotated() {
+        assertFalse(UploadImagePreprocessor.canSkipRecompression(1024, 768, 1024,
+                ExifInterface.ORIENTATION_ROTATE_90));
+        assertFalse(UploadImagePreprocessor.canSkipRecompression(1024, 768, 1024,
+                ExifInterface.ORIENTATION_FLIP_HORIZONTAL));
+    }
+
+    @Test
+    public void testGetOrientationMatrix_upright() {
+        assertOrientationMatrix(ExifInterface.ORIENTATION_NORMAL, null, null);
+        assertOrientationMatrix(ExifInterface.ORIENTATION_UNDEFINED, null, null);
+    }
+
+    @Test
+    public void testGetOrientationMatrix_rotated() {
+        assertOrientationMatrix(ExifInterface.ORIENTATION_ROTATE_90, "rotate", "90.0");
+        assertOrientationMatrix(ExifInterface.ORIENTATION_ROTATE_180, "rotate", "180.0");
+        assertOrientationMatrix(ExifInterface.ORIENTATION_ROTATE_270, "rotate", "-90.0");
+    }
+
+    @Test
+    public void testGetOrientationMatrix_flipped() {
+        assertOrientationMatrix(ExifInterface.ORIENTATION_FLIP_HORIZONTAL, "scale", "-1.0 1.0");
+        assertOrientationMatrix(ExifInterface.ORIENTATION_FLIP_VERTICAL, "scale", "1.0 -1.0");
+    }
+
+    @Test
+    public void testGetOrientationMatrix_rotatedAndFlipped() {
+        assertOrientationMatrix(ExifInterface.ORIENTATION_TRANSPOSE, "rotate", "90.0",
+                "scale -1.0 1.0");
+        assertOrientationMatrix(ExifInterface.ORIENTATION_TRANSVERSE, "rotate", "-90.0",
+                "scale -1.0 1.0");
+    }
+
+    @Test
+    public void testWrite_defaultQuality() throws IOException {
+        final TestPreprocessor testPreprocessor = new TestPreprocessor(
+                UploadImagePreprocessor.TARGET_BYTES);
+        final File output = testPreprocessor.getOutputFile(image);
+        testPreprocessor.write(createBitmap(), output);
+
+        assertEquals(Collections.singletonList(UploadImagePreprocessor.DEFAULT_QUALITY),
+                testPreprocessor.qualities);
+        assertEquals(UploadImagePreprocessor.TARGET_BYTES, output.length());
+    }
+
+    @Test
+    public void testWrite_lowersQualityUntilTargetSize() throws IOException {
+        // images compressed at quality 65 and lower fit the target size
+        final TestPreprocessor testPreprocessor = new TestPreprocessor(
+                UploadImagePreprocessor.TARGET_BYTES) {
+            @Override
+            int getCompressedSize(int quality) {
+                return quality > 65 ? UploadImagePreprocessor.TARGET_BYTES + 1
+                        : UploadImagePreprocessor.TARGET_BYTES;
+            }
+        };
+        final File output = testPreprocessor.getOutputFile(image);
+        testPreprocessor.write(createBitmap(), output);
+
+        assertEquals(Arrays.asList(85, 75, 65), testPreprocessor.qualities);
+        assertEquals(UploadImagePreprocessor.TARGET_BYTES, output.length());
+        assertFalse(new File(output.getPath() + ".part").exists());
+    }
+
+    @Test
+    public void testWrite_stopsAtMinQuality() throws IOException {
+        final TestPreprocessor testPreprocessor = new TestPreprocessor(
+                UploadImagePreprocessor.TARGET_BYTES + 1);
+        final File output = testPreprocessor.getOutputFile(image);
+        testPreprocessor.write(createBitmap(), output);
+
+        assertEquals(Arrays.asList(85, 75, 65, UploadImagePreprocessor.MIN_QUALITY),
+                testPreprocessor.qualities);
+        assertEquals(UploadImagePreprocessor.TARGET_BYTES + 1, output.length());
+    }
+
+    @Test
+    public void testStripMetadata() {
+        final byte[] jpeg = concat(SOI, APP0_JFIF, APP1_EXIF, APP2_ICC, APP13_IPTC, COM, DQT,
+                SCAN);
+        assertArrayEquals(concat(SOI, APP0_JFIF, APP2_ICC, DQT, SCAN),
+                UploadImagePreprocessor.stripMetadata(jpeg));
+    }
+
+    @Test
+    public void testStripMetadata_withoutMetadata() {
+        final byte[] jpeg = concat(SOI, APP0_JFIF, DQT, SCAN);
+        assertArrayEquals(jpeg, UploadImagePreprocessor.stripMetadata(jpeg));
+    }
+
+    @Test
+    public void testStripMetadata_fillBytes() {
+        final byte[] jpeg = concat(SOI, bytes(0xFF), APP1_EXIF, bytes(0xFF), DQT, SCAN);
+        // fill bytes are optional padding and are dropped
+        assertArrayEquals(concat(SOI, DQT, SCAN),
+                UploadImagePreprocessor.stripMetadata(jpeg));
+    }
+
+    @Test
+    public void testStripMetadata_notJpeg() {
+        assertNull(UploadImagePreprocessor.stripMetadata("image".getBytes()));
+        assertNull(UploadImagePreprocessor.stripMetadata(concat(bytes(0xFF, 0xD8, 0, 0), DQT)));
+    }
+
+    @Test
+    public void testStripMetadata_truncated() {
+        final byte[] jpeg = concat(SOI, APP0_JFIF, APP1_EXIF);
+        assertNull(UploadImagePreprocessor.stripMetadata(
+                Arrays.copyOf(jpeg, jpeg.length - 1)));
+        // no image data
+        assertNull(UploadImagePreprocessor.stripMetadata(jpeg));
+        assertNull(UploadImagePreprocessor.stripMetadata(concat(SOI, APP0_JFIF,
+                bytes(0xFF, 0xD9, 0, 0))));
+    }
+
+    @Test
+    public void testMoveIntoPlace() throws IOException {
+        final File output = preprocessor.getOutputFile(image);
+        final byte[] jpeg = concat(SOI, DQT, SCAN);
+        preprocessor.moveIntoPlace(jpeg, output);
+
+        assertArrayEquals(jpeg, UploadImagePreprocessor.readFile(output));
+        assertFalse(new File(output.getPath() + ".part").exists());
+    }
+
+    @Test
+    public void testProcess_notJpeg() {
+        assertSame(image, preprocessor.process(image, "image/png"));
+        assertSame(image, preprocessor.process(image, "image/gif"));
+    }
+
+    @Test
+    public void testProcess_reusesProcessedImage() throws IOException {
+        final File output = preprocessor.getOutputFile(image);
+        outputDir.mkdirs();
+        writeFile(output, "processed");
+
+        assertEquals(output, preprocessor.process(image, UploadImagePreprocessor.MIME_TYPE_JPEG));
+    }
+
+    @Test
+    public void testGetOutputFile() throws IOException {
+        final File output = preprocessor.getOutputFile(image);
+        assertEquals(outputDir, output.getParentFile());
+        assertEquals(output, preprocessor.getOutputFile(image));
+
+        writeFile(image, "changed image");
+        assertNotEquals(output, preprocessor.getOutputFile(image));
+    }
+
+    @Test
+    public void testRelease() throws IOException {
+        final File output = preprocessor.getOutputFile(image);
+        outputDir.mkdirs();
+        writeFile(output, "processed");
+
+        preprocessor.release(image, output);
+        assertFalse(output.exists());
+        assertTrue(image.exists());
+    }
+
+    @Test
+    public void testRelease_original() {
+        preprocessor.release(image, image);
+        assertTrue(image.exists());
+    }
+
+    private static void assertOrientationMatrix(int orientation, String setOperation,
+            String setValue, String... postOperations) {
+        final Matrix matrix = UploadImagePreprocessor.getOrientationMatrix(orientation);
+        final ShadowMatrix shadowMatrix = shadowOf(matrix);
+        if (setOperation == null) {
+            assertTrue(shadowMatrix.getSetOperations().isEmpty());
+        } else {
+            assertEquals(1, shadowMatrix.getSetOperations().size());
+            assertEquals(setValue, shadowMatrix.getSetOperations().get(setOperation));
+        }
+        assertEquals(Arrays.asList(postOperations), shadowMatrix.getPostOperations());
+    }
+
+    private static byte[] bytes(int... values) {
+        final byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] array : arrays) {
+            out.write(array, 0, array.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static Bitmap createBitmap() {
+        return Bitmap.createBitmap(10, 10, Bitmap.Config.RGB_565);
+    }
+
+    private static void writeFile(File file, String content) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes());
+        } finally {
+            out.close();
+        }
+    }
+
+    /*
+     * Records the qualities images are compressed at, writing compressed images of a given size.
+     */
+    class TestPreprocessor extends UploadImagePreprocessor {
+        final List<Integer> qualities = new ArrayList<>();
+        private final int compressedSize;
+
+        TestPreprocessor(int compressedSize) {
+            super(outputDir, TEST_MAX_BYTES);
+            this.compressedSize = compressedSize;
+        }
+
+        int getCompressedSize(int quality) {
+            return compressedSize;
+        }
+
+        @Override
+        void compress(Bitmap bitmap, int quality, OutputStream out) {
+            qualities.add(quality);
+            try {
+                out.write(new byte[getCompressedSize(quality)]);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
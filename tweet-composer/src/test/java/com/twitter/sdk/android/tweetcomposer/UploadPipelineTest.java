@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.Result;
+import com.twitter.sdk.android.core.TwitterAuthToken;
+import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.TwitterSession;
+import com.twitter.sdk.android.core.internal.ChunkedUploader;
+import com.twitter.sdk.android.core.models.Media;
+import com.twitter.sdk.android.core.models.Tweet;
+import com.twitter.sdk.android.core.models.TweetBuilder;
+import com.twitter.sdk.android.core.services.MediaService;
+import com.twitter.sdk.android.tweetcomposer.internal.CardCreate;
+import com.twitter.sdk.android.tweetcomposer.internal.CardData;
+import com.twitter.sdk.android.tweetcomposer.internal.CardService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+import io.fabric.sdk.android.services.persistence.PreferenceStoreImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class UploadPipelineTest {
+    private static final String TEST_TWEET_TEXT = "tweet text";
+    private static final String TEST_UPLOAD_ID = "upload id";
+    private static final String TEST_IMAGE_PATH = "/sdcard/image.png";
+    private static final String TEST_ADVERTISING_ID = "advertising id";
+    private static final String TEST_CARD_URI = "card://123";
+    private static final long TEST_MEDIA_ID = 456L;
+    private static final long TEST_TWEET_ID = 789L;
+
+    private Context context;
+    private StatusesService mockStatusesService;
+    private CardService mockCardService;
+    private ChunkedUploader mockChunkedUploader;
+    private UploadPipeline.Listener mockListener;
+    private TweetUploadService.DependencyProvider mockDependencyProvider;
+    private UploadStateStore stateStore;
+    private UploadPipeline pipeline;
+
+    @Before
+    public void setUp() throws Exception {
+        context = RuntimeEnvironment.application;
+        mockStatusesService = mock(StatusesService.class);
+        mockCardService = mock(CardService.class);
+        mockChunkedUploader = mock(ChunkedUploader.class);
+        mockListener = mock(UploadPipeline.Listener.class);
+
+        final ComposerApiClient mockComposerApiClient = mock(ComposerApiClient.class);
+        when(mockComposerApiClient.getComposerStatusesService()).thenReturn(mockStatusesService);
+        when(mockComposerApiClient.getCardService()).thenReturn(mockCardService);
+        when(mockComposerApiClient.getMediaService()).thenReturn(mock(MediaService.class));
+
+        final UploadImagePreprocessor mockImagePreprocessor = mock(UploadImagePreprocessor.class);
+        when(mockImagePreprocessor.process(any(File.class), any(String.class)))
+                .then(returnsFirstArg());
+
+        mockDependencyProvider = mock(TweetUploadService.DependencyProvider.class);
+        when(mockDependencyProvider.getComposerApiClient(any(TwitterSession.class)))
+                .thenReturn(mockComposerApiClient);
+        when(mockDependencyProvider.getAdvertisingId()).thenReturn(TEST_ADVERTISING_ID);
+        when(mockDependencyProvider.getImagePreprocessor(any(Context.class)))
+                .thenReturn(mockImagePreprocessor);
+        when(mockDependencyProvider.getChunkedUploader(any(MediaService.class),
+                any(PersistenceStrategy.class))).thenReturn(mockChunkedUploader);
+
+        stateStore = new UploadStateStore(new PreferenceStoreImpl(context, "testUpload"));
+        stateStore.clear(TEST_UPLOAD_ID);
+        pipeline = createPipeline(UploadPipeline.DEFAULT_MAX_CONCURRENT_UPLOADS);
+    }
+
+    @Test
+    public void testEnqueue_tweet() {
+        final Intent intent = createIntent(null);
+        pipeline.enqueue(intent);
+
+        succeedTweet(null);
+        verify(mockListener).onSuccess(intent, TEST_TWEET_ID);
+        verify(mockListener).onIdle();
+        assertTrue(pipeline.isIdle());
+        final UploadState state = stateStore.restore(TEST_UPLOAD_ID, System.currentTimeMillis());
+        assertTrue(state.isPosted());
+        assertEquals(TEST_TWEET_ID, state.tweetId);
+    }
+
+    @Test
+    public void testEnqueue_appCard() {
+        final Intent intent = createIntent(createAppCard());
+        pipeline.enqueue(intent);
+
+        succeedMediaUpload();
+        final CardData cardData = succeedCardCreate();
+        assertEquals(CardDataFactory.getCardMedia(TEST_MEDIA_ID), cardData.image);
+        assertEquals(TEST_ADVERTISING_ID, cardData.deviceId);
+
+        succeedTweet(TEST_CARD_URI);
+        verify(mockListener).onSuccess(intent, TEST_TWEET_ID);
+        assertTrue(stateStore.restore(TEST_UPLOAD_ID, System.currentTimeMillis()).isPosted());
+        assertNull(stateStore.getSessionStore(TEST_UPLOAD_ID).restore());
+    }
+
+    @Test
+    public void testEnqueue_appCardPreparedDuringMediaUpload() {
+        pipeline.enqueue(createIntent(createAppCard()));
+
+        // the card data is ready before the media upload completes
+        verify(mockDependencyProvider).getAdvertisingId();
+        verify(mockCardService, never()).create(any(CardData.class), any(Callback.class));
+        succeedMediaUpload();
+        verify(mockCardService).create(any(CardData.class), any(Callback.class));
+    }
+
+    @Test
+    public void testEnqueue_cardCreateFailureKeepsMedia() {
+        final Intent intent = createIntent(createAppCard());
+        pipeline.enqueue(intent);
+        succeedMediaUpload();
+
+        final ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCardService).create(any(CardData.class), callbackCaptor.capture());
+        final TwitterException exception = new TwitterException("");
+        callbackCaptor.getValue().failure(exception);
+
+        verify(mockListener).onFailure(intent, exception);
+        verify(mockListener).onIdle();
+        final UploadState state = stateStore.restore(TEST_UPLOAD_ID, System.currentTimeMillis());
+        assertEquals(TEST_MEDIA_ID, state.mediaId);
+        assertNull(state.cardUri);
+    }
+
+    @Test
+    public void testEnqueue_resumesAfterMediaUpload() {
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, null,
+                System.currentTimeMillis()));
+        pipeline.enqueue(createIntent(createAppCard()));
+
+        verify(mockChunkedUploader, never()).upload(any(File.class), any(String.class),
+                any(Callback.class));
+        final CardData cardData = succeedCardCreate();
+        assertEquals(CardDataFactory.getCardMedia(TEST_MEDIA_ID), cardData.image);
+    }
+
+    @Test
+    public void testEnqueue_resumesAfterCardCreate() {
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, TEST_CARD_URI,
+                System.currentTimeMillis()));
+        final Intent intent = createIntent(createAppCard());
+        pipeline.enqueue(intent);
+
+        verify(mockCardService, never()).create(any(CardData.class), any(Callback.class));
+        succeedTweet(TEST_CARD_URI);
+        verify(mockListener).onSuccess(intent, TEST_TWEET_ID);
+    }
+
+    @Test
+    public void testEnqueue_redeliveredAfterPost() {
+        final Intent intent = createIntent(createAppCard());
+        pipeline.enqueue(intent);
+        succeedMediaUpload();
+        succeedCardCreate();
+        succeedTweet(TEST_CARD_URI);
+
+        // the process died before the service stopped, the intent is redelivered
+        pipeline = createPipeline(UploadPipeline.DEFAULT_MAX_CONCURRENT_UPLOADS);
+        pipeline.enqueue(intent);
+
+        verify(mockChunkedUploader, times(1)).upload(any(File.class), any(String.class),
+                any(Callback.class));
+        verify(mockCardService, times(1)).create(any(CardData.class), any(Callback.class));
+        verify(mockStatusesService, times(1)).update(any(String.class), any(String.class),
+                any(Callback.class));
+        verify(mockListener, times(1)).onSuccess(intent, TEST_TWEET_ID);
+        verify(mockListener, never()).onFailure(any(Intent.class), any(TwitterException.class));
+        verify(mockListener, times(2)).onIdle();
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void testEnqueue_concurrencyCap() {
+        pipeline = createPipeline(1);
+        final Intent first = createIntent(null);
+        final Intent second = createIntent(null);
+        pipeline.enqueue(first);
+        pipeline.enqueue(second);
+
+        assertEquals(1, pipeline.running);
+        assertEquals(1, pipeline.pending.size());
+        final ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(mockStatusesService).update(eq(TEST_TWEET_TEXT), isNull(String.class),
+                callbackCaptor.capture());
+
+        callbackCaptor.getValue().success(new Result<>(createTweet(), null));
+        verify(mockListener).onSuccess(first, TEST_TWEET_ID);
+        verify(mockListener, never()).onIdle();
+        verify(mockStatusesService, times(2)).update(eq(TEST_TWEET_TEXT), isNull(String.class),
+                any(Callback.class));
+        assertFalse(pipeline.isIdle());
+    }
+
+    @Test
+    public void testEnqueue_startThrows() {
+        when(mockDependencyProvider.getComposerApiClient(any(TwitterSession.class)))
+                .thenThrow(new IllegalStateException());
+        final Intent intent = createIntent(null);
+        pipeline.enqueue(intent);
+
+        verify(mockListener).onFailure(eq(intent), any(TwitterException.class));
+        verify(mockListener).onIdle();
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void testEnqueue_stepThrows() {
+        final UploadImagePreprocessor mockImagePreprocessor = mock(UploadImagePreprocessor.class);
+        when(mockImagePreprocessor.process(any(File.class), any(String.class)))
+                .thenThrow(new SecurityException());
+        when(mockDependencyProvider.getImagePreprocessor(any(Context.class)))
+                .thenReturn(mockImagePreprocessor);
+        final Intent intent = createIntent(createAppCard());
+        pipeline.enqueue(intent);
+
+        final ArgumentCaptor<TwitterException> exceptionCaptor =
+                ArgumentCaptor.forClass(TwitterException.class);
+        verify(mockListener).onFailure(eq(intent), exceptionCaptor.capture());
+        assertTrue(exceptionCaptor.getValue().getCause() instanceof SecurityException);
+        verify(mockListener).onIdle();
+        verify(mockChunkedUploader, never()).upload(any(File.class), any(String.class),
+                any(Callback.class));
+        verify(mockCardService, never()).create(any(CardData.class), any(Callback.class));
+        assertTrue(pipeline.isIdle());
+    }
+
+    @Test
+    public void testFail_reportsOnce() {
+        final Intent intent = createIntent(null);
+        final UploadPipeline.UploadTask task = pipeline.new UploadTask(intent);
+        pipeline.running = 1;
+        final TwitterException exception = new TwitterException("");
+        task.fail(exception);
+        task.fail(exception);
+
+        verify(mockListener, times(1)).onFailure(intent, exception);
+        verify(mockListener, times(1)).onIdle();
+        assertEquals(0, pipeline.running);
+    }
+
+    private UploadPipeline createPipeline(int maxConcurrentUploads) {
+        final Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                runnable.run();
+            }
+        };
+        return new UploadPipeline(context, mockDependencyProvider, stateStore, executor,
+                maxConcurrentUploads, mockListener);
+    }
+
+    private Intent createIntent(Card card) {
+        final Intent intent = new Intent(context, TweetUploadService.class);
+        intent.putExtra(TweetUploadService.EXTRA_USER_TOKEN, mock(TwitterAuthToken.class));
+        intent.putExtra(TweetUploadService.EXTRA_TWEET_TEXT, TEST_TWEET_TEXT);
+        intent.putExtra(TweetUploadService.EXTRA_TWEET_CARD, card);
+        intent.putExtra(TweetUploadService.EXTRA_UPLOAD_ID, TEST_UPLOAD_ID);
+        return intent;
+    }
+
+    private Card createAppCard() {
+        return new Card.AppCardBuilder(context)
+                .imageUri(Uri.parse("file://" + TEST_IMAGE_PATH)).build();
+    }
+
+    private static Tweet createTweet() {
+        return new TweetBuilder().setId(TEST_TWEET_ID).build();
+    }
+
+    private void succeedMediaUpload() {
+        final ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(mockChunkedUploader).upload(eq(new File(TEST_IMAGE_PATH)), any(String.class),
+                callbackCaptor.capture());
+        final Media media = new Media(TEST_MEDIA_ID, Long.toString(TEST_MEDIA_ID), 0, null);
+        callbackCaptor.getValue().success(new Result<>(media, null));
+    }
+
+    private CardData succeedCardCreate() {
+        final ArgumentCaptor<CardData> cardDataCaptor = ArgumentCaptor.forClass(CardData.class);
+        final ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(mockCardService).create(cardDataCaptor.capture(), callbackCaptor.capture());
+        callbackCaptor.getValue().success(
+                new Result<>(new CardCreate(TEST_CARD_URI, null), null));
+        return cardDataCaptor.getValue();
+    }
+
+    private void succeedTweet(String cardUri) {
+        final ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(mockStatusesService).update(eq(TEST_TWEET_TEXT), eq(cardUri),
+                callbackCaptor.capture());
+        callbackCaptor.getValue().success(new Result<>(createTweet(), null));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetcomposer;
+
+import com.twitter.sdk.android.core.internal.UploadSession;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+import io.fabric.sdk.android.services.persistence.PreferenceStore;
+import io.fabric.sdk.android.services.persistence.PreferenceStoreImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class UploadStateStoreTest {
+    private static final String TEST_UPLOAD_ID = "upload id";
+    private static final long TEST_MEDIA_ID = 456L;
+    private static final String TEST_CARD_URI = "card://123";
+    private static final long TEST_TWEET_ID = 789L;
+    private static final long TEST_TIME = 1000000L;
+
+    private PreferenceStore preferenceStore;
+    private UploadStateStore stateStore;
+
+    @Before
+    public void setUp() throws Exception {
+        preferenceStore = new PreferenceStoreImpl(RuntimeEnvironment.application,
+                "testUploadState");
+        preferenceStore.save(preferenceStore.edit().clear());
+        stateStore = new UploadStateStore(preferenceStore);
+    }
+
+    @Test
+    public void testSaveAndRestore() {
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, TEST_CARD_URI, TEST_TIME));
+
+        final UploadState state = stateStore.restore(TEST_UPLOAD_ID, TEST_TIME);
+        assertEquals(TEST_UPLOAD_ID, state.uploadId);
+        assertEquals(TEST_MEDIA_ID, state.mediaId);
+        assertEquals(TEST_CARD_URI, state.cardUri);
+        assertTrue(state.hasMedia());
+        assertTrue(state.hasCard());
+    }
+
+    @Test
+    public void testSaveAndRestore_posted() {
+        final UploadState state = new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, TEST_CARD_URI,
+                TEST_TIME);
+        assertFalse(state.isPosted());
+        stateStore.save(state.withTweetId(TEST_TWEET_ID, TEST_TIME));
+
+        final UploadState restored = stateStore.restore(TEST_UPLOAD_ID, TEST_TIME);
+        assertTrue(restored.isPosted());
+        assertEquals(TEST_TWEET_ID, restored.tweetId);
+        assertEquals(TEST_CARD_URI, restored.cardUri);
+    }
+
+    @Test
+    public void testClearSession() {
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, null, TEST_TIME));
+        final PersistenceStrategy<UploadSession> sessionStore =
+                stateStore.getSessionStore(TEST_UPLOAD_ID);
+        sessionStore.save(new UploadSession(TEST_MEDIA_ID, "/sdcard/image.jpg", 10, 0, 1,
+                TEST_TIME));
+
+        stateStore.clearSession(TEST_UPLOAD_ID);
+        assertNull(sessionStore.restore());
+        assertNotNull(stateStore.restore(TEST_UPLOAD_ID, TEST_TIME));
+    }
+
+    @Test
+    public void testRestore_missing() {
+        assertNull(stateStore.restore(TEST_UPLOAD_ID, TEST_TIME));
+    }
+
+    @Test
+    public void testRestore_stale() {
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, null, TEST_TIME));
+
+        assertNotNull(stateStore.restore(TEST_UPLOAD_ID,
+                TEST_TIME + UploadStateStore.MAX_STATE_AGE_MILLIS));
+        assertNull(stateStore.restore(TEST_UPLOAD_ID,
+                TEST_TIME + UploadStateStore.MAX_STATE_AGE_MILLIS + 1));
+    }
+
+    @Test
+    public void testClear() {
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, null, TEST_TIME));
+        final PersistenceStrategy<UploadSession> sessionStore =
+                stateStore.getSessionStore(TEST_UPLOAD_ID);
+        sessionStore.save(new UploadSession(TEST_MEDIA_ID, "/sdcard/image.jpg", 10, 0, 1,
+                TEST_TIME));
+        assertNotNull(sessionStore.restore());
+
+        stateStore.clear(TEST_UPLOAD_ID);
+        assertNull(stateStore.restore(TEST_UPLOAD_ID, TEST_TIME));
+        assertNull(sessionStore.restore());
+    }
+
+    @Test
+    public void testClearStale() {
+        final long staleTime = TEST_TIME - UploadStateStore.MAX_STATE_AGE_MILLIS - 1;
+        stateStore.save(new UploadState("stale", TEST_MEDIA_ID, null, staleTime));
+        stateStore.save(new UploadState(TEST_UPLOAD_ID, TEST_MEDIA_ID, null, TEST_TIME));
+        stateStore.getSessionStore("stale").save(new UploadSession(TEST_MEDIA_ID,
+                "/sdcard/image.jpg", 10, 0, 1, TEST_TIME));
+
+        stateStore.clearStale(TEST_TIME);
+        assertFalse(preferenceStore.get().contains(UploadStateStore.getStateKey("stale")));
+        assertFalse(preferenceStore.get().contains(UploadStateStore.getSessionKey("stale")));
+        assertNotNull(stateStore.restore(TEST_UPLOAD_ID, TEST_TIME));
+    }
+}
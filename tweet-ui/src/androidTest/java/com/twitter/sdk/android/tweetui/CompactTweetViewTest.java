@@ -18,12 +18,16 @@
 package com.twitter.sdk.android.tweetui;
 
 import android.content.Context;
+import android.widget.ImageView;
 
-import com.squareup.picasso.Picasso;
-import com.squareup.picasso.RequestCreator;
-
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.ImageRequest;
 import com.twitter.sdk.android.core.models.Tweet;
 
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
@@ -94,16 +98,23 @@ public class CompactTweetViewTest extends BaseTweetViewTest {
     }
 
     public void testSetTweetPhoto() {
-        final Picasso mockPicasso = mock(Picasso.class);
-        final RequestCreator mockRequestCreator = mock(RequestCreator.class);
-        MockUtils.mockPicasso(mockPicasso, mockRequestCreator);
-        when(mockDependencyProvider.getImageLoader()).thenReturn(mockPicasso);
+        final ImageLoader mockImageLoader = mock(ImageLoader.class);
+        when(mockDependencyProvider.getImageLoader()).thenReturn(mockImageLoader);
 
-        final CompactTweetView tv = createViewWithMocks(context, TestFixtures.TEST_PHOTO_TWEET,
-                R.style.tw__TweetLightStyle, mockDependencyProvider);
+        createViewWithMocks(context, TestFixtures.TEST_PHOTO_TWEET, R.style.tw__TweetLightStyle,
+                mockDependencyProvider);
         // assert 2 loads, once for profile photo and once for compact tweet photo
-        verify(mockPicasso, times(2)).load(anyString());
-        // assert fit is called once when the compact tweet photo is loaded
-        verify(mockRequestCreator, times(1)).fit();
+        final ArgumentCaptor<ImageRequest> requestCaptor =
+                ArgumentCaptor.forClass(ImageRequest.class);
+        verify(mockImageLoader, times(2)).load(requestCaptor.capture(), any(ImageView.class),
+                any(ImageLoader.Listener.class));
+        // assert the compact tweet photo is resized to the expected media view size, which
+        // prefetching also uses, rather than fit to the measured view
+        final List<ImageRequest> requests = requestCaptor.getAllValues();
+        assertEquals(0, requests.get(0).targetWidth);
+        assertFalse(requests.get(1).fit);
+        assertTrue(requests.get(1).targetWidth > 0);
+        assertTrue(requests.get(1).targetHeight > 0);
+        assertTrue(requests.get(1).centerCrop);
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.Result;
+import com.twitter.sdk.android.core.TwitterApiClient;
+import com.twitter.sdk.android.core.TwitterApiException;
+import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.internal.TwitterApiConstants;
+import com.twitter.sdk.android.core.models.Tweet;
+
+import io.fabric.sdk.android.Logger;
+
+import static org.mockito.Mockito.*;
+
+public class GuestRetryRequestTest extends TweetUiTestCase {
+
+    public void testFailure_guestAuthErrorRetriesOnce() {
+        final Callback<Tweet> developerCallback = mock(Callback.class);
+        final TestGuestRetryRequest request = new TestGuestRetryRequest(guestAuthQueue,
+                developerCallback);
+        final TwitterApiException guestAuthException = mock(TwitterApiException.class);
+        when(guestAuthException.getErrorCode()).thenReturn(
+                TwitterApiConstants.Errors.GUEST_AUTH_ERROR_CODE);
+
+        request.success(new Result<>(mock(TwitterApiClient.class), null));
+        request.callback.failure(guestAuthException);
+        verify(guestAuthQueue).addClientRequest(request);
+        verifyZeroInteractions(developerCallback);
+
+        request.success(new Result<>(mock(TwitterApiClient.class), null));
+        request.callback.failure(guestAuthException);
+        verify(guestAuthQueue, times(1)).addClientRequest(request);
+        verify(developerCallback).failure(guestAuthException);
+    }
+
+    public void testFailure_otherErrorDoesNotRetry() {
+        final Callback<Tweet> developerCallback = mock(Callback.class);
+        final TestGuestRetryRequest request = new TestGuestRetryRequest(guestAuthQueue,
+                developerCallback);
+        final TwitterException exception = mock(TwitterException.class);
+
+        request.success(new Result<>(mock(TwitterApiClient.class), null));
+        request.callback.failure(exception);
+        verifyZeroInteractions(guestAuthQueue);
+        verify(developerCallback).failure(exception);
+    }
+
+    static class TestGuestRetryRequest extends GuestRetryRequest<Tweet> {
+        Callback<Tweet> callback;
+
+        TestGuestRetryRequest(TweetUiAuthRequestQueue guestAuthQueue, Callback<Tweet> cb) {
+            super(guestAuthQueue, cb, mock(Logger.class));
+        }
+
+        @Override
+        void execute(TwitterApiClient client, Callback<Tweet> callback) {
+            this.callback = callback;
+        }
+    }
+}
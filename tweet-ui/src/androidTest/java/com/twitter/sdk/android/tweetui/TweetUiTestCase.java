@@ -20,17 +20,13 @@ package com.twitter.sdk.android.tweetui;
 import android.os.Handler;
 import android.util.Log;
 
-import com.squareup.picasso.Picasso;
-import com.squareup.picasso.RequestCreator;
-import com.twitter.sdk.android.core.Session;
+import com.twitter.sdk.android.core.ImageLoader;
 import com.twitter.sdk.android.core.TwitterApiClient;
 import com.twitter.sdk.android.core.TwitterAuthConfig;
 import com.twitter.sdk.android.core.TwitterCore;
 import com.twitter.sdk.android.core.TwitterCoreTestUtils;
 import com.twitter.sdk.android.core.services.StatusesService;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 import io.fabric.sdk.android.DefaultLogger;
 import io.fabric.sdk.android.Fabric;
 import io.fabric.sdk.android.FabricAndroidTestCase;
@@ -48,12 +44,11 @@ public class TweetUiTestCase extends FabricAndroidTestCase {
     // mocks
     protected TweetUiAuthRequestQueue guestAuthQueue;
     protected TweetUiAuthRequestQueue userAuthQueue;
-    protected Picasso picasso;
+    protected ImageLoader imageLoader;
     private StatusesService statusesService;
     protected TweetScribeClient scribeClient;
     protected Handler mainHandler;
     private TwitterApiClient apiClient;
-    private ConcurrentHashMap<Session, TwitterApiClient> clients;
 
     @Override
     protected void setUp() throws Exception {
@@ -62,7 +57,7 @@ public class TweetUiTestCase extends FabricAndroidTestCase {
 
         FabricTestUtils.resetFabric();
         final TwitterCore twitterCore = TwitterCoreTestUtils.createTwitterCore(
-                new TwitterAuthConfig("", ""), clients);
+                new TwitterAuthConfig("", ""), apiClient);
 
         // Initialize Fabric with mock executor so that kit#doInBackground() will not be called
         // during kit initialization.
@@ -80,7 +75,7 @@ public class TweetUiTestCase extends FabricAndroidTestCase {
         final TweetRepository tweetRepository = new TweetRepository(mainHandler, userAuthQueue,
                 guestAuthQueue);
         tweetUi.setTweetRepository(tweetRepository);
-        tweetUi.setImageLoader(picasso);
+        tweetUi.setImageLoader(imageLoader);
     }
 
     @Override
@@ -94,7 +89,7 @@ public class TweetUiTestCase extends FabricAndroidTestCase {
         mainHandler = mock(Handler.class);
         guestAuthQueue = mock(TestTweetUiAuthRequestQueue.class);
         userAuthQueue = mock(TestTweetUiAuthRequestQueue.class);
-        picasso = MockUtils.mockPicasso(mock(Picasso.class), mock(RequestCreator.class));
+        imageLoader = mock(ImageLoader.class);
 
         statusesService = mock(StatusesService.class);
 
@@ -102,8 +97,5 @@ public class TweetUiTestCase extends FabricAndroidTestCase {
 
         apiClient = mock(TwitterApiClient.class);
         MockUtils.mockStatusesServiceClient(apiClient, statusesService);
-
-        clients = mock(ConcurrentHashMap.class);
-        MockUtils.mockClients(clients, apiClient);
     }
 }
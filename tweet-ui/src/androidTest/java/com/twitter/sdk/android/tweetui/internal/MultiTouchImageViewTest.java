@@ -88,6 +88,82 @@ public class MultiTouchImageViewTest extends FabricAndroidTestCase {
         assertEquals(TEST_BASE_MATRIX, view.baseMatrix);
     }
 
+    public void testSetOnDetailNeededListener_notZoomed() {
+        final TestDetailNeededListener listener = new TestDetailNeededListener();
+        view.setOnDetailNeededListener(listener);
+        view.setImageMatrix();
+
+        assertEquals(0, listener.count);
+    }
+
+    public void testSetOnDetailNeededListener_zoomed() {
+        final TestDetailNeededListener listener = new TestDetailNeededListener();
+        view.setOnDetailNeededListener(listener);
+        view.setScale(1.5f, 50f, 50f);
+        view.setImageMatrix();
+        view.setScale(1.5f, 50f, 50f);
+        view.setImageMatrix();
+
+        assertEquals(1, listener.count);
+    }
+
+    public void testSetOnDetailNeededListener_alreadyZoomed() {
+        final TestDetailNeededListener listener = new TestDetailNeededListener();
+        view.setScale(1.5f, 50f, 50f);
+        view.setOnDetailNeededListener(listener);
+
+        assertEquals(1, listener.count);
+    }
+
+    public void testOnTileDecoded_failedTileNotRequestedAgain() {
+        final TiledImageDecoder decoder = new TiledImageDecoder(null, 2048, 1000, 0);
+        view.setTiledImageDecoder(decoder);
+        final String key = TiledImageDecoder.getTileKey(1, 0, 0);
+        view.pendingTiles.add(key);
+
+        view.onTileDecoded(decoder, key, view.tileGeneration, true, null);
+        view.requestTile(decoder, 1, 0, 0);
+
+        assertTrue(view.failedTiles.contains(key));
+        assertTrue(view.pendingTiles.isEmpty());
+    }
+
+    public void testOnTileDecoded_decodedTileNotRequestedAgain() {
+        final TiledImageDecoder decoder = new TiledImageDecoder(null, 2048, 1000, 0);
+        view.setTiledImageDecoder(decoder);
+        final String key = TiledImageDecoder.getTileKey(1, 0, 0);
+        view.pendingTiles.add(key);
+
+        view.onTileDecoded(decoder, key, view.tileGeneration, true, image);
+        view.requestTile(decoder, 1, 0, 0);
+
+        assertTrue(view.decodedTiles.contains(key));
+        assertTrue(view.failedTiles.isEmpty());
+        assertTrue(view.pendingTiles.isEmpty());
+    }
+
+    public void testOnTileDecoded_skippedTileNotMarkedFailed() {
+        final TiledImageDecoder decoder = new TiledImageDecoder(null, 2048, 1000, 0);
+        view.setTiledImageDecoder(decoder);
+        final String key = TiledImageDecoder.getTileKey(1, 0, 0);
+        view.pendingTiles.add(key);
+
+        view.onTileDecoded(decoder, key, view.tileGeneration - 1, false, null);
+
+        assertTrue(view.pendingTiles.isEmpty());
+        assertTrue(view.failedTiles.isEmpty());
+        assertTrue(view.decodedTiles.isEmpty());
+    }
+
+    static class TestDetailNeededListener implements MultiTouchImageView.OnDetailNeededListener {
+        int count;
+
+        @Override
+        public void onDetailNeeded() {
+            count++;
+        }
+    }
+
     static class MatrixBuilder {
         private final Matrix matrix = new Matrix();
 
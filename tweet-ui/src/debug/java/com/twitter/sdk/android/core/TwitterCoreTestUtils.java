@@ -17,14 +17,21 @@
 
 package com.twitter.sdk.android.core;
 
-import java.util.concurrent.ConcurrentHashMap;
-
 public final class TwitterCoreTestUtils {
 
     private TwitterCoreTestUtils() {}
 
+    /**
+     * @return TwitterCore which returns the given API client for every session.
+     */
     public static TwitterCore createTwitterCore(TwitterAuthConfig authConfig,
-                                     ConcurrentHashMap<Session, TwitterApiClient> clients) {
+                                     final TwitterApiClient apiClient) {
+        final ApiClientCache clients = new ApiClientCache(1) {
+            @Override
+            TwitterApiClient get(Session session) {
+                return apiClient;
+            }
+        };
         return new TwitterCore(authConfig, clients);
     }
 }
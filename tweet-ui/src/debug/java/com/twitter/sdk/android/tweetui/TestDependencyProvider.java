@@ -17,7 +17,7 @@
 
 package com.twitter.sdk.android.tweetui;
 
-import com.squareup.picasso.Picasso;
+import com.twitter.sdk.android.core.ImageLoader;
 
 public class TestDependencyProvider extends BaseTweetView.DependencyProvider {
     @Override
@@ -26,7 +26,7 @@ public class TestDependencyProvider extends BaseTweetView.DependencyProvider {
     }
 
     @Override
-    public Picasso getImageLoader() {
+    public ImageLoader getImageLoader() {
         return super.getImageLoader();
     }
 
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+/**
+ * Estimates download bandwidth from completed media downloads as an exponentially weighted
+ * moving average, so recent network conditions weigh most.
+ */
+class BandwidthMeter {
+    // Downloads smaller than this mostly measure latency rather than bandwidth
+    static final long MIN_SAMPLE_BYTES = 64 * 1024;
+    // Weight of the newest sample in the estimate
+    static final double SAMPLE_WEIGHT = 0.3;
+
+    private long bitrateEstimate;
+
+    /**
+     * @param bytes size of the completed download
+     * @param elapsedMillis duration of the download
+     */
+    synchronized void addSample(long bytes, long elapsedMillis) {
+        if (bytes < MIN_SAMPLE_BYTES || elapsedMillis <= 0) {
+            return;
+        }
+
+        final long bitrate = bytes * 8 * 1000 / elapsedMillis;
+        if (bitrateEstimate == 0) {
+            bitrateEstimate = bitrate;
+        } else {
+            bitrateEstimate = Math.round(SAMPLE_WEIGHT * bitrate
+                    + (1 - SAMPLE_WEIGHT) * bitrateEstimate);
+        }
+    }
+
+    /**
+     * @return the estimated bandwidth in bits per second, or 0 if there are no samples yet
+     */
+    synchronized long getBitrateEstimate() {
+        return bitrateEstimate;
+    }
+}
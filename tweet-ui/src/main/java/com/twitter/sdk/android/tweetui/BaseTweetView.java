@@ -35,19 +35,22 @@ import android.widget.LinearLayout;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
 
-import com.squareup.picasso.Picasso;
 import io.fabric.sdk.android.Fabric;
 
 import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.ImageRequest;
 import com.twitter.sdk.android.core.IntentUtils;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.internal.RequestHandle;
 import com.twitter.sdk.android.core.models.MediaEntity;
 import com.twitter.sdk.android.core.models.Tweet;
 import com.twitter.sdk.android.core.models.TweetBuilder;
 import com.twitter.sdk.android.core.internal.UserUtils;
 import com.twitter.sdk.android.core.models.VideoInfo;
 import com.twitter.sdk.android.tweetui.internal.MediaBadgeView;
+import com.twitter.sdk.android.tweetui.internal.MediaPlayerPool;
 import com.twitter.sdk.android.tweetui.internal.SpanClickHandler;
 import com.twitter.sdk.android.tweetui.internal.TweetMediaUtils;
 import com.twitter.sdk.android.tweetui.internal.TweetMediaView;
@@ -78,6 +81,8 @@ public abstract class BaseTweetView extends LinearLayout {
     TweetMediaClickListener tweetMediaClickListener;
     private Uri permalinkUri;
     Tweet tweet;
+    // pending load of the Tweet inflated from XML, cancelled on detach or when a Tweet is set
+    RequestHandle tweetRequest;
 
     // for testing
     int styleResId;
@@ -342,6 +347,23 @@ public abstract class BaseTweetView extends LinearLayout {
         loadTweet();
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // reload the Tweet if the view was detached before it loaded
+        if (tweetRequest != null && tweetRequest.isCancelled()) {
+            loadTweet();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (tweetRequest != null) {
+            tweetRequest.cancel();
+        }
+    }
+
     /**
      * Initialize tweet actions subview
      */
@@ -421,6 +443,10 @@ public abstract class BaseTweetView extends LinearLayout {
      * @throws IllegalArgumentException
      */
     public void setTweet(Tweet tweet) {
+        if (tweetRequest != null) {
+            tweetRequest.cancel();
+            tweetRequest = null;
+        }
         this.tweet = tweet;
         render();
     }
@@ -507,7 +533,8 @@ public abstract class BaseTweetView extends LinearLayout {
                 Fabric.getLogger().d(TAG, String.format(TweetUtils.LOAD_TWEET_DEBUG, tweetId));
             }
         };
-        dependencyProvider.getTweetUi().getTweetRepository().loadTweet(getTweetId(), repoCb);
+        tweetRequest = dependencyProvider.getTweetUi().getTweetRepository()
+                .loadTweet(getTweetId(), repoCb);
     }
 
     Uri getPermalinkUri() {
@@ -645,19 +672,60 @@ public abstract class BaseTweetView extends LinearLayout {
      * recycling.
      */
     void setProfilePhotoView(Tweet displayTweet) {
-        final Picasso imageLoader = dependencyProvider.getImageLoader();
+        final ImageLoader imageLoader = dependencyProvider.getImageLoader();
 
         if (imageLoader == null) return;
 
-        final String url;
+        // tagged by Context so loads can be paused while a timeline is flung
+        final ImageRequest request = new ImageRequest.Builder()
+                .setUrl(getProfilePhotoUrl(displayTweet))
+                .setPlaceholder(mediaBg)
+                .setTag(getContext())
+                .build();
+        imageLoader.load(request, avatarView, null);
+    }
+
+    static String getProfilePhotoUrl(Tweet displayTweet) {
         if (displayTweet == null || displayTweet.user == null) {
-            url = null;
-        } else {
-            url = UserUtils.getProfileImageUrlHttps(displayTweet.user,
-                    UserUtils.AvatarSize.REASONABLY_SMALL);
+            return null;
         }
+        return UserUtils.getProfileImageUrlHttps(displayTweet.user,
+                UserUtils.AvatarSize.REASONABLY_SMALL);
+    }
+
+    /**
+     * Prefetches the avatar and media images of a Tweet which is about to be shown in a view like
+     * this one. The requests match the loads made when the Tweet is rendered, so prefetched images
+     * are served from the memory cache.
+     * @param tweet the Tweet to prefetch images for
+     * @param tag the tag of the prefetch requests, used to cancel them
+     */
+    void prefetchImages(Tweet tweet, Object tag) {
+        final ImageLoader imageLoader = dependencyProvider.getImageLoader();
+
+        if (imageLoader == null || tweet == null) return;
 
-        imageLoader.load(url).placeholder(mediaBg).into(avatarView);
+        final Tweet displayTweet = TweetUtils.getDisplayTweet(tweet);
+        final String avatarUrl = getProfilePhotoUrl(displayTweet);
+        if (avatarUrl != null) {
+            imageLoader.prefetch(new ImageRequest.Builder()
+                    .setUrl(avatarUrl)
+                    .setTag(tag)
+                    .build());
+        }
+
+        final MediaEntity mediaEntity;
+        if (TweetMediaUtils.hasVideo(displayTweet)) {
+            mediaEntity = TweetMediaUtils.getVideoEntity(displayTweet);
+        } else if (TweetMediaUtils.hasPhoto(displayTweet)) {
+            mediaEntity = TweetMediaUtils.getPhotoEntity(displayTweet);
+        } else {
+            return;
+        }
+        final ImageRequest.Builder builder = createMediaRequest(mediaEntity);
+        if (builder != null) {
+            imageLoader.prefetch(builder.setTag(tag).build());
+        }
     }
 
     /**
@@ -679,6 +747,7 @@ public abstract class BaseTweetView extends LinearLayout {
             mediaBadgeView.setMediaEntity(mediaEntity);
             setMediaLauncher(displayTweet, mediaEntity);
             setTweetMedia(mediaEntity);
+            prebufferVideo(mediaEntity);
 
             dependencyProvider.getVideoScribeClient().impression(displayTweet.id, mediaEntity);
         } else if (displayTweet != null && TweetMediaUtils.hasPhoto(displayTweet)) {
@@ -695,6 +764,34 @@ public abstract class BaseTweetView extends LinearLayout {
         }
     }
 
+    /**
+     * Resolves the video variant ahead of a tap, and on unmetered networks downloads short videos
+     * so they play without buffering.
+     */
+    void prebufferVideo(MediaEntity mediaEntity) {
+        final VideoPrebuffer videoPrebuffer = dependencyProvider.getVideoPrebuffer();
+        if (videoPrebuffer != null && mediaEntity.videoInfo != null) {
+            videoPrebuffer.prebuffer(mediaEntity);
+        }
+    }
+
+    /**
+     * Starts preparing a player for the variant the player screen will play, while the screen
+     * opens.
+     */
+    void prepareVideo(MediaEntity mediaEntity) {
+        final VideoPrebuffer videoPrebuffer = dependencyProvider.getVideoPrebuffer();
+        final MediaPlayerPool mediaPlayerPool = dependencyProvider.getMediaPlayerPool();
+        if (videoPrebuffer == null || mediaPlayerPool == null) {
+            return;
+        }
+        final VideoInfo.Variant variant = videoPrebuffer.selectVariant(mediaEntity);
+        if (variant != null) {
+            mediaPlayerPool.prepare(getContext(), videoPrebuffer.getPlaybackUri(variant),
+                    TweetMediaUtils.isLooping(mediaEntity));
+        }
+    }
+
     private void setMediaLauncher(final Tweet displayTweet, final MediaEntity entity) {
         mediaView.setOnClickListener(new OnClickListener() {
             @Override
@@ -704,6 +801,7 @@ public abstract class BaseTweetView extends LinearLayout {
                 } else {
                     final VideoInfo.Variant variant = TweetMediaUtils.getSupportedVariant(entity);
                     if (variant != null) {
+                        prepareVideo(entity);
                         final Intent intent = new Intent(getContext(), PlayerActivity.class);
                         intent.putExtra(PlayerActivity.MEDIA_ENTITY, entity);
                         intent.putExtra(PlayerActivity.TWEET_ID, displayTweet.id);
@@ -731,21 +829,68 @@ public abstract class BaseTweetView extends LinearLayout {
     }
 
     void setTweetMedia(MediaEntity photoEntity) {
-        final Picasso imageLoader = dependencyProvider.getImageLoader();
+        final ImageLoader imageLoader = dependencyProvider.getImageLoader();
 
         if (imageLoader == null) return;
 
-        // Picasso fit is a deferred call to resize(w,h) which waits until the target has a
-        // non-zero width or height and resizes the bitmap to the target's width and height.
-        // For recycled targets, which already have a width and (stale) height, reset the size
-        // target to zero so Picasso fit works correctly.
-        mediaView.resetSize();
         mediaView.setAspectRatio(getAspectRatio(photoEntity));
-        imageLoader.load(photoEntity.mediaUrlHttps)
-                .placeholder(mediaBg)
-                .fit()
-                .centerCrop()
-                .into(mediaView, new PicassoCallback());
+        ImageRequest.Builder builder = createMediaRequest(photoEntity);
+        if (builder == null) {
+            // Fit is a deferred call to resize(w,h) which waits until the target has a
+            // non-zero width or height and resizes the bitmap to the target's width and height.
+            // For recycled targets, which already have a width and (stale) height, reset the
+            // size target to zero so fit works correctly.
+            mediaView.resetSize();
+            builder = new ImageRequest.Builder()
+                    .setUrl(TweetMediaUtils.getPhotoUrl(photoEntity, 0, 0))
+                    .fit()
+                    .centerCrop();
+        }
+        final ImageRequest request = builder
+                .setPlaceholder(mediaBg)
+                .setTag(getContext())
+                .build();
+        imageLoader.load(request, mediaView, new MediaLoadListener());
+    }
+
+    /**
+     * Builds the media image request for the expected size of the media view. Rendering and
+     * prefetching both use it, so a prefetched image has the memory cache key of the later load.
+     * @return the request, or null if the media view size cannot be estimated
+     */
+    ImageRequest.Builder createMediaRequest(MediaEntity mediaEntity) {
+        final int width = getMediaTargetWidth();
+        final int height = (int) Math.round(width / getAspectRatio(mediaEntity));
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        // pick the smallest photo variant which covers the media view, so full size photos are
+        // not downloaded and decoded only to be scaled down
+        return new ImageRequest.Builder()
+                .setUrl(TweetMediaUtils.getPhotoUrl(mediaEntity, width, height))
+                .resize(width, height)
+                .centerCrop();
+    }
+
+    /**
+     * Returns the expected width of the media view in pixels. Recycled views keep their width,
+     * otherwise the width is estimated from the width of the Tweet view, or of the screen before
+     * the Tweet view is laid out.
+     */
+    int getMediaTargetWidth() {
+        if (mediaView.getWidth() > 0) {
+            return mediaView.getWidth();
+        }
+        final int width = getWidth() > 0 ? getWidth()
+                : getResources().getDisplayMetrics().widthPixels;
+        return Math.max(width - getMediaHorizontalInset(), 0);
+    }
+
+    /**
+     * @return the horizontal space in pixels the layout reserves beside the media view
+     */
+    int getMediaHorizontalInset() {
+        return 0;
     }
 
     protected double getAspectRatio(MediaEntity photoEntity) {
@@ -772,9 +917,9 @@ public abstract class BaseTweetView extends LinearLayout {
     }
 
     /**
-     * Picasso Callback which asynchronously sets the error bitmap onError.
+     * ImageLoader Listener which asynchronously sets the error bitmap onError.
      */
-    class PicassoCallback implements com.squareup.picasso.Callback {
+    class MediaLoadListener implements ImageLoader.Listener {
         @Override
         public void onSuccess() { /* intentionally blank */ }
 
@@ -787,20 +932,22 @@ public abstract class BaseTweetView extends LinearLayout {
     protected void setErrorImage() {
         // async load the error image and set the proper background color behind it once it's loaded
         // this does incur the necessity of clearing the background on each load of an image however
-        final Picasso imageLoader = dependencyProvider.getImageLoader();
+        final ImageLoader imageLoader = dependencyProvider.getImageLoader();
 
         if (imageLoader == null) return;
 
-        imageLoader.load(photoErrorResId)
-                .into(mediaView, new com.squareup.picasso.Callback() {
-                    @Override
-                    public void onSuccess() {
-                        mediaView.setBackgroundColor(mediaBgColor);
-                    }
+        final ImageRequest request = new ImageRequest.Builder()
+                .setResourceId(photoErrorResId)
+                .build();
+        imageLoader.load(request, mediaView, new ImageLoader.Listener() {
+            @Override
+            public void onSuccess() {
+                mediaView.setBackgroundColor(mediaBgColor);
+            }
 
-                    @Override
-                    public void onError() { /* intentionally blank */ }
-                });
+            @Override
+            public void onError() { /* intentionally blank */ }
+        });
     }
 
     /**
@@ -928,8 +1075,24 @@ public abstract class BaseTweetView extends LinearLayout {
         /**
          * Can be null if run before TweetUi#doInBackground completes
          */
-        Picasso getImageLoader() {
+        ImageLoader getImageLoader() {
             return TweetUi.getInstance().getImageLoader();
         }
+
+        /**
+         * Can be null in edit mode
+         */
+        VideoPrebuffer getVideoPrebuffer() {
+            final TweetUi tweetUi = getTweetUi();
+            return tweetUi == null ? null : tweetUi.getVideoPrebuffer();
+        }
+
+        /**
+         * Can be null in edit mode
+         */
+        MediaPlayerPool getMediaPlayerPool() {
+            final TweetUi tweetUi = getTweetUi();
+            return tweetUi == null ? null : tweetUi.getMediaPlayerPool();
+        }
     }
 }
@@ -25,7 +25,6 @@ import com.twitter.sdk.android.core.TwitterException;
 import com.twitter.sdk.android.core.models.Tweet;
 import com.twitter.sdk.android.core.models.TweetBuilder;
 import com.twitter.sdk.android.core.models.User;
-import com.twitter.sdk.android.core.GuestCallback;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -84,12 +83,12 @@ public class CollectionTimeline extends BaseTimeline implements Timeline<Tweet>
 
     Callback<TwitterApiClient> createCollectionRequest(final Long minPosition,
         final Long maxPosition, final Callback<TimelineResult<Tweet>> cb) {
-        return new LoggingCallback<TwitterApiClient>(cb, Fabric.getLogger()) {
+        return new GuestRetryRequest<TwitterCollection>(tweetUi.getGuestAuthQueue(),
+                new CollectionCallback(cb), Fabric.getLogger()) {
             @Override
-            public void success(Result<TwitterApiClient> result) {
-                result.data.getCollectionService().collection(collectionIdentifier,
-                        maxItemsPerRequest, maxPosition, minPosition,
-                        new GuestCallback<>(new CollectionCallback(cb)));
+            void execute(TwitterApiClient client, Callback<TwitterCollection> callback) {
+                client.getCollectionService().collection(collectionIdentifier,
+                        maxItemsPerRequest, maxPosition, minPosition, callback);
             }
         };
     }
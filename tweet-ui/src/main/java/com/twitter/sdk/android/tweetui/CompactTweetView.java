@@ -19,6 +19,7 @@ package com.twitter.sdk.android.tweetui;
 
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.content.res.Resources;
 import android.os.Build;
 import android.util.AttributeSet;
 
@@ -65,6 +66,16 @@ public class CompactTweetView extends BaseTweetView {
         screenNameView.requestLayout();
     }
 
+    @Override
+    int getMediaHorizontalInset() {
+        // media is laid out to the right of the avatar
+        final Resources res = getResources();
+        return res.getDimensionPixelSize(R.dimen.tw__compact_tweet_avatar_margin_left)
+                + res.getDimensionPixelSize(R.dimen.tw__tweet_avatar_size)
+                + res.getDimensionPixelSize(R.dimen.tw__compact_tweet_avatar_margin_right)
+                + res.getDimensionPixelSize(R.dimen.tw__compact_tweet_media_margin_right);
+    }
+
     /**
      * Returns the desired aspect ratio of the Tweet media entity according to "sizes" metadata
      * and the aspect ratio display rules.
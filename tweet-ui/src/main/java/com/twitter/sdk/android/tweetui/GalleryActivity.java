@@ -18,15 +18,32 @@
 package com.twitter.sdk.android.tweetui;
 
 import android.app.Activity;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.util.DisplayMetrics;
 
 import com.squareup.picasso.Picasso;
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.ImageRequest;
+import com.twitter.sdk.android.core.internal.PicassoImageLoader;
 import com.twitter.sdk.android.core.models.MediaEntity;
+import com.twitter.sdk.android.tweetui.internal.MediaCache;
 import com.twitter.sdk.android.tweetui.internal.MultiTouchImageView;
+import com.twitter.sdk.android.tweetui.internal.TiledImageDecoder;
+import com.twitter.sdk.android.tweetui.internal.TweetMediaUtils;
+
+import java.io.IOException;
+
+import io.fabric.sdk.android.Fabric;
 
 public class GalleryActivity extends Activity {
     static final String MEDIA_ENTITY = "MEDIA_ENTITY";
     static final String TWEET_ID = "TWEET_ID";
+    // The preview variant only needs to cover this fraction of the screen's width and height
+    static final int PREVIEW_DIVIDER = 4;
+
+    MultiTouchImageView imageView;
+    boolean destroyed;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -34,8 +51,105 @@ public class GalleryActivity extends Activity {
         setContentView(R.layout.tw__gallery_activity);
 
         final MediaEntity entity = (MediaEntity) getIntent().getSerializableExtra(MEDIA_ENTITY);
-        final MultiTouchImageView imageView = (MultiTouchImageView) findViewById(R.id.image_view);
+        imageView = (MultiTouchImageView) findViewById(R.id.image_view);
+
+        // the photo fills the screen, larger variants are only fetched for larger screens
+        final DisplayMetrics metrics = getResources().getDisplayMetrics();
+        final String previewUrl = TweetMediaUtils.getPhotoUrl(entity,
+                metrics.widthPixels / PREVIEW_DIVIDER, metrics.heightPixels / PREVIEW_DIVIDER);
+        final String url = TweetMediaUtils.getPhotoUrl(entity, metrics.widthPixels,
+                metrics.heightPixels);
+        final String fullUrl = TweetMediaUtils.getLargestPhotoUrl(entity);
+
+        if (previewUrl == null || previewUrl.equals(url)) {
+            loadPhoto(url, fullUrl, null);
+        } else {
+            // show a small variant quickly, then upgrade to the variant which fills the screen
+            final ImageRequest request = new ImageRequest.Builder().setUrl(previewUrl).build();
+            getImageLoader().load(request, imageView, new ImageLoader.Listener() {
+                @Override
+                public void onSuccess() {
+                    loadPhoto(url, fullUrl, imageView.getDrawable());
+                }
+
+                @Override
+                public void onError() {
+                    loadPhoto(url, fullUrl, null);
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        destroyed = true;
+        super.onDestroy();
+    }
+
+    void loadPhoto(final String url, final String fullUrl, Drawable placeholder) {
+        final ImageRequest request = new ImageRequest.Builder()
+                .setUrl(url)
+                .setPlaceholder(placeholder)
+                .build();
+        getImageLoader().load(request, imageView, new ImageLoader.Listener() {
+            @Override
+            public void onSuccess() {
+                if (fullUrl != null && !fullUrl.equals(url)) {
+                    // the full resolution photo is large, only fetched if the user zooms in
+                    imageView.setOnDetailNeededListener(
+                            new MultiTouchImageView.OnDetailNeededListener() {
+                                @Override
+                                public void onDetailNeeded() {
+                                    loadTiles(fullUrl);
+                                }
+                            });
+                }
+            }
+
+            @Override
+            public void onError() {
+            }
+        });
+    }
+
+    /**
+     * Downloads the full resolution photo and hands its tiled decoder to the image view, which
+     * decodes only the visible region once zoomed past the detail of the screen sized variant.
+     */
+    void loadTiles(final String fullUrl) {
+        if (destroyed || !TiledImageDecoder.isSupported()) {
+            return;
+        }
+
+        final MediaCache mediaCache = TweetUi.getInstance().getMediaCache();
+        final int viewWidth = imageView.getWidth();
+        final int viewHeight = imageView.getHeight();
+        TweetUi.getInstance().getFabric().getExecutorService().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final TiledImageDecoder decoder = TiledImageDecoder.newInstance(
+                            mediaCache.download(fullUrl), viewWidth, viewHeight);
+                    runOnUiThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (destroyed) {
+                                decoder.recycle();
+                            } else {
+                                imageView.setTiledImageDecoder(decoder);
+                            }
+                        }
+                    });
+                } catch (IOException e) {
+                    Fabric.getLogger().e(TweetUi.LOGTAG, "Failed to load full resolution photo", e);
+                }
+            }
+        });
+    }
 
-        Picasso.with(this).load(entity.mediaUrlHttps).into(imageView);
+    ImageLoader getImageLoader() {
+        final ImageLoader imageLoader = TweetUi.getInstance().getImageLoader();
+        // TweetUi may still be initializing if the gallery is restored after process death
+        return imageLoader != null ? imageLoader : new PicassoImageLoader(Picasso.with(this));
     }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.GuestCallback;
+import com.twitter.sdk.android.core.Result;
+import com.twitter.sdk.android.core.TwitterApiClient;
+import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.internal.RequestHandle;
+import com.twitter.sdk.android.core.internal.RequestPriority;
+
+import io.fabric.sdk.android.Logger;
+
+/**
+ * GuestRetryRequest is a guest auth queue request which performs its API call once a
+ * TwitterApiClient is ready. If the call fails because the guest token was rejected, the guest
+ * session is cleared and the request is queued once more so it runs with a fresh guest token
+ * instead of surfacing the error. The API call keeps the {@link RequestPriority} and
+ * {@link RequestHandle} the request was created with, even if the queue runs it later on another
+ * thread. Requests whose handle is cancelled while queued are dropped without an API call.
+ * @param <T> expected response type of the API call
+ */
+abstract class GuestRetryRequest<T> extends LoggingCallback<TwitterApiClient> {
+    private final TweetUiAuthRequestQueue guestAuthQueue;
+    private final Callback<T> cb;
+    private final RequestPriority priority;
+    private final RequestHandle handle;
+    // API callbacks are delivered on the main thread
+    private boolean retried;
+
+    /**
+     * Constructs a GuestRetryRequest.
+     * @param guestAuthQueue the queue the request is added to, used to retry the request
+     * @param cb Callback for the API call result
+     * @param logger a Logger.
+     */
+    GuestRetryRequest(TweetUiAuthRequestQueue guestAuthQueue, Callback<T> cb, Logger logger) {
+        this(guestAuthQueue, cb, logger, RequestPriority.current());
+    }
+
+    /**
+     * Constructs a GuestRetryRequest.
+     * @param guestAuthQueue the queue the request is added to, used to retry the request
+     * @param cb Callback for the API call result
+     * @param logger a Logger.
+     * @param priority the priority of the API call
+     */
+    GuestRetryRequest(TweetUiAuthRequestQueue guestAuthQueue, Callback<T> cb, Logger logger,
+            RequestPriority priority) {
+        this(guestAuthQueue, cb, logger, priority, RequestHandle.current());
+    }
+
+    /**
+     * Constructs a GuestRetryRequest.
+     * @param guestAuthQueue the queue the request is added to, used to retry the request
+     * @param cb Callback for the API call result
+     * @param logger a Logger.
+     * @param priority the priority of the API call
+     * @param handle handle which cancels the request, may be null
+     */
+    GuestRetryRequest(TweetUiAuthRequestQueue guestAuthQueue, Callback<T> cb, Logger logger,
+            RequestPriority priority, RequestHandle handle) {
+        super(cb, logger);
+        this.guestAuthQueue = guestAuthQueue;
+        this.cb = cb;
+        this.priority = priority;
+        this.handle = handle;
+    }
+
+    @Override
+    public void success(final Result<TwitterApiClient> result) {
+        if (isCancelled()) {
+            return;
+        }
+        final Runnable call = new Runnable() {
+            @Override
+            public void run() {
+                execute(result.data, new RetryCallback());
+            }
+        };
+        priority.run(new Runnable() {
+            @Override
+            public void run() {
+                if (handle == null) {
+                    call.run();
+                } else {
+                    handle.run(call);
+                }
+            }
+        });
+    }
+
+    boolean isCancelled() {
+        return handle != null && handle.isCancelled();
+    }
+
+    /**
+     * Performs the API call.
+     * @param client a TwitterApiClient with at least guest auth
+     * @param callback callback which must be passed to the API call
+     */
+    abstract void execute(TwitterApiClient client, Callback<T> callback);
+
+    /*
+     * Retries the request once on guest auth errors, otherwise behaves as a GuestCallback.
+     */
+    class RetryCallback extends GuestCallback<T> {
+
+        RetryCallback() {
+            super(GuestRetryRequest.this.cb);
+        }
+
+        @Override
+        public void success(Result<T> result) {
+            if (!isCancelled()) {
+                super.success(result);
+            }
+        }
+
+        @Override
+        public void failure(TwitterException exception) {
+            if (isCancelled()) {
+                return;
+            }
+            if (!retried && guestAuthQueue != null && isGuestAuthError(exception)) {
+                retried = true;
+                clearGuestSession();
+                guestAuthQueue.addClientRequest(GuestRetryRequest.this);
+            } else {
+                super.failure(exception);
+            }
+        }
+    }
+}
@@ -37,13 +37,15 @@ public class PlayerActivity extends Activity {
         final VideoView videoView = (VideoView) findViewById(R.id.video_view);
         final VideoControlView videoControlView =
                 (VideoControlView) findViewById(R.id.video_control_view);
+        videoView.setMediaPlayerPool(TweetUi.getInstance().getMediaPlayerPool());
         final long tweetId = getIntent().getLongExtra(TWEET_ID, 0);
         final MediaEntity entity = (MediaEntity) getIntent().getSerializableExtra(MEDIA_ENTITY);
 
         final VideoScribeClient scribeClient = new VideoScribeClientImpl(TweetUi.getInstance());
         scribeClient.play(tweetId, entity);
 
-        playerController = new PlayerController(videoView, videoControlView);
+        playerController = new PlayerController(videoView, videoControlView,
+                TweetUi.getInstance().getVideoPrebuffer());
         playerController.prepare(entity);
     }
 
@@ -17,11 +17,13 @@
 
 package com.twitter.sdk.android.tweetui;
 
+import android.content.ContentResolver;
 import android.media.MediaPlayer;
 import android.net.Uri;
 import android.view.View;
 
 import com.twitter.sdk.android.core.models.MediaEntity;
+import com.twitter.sdk.android.core.models.VideoInfo;
 import com.twitter.sdk.android.tweetui.internal.TweetMediaUtils;
 import com.twitter.sdk.android.tweetui.internal.VideoControlView;
 import com.twitter.sdk.android.tweetui.internal.VideoView;
@@ -32,17 +34,22 @@ class PlayerController {
     private static final String TAG = "PlayerController";
     final VideoView videoView;
     final VideoControlView videoControlView;
+    final VideoPrebuffer videoPrebuffer;
+    boolean released;
 
-    PlayerController(VideoView videoView, VideoControlView videoControlView) {
+    PlayerController(VideoView videoView, VideoControlView videoControlView,
+            VideoPrebuffer videoPrebuffer) {
         this.videoView = videoView;
         this.videoControlView = videoControlView;
+        this.videoPrebuffer = videoPrebuffer;
     }
 
     void prepare(MediaEntity entity) {
         try {
             final boolean looping = TweetMediaUtils.isLooping(entity);
-            final String url = TweetMediaUtils.getSupportedVariant(entity).url;
-            final Uri uri = Uri.parse(url);
+            // the variant resolved when the Tweet was shown, played from disk if prebuffered
+            final VideoInfo.Variant variant = videoPrebuffer.selectVariant(entity);
+            final Uri uri = videoPrebuffer.getPlaybackUri(variant);
 
             setUpMediaControl(looping);
             videoView.setVideoURI(uri, looping);
@@ -52,11 +59,67 @@ class PlayerController {
                     videoView.start();
                 }
             });
+            videoView.setOnErrorListener(new MediaPlayer.OnErrorListener() {
+                @Override
+                public boolean onError(MediaPlayer mediaPlayer, int what, int extra) {
+                    return isLocal(uri) && playFromStream(variant, looping);
+                }
+            });
+
+            if (looping && !isLocal(uri)) {
+                cacheLoopingVideo(variant);
+            }
         } catch (Exception e) {
             Fabric.getLogger().e(TAG, "Error occurred during video playback", e);
         }
     }
 
+    /**
+     * Caches a streamed looping video, which then loops from disk instead of refetching.
+     */
+    void cacheLoopingVideo(VideoInfo.Variant variant) {
+        videoPrebuffer.cache(variant, new VideoPrebuffer.CacheListener() {
+            @Override
+            public void onCached(final Uri uri) {
+                videoView.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        playFromCache(uri);
+                    }
+                });
+            }
+        });
+    }
+
+    void playFromCache(Uri uri) {
+        // a paused video switches to the cached file when it is opened again
+        if (released || !videoView.isPlaying()) {
+            return;
+        }
+        final int position = videoView.getCurrentPosition();
+        videoView.setVideoURI(uri, true);
+        videoView.seekTo(position);
+    }
+
+    /**
+     * Streams the variant after its prebuffered file failed to play, e.g. because it was evicted
+     * from the disk cache.
+     *
+     * @return true if the variant is streamed
+     */
+    boolean playFromStream(VideoInfo.Variant variant, boolean looping) {
+        videoPrebuffer.onPlaybackFailed(variant);
+        if (released) {
+            return false;
+        }
+        videoView.setVideoURI(Uri.parse(variant.url), looping);
+        return true;
+    }
+
+    static boolean isLocal(Uri uri) {
+        return ContentResolver.SCHEME_FILE.equals(uri.getScheme());
+    }
+
     void setUpMediaControl(boolean looping) {
         if (looping) {
             setUpLoopControl();
@@ -84,6 +147,7 @@ class PlayerController {
     }
 
     void cleanup() {
+        released = true;
         videoView.stopPlayback();
     }
 }
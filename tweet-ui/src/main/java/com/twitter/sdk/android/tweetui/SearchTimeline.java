@@ -21,7 +21,6 @@ import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterApiClient;
 import com.twitter.sdk.android.core.TwitterException;
-import com.twitter.sdk.android.core.GuestCallback;
 import com.twitter.sdk.android.core.models.Search;
 import com.twitter.sdk.android.core.models.Tweet;
 
@@ -80,12 +79,12 @@ public class SearchTimeline extends BaseTimeline implements Timeline<Tweet> {
 
     Callback<TwitterApiClient> createSearchRequest(final Long sinceId, final Long maxId,
             final Callback<TimelineResult<Tweet>> cb) {
-        return new LoggingCallback<TwitterApiClient>(cb, Fabric.getLogger()) {
+        return new GuestRetryRequest<Search>(tweetUi.getGuestAuthQueue(),
+                new SearchCallback(cb), Fabric.getLogger()) {
             @Override
-            public void success(Result<TwitterApiClient> result) {
-                result.data.getSearchService().tweets(query, null, languageCode, null, RESULT_TYPE,
-                        maxItemsPerRequest, null, sinceId, maxId, true,
-                        new GuestCallback<>(new SearchCallback(cb)));
+            void execute(TwitterApiClient client, Callback<Search> callback) {
+                client.getSearchService().tweets(query, null, languageCode, null, RESULT_TYPE,
+                        maxItemsPerRequest, null, sinceId, maxId, true, callback);
             }
         };
     }
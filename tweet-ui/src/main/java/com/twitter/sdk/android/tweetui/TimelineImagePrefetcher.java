@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import android.view.View;
+import android.widget.AbsListView;
+import android.widget.ListView;
+
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.models.Tweet;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * TimelineImagePrefetcher schedules the image loads of a ListView showing a
+ * TweetTimelineListAdapter. Set it as the OnScrollListener of the ListView.
+ *
+ * Avatars and media of the rows below the visible ones are prefetched at low priority, and
+ * prefetches of rows which leave the prefetch window are cancelled. Image loads are paused while
+ * the list is flung and resumed once it settles.
+ */
+public class TimelineImagePrefetcher implements AbsListView.OnScrollListener {
+    static final int DEFAULT_PREFETCH_COUNT = 5;
+
+    final TweetTimelineListAdapter adapter;
+    final int prefetchCount;
+    final AbsListView.OnScrollListener scrollListener;
+    // tags of the prefetch requests by Tweet id, positions shift when newer Tweets are inserted
+    final Map<Long, Object> prefetchTags = new HashMap<>();
+    boolean flinging;
+
+    /**
+     * Constructs a TimelineImagePrefetcher which prefetches images of the next 5 rows.
+     * @param adapter the adapter of the ListView
+     */
+    public TimelineImagePrefetcher(TweetTimelineListAdapter adapter) {
+        this(adapter, DEFAULT_PREFETCH_COUNT, null);
+    }
+
+    /**
+     * Constructs a TimelineImagePrefetcher.
+     * @param adapter the adapter of the ListView
+     * @param prefetchCount the number of rows below the visible ones to prefetch images for
+     * @param scrollListener listener scroll events are passed on to, may be null
+     * @throws java.lang.IllegalArgumentException if adapter is null or prefetchCount is negative
+     */
+    public TimelineImagePrefetcher(TweetTimelineListAdapter adapter, int prefetchCount,
+            AbsListView.OnScrollListener scrollListener) {
+        if (adapter == null) {
+            throw new IllegalArgumentException("Adapter must not be null");
+        }
+        if (prefetchCount < 0) {
+            throw new IllegalArgumentException("Prefetch count must not be negative");
+        }
+        this.adapter = adapter;
+        this.prefetchCount = prefetchCount;
+        this.scrollListener = scrollListener;
+    }
+
+    @Override
+    public void onScrollStateChanged(AbsListView view, int scrollState) {
+        final ImageLoader imageLoader = getImageLoader();
+        if (imageLoader != null) {
+            // Tweet views tag their loads with their Context
+            if (scrollState == SCROLL_STATE_FLING) {
+                flinging = true;
+                imageLoader.pauseTag(adapter.context);
+            } else if (flinging) {
+                flinging = false;
+                imageLoader.resumeTag(adapter.context);
+                prefetch(view, imageLoader);
+            }
+        }
+
+        if (scrollListener != null) {
+            scrollListener.onScrollStateChanged(view, scrollState);
+        }
+    }
+
+    @Override
+    public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+            int totalItemCount) {
+        final ImageLoader imageLoader = getImageLoader();
+        if (imageLoader != null && !flinging) {
+            prefetch(view, imageLoader);
+        }
+
+        if (scrollListener != null) {
+            scrollListener.onScroll(view, firstVisibleItem, visibleItemCount, totalItemCount);
+        }
+    }
+
+    /*
+     * Moves the prefetch window below the last visible row, cancelling prefetches of rows which
+     * left it and prefetching rows which entered it.
+     */
+    void prefetch(AbsListView view, ImageLoader imageLoader) {
+        final BaseTweetView tweetView = findTweetView(view);
+        if (tweetView == null) {
+            return;
+        }
+
+        final int headerCount = view instanceof ListView
+                ? ((ListView) view).getHeaderViewsCount() : 0;
+        final int start = view.getLastVisiblePosition() - headerCount + 1;
+        // the last item is left to the ListView, getting it loads previous Timeline items
+        final int end = Math.min(start + prefetchCount, adapter.getCount() - 1);
+
+        final Map<Long, Tweet> window = new LinkedHashMap<>();
+        for (int position = Math.max(start, 0); position < end; position++) {
+            final Tweet tweet = adapter.getItem(position);
+            if (tweet != null) {
+                window.put(tweet.id, tweet);
+            }
+        }
+
+        final Iterator<Map.Entry<Long, Object>> tags = prefetchTags.entrySet().iterator();
+        while (tags.hasNext()) {
+            final Map.Entry<Long, Object> tag = tags.next();
+            if (!window.containsKey(tag.getKey())) {
+                // the default loader keeps loads of the same image by a visible row running
+                imageLoader.cancelTag(tag.getValue());
+                tags.remove();
+            }
+        }
+        for (Tweet tweet : window.values()) {
+            if (!prefetchTags.containsKey(tweet.id)) {
+                final Object tag = new Object();
+                prefetchTags.put(tweet.id, tag);
+                tweetView.prefetchImages(tweet, tag);
+            }
+        }
+    }
+
+    /*
+     * Returns a visible Tweet view, which prefetches images with the sizes of its own.
+     */
+    BaseTweetView findTweetView(AbsListView view) {
+        for (int i = 0; i < view.getChildCount(); i++) {
+            final View child = view.getChildAt(i);
+            if (child instanceof BaseTweetView) {
+                return (BaseTweetView) child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Can be null if run before TweetUi#doInBackground completes
+     */
+    ImageLoader getImageLoader() {
+        return TweetUi.getInstance().getImageLoader();
+    }
+}
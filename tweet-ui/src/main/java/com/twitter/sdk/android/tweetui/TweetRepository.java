@@ -25,7 +25,8 @@ import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterApiClient;
 import com.twitter.sdk.android.core.TwitterException;
-import com.twitter.sdk.android.core.GuestCallback;
+import com.twitter.sdk.android.core.internal.RequestHandle;
+import com.twitter.sdk.android.core.internal.RequestPriority;
 import com.twitter.sdk.android.core.models.Tweet;
 
 import java.util.List;
@@ -36,8 +37,6 @@ import io.fabric.sdk.android.Fabric;
  * Encapsulates Tweet API access. Tweet loads are read through a thread safe LruCache.
  */
 class TweetRepository {
-    private static final String TAG = TweetUi.LOGTAG;
-    private static final String AUTH_ERROR = "Auth could not be obtained.";
     // Cache size units are in number of entries, an average Tweet is roughly 900 bytes in memory
     private static final int DEFAULT_CACHE_SIZE = 20;
 
@@ -87,13 +86,17 @@ class TweetRepository {
      * Callable on the main thread.
      * @param tweet Tweet to deliver to the client in a Result
      * @param cb the developer callback
+     * @param handle the handle of the load, the Tweet is not delivered once it is cancelled
      */
-    private void deliverTweet(final Tweet tweet, final Callback<Tweet> cb) {
+    private void deliverTweet(final Tweet tweet, final Callback<Tweet> cb,
+            final RequestHandle handle) {
         if (cb == null) return;
         mainHandler.post(new Runnable() {
             @Override
             public void run() {
-                cb.success(new Result<>(tweet, null));
+                if (!handle.isCancelled()) {
+                    cb.success(new Result<>(tweet, null));
+                }
             }
         });
     }
@@ -144,30 +147,26 @@ class TweetRepository {
      * response to the cache and provides the Tweet to the callback success method.
      * @param tweetId Tweet id
      * @param cb callback
+     * @return handle which cancels the load, the callback is not called once it is cancelled
      */
-    void loadTweet(final long tweetId, final Callback<Tweet> cb) {
+    RequestHandle loadTweet(final long tweetId, final Callback<Tweet> cb) {
+        final RequestHandle handle = new RequestHandle();
         final Tweet cachedTweet = tweetCache.get(tweetId);
 
         if (cachedTweet != null) {
-            deliverTweet(cachedTweet, cb);
-            return;
+            deliverTweet(cachedTweet, cb, handle);
+            return handle;
         }
 
-        guestAuthQueue.addClientRequest(new Callback<TwitterApiClient>() {
-            @Override
-            public void success(Result<TwitterApiClient> result) {
-                result.data.getStatusesService().show(tweetId, null, null, null,
-                        new SingleTweetCallback(cb));
-            }
-
+        guestAuthQueue.addClientRequest(new GuestRetryRequest<Tweet>(guestAuthQueue,
+                new SingleTweetCallback(cb), Fabric.getLogger(), RequestPriority.INTERACTIVE,
+                handle) {
             @Override
-            public void failure(TwitterException exception) {
-                Fabric.getLogger().e(TAG, AUTH_ERROR, exception);
-                if (cb != null) {
-                    cb.failure(exception);
-                }
+            void execute(TwitterApiClient client, Callback<Tweet> callback) {
+                client.getStatusesService().show(tweetId, null, null, null, callback);
             }
         });
+        return handle;
     }
 
     /**
@@ -176,35 +175,31 @@ class TweetRepository {
      * response and provides them to the callback success method.
      * @param tweetIds list of Tweet ids
      * @param cb callback
+     * @return handle which cancels the load, the callback is not called once it is cancelled
      */
-    void loadTweets(final List<Long> tweetIds, final Callback<List<Tweet>> cb) {
-        guestAuthQueue.addClientRequest(new Callback<TwitterApiClient>() {
-
+    RequestHandle loadTweets(final List<Long> tweetIds, final Callback<List<Tweet>> cb) {
+        final RequestHandle handle = new RequestHandle();
+        guestAuthQueue.addClientRequest(new GuestRetryRequest<List<Tweet>>(guestAuthQueue,
+                new MultiTweetsCallback(tweetIds, cb), Fabric.getLogger(),
+                RequestPriority.INTERACTIVE, handle) {
             @Override
-            public void success(Result<TwitterApiClient> result) {
+            void execute(TwitterApiClient client, Callback<List<Tweet>> callback) {
                 final String commaSepIds = TextUtils.join(",", tweetIds);
-                result.data.getStatusesService().lookup(commaSepIds, null, null, null,
-                        new MultiTweetsCallback(tweetIds, cb));
-            }
-
-            @Override
-            public void failure(TwitterException exception) {
-                Fabric.getLogger().e(TAG, AUTH_ERROR, exception);
-                if (cb != null) {
-                    cb.failure(exception);
-                }
+                client.getStatusesService().lookup(commaSepIds, null, null, null, callback);
             }
         });
+        return handle;
     }
 
     /**
      * Callback updates the single Tweet cache before passing to the given callback on success.
-     * Handles guest auth expired or failing tokens on failure.
+     * Guest auth expired or failing tokens are handled by the wrapping GuestRetryRequest.
      */
-    class SingleTweetCallback extends GuestCallback<Tweet> {
+    class SingleTweetCallback extends Callback<Tweet> {
+        final Callback<Tweet> cb;
 
         SingleTweetCallback(Callback<Tweet> cb) {
-            super(cb);
+            this.cb = cb;
         }
 
         @Override
@@ -215,18 +210,26 @@ class TweetRepository {
                 cb.success(new Result<>(tweet, result.response));
             }
         }
+
+        @Override
+        public void failure(TwitterException exception) {
+            if (cb != null) {
+                cb.failure(exception);
+            }
+        }
     }
 
     /**
-     * Callback handles sorting Tweets before passing to the given callback on success. Handles
-     * guest auto expired or failing tokens on failure.
+     * Callback handles sorting Tweets before passing to the given callback on success. Guest auth
+     * expired or failing tokens are handled by the wrapping GuestRetryRequest.
      */
-    class MultiTweetsCallback extends GuestCallback<List<Tweet>> {
+    class MultiTweetsCallback extends Callback<List<Tweet>> {
         final List<Long> tweetIds;
+        final Callback<List<Tweet>> cb;
 
         MultiTweetsCallback(List<Long> tweetIds, Callback<List<Tweet>> cb) {
-            super(cb);
             this.tweetIds = tweetIds;
+            this.cb = cb;
         }
 
         @Override
@@ -236,5 +239,12 @@ class TweetRepository {
                 cb.success(new Result<>(sorted, result.response));
             }
         }
+
+        @Override
+        public void failure(TwitterException exception) {
+            if (cb != null) {
+                cb.failure(exception);
+            }
+        }
     }
 }
@@ -21,21 +21,33 @@ import io.fabric.sdk.android.Fabric;
 import io.fabric.sdk.android.Kit;
 import io.fabric.sdk.android.services.concurrency.DependsOn;
 
-import com.google.gson.FieldNamingPolicy;
+import android.annotation.TargetApi;
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Build;
+import android.os.Looper;
+
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.squareup.picasso.Picasso;
+import com.twitter.sdk.android.core.ImageLoader;
 import com.twitter.sdk.android.core.Session;
 import com.twitter.sdk.android.core.SessionManager;
 import com.twitter.sdk.android.core.TwitterCore;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
+import com.twitter.sdk.android.core.internal.PicassoImageLoader;
+import com.twitter.sdk.android.core.internal.StartupTasks;
 import com.twitter.sdk.android.core.internal.scribe.DefaultScribeClient;
 import com.twitter.sdk.android.core.internal.scribe.EventNamespace;
 import com.twitter.sdk.android.core.internal.scribe.ScribeItem;
 import com.twitter.sdk.android.tweetui.internal.GuestSessionProvider;
+import com.twitter.sdk.android.tweetui.internal.MediaCache;
+import com.twitter.sdk.android.tweetui.internal.MediaPlayerPool;
 import com.twitter.sdk.android.tweetui.internal.UserSessionProvider;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -47,6 +59,14 @@ public class TweetUi extends Kit<Boolean> {
     static final String NOT_STARTED_ERROR = "Must start TweetUi Kit in Fabric.with().";
 
     private static final String KIT_SCRIBE_NAME = "TweetUi";
+    // Startup task timings are logged when this tag is loggable at VERBOSE level
+    static final String STARTUP_TIMING_TAG = "TweetUiStartup";
+    // Startup task names
+    static final String TASK_CREATE_IMAGE_LOADER = "createImageLoader";
+    static final String TASK_RESTORE_AUTH_QUEUES = "restoreAuthQueues";
+    static final String TASK_PREWARM_GUEST_SESSION = "prewarmGuestSession";
+    static final String TASK_SET_UP_SCRIBE_CLIENT = "setUpScribeClient";
+    static final String TASK_LOAD_ADVERTISING_ID = "loadAdvertisingId";
 
     List<SessionManager<? extends Session>> userSessionManagers;
     List<SessionManager<? extends Session>> guestSessionManagers;
@@ -56,14 +76,32 @@ public class TweetUi extends Kit<Boolean> {
     DefaultScribeClient scribeClient;
 
     private final AtomicReference<Gson> gsonRef;
+    private final boolean deferInitialization;
+    private final StartupTasks startupTasks;
     private TweetRepository tweetRepository;
     private TweetUiAuthRequestQueue userAuthQueue;
     private TweetUiAuthRequestQueue guestAuthQueue;
-    private Picasso imageLoader;
+    private volatile ImageLoader imageLoader;
+    private MediaCache mediaCache;
+    private VideoPrebuffer videoPrebuffer;
+    private MediaPlayerPool mediaPlayerPool;
 
     // Singleton class, should only be created using getInstance()
     public TweetUi() {
+        this(false);
+    }
+
+    /**
+     * @param deferInitialization if true, background initialization such as creating the image
+     *          loader and restoring sessions is scheduled as independent tasks instead of
+     *          completing before kits which depend on TweetUi are initialized. Each task still
+     *          runs on demand when its result is first needed.
+     */
+    public TweetUi(boolean deferInitialization) {
+        this.deferInitialization = deferInitialization;
         gsonRef = new AtomicReference<>();
+        startupTasks = new StartupTasks(getIdentifier(), STARTUP_TIMING_TAG);
+        addStartupTasks();
     }
 
     /**
@@ -107,22 +145,65 @@ public class TweetUi extends Kit<Boolean> {
 
     @Override
     protected Boolean doInBackground() {
+        if (deferInitialization) {
+            startupTasks.schedule(getFabric().getExecutorService());
+        } else {
+            startupTasks.runAll();
+        }
+        return true;
+    }
+
+    private void addStartupTasks() {
         /*
          * Picasso creation was moved to doInBackground because in the presence of okHttp there
          * ends up being strict mode violations if it is initialized on the main thread.
          */
-        imageLoader = Picasso.with(getContext());
-
+        startupTasks.add(TASK_CREATE_IMAGE_LOADER, new Runnable() {
+            @Override
+            public void run() {
+                if (imageLoader == null) {
+                    imageLoader = new PicassoImageLoader(Picasso.with(getContext()));
+                }
+            }
+        });
         // restore active sessions to user and guest auth queues
-        userAuthQueue.sessionRestored(userSessionProvider.getActiveSession());
-        guestAuthQueue.sessionRestored(guestSessionProvider.getActiveSession());
-
-        // ensure initialization of gson, this initialization in most cases will always
-        // happen here.
-        initGson();
-        setUpScribeClient();
-        advertisingId = getIdManager().getAdvertisingId();
-        return true;
+        startupTasks.add(TASK_RESTORE_AUTH_QUEUES, new Runnable() {
+            @Override
+            public void run() {
+                userAuthQueue.sessionRestored(userSessionProvider.getActiveSession());
+                guestAuthQueue.sessionRestored(guestSessionProvider.getActiveSession());
+            }
+        });
+        // obtain a guest session ahead of the first Tweet request
+        startupTasks.add(TASK_PREWARM_GUEST_SESSION, new Runnable() {
+            @Override
+            public void run() {
+                guestAuthQueue.prewarm();
+            }
+        }, TASK_RESTORE_AUTH_QUEUES);
+        startupTasks.add(TASK_SET_UP_SCRIBE_CLIENT, new Runnable() {
+            @Override
+            public void run() {
+                // ensure initialization of gson, this initialization in most cases will always
+                // happen here.
+                initGson();
+                setUpScribeClient();
+            }
+        });
+        startupTasks.add(TASK_LOAD_ADVERTISING_ID, new Runnable() {
+            @Override
+            public void run() {
+                advertisingId = getIdManager().getAdvertisingId();
+            }
+        });
+    }
+
+    /**
+     * @return durations in milliseconds of the background initialization tasks which have
+     *          completed, by task name.
+     */
+    public Map<String, Long> getStartupTimings() {
+        return startupTasks.getTimings();
     }
 
     /**
@@ -157,11 +238,7 @@ public class TweetUi extends Kit<Boolean> {
     // idempotent init
     void initGson() {
         if (gsonRef.get() == null) {
-            final Gson gson = new GsonBuilder()
-                    .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-                    .create();
-
-            gsonRef.compareAndSet(null, gson);
+            gsonRef.compareAndSet(null, GsonRegistry.getScribeGson());
         }
     }
 
@@ -178,15 +255,76 @@ public class TweetUi extends Kit<Boolean> {
         this.tweetRepository = tweetRepository;
     }
 
-    Picasso getImageLoader() {
+    /**
+     * @return the image loader, or null while it is still being created. With deferred
+     *          initialization a background caller creates it on demand. The main thread never
+     *          does, since creating Picasso there causes strict mode violations with OkHttp.
+     */
+    ImageLoader getImageLoader() {
+        if (imageLoader == null && deferInitialization
+                && Looper.myLooper() != Looper.getMainLooper()) {
+            // Deferred initialization has not reached the image loader yet
+            startupTasks.run(TASK_CREATE_IMAGE_LOADER);
+        }
         return imageLoader;
     }
 
-    // Testing purposes only
-    void setImageLoader(Picasso imageLoader) {
+    /**
+     * Sets the ImageLoader which Tweet views load avatars and media with, in place of the default
+     * Picasso based loader. Set it before Tweet views are created.
+     * @param imageLoader the ImageLoader of the app
+     */
+    public void setImageLoader(ImageLoader imageLoader) {
         this.imageLoader = imageLoader;
     }
 
+    synchronized MediaCache getMediaCache() {
+        if (mediaCache == null) {
+            mediaCache = new MediaCache(new File(getContext().getCacheDir(),
+                    MediaCache.DIRECTORY_NAME), MediaCache.DEFAULT_MAX_SIZE);
+        }
+        return mediaCache;
+    }
+
+    synchronized VideoPrebuffer getVideoPrebuffer() {
+        if (videoPrebuffer == null) {
+            videoPrebuffer = new VideoPrebuffer(getMediaCache(), new BandwidthMeter(),
+                    getFabric().getExecutorService(), VideoPrebuffer.createPrebufferExecutor(),
+                    new VideoPrebuffer.NetworkChecker(getContext()),
+                    getContext().getResources().getDisplayMetrics());
+        }
+        return videoPrebuffer;
+    }
+
+    synchronized MediaPlayerPool getMediaPlayerPool() {
+        if (mediaPlayerPool == null) {
+            mediaPlayerPool = new MediaPlayerPool(MediaPlayerPool.DEFAULT_MAX_IDLE);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+                registerTrimCallbacks(mediaPlayerPool);
+            }
+        }
+        return mediaPlayerPool;
+    }
+
+    @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+    private void registerTrimCallbacks(final MediaPlayerPool pool) {
+        getContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                pool.onTrimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+            }
+
+            @Override
+            public void onLowMemory() {
+                pool.trim();
+            }
+        });
+    }
+
     void clearAppSession(long sessionId) {
         TwitterCore.getInstance().getAppSessionManager().clearSession(sessionId);
     }
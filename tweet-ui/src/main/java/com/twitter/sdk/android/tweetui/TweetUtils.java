@@ -23,6 +23,7 @@ import android.text.TextUtils;
 import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.models.FieldProjection;
 import com.twitter.sdk.android.core.models.Tweet;
 
 import java.util.List;
@@ -40,6 +41,18 @@ public final class TweetUtils {
     private static final String UNKNOWN_SCREEN_NAME = "twitter_unknown";
     static final String LOAD_TWEET_DEBUG = "loadTweet failure for Tweet Id %d.";
 
+    /**
+     * The Tweet and User fields rendered by {@link TweetView} and {@link CompactTweetView}. Pass
+     * to {@link com.twitter.sdk.android.core.TwitterApiClient#TwitterApiClient(
+     * com.twitter.sdk.android.core.Session, FieldProjection)} to create a client whose responses
+     * only carry the data needed to display Tweets.
+     */
+    public static final FieldProjection TWEET_VIEW_FIELDS = new FieldProjection.Builder()
+            .tweetFields("created_at", "entities", "extended_entities", "favorited", "id",
+                    "retweeted_status", "text", "user")
+            .userFields("id", "name", "profile_image_url_https", "screen_name", "verified")
+            .build();
+
     private TweetUtils() {}
 
     /**
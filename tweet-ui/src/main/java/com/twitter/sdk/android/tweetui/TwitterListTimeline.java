@@ -18,11 +18,11 @@
 package com.twitter.sdk.android.tweetui;
 
 import com.twitter.sdk.android.core.Callback;
-import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterApiClient;
-import com.twitter.sdk.android.core.GuestCallback;
 import com.twitter.sdk.android.core.models.Tweet;
 
+import java.util.List;
+
 import io.fabric.sdk.android.Fabric;
 
 /**
@@ -74,12 +74,12 @@ public class TwitterListTimeline extends BaseTimeline implements Timeline<Tweet>
 
     Callback<TwitterApiClient> createListTimelineRequest(final Long sinceId, final Long maxId,
             final Callback<TimelineResult<Tweet>> cb) {
-        return new LoggingCallback<TwitterApiClient>(cb, Fabric.getLogger()) {
+        return new GuestRetryRequest<List<Tweet>>(tweetUi.getGuestAuthQueue(),
+                new TweetsCallback(cb), Fabric.getLogger()) {
             @Override
-            public void success(Result<TwitterApiClient> result) {
-                result.data.getListService().statuses(listId, slug, ownerScreenName, ownerId,
-                        sinceId, maxId, maxItemsPerRequest, true, includeRetweets,
-                        new GuestCallback<>(new TweetsCallback(cb)));
+            void execute(TwitterApiClient client, Callback<List<Tweet>> callback) {
+                client.getListService().statuses(listId, slug, ownerScreenName, ownerId,
+                        sinceId, maxId, maxItemsPerRequest, true, includeRetweets, callback);
             }
         };
     }
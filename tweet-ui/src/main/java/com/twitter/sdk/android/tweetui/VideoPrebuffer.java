@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.net.Uri;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.v4.net.ConnectivityManagerCompat;
+import android.support.v4.util.LruCache;
+import android.util.DisplayMetrics;
+
+import com.twitter.sdk.android.core.models.MediaEntity;
+import com.twitter.sdk.android.core.models.VideoInfo;
+import com.twitter.sdk.android.tweetui.internal.MediaCache;
+import com.twitter.sdk.android.tweetui.internal.TweetMediaUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import io.fabric.sdk.android.Fabric;
+
+/**
+ * Resolves the variant of a video when its Tweet is shown, and downloads short videos and animated
+ * GIFs ahead of playback so they play from disk. Download throughput feeds the bandwidth estimate
+ * which later variant selections use.
+ *
+ * Prebuffering only runs on unmetered networks, one download at a time on a background priority
+ * thread, so it neither uses the data plan of the user nor competes with API requests. Downloads
+ * are abandoned past {@link #MAX_PREBUFFER_BYTES}, and a url which failed is not prebuffered
+ * again.
+ *
+ * Methods called while binding Tweets or opening the player only check in memory state, the disk
+ * cache and the network state are only accessed on the executors.
+ */
+class VideoPrebuffer {
+    // Videos estimated to be no larger than this are downloaded when their Tweet is shown
+    static final long MAX_PREBUFFER_BYTES = 2 * 1024 * 1024;
+    // Cache size units are in number of entries
+    private static final int VARIANT_CACHE_SIZE = 20;
+    private static final int FAILED_URL_CACHE_SIZE = 50;
+
+    private final MediaCache mediaCache;
+    private final BandwidthMeter bandwidthMeter;
+    private final ExecutorService executorService;
+    private final Executor prebufferExecutor;
+    private final NetworkChecker networkChecker;
+    private final int screenWidth;
+    private final int screenHeight;
+    // leave these package accessible for testing
+    final LruCache<Long, VideoInfo.Variant> variantCache;
+    // Files downloaded to the disk cache, by url. A file may have been evicted from the disk
+    // cache since, which playback detects with #onPlaybackFailed.
+    final LruCache<String, File> downloadedFiles;
+    // Urls whose prebuffer failed or exceeded the size limit, the value is unused
+    final LruCache<String, Boolean> failedUrls;
+    final Set<String> pendingUrls;
+
+    /**
+     * @param executorService runs downloads for the player
+     * @param prebufferExecutor runs prebuffer downloads
+     */
+    VideoPrebuffer(MediaCache mediaCache, BandwidthMeter bandwidthMeter,
+            ExecutorService executorService, Executor prebufferExecutor,
+            NetworkChecker networkChecker, DisplayMetrics metrics) {
+        this.mediaCache = mediaCache;
+        this.bandwidthMeter = bandwidthMeter;
+        this.executorService = executorService;
+        this.prebufferExecutor = prebufferExecutor;
+        this.networkChecker = networkChecker;
+        this.screenWidth = metrics.widthPixels;
+        this.screenHeight = metrics.heightPixels;
+        variantCache = new LruCache<>(VARIANT_CACHE_SIZE);
+        downloadedFiles = new LruCache<>(VARIANT_CACHE_SIZE);
+        failedUrls = new LruCache<>(FAILED_URL_CACHE_SIZE);
+        pendingUrls = Collections.synchronizedSet(new HashSet<String>());
+    }
+
+    /**
+     * Returns the variant to play for the screen size and bandwidth estimate. The variant chosen
+     * for a media entity is kept, so playback uses the variant which was prebuffered.
+     *
+     * @return the variant to play, or null if no variant is supported
+     */
+    VideoInfo.Variant selectVariant(MediaEntity entity) {
+        final VideoInfo.Variant cached = variantCache.get(entity.id);
+        if (cached != null) {
+            return cached;
+        }
+
+        final VideoInfo.Variant variant = TweetMediaUtils.getBestVariant(entity, screenWidth,
+                screenHeight, bandwidthMeter.getBitrateEstimate());
+        if (variant != null) {
+            variantCache.put(entity.id, variant);
+        }
+        return variant;
+    }
+
+    /**
+     * Selects the variant of the entity and, if it is short enough, downloads it in the
+     * background unless it is in the disk cache already or the network is metered.
+     */
+    void prebuffer(MediaEntity entity) {
+        final VideoInfo.Variant variant = selectVariant(entity);
+        if (variant == null || !shouldPrebuffer(entity, variant)
+                || downloadedFiles.get(variant.url) != null || failedUrls.get(variant.url) != null
+                || !pendingUrls.add(variant.url)) {
+            return;
+        }
+
+        prebufferExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (networkChecker.isUnmetered() || mediaCache.get(variant.url) != null) {
+                        download(variant);
+                    }
+                } catch (IOException e) {
+                    failedUrls.put(variant.url, Boolean.TRUE);
+                    Fabric.getLogger().d(TweetUi.LOGTAG, "Failed to prebuffer video", e);
+                } finally {
+                    pendingUrls.remove(variant.url);
+                }
+            }
+        });
+    }
+
+    /**
+     * Downloads the variant in the background, waiting for a prebuffer of the same variant if one
+     * is in progress. The listener is called on the background thread once the variant is cached.
+     */
+    void cache(final VideoInfo.Variant variant, final CacheListener listener) {
+        executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    listener.onCached(Uri.fromFile(download(variant)));
+                } catch (IOException e) {
+                    Fabric.getLogger().d(TweetUi.LOGTAG, "Failed to cache video", e);
+                }
+            }
+        });
+    }
+
+    File download(VideoInfo.Variant variant) throws IOException {
+        File file = mediaCache.get(variant.url);
+        if (file == null) {
+            final long start = SystemClock.elapsedRealtime();
+            file = mediaCache.download(variant.url, MAX_PREBUFFER_BYTES);
+            bandwidthMeter.addSample(file.length(), SystemClock.elapsedRealtime() - start);
+        }
+        downloadedFiles.put(variant.url, file);
+        return file;
+    }
+
+    /**
+     * Does not access the disk, so it may return the uri of a file which was evicted from the
+     * disk cache. Playback then fails, see {@link #onPlaybackFailed}.
+     *
+     * @return the uri of the downloaded variant if it was prebuffered, otherwise its url
+     */
+    Uri getPlaybackUri(VideoInfo.Variant variant) {
+        final File file = downloadedFiles.get(variant.url);
+        return file != null ? Uri.fromFile(file) : Uri.parse(variant.url);
+    }
+
+    /**
+     * Forgets the downloaded file of the variant after its playback failed, so it is streamed
+     * or downloaded again.
+     */
+    void onPlaybackFailed(VideoInfo.Variant variant) {
+        downloadedFiles.remove(variant.url);
+    }
+
+    interface CacheListener {
+        void onCached(Uri uri);
+    }
+
+    /**
+     * Checks whether prebuffering may use the network.
+     */
+    static class NetworkChecker {
+        private final Context context;
+
+        NetworkChecker(Context context) {
+            this.context = context.getApplicationContext();
+        }
+
+        /**
+         * @return true if the active network is connected and not metered. Without the
+         *          ACCESS_NETWORK_STATE permission the network state is unknown, so false.
+         */
+        boolean isUnmetered() {
+            if (context.checkCallingOrSelfPermission(Manifest.permission.ACCESS_NETWORK_STATE)
+                    != PackageManager.PERMISSION_GRANTED) {
+                return false;
+            }
+            final ConnectivityManager connectivityManager =
+                    (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            final NetworkInfo networkInfo = connectivityManager.getActiveNetworkInfo();
+            return networkInfo != null && networkInfo.isConnected()
+                    && !ConnectivityManagerCompat.isActiveNetworkMetered(connectivityManager);
+        }
+    }
+
+    /**
+     * @return an executor which runs prebuffer downloads one at a time on a background priority
+     *          thread
+     */
+    static ExecutorService createPrebufferExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }
+                }, "TwitterVideoPrebuffer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    static boolean shouldPrebuffer(MediaEntity entity, VideoInfo.Variant variant) {
+        // animated GIFs are short, but their variants do not report a bitrate
+        if (TweetMediaUtils.isLooping(entity)) {
+            return true;
+        }
+        final long durationMillis = entity.videoInfo.durationMillis;
+        return variant.bitrate > 0 && durationMillis > 0
+                && variant.bitrate / 8 * durationMillis / 1000 <= MAX_PREBUFFER_BYTES;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui.internal;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import io.fabric.sdk.android.services.common.CommonUtils;
+
+/**
+ * Size bounded disk cache of media files, keyed by url. Files are downloaded to a partial file
+ * and renamed into place, so a cached file is always complete. Interrupted downloads resume from
+ * their partial file with a range request. The least recently used files are deleted once the
+ * cache grows past its maximum size.
+ */
+public class MediaCache {
+    public static final String DIRECTORY_NAME = "tw__media";
+    // Maximum total size in bytes of the cached files
+    public static final long DEFAULT_MAX_SIZE = 20 * 1024 * 1024;
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String CONTENT_RANGE_PREFIX = "bytes ";
+    // Downloads of the same url are serialized on one of these locks
+    private static final int DOWNLOAD_LOCK_COUNT = 16;
+    private static final int CONNECT_TIMEOUT_MILLIS = 15000;
+    private static final int READ_TIMEOUT_MILLIS = 20000;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File directory;
+    private final long maxSize;
+    private final Object[] downloadLocks;
+
+    public MediaCache(File directory, long maxSize) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        downloadLocks = new Object[DOWNLOAD_LOCK_COUNT];
+        for (int i = 0; i < DOWNLOAD_LOCK_COUNT; i++) {
+            downloadLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * @return the cached file of the url, or null if the url is not cached
+     */
+    public File get(String url) {
+        final File file = getFile(url);
+        if (!file.exists()) {
+            return null;
+        }
+        // last modified time orders files for eviction
+        file.setLastModified(System.currentTimeMillis());
+        return file;
+    }
+
+    /**
+     * Returns the cached file of the url, downloading it first if it is not cached. Call off the
+     * main thread.
+     *
+     * @throws IOException if the download fails
+     */
+    public File download(String url) throws IOException {
+        return download(url, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the cached file of the url, downloading it first if it is not cached. A download
+     * interrupted earlier resumes where it stopped. Concurrent downloads of the same url wait
+     * for the first to complete. Call off the main thread.
+     *
+     * @param maxBytes the download is abandoned if the file is larger
+     * @throws IOException if the download fails or the file is larger than maxBytes
+     */
+    public File download(String url, long maxBytes) throws IOException {
+        synchronized (getDownloadLock(url)) {
+            final File cached = get(url);
+            if (cached != null) {
+                return cached;
+            }
+            return fetch(url, maxBytes);
+        }
+    }
+
+    File fetch(String url, long maxBytes) throws IOException {
+        final long offset = getPartialFile(url).length();
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+        connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+        if (offset > 0) {
+            connection.setRequestProperty("Range", "bytes=" + offset + "-");
+        }
+        try {
+            final int code = connection.getResponseCode();
+            final boolean append;
+            if (code == HttpURLConnection.HTTP_PARTIAL && offset > 0
+                    && getContentRangeStart(connection.getHeaderField("Content-Range")) == offset) {
+                append = true;
+            } else if (code == HttpURLConnection.HTTP_OK) {
+                // the server ignored the range, start over
+                append = false;
+            } else {
+                // the partial file can not be resumed, a later download starts over
+                getPartialFile(url).delete();
+                throw new IOException("Unexpected response code " + code + " for " + url);
+            }
+
+            final long existing = append ? offset : 0;
+            if (connection.getContentLength() > maxBytes - existing) {
+                getPartialFile(url).delete();
+                throw new IOException("Content length exceeds " + maxBytes + " for " + url);
+            }
+            return put(url, connection.getInputStream(), append, maxBytes);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Writes the stream to the partial file of the url, then moves it to the cached file and
+     * trims the cache. Closes the stream. If the stream fails the partial file is kept so the
+     * download can resume.
+     *
+     * @param append true to append to the partial file, false to replace it
+     * @throws IOException if the stream fails or the file is longer than maxBytes
+     */
+    File put(String url, InputStream in, boolean append, long maxBytes) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        final File file = getFile(url);
+        final File partial = getPartialFile(url);
+        OutputStream out = null;
+        try {
+            long total = append ? partial.length() : 0;
+            out = new FileOutputStream(partial, append);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+            while ((count = in.read(buffer)) != -1) {
+                total += count;
+                if (total > maxBytes) {
+                    CommonUtils.closeQuietly(out);
+                    partial.delete();
+                    throw new IOException("Stream exceeds " + maxBytes + " for " + url);
+                }
+                out.write(buffer, 0, count);
+            }
+            out.close();
+        } finally {
+            CommonUtils.closeQuietly(in);
+            CommonUtils.closeQuietly(out);
+        }
+
+        if (!partial.renameTo(file)) {
+            partial.delete();
+            throw new IOException("Could not rename " + partial);
+        }
+        trim(file);
+        return file;
+    }
+
+    /**
+     * Deletes the least recently used files until the cache is no larger than its maximum size.
+     * The given file is kept even if it is larger than the maximum size on its own. Partial files
+     * are left alone, as their downloads may be running on other threads.
+     */
+    void trim(File keep) {
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return !file.getName().endsWith(PARTIAL_SUFFIX);
+            }
+        });
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+        if (size <= maxSize) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                final long lhsModified = lhs.lastModified();
+                final long rhsModified = rhs.lastModified();
+                return lhsModified < rhsModified ? -1 : (lhsModified == rhsModified ? 0 : 1);
+            }
+        });
+        for (File file : files) {
+            if (size <= maxSize) {
+                break;
+            }
+            if (file.equals(keep)) {
+                continue;
+            }
+            final long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    File getFile(String url) {
+        return new File(directory, CommonUtils.sha1(url));
+    }
+
+    File getPartialFile(String url) {
+        return new File(directory, CommonUtils.sha1(url) + PARTIAL_SUFFIX);
+    }
+
+    private Object getDownloadLock(String url) {
+        return downloadLocks[(url.hashCode() & Integer.MAX_VALUE) % DOWNLOAD_LOCK_COUNT];
+    }
+
+    /**
+     * @return the first byte position of a "bytes start-end/length" Content-Range, or -1 if
+     *          the header is missing or malformed
+     */
+    static long getContentRangeStart(String contentRange) {
+        if (contentRange == null || !contentRange.startsWith(CONTENT_RANGE_PREFIX)) {
+            return -1;
+        }
+        final int dash = contentRange.indexOf('-', CONTENT_RANGE_PREFIX.length());
+        if (dash < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(CONTENT_RANGE_PREFIX.length(), dash));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
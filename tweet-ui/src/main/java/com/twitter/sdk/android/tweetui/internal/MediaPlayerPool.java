@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui.internal;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.MediaPlayer;
+import android.net.Uri;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps a few idle MediaPlayer instances so consecutive videos can be opened without creating a
+ * new player each time. Players handed back are reset to the idle state and stripped of their
+ * listeners and display before they are reused. Idle players are released when memory runs low.
+ *
+ * Creating a player is cheap compared to preparing it, which fetches and parses the start of the
+ * video. The pool can also prepare one player ahead of playback, e.g. when a video is tapped,
+ * so preparing overlaps the player screen opening instead of following it.
+ */
+public class MediaPlayerPool {
+    public static final int DEFAULT_MAX_IDLE = 2;
+
+    private final int maxIdle;
+    // leave these package accessible for testing
+    final Deque<MediaPlayer> idlePlayers;
+    // Player preparing or prepared ahead of playback, only accessed on the main thread
+    PreparedPlayer preparedPlayer;
+
+    public MediaPlayerPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+        this.idlePlayers = new ArrayDeque<>(maxIdle);
+    }
+
+    /**
+     * @return an idle player from the pool, or a new player if the pool is empty. The player is
+     *          in the idle state, ready for setDataSource.
+     */
+    public synchronized MediaPlayer acquire() {
+        final MediaPlayer player = idlePlayers.pollFirst();
+        return player == null ? createMediaPlayer() : player;
+    }
+
+    /**
+     * Resets the player and keeps it for reuse, or releases it if the pool is full.
+     * @param player a player obtained from {@link #acquire()}, which the caller no longer uses
+     */
+    public synchronized void recycle(MediaPlayer player) {
+        if (idlePlayers.size() >= maxIdle || !reset(player)) {
+            player.release();
+            return;
+        }
+        idlePlayers.offerFirst(player);
+    }
+
+    /**
+     * Starts preparing a player for the uri, replacing a player prepared earlier for another uri.
+     * Call on the main thread, which the player's callbacks are delivered on.
+     *
+     * @param context context used to resolve the uri, an application context is kept
+     */
+    public void prepare(Context context, Uri uri, boolean looping) {
+        if (preparedPlayer != null && preparedPlayer.uri.equals(uri)) {
+            return;
+        }
+        discardPrepared();
+
+        final MediaPlayer player = acquire();
+        final PreparedPlayer prepared = new PreparedPlayer(player, uri);
+        player.setOnPreparedListener(new MediaPlayer.OnPreparedListener() {
+            @Override
+            public void onPrepared(MediaPlayer mp) {
+                prepared.ready = true;
+            }
+        });
+        player.setOnErrorListener(new MediaPlayer.OnErrorListener() {
+            @Override
+            public boolean onError(MediaPlayer mp, int what, int extra) {
+                if (preparedPlayer == prepared) {
+                    discardPrepared();
+                }
+                return true;
+            }
+        });
+        try {
+            player.setDataSource(context.getApplicationContext(), uri);
+            player.setLooping(looping);
+            player.setAudioStreamType(AudioManager.STREAM_MUSIC);
+            player.prepareAsync();
+        } catch (IOException | IllegalArgumentException | IllegalStateException
+                | SecurityException e) {
+            recycle(player);
+            return;
+        }
+        preparedPlayer = prepared;
+    }
+
+    /**
+     * Hands over the player prepared for the uri. The caller replaces its listeners, and calls
+     * {@link #recycle(MediaPlayer)} when done with it as with an acquired player. A player
+     * prepared for another uri is discarded, as it was only prepared for the next video.
+     *
+     * @return the player preparing or prepared for the uri, or null
+     */
+    public PreparedPlayer takePrepared(Uri uri) {
+        final PreparedPlayer prepared = preparedPlayer;
+        if (prepared == null) {
+            return null;
+        }
+        preparedPlayer = null;
+        if (!prepared.uri.equals(uri)) {
+            recycle(prepared.player);
+            return null;
+        }
+        return prepared;
+    }
+
+    void discardPrepared() {
+        if (preparedPlayer != null) {
+            recycle(preparedPlayer.player);
+            preparedPlayer = null;
+        }
+    }
+
+    /**
+     * Releases all idle players.
+     */
+    public synchronized void trim() {
+        MediaPlayer player;
+        while ((player = idlePlayers.pollFirst()) != null) {
+            player.release();
+        }
+    }
+
+    /**
+     * Releases idle players when the app is running low on memory or its UI is hidden. Call
+     * from {@link ComponentCallbacks2#onTrimMemory(int)}.
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            discardPrepared();
+            trim();
+        }
+    }
+
+    MediaPlayer createMediaPlayer() {
+        return new MediaPlayer();
+    }
+
+    /**
+     * A player preparing or prepared ahead of playback.
+     */
+    public static class PreparedPlayer {
+        public final MediaPlayer player;
+        public final Uri uri;
+        // set on the main thread once prepareAsync completes
+        boolean ready;
+
+        PreparedPlayer(MediaPlayer player, Uri uri) {
+            this.player = player;
+            this.uri = uri;
+        }
+
+        /**
+         * @return true if the player is prepared, false if it is still preparing
+         */
+        public boolean isReady() {
+            return ready;
+        }
+    }
+
+    /**
+     * @return true if the player was returned to the idle state
+     */
+    static boolean reset(MediaPlayer player) {
+        try {
+            player.reset();
+        } catch (IllegalStateException e) {
+            // the player was already released
+            return false;
+        }
+        // drop references to the view which last used the player
+        player.setDisplay(null);
+        player.setOnPreparedListener(null);
+        player.setOnVideoSizeChangedListener(null);
+        player.setOnCompletionListener(null);
+        player.setOnErrorListener(null);
+        player.setOnInfoListener(null);
+        player.setOnBufferingUpdateListener(null);
+        return true;
+    }
+}
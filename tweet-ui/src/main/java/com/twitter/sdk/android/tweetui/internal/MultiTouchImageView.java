@@ -20,7 +20,11 @@ package com.twitter.sdk.android.tweetui.internal;
 import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
@@ -31,11 +35,23 @@ import android.view.ScaleGestureDetector;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.widget.ImageView;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class MultiTouchImageView extends ImageView {
     private final static long SCALE_ANIMATION_DURATION = 300L;
     private final static float DOUBLE_TAP_SCALE_FACTOR = 2.0f;
     private final static float MINIMUM_SCALE_FACTOR = 1.0f;
 
+    /**
+     * Notified the first time the image is zoomed in further than the drawable has detail for.
+     */
+    public interface OnDetailNeededListener {
+        void onDetailNeeded();
+    }
+
     final ScaleGestureDetector scaleGestureDetector;
     final GestureDetector gestureDetector;
 
@@ -48,6 +64,28 @@ public class MultiTouchImageView extends ImageView {
     final RectF drawRect = new RectF();
     final float[] matrixValues = new float[9];
 
+    // Cleared once notified
+    OnDetailNeededListener detailNeededListener;
+    // Region decoding of the full resolution image, used once zoomed past the drawable's detail
+    TiledImageDecoder tiledImageDecoder;
+    ExecutorService tileExecutor;
+    // Keys of tiles queued for decoding, only accessed on the main thread
+    final Set<String> pendingTiles = new HashSet<>();
+    // Keys of tiles which failed to decode and are not requested again, main thread only
+    final Set<String> failedTiles = new HashSet<>();
+    // Keys of tiles decoded for the current visible tiles, main thread only. Not requested again
+    // until the visible tiles change, so an evicted tile can not cause a decode loop.
+    final Set<String> decodedTiles = new HashSet<>();
+    // Incremented whenever the visible tiles change so queued decodes of hidden tiles are skipped
+    volatile int tileGeneration;
+    int tileSampleSize;
+    final Rect visibleTiles = new Rect();
+    final Matrix tileMatrix = new Matrix();
+    final Matrix inverseTileMatrix = new Matrix();
+    final RectF visibleRect = new RectF();
+    final Rect tileRect = new Rect();
+    final Paint tilePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
     public MultiTouchImageView(Context context) {
         this(context, null);
     }
@@ -114,6 +152,159 @@ public class MultiTouchImageView extends ImageView {
         }
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        setTiledImageDecoder(null);
+    }
+
+    /**
+     * Sets the listener notified the first time the image is zoomed in further than the drawable
+     * has detail for, e.g. to only fetch the full resolution image once it is needed. The
+     * listener is notified right away if the image is zoomed in that far already.
+     */
+    public void setOnDetailNeededListener(OnDetailNeededListener listener) {
+        detailNeededListener = listener;
+        notifyIfDetailNeeded();
+    }
+
+    void notifyIfDetailNeeded() {
+        final OnDetailNeededListener listener = detailNeededListener;
+        if (listener != null && isInitializationComplete() && isZoomedPastDetail()) {
+            detailNeededListener = null;
+            listener.onDetailNeeded();
+        }
+    }
+
+    /**
+     * @return true if the user zoomed in and each drawable pixel covers more than one view pixel
+     */
+    boolean isZoomedPastDetail() {
+        if (getScale() <= MINIMUM_SCALE_FACTOR) {
+            return false;
+        }
+        getDrawMatrix().getValues(matrixValues);
+        return matrixValues[Matrix.MSCALE_X] > 1f;
+    }
+
+    /**
+     * Sets the decoder of the full resolution image. When zoomed in further than the drawable
+     * has detail for, the visible region is decoded in tiles and drawn over the drawable. The
+     * view recycles the decoder when it is replaced or the view is detached.
+     *
+     * @param decoder the decoder for the image shown by the drawable, or null
+     */
+    public void setTiledImageDecoder(TiledImageDecoder decoder) {
+        if (tiledImageDecoder != null) {
+            tileExecutor.shutdownNow();
+            tiledImageDecoder.recycle();
+            pendingTiles.clear();
+            failedTiles.clear();
+            decodedTiles.clear();
+        }
+        tiledImageDecoder = decoder;
+        tileExecutor = decoder == null ? null : Executors.newSingleThreadExecutor();
+        tileGeneration++;
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (tiledImageDecoder != null && isInitializationComplete()) {
+            drawTiles(canvas, tiledImageDecoder, getDrawable());
+        }
+    }
+
+    void drawTiles(Canvas canvas, TiledImageDecoder decoder, Drawable drawable) {
+        // maps image pixels of the decoder to view pixels
+        tileMatrix.set(getDrawMatrix());
+        tileMatrix.preScale((float) drawable.getIntrinsicWidth() / decoder.getWidth(),
+                (float) drawable.getIntrinsicHeight() / decoder.getHeight());
+        tileMatrix.getValues(matrixValues);
+        final int sampleSize = TiledImageDecoder.calculateSampleSize(matrixValues[Matrix.MSCALE_X]);
+        if (decoder.getWidth() / sampleSize <= drawable.getIntrinsicWidth()) {
+            // the drawable already has as much detail as the tiles would
+            return;
+        }
+
+        tileMatrix.invert(inverseTileMatrix);
+        visibleRect.set(0, 0, viewRect.width(), viewRect.height());
+        inverseTileMatrix.mapRect(visibleRect);
+        final int tileSize = TiledImageDecoder.TILE_SIZE * sampleSize;
+        final int left = Math.max(0, (int) (visibleRect.left / tileSize));
+        final int top = Math.max(0, (int) (visibleRect.top / tileSize));
+        final int right = Math.min((decoder.getWidth() - 1) / tileSize,
+                (int) (visibleRect.right / tileSize));
+        final int bottom = Math.min((decoder.getHeight() - 1) / tileSize,
+                (int) (visibleRect.bottom / tileSize));
+        if (sampleSize != tileSampleSize || visibleTiles.left != left || visibleTiles.top != top
+                || visibleTiles.right != right || visibleTiles.bottom != bottom) {
+            tileSampleSize = sampleSize;
+            visibleTiles.set(left, top, right, bottom);
+            tileGeneration++;
+            decodedTiles.clear();
+        }
+
+        final int saveCount = canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        canvas.concat(tileMatrix);
+        for (int row = top; row <= bottom; row++) {
+            for (int column = left; column <= right; column++) {
+                final Bitmap tile = decoder.getCachedTile(sampleSize, column, row);
+                if (tile != null) {
+                    decoder.getTileRect(sampleSize, column, row, tileRect);
+                    canvas.drawBitmap(tile, null, tileRect, tilePaint);
+                } else {
+                    requestTile(decoder, sampleSize, column, row);
+                }
+            }
+        }
+        canvas.restoreToCount(saveCount);
+    }
+
+    void requestTile(final TiledImageDecoder decoder, final int sampleSize, final int column,
+            final int row) {
+        final String key = TiledImageDecoder.getTileKey(sampleSize, column, row);
+        if (failedTiles.contains(key) || decodedTiles.contains(key) || !pendingTiles.add(key)) {
+            return;
+        }
+
+        final int generation = tileGeneration;
+        tileExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // tiles which were panned or zoomed out of view while queued are not decoded,
+                // the next draw requests them again if they are still visible
+                final boolean decoded = generation == tileGeneration;
+                final Bitmap tile = decoded ? decoder.decodeTile(sampleSize, column, row) : null;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onTileDecoded(decoder, key, generation, decoded, tile);
+                    }
+                });
+            }
+        });
+    }
+
+    void onTileDecoded(TiledImageDecoder decoder, String key, int generation, boolean decoded,
+            Bitmap tile) {
+        if (decoder != tiledImageDecoder) {
+            return;
+        }
+
+        pendingTiles.remove(key);
+        if (tile != null) {
+            if (generation == tileGeneration) {
+                decodedTiles.add(key);
+            }
+            invalidate();
+        } else if (decoded) {
+            failedTiles.add(key);
+        }
+    }
+
     void initializeViewRect() {
         viewRect.set(getPaddingLeft(), getPaddingTop(), getWidth() - getPaddingRight(),
                 getHeight() - getPaddingBottom());
@@ -204,6 +395,7 @@ public class MultiTouchImageView extends ImageView {
         updateMatrixBounds();
         setScaleType(ScaleType.MATRIX);
         setImageMatrix(getDrawMatrix());
+        notifyIfDetailNeeded();
     }
 
     void animateScale(float start, float end, final float px, final float py) {
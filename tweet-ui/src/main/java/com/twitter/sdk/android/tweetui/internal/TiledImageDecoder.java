@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui.internal;
+
+import android.annotation.TargetApi;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.os.Build;
+import android.support.v4.util.LruCache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Decodes square tiles of a large image file on demand with a BitmapRegionDecoder, so a zoomed
+ * in photo only decodes the visible region at the sample size it is shown at. Decoded tiles are
+ * kept in an LruCache bounded by their size in bytes, which holds at least the tiles visible at
+ * once so drawing them does not evict tiles of the same frame.
+ */
+@TargetApi(Build.VERSION_CODES.GINGERBREAD_MR1)
+public class TiledImageDecoder {
+    // Tile size in decoded pixels, a RGB_565 tile is 128KB
+    static final int TILE_SIZE = 256;
+    static final int TILE_BYTES = TILE_SIZE * TILE_SIZE * 2;
+    // Fraction of the app's heap the tile cache uses by default
+    private static final int MEMORY_CACHE_DIVIDER = 8;
+    // Fraction of the app's heap the tile cache never grows past to hold the visible tiles
+    private static final int MAX_MEMORY_CACHE_DIVIDER = 4;
+
+    private final BitmapRegionDecoder decoder;
+    private final int width;
+    private final int height;
+    // leave this package accessible for testing
+    final LruCache<String, Bitmap> tileCache;
+
+    TiledImageDecoder(BitmapRegionDecoder decoder, int width, int height, int maxCacheBytes) {
+        this.decoder = decoder;
+        this.width = width;
+        this.height = height;
+        this.tileCache = new LruCache<String, Bitmap>(maxCacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap tile) {
+                return tile.getRowBytes() * tile.getHeight();
+            }
+        };
+    }
+
+    /**
+     * @param file JPEG or PNG image file
+     * @param viewWidth width of the view the tiles are drawn in
+     * @param viewHeight height of the view the tiles are drawn in
+     * @return a decoder with a tile cache sized to the app's heap and the tiles visible in the view
+     * @throws IOException if the file can not be read or is not a supported image
+     */
+    public static TiledImageDecoder newInstance(File file, int viewWidth, int viewHeight)
+            throws IOException {
+        final BitmapRegionDecoder decoder =
+                BitmapRegionDecoder.newInstance(file.getAbsolutePath(), false);
+        final int maxCacheBytes = calculateMaxCacheBytes(Runtime.getRuntime().maxMemory(),
+                viewWidth, viewHeight);
+        return new TiledImageDecoder(decoder, decoder.getWidth(), decoder.getHeight(),
+                maxCacheBytes);
+    }
+
+    /**
+     * Returns the cache size in bytes: a fraction of the heap, grown to hold all tiles visible in
+     * the view at once but never past a larger fraction of the heap.
+     */
+    static int calculateMaxCacheBytes(long maxMemory, int viewWidth, int viewHeight) {
+        final long visibleBytes = (long) calculateMaxVisibleTiles(viewWidth, viewHeight)
+                * TILE_BYTES;
+        final long cacheBytes = Math.max(maxMemory / MEMORY_CACHE_DIVIDER, visibleBytes);
+        return (int) Math.min(cacheBytes, maxMemory / MAX_MEMORY_CACHE_DIVIDER);
+    }
+
+    /**
+     * Returns the most tiles which can be visible in a view of the given size. The sample size
+     * keeps each tile larger than half its size in view pixels, and a partially visible tile may
+     * be cut off at each edge.
+     */
+    static int calculateMaxVisibleTiles(int viewWidth, int viewHeight) {
+        final int minTileSpan = TILE_SIZE / 2;
+        return (viewWidth / minTileSpan + 2) * (viewHeight / minTileSpan + 2);
+    }
+
+    /**
+     * @return true if tiled decoding is available on this device
+     */
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.GINGERBREAD_MR1;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the largest power of two sample size which still decodes at least as many pixels
+     * as the image is shown at.
+     *
+     * @param scale shown pixels per image pixel
+     */
+    static int calculateSampleSize(float scale) {
+        int sampleSize = 1;
+        while (scale > 0 && sampleSize * 2 * scale <= 1) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Sets {@code out} to the region in image pixels which the tile at the given column and row
+     * covers, clipped to the image bounds.
+     */
+    void getTileRect(int sampleSize, int column, int row, Rect out) {
+        final int tileSize = TILE_SIZE * sampleSize;
+        out.set(column * tileSize, row * tileSize,
+                Math.min((column + 1) * tileSize, width), Math.min((row + 1) * tileSize, height));
+    }
+
+    /**
+     * @return the cached tile or null if the tile has not been decoded or was evicted
+     */
+    Bitmap getCachedTile(int sampleSize, int column, int row) {
+        return tileCache.get(getTileKey(sampleSize, column, row));
+    }
+
+    /**
+     * Decodes the tile into the cache. Call off the main thread.
+     *
+     * @return the decoded tile or null if decoding failed or the decoder was recycled
+     */
+    Bitmap decodeTile(int sampleSize, int column, int row) {
+        final String key = getTileKey(sampleSize, column, row);
+        Bitmap tile = tileCache.get(key);
+        if (tile != null) {
+            return tile;
+        }
+
+        final Rect region = new Rect();
+        getTileRect(sampleSize, column, row, region);
+        final BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        // photos are opaque, RGB_565 halves the memory of each tile
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        synchronized (decoder) {
+            if (decoder.isRecycled()) {
+                return null;
+            }
+            tile = decoder.decodeRegion(region, options);
+        }
+        if (tile != null) {
+            tileCache.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * Evicts cached tiles and releases the decoder. Pending decodes return null.
+     */
+    public void recycle() {
+        tileCache.evictAll();
+        synchronized (decoder) {
+            decoder.recycle();
+        }
+    }
+
+    static String getTileKey(int sampleSize, int column, int row) {
+        return sampleSize + ":" + column + ":" + row;
+    }
+}
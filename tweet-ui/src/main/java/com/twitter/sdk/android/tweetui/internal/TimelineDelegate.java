@@ -23,6 +23,8 @@ import android.database.DataSetObserver;
 import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.internal.RequestHandle;
+import com.twitter.sdk.android.core.internal.RequestPriority;
 import com.twitter.sdk.android.core.models.Identifiable;
 import com.twitter.sdk.android.tweetui.Timeline;
 import com.twitter.sdk.android.tweetui.TimelineResult;
@@ -33,6 +35,9 @@ import java.util.List;
 /**
  * TimelineDelegate manages timeline data items and loads items from a Timeline. This logic is
  * common to TimelineListAdapter and TimelineRecyclerAdapter.
+ *
+ * The request in flight is cancelled by {@link #cancel()}, or once the last DataSetObserver is
+ * unregistered, as list views do when they are detached from the window.
  * @param <T> the item type
  */
 public class TimelineDelegate<T extends Identifiable> {
@@ -44,6 +49,9 @@ public class TimelineDelegate<T extends Identifiable> {
     final DataSetObservable listAdapterObservable;
     final TimelineStateHolder timelineStateHolder;
     List<T> itemList;
+    // handle of the timeline request in flight, if any
+    RequestHandle currentRequest;
+    int observerCount;
 
     /**
      * Constructs a TimelineDelegate with a timeline for requesting data.
@@ -101,6 +109,18 @@ public class TimelineDelegate<T extends Identifiable> {
                 new PreviousCallback(timelineStateHolder));
     }
 
+    /**
+     * Cancels the timeline request in flight, if any. Its results are dropped and its callback is
+     * not called, so that a new request can be made right away.
+     */
+    public void cancel() {
+        if (currentRequest != null) {
+            currentRequest.cancel();
+            currentRequest = null;
+            timelineStateHolder.finishTimelineRequest();
+        }
+    }
+
     /**
      * Returns the number of items in the data set.
      * @return Count of items.
@@ -162,10 +182,15 @@ public class TimelineDelegate<T extends Identifiable> {
     /**
      * Checks the capacity and sets requestInFlight before calling timeline.next.
      */
-    void loadNext(Long minPosition, Callback<TimelineResult<T>> cb) {
+    void loadNext(final Long minPosition, final Callback<TimelineResult<T>> cb) {
         if (withinMaxCapacity()) {
             if (timelineStateHolder.startTimelineRequest()) {
-                timeline.next(minPosition, cb);
+                startRequest(cb).run(new Runnable() {
+                    @Override
+                    public void run() {
+                        timeline.next(minPosition, cb);
+                    }
+                });
             } else {
                 cb.failure(new TwitterException("Request already in flight"));
             }
@@ -177,10 +202,22 @@ public class TimelineDelegate<T extends Identifiable> {
     /**
      * Checks the capacity and sets requestInFlight before calling timeline.previous.
      */
-    void loadPrevious(Long maxPosition, Callback<TimelineResult<T>> cb) {
+    void loadPrevious(final Long maxPosition, final Callback<TimelineResult<T>> cb) {
         if (withinMaxCapacity()) {
             if (timelineStateHolder.startTimelineRequest()) {
-                timeline.previous(maxPosition, cb);
+                final RequestHandle handle = startRequest(cb);
+                // older items are loaded ahead of scrolling to them
+                RequestPriority.PREFETCH.run(new Runnable() {
+                    @Override
+                    public void run() {
+                        handle.run(new Runnable() {
+                            @Override
+                            public void run() {
+                                timeline.previous(maxPosition, cb);
+                            }
+                        });
+                    }
+                });
             } else {
                 cb.failure(new TwitterException("Request already in flight"));
             }
@@ -189,14 +226,31 @@ public class TimelineDelegate<T extends Identifiable> {
         }
     }
 
+    /*
+     * Tracks the handle of a request which is about to start. Requests made with a DefaultCallback
+     * use its handle, so the callback can tell that the request was cancelled.
+     */
+    private RequestHandle startRequest(Callback<TimelineResult<T>> cb) {
+        final RequestHandle handle;
+        if (cb instanceof TimelineDelegate.DefaultCallback) {
+            handle = ((DefaultCallback) cb).requestHandle;
+        } else {
+            handle = new RequestHandle();
+        }
+        currentRequest = handle;
+        return handle;
+    }
+
     /**
      * TimelineDelegate.DefaultCallback is a Callback which handles setting requestInFlight to
      * false on both success and failure and calling through to a wrapped developer Callback.
-     * Subclass methods must call through to the parent method after their custom implementation.
+     * Subclass methods must call through to the parent method after their custom implementation
+     * and must ignore results once the request handle is cancelled.
      */
     class DefaultCallback extends Callback<TimelineResult<T>> {
         protected final Callback<TimelineResult<T>> developerCallback;
         protected final TimelineStateHolder timelineStateHolder;
+        final RequestHandle requestHandle = new RequestHandle();
 
         DefaultCallback(Callback<TimelineResult<T>> developerCb,
                         TimelineStateHolder timelineStateHolder) {
@@ -206,7 +260,8 @@ public class TimelineDelegate<T extends Identifiable> {
 
         @Override
         public void success(Result<TimelineResult<T>> result) {
-            timelineStateHolder.finishTimelineRequest();
+            if (requestHandle.isCancelled()) return;
+            finishRequest();
             if (developerCallback != null) {
                 developerCallback.success(result);
             }
@@ -214,11 +269,19 @@ public class TimelineDelegate<T extends Identifiable> {
 
         @Override
         public void failure(TwitterException exception) {
-            timelineStateHolder.finishTimelineRequest();
+            if (requestHandle.isCancelled()) return;
+            finishRequest();
             if (developerCallback != null) {
                 developerCallback.failure(exception);
             }
         }
+
+        private void finishRequest() {
+            if (currentRequest == requestHandle) {
+                currentRequest = null;
+            }
+            timelineStateHolder.finishTimelineRequest();
+        }
     }
 
     /**
@@ -234,6 +297,7 @@ public class TimelineDelegate<T extends Identifiable> {
 
         @Override
         public void success(Result<TimelineResult<T>> result) {
+            if (requestHandle.isCancelled()) return;
             if (result.data.items.size() > 0) {
                 final ArrayList<T> receivedItems = new ArrayList<>(result.data.items);
                 receivedItems.addAll(itemList);
@@ -260,6 +324,7 @@ public class TimelineDelegate<T extends Identifiable> {
 
         @Override
         public void success(Result<TimelineResult<T>> result) {
+            if (requestHandle.isCancelled()) return;
             if (result.data.items.size() > 0) {
                 itemList.clear();
             }
@@ -278,6 +343,7 @@ public class TimelineDelegate<T extends Identifiable> {
 
         @Override
         public void success(Result<TimelineResult<T>> result) {
+            if (requestHandle.isCancelled()) return;
             if (result.data.items.size() > 0) {
                 itemList.addAll(result.data.items);
                 notifyDataSetChanged();
@@ -296,15 +362,20 @@ public class TimelineDelegate<T extends Identifiable> {
      */
     public void registerDataSetObserver(DataSetObserver observer) {
         listAdapterObservable.registerObserver(observer);
+        observerCount++;
     }
 
     /**
      * Unregister an observer that has previously been registered via
-     * registerDataSetObserver(DataSetObserver).
+     * registerDataSetObserver(DataSetObserver). Cancels the request in flight once no
+     * observers remain.
      * @param observer The object to unregister.
      */
     public void unregisterDataSetObserver(DataSetObserver observer) {
         listAdapterObservable.unregisterObserver(observer);
+        if (observerCount > 0 && --observerCount == 0) {
+            cancel();
+        }
     }
 
     /**
@@ -25,6 +25,8 @@ import com.twitter.sdk.android.core.models.VideoInfo;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 final public class TweetMediaUtils {
     public static final String PHOTO_TYPE = "photo";
@@ -33,9 +35,118 @@ final public class TweetMediaUtils {
     private static final String CONTENT_TYPE_MP4 = "video/mp4";
     private static final String CONTENT_TYPE_WEBM = "video/webm";
 
+    private static final String RESIZE_CROP = "crop";
+    // Share of the estimated bandwidth a variant's bitrate may use, leaving headroom for variance
+    private static final double BANDWIDTH_FRACTION = 0.75;
+    // Video variant urls include the encoded size, e.g. /vid/640x360/
+    private static final Pattern VARIANT_SIZE_PATTERN = Pattern.compile("/(\\d+)x(\\d+)/");
+
     private TweetMediaUtils() {
     }
 
+    // see https://dev.twitter.com/overview/api/entities#obj-sizes
+    // ordered from the smallest to the largest variant
+    public enum PhotoSize {
+        THUMB(":thumb"),
+        SMALL(":small"),
+        MEDIUM(":medium"),
+        LARGE(":large");
+
+        private final String suffix;
+
+        PhotoSize(String suffix) {
+            this.suffix = suffix;
+        }
+
+        String getSuffix() {
+            return suffix;
+        }
+
+        MediaEntity.Size getSize(MediaEntity.Sizes sizes) {
+            switch (this) {
+                case THUMB:
+                    return sizes.thumb;
+                case SMALL:
+                    return sizes.small;
+                case MEDIUM:
+                    return sizes.medium;
+                default:
+                    return sizes.large;
+            }
+        }
+    }
+
+    /**
+     * Returns the url of the smallest photo variant which covers a target of the given pixel size
+     * when center cropped, or of the largest variant if none covers it. Returns the default
+     * mediaUrlHttps if the target size or the variant sizes are unknown.
+     *
+     * @param mediaEntity The photo entity
+     * @param width The target width in pixels
+     * @param height The target height in pixels
+     * @return The photo url for the target size
+     */
+    static public String getPhotoUrl(MediaEntity mediaEntity, int width, int height) {
+        final String url = mediaEntity.mediaUrlHttps;
+        final PhotoSize size = getPhotoSize(mediaEntity.sizes, width, height);
+        if (url == null || size == null) {
+            return url;
+        }
+        return url + size.getSuffix();
+    }
+
+    static PhotoSize getPhotoSize(MediaEntity.Sizes sizes, int width, int height) {
+        if (sizes == null || width <= 0 || height <= 0) {
+            return null;
+        }
+
+        PhotoSize largest = null;
+        for (PhotoSize photoSize : PhotoSize.values()) {
+            final MediaEntity.Size size = photoSize.getSize(sizes);
+            // cropped variants only show the same region as the full photo for square targets
+            if (size == null || size.w <= 0 || size.h <= 0
+                    || (RESIZE_CROP.equals(size.resize) && width != height)) {
+                continue;
+            }
+            if (size.w >= width && size.h >= height) {
+                return photoSize;
+            }
+            largest = photoSize;
+        }
+        return largest;
+    }
+
+    /**
+     * Returns the url of the largest uncropped photo variant. Returns the default mediaUrlHttps
+     * if the variant sizes are unknown.
+     *
+     * @param mediaEntity The photo entity
+     * @return The photo url of the largest variant
+     */
+    static public String getLargestPhotoUrl(MediaEntity mediaEntity) {
+        final String url = mediaEntity.mediaUrlHttps;
+        final PhotoSize size = getLargestPhotoSize(mediaEntity.sizes);
+        if (url == null || size == null) {
+            return url;
+        }
+        return url + size.getSuffix();
+    }
+
+    static PhotoSize getLargestPhotoSize(MediaEntity.Sizes sizes) {
+        if (sizes == null) {
+            return null;
+        }
+
+        PhotoSize largest = null;
+        for (PhotoSize photoSize : PhotoSize.values()) {
+            final MediaEntity.Size size = photoSize.getSize(sizes);
+            if (size != null && size.w > 0 && size.h > 0 && !RESIZE_CROP.equals(size.resize)) {
+                largest = photoSize;
+            }
+        }
+        return largest;
+    }
+
     /**
      * This method gets the last photo entity out of the tweet, this is the photo to display inline
      *
@@ -116,6 +227,64 @@ final public class TweetMediaUtils {
         return null;
     }
 
+    /**
+     * Returns the supported variant with the highest bitrate which fits the screen and the
+     * bandwidth estimate, or the supported variant with the lowest bitrate if none fits.
+     *
+     * @param mediaEntity The video or animated gif entity
+     * @param width The screen width in pixels, or 0 if unknown
+     * @param height The screen height in pixels, or 0 if unknown
+     * @param bitrateEstimate The estimated bandwidth in bits per second, or 0 if unknown
+     * @return The variant to play, or null if no variant is supported
+     */
+    static public VideoInfo.Variant getBestVariant(MediaEntity mediaEntity, int width, int height,
+            long bitrateEstimate) {
+        if (mediaEntity.videoInfo == null || mediaEntity.videoInfo.variants == null) {
+            return null;
+        }
+
+        final long maxBitrate = bitrateEstimate > 0
+                ? (long) (bitrateEstimate * BANDWIDTH_FRACTION) : Long.MAX_VALUE;
+        VideoInfo.Variant best = null;
+        VideoInfo.Variant lowest = null;
+        for (VideoInfo.Variant variant : mediaEntity.videoInfo.variants) {
+            if (!isVariantSupported(variant)) {
+                continue;
+            }
+            if (lowest == null || variant.bitrate < lowest.bitrate) {
+                lowest = variant;
+            }
+            if (variant.bitrate <= maxBitrate && isVariantWithinScreen(variant, width, height)
+                    && (best == null || variant.bitrate > best.bitrate)) {
+                best = variant;
+            }
+        }
+        return best != null ? best : lowest;
+    }
+
+    /**
+     * Returns true if the encoded size of the variant is no larger than the screen in either
+     * orientation, or if either size is unknown.
+     */
+    static boolean isVariantWithinScreen(VideoInfo.Variant variant, int width, int height) {
+        if (width <= 0 || height <= 0 || variant.url == null) {
+            return true;
+        }
+
+        final Matcher matcher = VARIANT_SIZE_PATTERN.matcher(variant.url);
+        if (!matcher.find()) {
+            return true;
+        }
+        try {
+            final int variantWidth = Integer.parseInt(matcher.group(1));
+            final int variantHeight = Integer.parseInt(matcher.group(2));
+            return Math.max(variantWidth, variantHeight) <= Math.max(width, height)
+                    && Math.min(variantWidth, variantHeight) <= Math.min(width, height);
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
     static public boolean isLooping(MediaEntity mediaEntity) {
         if (GIF_TYPE.equals(mediaEntity.type)) {
             return true;
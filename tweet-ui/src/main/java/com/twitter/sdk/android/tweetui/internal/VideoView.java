@@ -91,6 +91,7 @@ public class VideoView extends SurfaceView
     private boolean mCanSeekBack;
     private boolean mCanSeekForward;
     private boolean mLooping;
+    private MediaPlayerPool mPlayerPool;
 
     public VideoView(Context context) {
         super(context);
@@ -196,10 +197,18 @@ public class VideoView extends SurfaceView
         invalidate();
     }
 
+    /**
+     * Sets the pool media players are taken from and handed back to, instead of creating and
+     * releasing a player for every video.
+     */
+    public void setMediaPlayerPool(MediaPlayerPool pool) {
+        mPlayerPool = pool;
+    }
+
     public void stopPlayback() {
         if (mMediaPlayer != null) {
             mMediaPlayer.stop();
-            mMediaPlayer.release();
+            releaseMediaPlayer();
             mMediaPlayer = null;
             mCurrentState = STATE_IDLE;
             mTargetState = STATE_IDLE;
@@ -214,8 +223,14 @@ public class VideoView extends SurfaceView
         // we shouldn't clear the target state, because somebody might have
         // called start() previously
         release(false);
+        final MediaPlayerPool.PreparedPlayer prepared =
+                mPlayerPool == null ? null : mPlayerPool.takePrepared(mUri);
+        if (prepared != null) {
+            openPreparedVideo(prepared);
+            return;
+        }
         try {
-            mMediaPlayer = new MediaPlayer();
+            mMediaPlayer = mPlayerPool == null ? new MediaPlayer() : mPlayerPool.acquire();
             if (mAudioSession != 0) {
                 mMediaPlayer.setAudioSessionId(mAudioSession);
             } else {
@@ -248,6 +263,48 @@ public class VideoView extends SurfaceView
         }
     }
 
+    /*
+     * Takes over a player the pool prepared for mUri ahead of playback, so playback starts
+     * without waiting for prepareAsync again.
+     */
+    private void openPreparedVideo(MediaPlayerPool.PreparedPlayer prepared) {
+        final MediaPlayer player = prepared.player;
+        mMediaPlayer = player;
+        mAudioSession = player.getAudioSessionId();
+        try {
+            player.setOnPreparedListener(mPreparedListener);
+            player.setOnVideoSizeChangedListener(mSizeChangedListener);
+            player.setOnCompletionListener(mCompletionListener);
+            player.setOnErrorListener(mErrorListener);
+            player.setOnInfoListener(mInfoListener);
+            player.setOnBufferingUpdateListener(mBufferingUpdateListener);
+            mCurrentBufferPercentage = 0;
+            player.setDisplay(mSurfaceHolder);
+            player.setLooping(mLooping);
+            player.setScreenOnWhilePlaying(true);
+            mCurrentState = STATE_PREPARING;
+            attachMediaController();
+        } catch (Exception ex) {
+            Log.w(TAG, "Unable to open prepared content: " + mUri, ex);
+            mCurrentState = STATE_ERROR;
+            mTargetState = STATE_ERROR;
+            mErrorListener.onError(mMediaPlayer, MediaPlayer.MEDIA_ERROR_UNKNOWN, 0);
+            return;
+        }
+        if (prepared.isReady()) {
+            // the prepared callback was delivered to the pool, deliver it again once listeners
+            // set after setVideoURI are in place
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mMediaPlayer == player && mCurrentState == STATE_PREPARING) {
+                        mPreparedListener.onPrepared(player);
+                    }
+                }
+            });
+        }
+    }
+
     public void setMediaController(VideoControlView controller) {
         if (mMediaController != null) {
             mMediaController.hide();
@@ -445,8 +502,7 @@ public class VideoView extends SurfaceView
      */
     private void release(boolean cleartargetstate) {
         if (mMediaPlayer != null) {
-            mMediaPlayer.reset();
-            mMediaPlayer.release();
+            releaseMediaPlayer();
             mMediaPlayer = null;
             mCurrentState = STATE_IDLE;
             if (cleartargetstate) {
@@ -455,6 +511,15 @@ public class VideoView extends SurfaceView
         }
     }
 
+    private void releaseMediaPlayer() {
+        if (mPlayerPool == null) {
+            mMediaPlayer.reset();
+            mMediaPlayer.release();
+        } else {
+            mPlayerPool.recycle(mMediaPlayer);
+        }
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent ev) {
         if (isInPlaybackState() && mMediaController != null) {
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class BandwidthMeterTest {
+    private static final long TEST_BYTES = 1000000;
+
+    private BandwidthMeter bandwidthMeter;
+
+    @Before
+    public void setUp() throws Exception {
+        bandwidthMeter = new BandwidthMeter();
+    }
+
+    @Test
+    public void testGetBitrateEstimate_noSamples() {
+        assertEquals(0, bandwidthMeter.getBitrateEstimate());
+    }
+
+    @Test
+    public void testAddSample() {
+        bandwidthMeter.addSample(TEST_BYTES, 1000);
+        assertEquals(8000000, bandwidthMeter.getBitrateEstimate());
+    }
+
+    @Test
+    public void testAddSample_weightsNewestSample() {
+        bandwidthMeter.addSample(TEST_BYTES, 1000);
+        bandwidthMeter.addSample(TEST_BYTES, 2000);
+        // 0.3 * 4Mbps + 0.7 * 8Mbps
+        assertEquals(6800000, bandwidthMeter.getBitrateEstimate());
+    }
+
+    @Test
+    public void testAddSample_ignoresSmallDownloads() {
+        bandwidthMeter.addSample(BandwidthMeter.MIN_SAMPLE_BYTES - 1, 1);
+        assertEquals(0, bandwidthMeter.getBitrateEstimate());
+    }
+
+    @Test
+    public void testAddSample_ignoresInvalidDuration() {
+        bandwidthMeter.addSample(TEST_BYTES, 0);
+        assertEquals(0, bandwidthMeter.getBitrateEstimate());
+    }
+}
@@ -36,8 +36,16 @@ import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.io.File;
+
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -47,14 +55,20 @@ import static org.mockito.Mockito.when;
 public class PlayerControllerTest {
     private static final String TEST_CONTENT_TYPE_MP4 = "video/mp4";
     private static final String TEST_CONTENT_URL = "https://example.com";
+    private static final String TEST_FILE_PATH = "/cache/tw__media/video";
+    private static final int TEST_POSITION = 1000;
     @Mock
     VideoView videoView;
     @Mock
     VideoControlView videoControlView;
+    @Mock
+    VideoPrebuffer videoPrebuffer;
     @Captor
     private ArgumentCaptor<View.OnClickListener> clickListenerCaptor;
     @Captor
     private ArgumentCaptor<MediaPlayer.OnPreparedListener> preparedListenerCaptor;
+    @Captor
+    private ArgumentCaptor<MediaPlayer.OnErrorListener> errorListenerCaptor;
 
     @Before
     public void setUp() {
@@ -68,9 +82,11 @@ public class PlayerControllerTest {
                 new VideoInfo.Variant(0, TEST_CONTENT_TYPE_MP4, testUri.toString());
         final VideoInfo videoInfo = TestFixtures.createVideoInfoWithVariant(variant);
         final MediaEntity entity = TestFixtures.createEntityWithVideo(videoInfo);
+        when(videoPrebuffer.selectVariant(entity)).thenReturn(variant);
+        when(videoPrebuffer.getPlaybackUri(variant)).thenReturn(testUri);
 
         final PlayerController playerController =
-                spy(new PlayerController(videoView, videoControlView));
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
         doNothing().when(playerController).setUpMediaControl();
         playerController.prepare(entity);
 
@@ -85,10 +101,143 @@ public class PlayerControllerTest {
         verify(videoView).start();
     }
 
+    @Test
+    public void testPrepare_prebuffered() {
+        final Uri fileUri = Uri.fromFile(new File(TEST_FILE_PATH));
+        final VideoInfo.Variant variant =
+                new VideoInfo.Variant(0, TEST_CONTENT_TYPE_MP4, TEST_CONTENT_URL);
+        final VideoInfo videoInfo = TestFixtures.createVideoInfoWithVariant(variant);
+        final MediaEntity entity = TestFixtures.createEntityWithVideo(videoInfo);
+        when(videoPrebuffer.selectVariant(entity)).thenReturn(variant);
+        when(videoPrebuffer.getPlaybackUri(variant)).thenReturn(fileUri);
+
+        final PlayerController playerController =
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
+        doNothing().when(playerController).setUpMediaControl();
+        playerController.prepare(entity);
+
+        verify(videoView).setVideoURI(fileUri, false);
+    }
+
+    @Test
+    public void testPrepare_prebufferedFileFails() {
+        final Uri fileUri = Uri.fromFile(new File(TEST_FILE_PATH));
+        final VideoInfo.Variant variant =
+                new VideoInfo.Variant(0, TEST_CONTENT_TYPE_MP4, TEST_CONTENT_URL);
+        final VideoInfo videoInfo = TestFixtures.createVideoInfoWithVariant(variant);
+        final MediaEntity entity = TestFixtures.createEntityWithVideo(videoInfo);
+        when(videoPrebuffer.selectVariant(entity)).thenReturn(variant);
+        when(videoPrebuffer.getPlaybackUri(variant)).thenReturn(fileUri);
+
+        final PlayerController playerController =
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
+        doNothing().when(playerController).setUpMediaControl();
+        playerController.prepare(entity);
+        verify(videoView).setOnErrorListener(errorListenerCaptor.capture());
+
+        // the file was evicted from the disk cache, the variant is streamed instead
+        assertTrue(errorListenerCaptor.getValue().onError(null, 0, 0));
+        verify(videoPrebuffer).onPlaybackFailed(variant);
+        verify(videoView).setVideoURI(Uri.parse(TEST_CONTENT_URL), false);
+    }
+
+    @Test
+    public void testPrepare_streamFails() {
+        final Uri testUri = Uri.parse(TEST_CONTENT_URL);
+        final VideoInfo.Variant variant =
+                new VideoInfo.Variant(0, TEST_CONTENT_TYPE_MP4, TEST_CONTENT_URL);
+        final VideoInfo videoInfo = TestFixtures.createVideoInfoWithVariant(variant);
+        final MediaEntity entity = TestFixtures.createEntityWithVideo(videoInfo);
+        when(videoPrebuffer.selectVariant(entity)).thenReturn(variant);
+        when(videoPrebuffer.getPlaybackUri(variant)).thenReturn(testUri);
+
+        final PlayerController playerController =
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
+        doNothing().when(playerController).setUpMediaControl();
+        playerController.prepare(entity);
+        verify(videoView).setOnErrorListener(errorListenerCaptor.capture());
+
+        assertFalse(errorListenerCaptor.getValue().onError(null, 0, 0));
+        verify(videoPrebuffer, never()).onPlaybackFailed(any(VideoInfo.Variant.class));
+    }
+
+    @Test
+    public void testPrepare_cachesLoopingVideo() {
+        final Uri testUri = Uri.parse(TEST_CONTENT_URL);
+        final VideoInfo.Variant variant =
+                new VideoInfo.Variant(0, TEST_CONTENT_TYPE_MP4, TEST_CONTENT_URL);
+        final VideoInfo videoInfo = TestFixtures.createVideoInfoWithVariant(variant);
+        final MediaEntity entity = TestFixtures.createEntityWithAnimatedGif(videoInfo);
+        when(videoPrebuffer.selectVariant(entity)).thenReturn(variant);
+        when(videoPrebuffer.getPlaybackUri(variant)).thenReturn(testUri);
+
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
+        playerController.prepare(entity);
+
+        verify(videoView).setVideoURI(testUri, true);
+        verify(videoPrebuffer).cache(eq(variant), any(VideoPrebuffer.CacheListener.class));
+    }
+
+    @Test
+    public void testPrepare_loopingVideoAlreadyCached() {
+        final Uri fileUri = Uri.fromFile(new File(TEST_FILE_PATH));
+        final VideoInfo.Variant variant =
+                new VideoInfo.Variant(0, TEST_CONTENT_TYPE_MP4, TEST_CONTENT_URL);
+        final VideoInfo videoInfo = TestFixtures.createVideoInfoWithVariant(variant);
+        final MediaEntity entity = TestFixtures.createEntityWithAnimatedGif(videoInfo);
+        when(videoPrebuffer.selectVariant(entity)).thenReturn(variant);
+        when(videoPrebuffer.getPlaybackUri(variant)).thenReturn(fileUri);
+
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
+        playerController.prepare(entity);
+
+        verify(videoPrebuffer, never()).cache(any(VideoInfo.Variant.class),
+                any(VideoPrebuffer.CacheListener.class));
+    }
+
+    @Test
+    public void testPlayFromCache() {
+        final Uri fileUri = Uri.fromFile(new File(TEST_FILE_PATH));
+        when(videoView.isPlaying()).thenReturn(true);
+        when(videoView.getCurrentPosition()).thenReturn(TEST_POSITION);
+
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
+        playerController.playFromCache(fileUri);
+
+        verify(videoView).setVideoURI(fileUri, true);
+        verify(videoView).seekTo(TEST_POSITION);
+    }
+
+    @Test
+    public void testPlayFromCache_paused() {
+        when(videoView.isPlaying()).thenReturn(false);
+
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
+        playerController.playFromCache(Uri.fromFile(new File(TEST_FILE_PATH)));
+
+        verify(videoView, never()).setVideoURI(any(Uri.class), anyBoolean());
+    }
+
+    @Test
+    public void testPlayFromCache_afterCleanup() {
+        when(videoView.isPlaying()).thenReturn(true);
+
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
+        playerController.cleanup();
+        playerController.playFromCache(Uri.fromFile(new File(TEST_FILE_PATH)));
+
+        verify(videoView, never()).setVideoURI(any(Uri.class), anyBoolean());
+    }
+
     @Test
     public void testPrepare_withNullEntity() {
         final PlayerController playerController =
-                spy(new PlayerController(videoView, videoControlView));
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
         doNothing().when(playerController).setUpMediaControl();
         playerController.prepare(null);
     }
@@ -96,7 +245,7 @@ public class PlayerControllerTest {
     @Test
     public void testSetUpMediaControl_withLooping() {
         final PlayerController playerController =
-                spy(new PlayerController(videoView, videoControlView));
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
         playerController.setUpMediaControl(true);
 
         verify(playerController).setUpLoopControl();
@@ -105,7 +254,7 @@ public class PlayerControllerTest {
     @Test
     public void testSetUpMediaControl_withOutLooping() {
         final PlayerController playerController =
-                spy(new PlayerController(videoView, videoControlView));
+                spy(new PlayerController(videoView, videoControlView, videoPrebuffer));
         doNothing().when(playerController).setUpMediaControl();
         playerController.setUpMediaControl(false);
 
@@ -114,7 +263,8 @@ public class PlayerControllerTest {
 
     @Test
     public void testSetUpLoopControl() {
-        final PlayerController playerController = new PlayerController(videoView, videoControlView);
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
         playerController.setUpLoopControl();
 
         verify(videoView).setOnClickListener(clickListenerCaptor.capture());
@@ -131,7 +281,8 @@ public class PlayerControllerTest {
 
     @Test
     public void testCleanup() {
-        final PlayerController playerController = new PlayerController(videoView, videoControlView);
+        final PlayerController playerController =
+                new PlayerController(videoView, videoControlView, videoPrebuffer);
         playerController.cleanup();
 
         verify(videoView).stopPlayback();
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import android.widget.AbsListView;
+import android.widget.ListView;
+
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.models.Tweet;
+import com.twitter.sdk.android.core.models.TweetBuilder;
+import com.twitter.sdk.android.tweetui.internal.TimelineDelegate;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TimelineImagePrefetcherTest {
+    private static final int TEST_ITEM_COUNT = 20;
+    private static final int TEST_PREFETCH_COUNT = 3;
+
+    private TweetTimelineListAdapter adapter;
+    private TimelineDelegate<Tweet> mockDelegate;
+    private ImageLoader mockImageLoader;
+    private BaseTweetView mockTweetView;
+    private ListView mockListView;
+    private AbsListView.OnScrollListener mockScrollListener;
+    private TimelineImagePrefetcher prefetcher;
+    // number of Tweets inserted above the first Tweet, ids decrease with the position
+    private int insertedCount;
+
+    @Before
+    public void setUp() throws Exception {
+        mockDelegate = mock(TimelineDelegate.class);
+        when(mockDelegate.getCount()).thenReturn(TEST_ITEM_COUNT);
+        when(mockDelegate.getItem(anyInt())).thenAnswer(new Answer<Tweet>() {
+            @Override
+            public Tweet answer(InvocationOnMock invocation) {
+                final int position = (Integer) invocation.getArguments()[0];
+                return new TweetBuilder().setId(getTweetId(position)).build();
+            }
+        });
+        adapter = new TweetTimelineListAdapter(RuntimeEnvironment.application, mockDelegate,
+                R.style.tw__TweetLightStyle, null);
+        mockImageLoader = mock(ImageLoader.class);
+        mockTweetView = mock(BaseTweetView.class);
+        mockListView = mock(ListView.class);
+        mockScrollListener = mock(AbsListView.OnScrollListener.class);
+        prefetcher = new TimelineImagePrefetcher(adapter, TEST_PREFETCH_COUNT,
+                mockScrollListener) {
+            @Override
+            BaseTweetView findTweetView(AbsListView view) {
+                return mockTweetView;
+            }
+
+            @Override
+            ImageLoader getImageLoader() {
+                return mockImageLoader;
+            }
+        };
+    }
+
+    @Test
+    public void testConstructor_nullAdapter() {
+        try {
+            new TimelineImagePrefetcher(null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Adapter must not be null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testConstructor_negativePrefetchCount() {
+        try {
+            new TimelineImagePrefetcher(adapter, -1, null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Prefetch count must not be negative", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testOnScroll_prefetchesRowsBelowVisibleRows() {
+        scrollTo(4);
+        verify(mockTweetView, times(TEST_PREFETCH_COUNT)).prefetchImages(any(Tweet.class), any());
+        verify(mockDelegate).getItem(5);
+        verify(mockDelegate).getItem(6);
+        verify(mockDelegate).getItem(7);
+        assertEquals(TEST_PREFETCH_COUNT, prefetcher.prefetchTags.size());
+        verify(mockScrollListener).onScroll(mockListView, 0, 5, TEST_ITEM_COUNT);
+    }
+
+    @Test
+    public void testOnScroll_prefetchesEachRowOnce() {
+        scrollTo(4);
+        scrollTo(4);
+        verify(mockTweetView, times(TEST_PREFETCH_COUNT)).prefetchImages(any(Tweet.class), any());
+        verify(mockImageLoader, never()).cancelTag(any());
+    }
+
+    @Test
+    public void testOnScroll_cancelsRowsLeavingWindow() {
+        scrollTo(4);
+        final Object firstTag = prefetcher.prefetchTags.get(getTweetId(5));
+        scrollTo(5);
+        verify(mockImageLoader).cancelTag(firstTag);
+        verify(mockDelegate).getItem(8);
+        assertEquals(TEST_PREFETCH_COUNT, prefetcher.prefetchTags.size());
+    }
+
+    @Test
+    public void testOnScroll_keepsPrefetchesOfShiftedRows() {
+        scrollTo(4);
+        final Object tag = prefetcher.prefetchTags.get(getTweetId(6));
+
+        // loading newer Tweets inserts rows above, the list keeps showing the same Tweets
+        insertedCount = 2;
+        scrollTo(6);
+        verify(mockImageLoader, never()).cancelTag(any());
+        verify(mockTweetView, times(TEST_PREFETCH_COUNT)).prefetchImages(any(Tweet.class), any());
+        assertEquals(tag, prefetcher.prefetchTags.get(getTweetId(8)));
+    }
+
+    @Test
+    public void testOnScroll_skipsLastItem() {
+        scrollTo(TEST_ITEM_COUNT - 3);
+        verify(mockDelegate).getItem(TEST_ITEM_COUNT - 2);
+        verify(mockDelegate, never()).getItem(TEST_ITEM_COUNT - 1);
+    }
+
+    @Test
+    public void testOnScrollStateChanged_fling() {
+        prefetcher.onScrollStateChanged(mockListView,
+                AbsListView.OnScrollListener.SCROLL_STATE_FLING);
+        verify(mockImageLoader).pauseTag(RuntimeEnvironment.application);
+        verify(mockScrollListener).onScrollStateChanged(mockListView,
+                AbsListView.OnScrollListener.SCROLL_STATE_FLING);
+
+        // no prefetching while flinging
+        scrollTo(4);
+        verifyZeroInteractions(mockTweetView);
+
+        prefetcher.onScrollStateChanged(mockListView,
+                AbsListView.OnScrollListener.SCROLL_STATE_IDLE);
+        verify(mockImageLoader).resumeTag(RuntimeEnvironment.application);
+        verify(mockTweetView, times(TEST_PREFETCH_COUNT)).prefetchImages(any(Tweet.class), any());
+    }
+
+    @Test
+    public void testOnScrollStateChanged_idleWithoutFling() {
+        prefetcher.onScrollStateChanged(mockListView,
+                AbsListView.OnScrollListener.SCROLL_STATE_IDLE);
+        verify(mockImageLoader, never()).resumeTag(any());
+    }
+
+    private long getTweetId(int position) {
+        return TEST_ITEM_COUNT + insertedCount - position;
+    }
+
+    private void scrollTo(int lastVisiblePosition) {
+        when(mockListView.getLastVisiblePosition()).thenReturn(lastVisiblePosition);
+        prefetcher.onScroll(mockListView, lastVisiblePosition - 4, 5, TEST_ITEM_COUNT);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui;
+
+import android.net.Uri;
+import android.util.DisplayMetrics;
+
+import com.twitter.sdk.android.core.models.MediaEntity;
+import com.twitter.sdk.android.core.models.VideoInfo;
+import com.twitter.sdk.android.tweetui.internal.MediaCache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class VideoPrebufferTest {
+    private static final String TEST_CONTENT_TYPE_MP4 = "video/mp4";
+    private static final String TEST_LOW_URL = "https://video.twimg.com/vid/320x180/v.mp4";
+    private static final String TEST_HIGH_URL = "https://video.twimg.com/vid/640x360/v.mp4";
+    private static final long TEST_LOW_BITRATE = 320000;
+    private static final long TEST_HIGH_BITRATE = 832000;
+    private static final long TEST_SHORT_DURATION_MILLIS = 10000;
+    private static final long TEST_LONG_DURATION_MILLIS = 600000;
+    private static final File TEST_FILE = new File("/cache/tw__media/video");
+
+    private MediaCache mockMediaCache;
+    private BandwidthMeter bandwidthMeter;
+    private ExecutorService mockExecutorService;
+    private Executor mockPrebufferExecutor;
+    private VideoPrebuffer.NetworkChecker mockNetworkChecker;
+    private VideoPrebuffer videoPrebuffer;
+
+    @Before
+    public void setUp() throws Exception {
+        mockMediaCache = mock(MediaCache.class);
+        bandwidthMeter = new BandwidthMeter();
+        mockExecutorService = mock(ExecutorService.class);
+        mockPrebufferExecutor = mock(Executor.class);
+        mockNetworkChecker = mock(VideoPrebuffer.NetworkChecker.class);
+        when(mockNetworkChecker.isUnmetered()).thenReturn(true);
+        final DisplayMetrics metrics = new DisplayMetrics();
+        metrics.widthPixels = 1080;
+        metrics.heightPixels = 1920;
+        videoPrebuffer = new VideoPrebuffer(mockMediaCache, bandwidthMeter, mockExecutorService,
+                mockPrebufferExecutor, mockNetworkChecker, metrics);
+    }
+
+    @Test
+    public void testSelectVariant() {
+        final MediaEntity entity = newVideoEntity(TEST_SHORT_DURATION_MILLIS);
+        assertEquals(TEST_HIGH_URL, videoPrebuffer.selectVariant(entity).url);
+    }
+
+    @Test
+    public void testSelectVariant_keepsSelection() {
+        final MediaEntity entity = newVideoEntity(TEST_SHORT_DURATION_MILLIS);
+        final VideoInfo.Variant variant = videoPrebuffer.selectVariant(entity);
+
+        // a slow download after the selection would otherwise select the lower bitrate
+        bandwidthMeter.addSample(BandwidthMeter.MIN_SAMPLE_BYTES, 10000);
+        assertSame(variant, videoPrebuffer.selectVariant(entity));
+    }
+
+    @Test
+    public void testPrebuffer_shortVideo() throws IOException {
+        when(mockMediaCache.download(TEST_HIGH_URL, VideoPrebuffer.MAX_PREBUFFER_BYTES))
+                .thenReturn(TEST_FILE);
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockPrebufferExecutor).execute(runnableCaptor.capture());
+        assertTrue(videoPrebuffer.pendingUrls.contains(TEST_HIGH_URL));
+
+        runnableCaptor.getValue().run();
+        verify(mockMediaCache).download(TEST_HIGH_URL, VideoPrebuffer.MAX_PREBUFFER_BYTES);
+        assertFalse(videoPrebuffer.pendingUrls.contains(TEST_HIGH_URL));
+        assertSame(TEST_FILE, videoPrebuffer.downloadedFiles.get(TEST_HIGH_URL));
+    }
+
+    @Test
+    public void testPrebuffer_noDiskAccessOnCallingThread() {
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        verifyZeroInteractions(mockMediaCache, mockNetworkChecker);
+    }
+
+    @Test
+    public void testPrebuffer_pending() {
+        final MediaEntity entity = newVideoEntity(TEST_SHORT_DURATION_MILLIS);
+        videoPrebuffer.prebuffer(entity);
+        videoPrebuffer.prebuffer(entity);
+
+        verify(mockPrebufferExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testPrebuffer_longVideo() {
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_LONG_DURATION_MILLIS));
+
+        verify(mockPrebufferExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testPrebuffer_alreadyCached() throws IOException {
+        when(mockMediaCache.get(TEST_HIGH_URL)).thenReturn(TEST_FILE);
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockPrebufferExecutor).execute(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+        verify(mockMediaCache, never()).download(any(String.class), anyLong());
+        assertSame(TEST_FILE, videoPrebuffer.downloadedFiles.get(TEST_HIGH_URL));
+    }
+
+    @Test
+    public void testPrebuffer_alreadyDownloaded() {
+        videoPrebuffer.downloadedFiles.put(TEST_HIGH_URL, TEST_FILE);
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        verify(mockPrebufferExecutor, never()).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testPrebuffer_meteredNetwork() throws IOException {
+        when(mockNetworkChecker.isUnmetered()).thenReturn(false);
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockPrebufferExecutor).execute(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+        verify(mockMediaCache, never()).download(any(String.class), anyLong());
+        assertNull(videoPrebuffer.downloadedFiles.get(TEST_HIGH_URL));
+        assertFalse(videoPrebuffer.pendingUrls.contains(TEST_HIGH_URL));
+    }
+
+    @Test
+    public void testPrebuffer_meteredNetworkAlreadyCached() throws IOException {
+        when(mockNetworkChecker.isUnmetered()).thenReturn(false);
+        when(mockMediaCache.get(TEST_HIGH_URL)).thenReturn(TEST_FILE);
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockPrebufferExecutor).execute(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+        verify(mockMediaCache, never()).download(any(String.class), anyLong());
+        assertSame(TEST_FILE, videoPrebuffer.downloadedFiles.get(TEST_HIGH_URL));
+    }
+
+    @Test
+    public void testPrebuffer_failedUrlNotRetried() throws IOException {
+        when(mockMediaCache.download(TEST_HIGH_URL, VideoPrebuffer.MAX_PREBUFFER_BYTES))
+                .thenThrow(new IOException());
+        final MediaEntity entity = newVideoEntity(TEST_SHORT_DURATION_MILLIS);
+        videoPrebuffer.prebuffer(entity);
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockPrebufferExecutor).execute(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+        assertTrue(videoPrebuffer.failedUrls.get(TEST_HIGH_URL));
+
+        videoPrebuffer.prebuffer(entity);
+        verify(mockPrebufferExecutor, times(1)).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void testPrebuffer_notOnPlayerExecutor() {
+        videoPrebuffer.prebuffer(newVideoEntity(TEST_SHORT_DURATION_MILLIS));
+
+        verifyZeroInteractions(mockExecutorService);
+    }
+
+    @Test
+    public void testCache() throws IOException {
+        final VideoInfo.Variant variant = newVariant(TEST_HIGH_BITRATE, TEST_HIGH_URL);
+        final VideoPrebuffer.CacheListener mockListener = mock(VideoPrebuffer.CacheListener.class);
+        when(mockMediaCache.download(TEST_HIGH_URL, VideoPrebuffer.MAX_PREBUFFER_BYTES))
+                .thenReturn(TEST_FILE);
+        videoPrebuffer.cache(variant, mockListener);
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutorService).execute(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+
+        verify(mockListener).onCached(Uri.fromFile(TEST_FILE));
+    }
+
+    @Test
+    public void testCache_downloadFails() throws IOException {
+        final VideoInfo.Variant variant = newVariant(TEST_HIGH_BITRATE, TEST_HIGH_URL);
+        final VideoPrebuffer.CacheListener mockListener = mock(VideoPrebuffer.CacheListener.class);
+        when(mockMediaCache.download(TEST_HIGH_URL, VideoPrebuffer.MAX_PREBUFFER_BYTES))
+                .thenThrow(new IOException());
+        videoPrebuffer.cache(variant, mockListener);
+
+        final ArgumentCaptor<Runnable> runnableCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutorService).execute(runnableCaptor.capture());
+        runnableCaptor.getValue().run();
+
+        verify(mockListener, never()).onCached(any(Uri.class));
+    }
+
+    @Test
+    public void testGetPlaybackUri_prebuffered() {
+        final VideoInfo.Variant variant = newVariant(TEST_HIGH_BITRATE, TEST_HIGH_URL);
+        videoPrebuffer.downloadedFiles.put(TEST_HIGH_URL, TEST_FILE);
+
+        assertEquals(Uri.fromFile(TEST_FILE), videoPrebuffer.getPlaybackUri(variant));
+        verifyZeroInteractions(mockMediaCache);
+    }
+
+    @Test
+    public void testGetPlaybackUri_notPrebuffered() {
+        final VideoInfo.Variant variant = newVariant(TEST_HIGH_BITRATE, TEST_HIGH_URL);
+
+        assertEquals(Uri.parse(TEST_HIGH_URL), videoPrebuffer.getPlaybackUri(variant));
+        verifyZeroInteractions(mockMediaCache);
+    }
+
+    @Test
+    public void testOnPlaybackFailed() {
+        final VideoInfo.Variant variant = newVariant(TEST_HIGH_BITRATE, TEST_HIGH_URL);
+        videoPrebuffer.downloadedFiles.put(TEST_HIGH_URL, TEST_FILE);
+        videoPrebuffer.onPlaybackFailed(variant);
+
+        assertEquals(Uri.parse(TEST_HIGH_URL), videoPrebuffer.getPlaybackUri(variant));
+    }
+
+    @Test
+    public void testShouldPrebuffer_animatedGif() {
+        final VideoInfo.Variant variant = newVariant(0, TEST_LOW_URL);
+        final MediaEntity entity = TestFixtures.createEntityWithAnimatedGif(
+                TestFixtures.createVideoInfoWithVariant(variant));
+
+        assertTrue(VideoPrebuffer.shouldPrebuffer(entity, variant));
+    }
+
+    @Test
+    public void testShouldPrebuffer_unknownBitrate() {
+        final VideoInfo.Variant variant = newVariant(0, TEST_LOW_URL);
+        final MediaEntity entity = TestFixtures.createEntityWithVideo(
+                new VideoInfo(null, TEST_SHORT_DURATION_MILLIS, Arrays.asList(variant)));
+
+        assertFalse(VideoPrebuffer.shouldPrebuffer(entity, variant));
+    }
+
+    private MediaEntity newVideoEntity(long durationMillis) {
+        final VideoInfo videoInfo = new VideoInfo(null, durationMillis, Arrays.asList(
+                newVariant(TEST_LOW_BITRATE, TEST_LOW_URL),
+                newVariant(TEST_HIGH_BITRATE, TEST_HIGH_URL)));
+        return TestFixtures.createEntityWithVideo(videoInfo);
+    }
+
+    private VideoInfo.Variant newVariant(long bitrate, String url) {
+        return new VideoInfo.Variant(bitrate, TEST_CONTENT_TYPE_MP4, url);
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui.internal;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.twitter.sdk.android.tweetui.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MediaCacheTest {
+    private static final String TEST_URL = "https://pbs.twimg.com/media/photo.jpg:large";
+    private static final String TEST_OTHER_URL = "https://pbs.twimg.com/media/other.jpg:large";
+    private static final String TEST_PATH = "/media/video.mp4";
+    private static final int TEST_FILE_SIZE = 100;
+
+    private File directory;
+    private MediaCache mediaCache;
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(RuntimeEnvironment.application.getCacheDir(),
+                MediaCache.DIRECTORY_NAME);
+        mediaCache = new MediaCache(directory, TEST_FILE_SIZE + TEST_FILE_SIZE / 2);
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void testConstructor_nullDirectory() {
+        try {
+            new MediaCache(null, MediaCache.DEFAULT_MAX_SIZE);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Directory must not be null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testConstructor_invalidMaxSize() {
+        try {
+            new MediaCache(directory, 0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Max size must be positive", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testGet_notCached() {
+        assertNull(mediaCache.get(TEST_URL));
+    }
+
+    @Test
+    public void testPut() throws IOException {
+        final File file = mediaCache.put(TEST_URL, createStream(), false, Long.MAX_VALUE);
+
+        assertEquals(file, mediaCache.get(TEST_URL));
+        assertEquals(TEST_FILE_SIZE, file.length());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void testPut_failedWriteKeepsPartialFile() {
+        try {
+            mediaCache.put(TEST_URL, createFailingStream(TEST_FILE_SIZE / 2), false,
+                    Long.MAX_VALUE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertNull(mediaCache.get(TEST_URL));
+            assertEquals(TEST_FILE_SIZE / 2, mediaCache.getPartialFile(TEST_URL).length());
+        }
+    }
+
+    @Test
+    public void testPut_appendsToPartialFile() throws IOException {
+        try {
+            mediaCache.put(TEST_URL, createFailingStream(TEST_FILE_SIZE / 2), false,
+                    Long.MAX_VALUE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // resumed below
+        }
+        final File file = mediaCache.put(TEST_URL,
+                new ByteArrayInputStream(new byte[TEST_FILE_SIZE / 2]), true, Long.MAX_VALUE);
+
+        assertEquals(TEST_FILE_SIZE, file.length());
+        assertFalse(mediaCache.getPartialFile(TEST_URL).exists());
+    }
+
+    @Test
+    public void testPut_streamLongerThanMaxBytes() {
+        try {
+            mediaCache.put(TEST_URL, createStream(), false, TEST_FILE_SIZE - 1);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertNull(mediaCache.get(TEST_URL));
+            assertFalse(mediaCache.getPartialFile(TEST_URL).exists());
+        }
+    }
+
+    @Test
+    public void testPut_evictsLeastRecentlyUsed() throws IOException {
+        final File first = mediaCache.put(TEST_URL, createStream(), false, Long.MAX_VALUE);
+        first.setLastModified(System.currentTimeMillis() - 1000);
+
+        final File second = mediaCache.put(TEST_OTHER_URL, createStream(), false, Long.MAX_VALUE);
+
+        assertFalse(first.exists());
+        assertTrue(second.exists());
+    }
+
+    @Test
+    public void testPut_keepsFileLargerThanCache() throws IOException {
+        final MediaCache smallCache = new MediaCache(directory, 1);
+        final File file = smallCache.put(TEST_URL, createStream(), false, Long.MAX_VALUE);
+
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void testTrim_keepsPartialFiles() throws IOException {
+        final File partial = writePartialFile(TEST_OTHER_URL, TEST_FILE_SIZE);
+        partial.setLastModified(System.currentTimeMillis() - 1000);
+
+        mediaCache.put(TEST_URL, createStream(), false, Long.MAX_VALUE);
+
+        assertTrue(partial.exists());
+    }
+
+    @Test
+    public void testFetch() throws Exception {
+        final String url = server.getUrl(TEST_PATH).toString();
+        server.enqueue(new MockResponse().setBody(createBody('a', TEST_FILE_SIZE)));
+
+        final File file = mediaCache.fetch(url, Long.MAX_VALUE);
+
+        assertEquals(TEST_FILE_SIZE, file.length());
+        assertNull(server.takeRequest().getHeader("Range"));
+    }
+
+    @Test
+    public void testFetch_resumesPartialFile() throws Exception {
+        final String url = server.getUrl(TEST_PATH).toString();
+        final int offset = TEST_FILE_SIZE / 2;
+        writePartialFile(url, offset);
+        server.enqueue(new MockResponse()
+                .setResponseCode(HttpURLConnection.HTTP_PARTIAL)
+                .setHeader("Content-Range",
+                        "bytes " + offset + "-" + (TEST_FILE_SIZE - 1) + "/" + TEST_FILE_SIZE)
+                .setBody(createBody('b', TEST_FILE_SIZE - offset)));
+
+        final File file = mediaCache.fetch(url, Long.MAX_VALUE);
+
+        assertEquals("bytes=" + offset + "-", server.takeRequest().getHeader("Range"));
+        assertEquals(createBody('a', offset) + createBody('b', TEST_FILE_SIZE - offset),
+                readFile(file));
+        assertFalse(mediaCache.getPartialFile(url).exists());
+    }
+
+    @Test
+    public void testFetch_rangeIgnored() throws Exception {
+        final String url = server.getUrl(TEST_PATH).toString();
+        writePartialFile(url, TEST_FILE_SIZE / 2);
+        server.enqueue(new MockResponse().setBody(createBody('b', TEST_FILE_SIZE)));
+
+        final File file = mediaCache.fetch(url, Long.MAX_VALUE);
+
+        assertEquals(createBody('b', TEST_FILE_SIZE), readFile(file));
+    }
+
+    @Test
+    public void testFetch_mismatchedContentRangeRestarts() throws Exception {
+        final String url = server.getUrl(TEST_PATH).toString();
+        writePartialFile(url, TEST_FILE_SIZE / 2);
+        server.enqueue(new MockResponse()
+                .setResponseCode(HttpURLConnection.HTTP_PARTIAL)
+                .setHeader("Content-Range", "bytes 0-" + (TEST_FILE_SIZE - 1) + "/"
+                        + TEST_FILE_SIZE)
+                .setBody(createBody('b', TEST_FILE_SIZE)));
+        server.enqueue(new MockResponse().setBody(createBody('b', TEST_FILE_SIZE)));
+
+        try {
+            mediaCache.fetch(url, Long.MAX_VALUE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertFalse(mediaCache.getPartialFile(url).exists());
+        }
+
+        // the next attempt downloads the whole file without a range
+        final File file = mediaCache.fetch(url, Long.MAX_VALUE);
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader("Range"));
+        assertEquals(TEST_FILE_SIZE, file.length());
+    }
+
+    @Test
+    public void testFetch_errorDeletesPartialFile() throws Exception {
+        final String url = server.getUrl(TEST_PATH).toString();
+        writePartialFile(url, TEST_FILE_SIZE / 2);
+        server.enqueue(new MockResponse().setResponseCode(416));
+
+        try {
+            mediaCache.fetch(url, Long.MAX_VALUE);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertNull(mediaCache.get(url));
+            assertFalse(mediaCache.getPartialFile(url).exists());
+        }
+    }
+
+    @Test
+    public void testGetContentRangeStart() {
+        assertEquals(100, MediaCache.getContentRangeStart("bytes 100-999/1000"));
+        assertEquals(-1, MediaCache.getContentRangeStart("bytes */1000"));
+        assertEquals(-1, MediaCache.getContentRangeStart(null));
+    }
+
+    private InputStream createFailingStream(final int length) {
+        return new InputStream() {
+            int count;
+
+            @Override
+            public int read() throws IOException {
+                if (count == length) {
+                    throw new IOException();
+                }
+                count++;
+                return 0;
+            }
+        };
+    }
+
+    private InputStream createStream() {
+        return new ByteArrayInputStream(new byte[TEST_FILE_SIZE]);
+    }
+
+    private static String createBody(char c, int length) {
+        final char[] body = new char[length];
+        Arrays.fill(body, c);
+        return new String(body);
+    }
+
+    private File writePartialFile(String url, int length) throws IOException {
+        directory.mkdirs();
+        final File partial = mediaCache.getPartialFile(url);
+        final OutputStream out = new FileOutputStream(partial);
+        try {
+            out.write(createBody('a', length).getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        return partial;
+    }
+
+    private static String readFile(File file) throws IOException {
+        final byte[] bytes = new byte[(int) file.length()];
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            in.readFully(bytes);
+        } finally {
+            in.close();
+        }
+        return new String(bytes, "UTF-8");
+    }
+}
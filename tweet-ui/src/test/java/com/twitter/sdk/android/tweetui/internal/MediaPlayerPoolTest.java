@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui.internal;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.media.MediaPlayer;
+import android.net.Uri;
+
+import com.twitter.sdk.android.tweetui.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MediaPlayerPoolTest {
+    private static final int TEST_MAX_IDLE = 1;
+    private static final Uri TEST_URI = Uri.parse("https://video.twimg.com/vid/v.mp4");
+    private static final Uri TEST_OTHER_URI = Uri.parse("https://video.twimg.com/vid/o.mp4");
+
+    private MediaPlayerPool pool;
+    private MediaPlayer newPlayer;
+
+    @Before
+    public void setUp() throws Exception {
+        newPlayer = mock(MediaPlayer.class);
+        pool = spy(new MediaPlayerPool(TEST_MAX_IDLE));
+        doReturn(newPlayer).when(pool).createMediaPlayer();
+    }
+
+    @Test
+    public void testAcquire_emptyPool() {
+        assertSame(newPlayer, pool.acquire());
+    }
+
+    @Test
+    public void testAcquire_reusesRecycledPlayer() {
+        final MediaPlayer player = mock(MediaPlayer.class);
+        pool.recycle(player);
+
+        assertSame(player, pool.acquire());
+        assertTrue(pool.idlePlayers.isEmpty());
+        assertSame(newPlayer, pool.acquire());
+    }
+
+    @Test
+    public void testRecycle_resetsPlayer() {
+        final MediaPlayer player = mock(MediaPlayer.class);
+        pool.recycle(player);
+
+        verify(player).reset();
+        verify(player).setDisplay(null);
+        verify(player).setOnPreparedListener(null);
+        verify(player).setOnCompletionListener(null);
+        verify(player).setOnErrorListener(null);
+        verify(player, never()).release();
+        assertEquals(1, pool.idlePlayers.size());
+    }
+
+    @Test
+    public void testRecycle_poolFull() {
+        final MediaPlayer first = mock(MediaPlayer.class);
+        final MediaPlayer second = mock(MediaPlayer.class);
+        pool.recycle(first);
+        pool.recycle(second);
+
+        verify(first, never()).release();
+        verify(second).release();
+        assertEquals(TEST_MAX_IDLE, pool.idlePlayers.size());
+    }
+
+    @Test
+    public void testRecycle_resetFails() {
+        final MediaPlayer player = mock(MediaPlayer.class);
+        doThrow(new IllegalStateException()).when(player).reset();
+        pool.recycle(player);
+
+        verify(player).release();
+        assertTrue(pool.idlePlayers.isEmpty());
+    }
+
+    @Test
+    public void testTrim() {
+        final MediaPlayer player = mock(MediaPlayer.class);
+        pool.recycle(player);
+        pool.trim();
+
+        verify(player).release();
+        assertTrue(pool.idlePlayers.isEmpty());
+    }
+
+    @Test
+    public void testPrepare() throws IOException {
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, true);
+
+        verify(newPlayer).setDataSource(any(Context.class), eq(TEST_URI));
+        verify(newPlayer).setLooping(true);
+        verify(newPlayer).prepareAsync();
+        assertSame(newPlayer, pool.preparedPlayer.player);
+        assertFalse(pool.preparedPlayer.isReady());
+    }
+
+    @Test
+    public void testPrepare_sameUri() {
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+
+        verify(newPlayer).prepareAsync();
+    }
+
+    @Test
+    public void testPrepare_replacesOtherUri() throws IOException {
+        pool.prepare(RuntimeEnvironment.application, TEST_OTHER_URI, false);
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+
+        // the player prepared for the other uri is reset and prepared again
+        verify(newPlayer).reset();
+        verify(newPlayer).setDataSource(any(Context.class), eq(TEST_URI));
+        assertEquals(TEST_URI, pool.preparedPlayer.uri);
+    }
+
+    @Test
+    public void testPrepare_setDataSourceFails() throws IOException {
+        doThrow(new IOException()).when(newPlayer).setDataSource(any(Context.class),
+                eq(TEST_URI));
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+
+        assertNull(pool.preparedPlayer);
+        assertEquals(1, pool.idlePlayers.size());
+    }
+
+    @Test
+    public void testPrepare_error() {
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+        final ArgumentCaptor<MediaPlayer.OnErrorListener> listenerCaptor =
+                ArgumentCaptor.forClass(MediaPlayer.OnErrorListener.class);
+        verify(newPlayer).setOnErrorListener(listenerCaptor.capture());
+        listenerCaptor.getValue().onError(newPlayer, MediaPlayer.MEDIA_ERROR_UNKNOWN, 0);
+
+        assertNull(pool.takePrepared(TEST_URI));
+    }
+
+    @Test
+    public void testTakePrepared() {
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+        final ArgumentCaptor<MediaPlayer.OnPreparedListener> listenerCaptor =
+                ArgumentCaptor.forClass(MediaPlayer.OnPreparedListener.class);
+        verify(newPlayer).setOnPreparedListener(listenerCaptor.capture());
+        listenerCaptor.getValue().onPrepared(newPlayer);
+
+        final MediaPlayerPool.PreparedPlayer prepared = pool.takePrepared(TEST_URI);
+        assertSame(newPlayer, prepared.player);
+        assertTrue(prepared.isReady());
+        assertNull(pool.takePrepared(TEST_URI));
+    }
+
+    @Test
+    public void testTakePrepared_otherUri() {
+        pool.prepare(RuntimeEnvironment.application, TEST_OTHER_URI, false);
+
+        assertNull(pool.takePrepared(TEST_URI));
+        verify(newPlayer).reset();
+        assertNull(pool.preparedPlayer);
+    }
+
+    @Test
+    public void testOnTrimMemory_discardsPrepared() {
+        pool.prepare(RuntimeEnvironment.application, TEST_URI, false);
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW);
+
+        verify(newPlayer).release();
+        assertNull(pool.takePrepared(TEST_URI));
+    }
+
+    @Test
+    public void testOnTrimMemory_runningModerate() {
+        final MediaPlayer player = mock(MediaPlayer.class);
+        pool.recycle(player);
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+        verify(player, never()).release();
+        assertFalse(pool.idlePlayers.isEmpty());
+    }
+
+    @Test
+    public void testOnTrimMemory_uiHidden() {
+        final MediaPlayer player = mock(MediaPlayer.class);
+        pool.recycle(player);
+        pool.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        verify(player).release();
+        assertTrue(pool.idlePlayers.isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.tweetui.internal;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import com.twitter.sdk.android.tweetui.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class TiledImageDecoderTest {
+    private static final int TEST_WIDTH = 2048;
+    private static final int TEST_HEIGHT = 1000;
+    private static final int TEST_TILE_BYTES = 1024;
+    private static final int TEST_MAX_CACHE_BYTES = 2 * TEST_TILE_BYTES;
+
+    private TiledImageDecoder decoder;
+
+    @Before
+    public void setUp() throws Exception {
+        decoder = new TiledImageDecoder(null, TEST_WIDTH, TEST_HEIGHT, TEST_MAX_CACHE_BYTES);
+    }
+
+    @Test
+    public void testCalculateSampleSize() {
+        assertEquals(1, TiledImageDecoder.calculateSampleSize(2.0f));
+        assertEquals(1, TiledImageDecoder.calculateSampleSize(1.0f));
+        assertEquals(1, TiledImageDecoder.calculateSampleSize(0.6f));
+        assertEquals(2, TiledImageDecoder.calculateSampleSize(0.5f));
+        assertEquals(2, TiledImageDecoder.calculateSampleSize(0.3f));
+        assertEquals(4, TiledImageDecoder.calculateSampleSize(0.25f));
+    }
+
+    @Test
+    public void testCalculateSampleSize_invalidScale() {
+        assertEquals(1, TiledImageDecoder.calculateSampleSize(0));
+    }
+
+    @Test
+    public void testCalculateMaxVisibleTiles() {
+        assertEquals(4, TiledImageDecoder.calculateMaxVisibleTiles(100, 100));
+        assertEquals((8 + 2) * (15 + 2), TiledImageDecoder.calculateMaxVisibleTiles(1080, 1920));
+    }
+
+    @Test
+    public void testCalculateMaxCacheBytes_heapFraction() {
+        final long maxMemory = 256L * 1024 * 1024;
+        assertEquals(maxMemory / 8, TiledImageDecoder.calculateMaxCacheBytes(maxMemory, 100, 100));
+    }
+
+    @Test
+    public void testCalculateMaxCacheBytes_visibleTiles() {
+        final long maxMemory = 8L * 1024 * 1024;
+        final int visibleBytes = 3 * 3 * TiledImageDecoder.TILE_BYTES;
+        assertEquals(visibleBytes,
+                TiledImageDecoder.calculateMaxCacheBytes(maxMemory, 200, 200));
+    }
+
+    @Test
+    public void testCalculateMaxCacheBytes_limitedToHeapFraction() {
+        final long maxMemory = 32L * 1024 * 1024;
+        assertEquals(maxMemory / 4,
+                TiledImageDecoder.calculateMaxCacheBytes(maxMemory, 1080, 1920));
+    }
+
+    @Test
+    public void testGetTileRect() {
+        final Rect rect = new Rect();
+        decoder.getTileRect(1, 1, 2, rect);
+        assertEquals(new Rect(256, 512, 512, 768), rect);
+
+        decoder.getTileRect(2, 1, 0, rect);
+        assertEquals(new Rect(512, 0, 1024, 512), rect);
+    }
+
+    @Test
+    public void testGetTileRect_clippedToImage() {
+        final Rect rect = new Rect();
+        decoder.getTileRect(4, 1, 0, rect);
+        assertEquals(new Rect(1024, 0, TEST_WIDTH, TEST_HEIGHT), rect);
+    }
+
+    @Test
+    public void testTileCache_evictsLeastRecentlyUsed() {
+        final Bitmap first = createTile();
+        final Bitmap second = createTile();
+        decoder.tileCache.put(TiledImageDecoder.getTileKey(1, 0, 0), first);
+        decoder.tileCache.put(TiledImageDecoder.getTileKey(1, 1, 0), second);
+        assertSame(first, decoder.getCachedTile(1, 0, 0));
+
+        decoder.tileCache.put(TiledImageDecoder.getTileKey(1, 2, 0), createTile());
+        assertNull(decoder.getCachedTile(1, 1, 0));
+        assertSame(first, decoder.getCachedTile(1, 0, 0));
+    }
+
+    @Test
+    public void testGetCachedTile_keyedBySampleSize() {
+        final Bitmap tile = createTile();
+        decoder.tileCache.put(TiledImageDecoder.getTileKey(1, 0, 0), tile);
+        assertSame(tile, decoder.getCachedTile(1, 0, 0));
+        assertNull(decoder.getCachedTile(2, 0, 0));
+    }
+
+    private Bitmap createTile() {
+        final Bitmap tile = mock(Bitmap.class);
+        when(tile.getRowBytes()).thenReturn(TEST_TILE_BYTES / 4);
+        when(tile.getHeight()).thenReturn(4);
+        return tile;
+    }
+}
@@ -23,6 +23,7 @@ import android.database.DataSetObserver;
 import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.internal.RequestHandle;
 import com.twitter.sdk.android.tweetui.BuildConfig;
 import com.twitter.sdk.android.tweetui.TestItem;
 import com.twitter.sdk.android.tweetui.Timeline;
@@ -403,6 +404,70 @@ public class TimelineDelegateTest {
         assertEquals(exceptionCaptor.getValue().getMessage(), REQUIRED_REQUEST_IN_FLIGHT_ERROR);
     }
 
+    /* test cancel */
+
+    @Test
+    public void testLoadNext_bindsRequestHandle() {
+        final RequestHandle[] handles = new RequestHandle[1];
+        final Timeline<TestItem> timeline = new FakeItemTimeline(ZERO_ITEMS, null, null) {
+            @Override
+            public void next(Long sinceId, Callback<TimelineResult<TestItem>> cb) {
+                handles[0] = RequestHandle.current();
+            }
+        };
+        delegate = new TimelineDelegate<>(timeline);
+        final TimelineDelegate<TestItem>.DefaultCallback cb
+                = delegate.new DefaultCallback(null, delegate.timelineStateHolder);
+        delegate.loadNext(TEST_MIN_POSITION, cb);
+        assertSame(cb.requestHandle, handles[0]);
+        assertSame(cb.requestHandle, delegate.currentRequest);
+        assertNull(RequestHandle.current());
+    }
+
+    @Test
+    public void testCancel() {
+        delegate = new TimelineDelegate<>(mockTimeline, mockObservable, testItems);
+        final Callback<TimelineResult<TestItem>> developerCb = mock(Callback.class);
+        final TimelineDelegate<TestItem>.NextCallback cb
+                = delegate.new NextCallback(developerCb, delegate.timelineStateHolder);
+        delegate.loadNext(TEST_MIN_POSITION, cb);
+
+        delegate.cancel();
+        assertTrue(cb.requestHandle.isCancelled());
+        assertNull(delegate.currentRequest);
+        // a new request may start right away
+        assertTrue(delegate.timelineStateHolder.startTimelineRequest());
+
+        // results of the cancelled request are dropped
+        cb.success(new Result<>(new TimelineResult<>(TEST_TIMELINE_CURSOR, testExtraItems), null));
+        cb.failure(TEST_TWITTER_EXCEPTION);
+        assertEquals(testItems.size(), delegate.itemList.size());
+        verifyZeroInteractions(developerCb, mockObservable);
+    }
+
+    @Test
+    public void testCancel_noRequestInFlight() {
+        delegate = new TimelineDelegate<>(mockTimeline);
+        delegate.timelineStateHolder.startTimelineRequest();
+        delegate.cancel();
+        // only requests started by the delegate are finished
+        assertFalse(delegate.timelineStateHolder.startTimelineRequest());
+    }
+
+    @Test
+    public void testUnregisterLastDataSetObserver_cancelsRequest() {
+        delegate = new TimelineDelegate<>(mockTimeline, mockObservable, null);
+        delegate.registerDataSetObserver(mock(DataSetObserver.class));
+        delegate.registerDataSetObserver(mock(DataSetObserver.class));
+        delegate.loadNext(TEST_MIN_POSITION, mock(Callback.class));
+        final RequestHandle handle = delegate.currentRequest;
+
+        delegate.unregisterDataSetObserver(mock(DataSetObserver.class));
+        assertFalse(handle.isCancelled());
+        delegate.unregisterDataSetObserver(mock(DataSetObserver.class));
+        assertTrue(handle.isCancelled());
+    }
+
     /* nested Callbacks */
 
     // should unconditionally set requestInFlight to false
@@ -31,6 +31,7 @@ import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -44,6 +45,19 @@ public class TweetMediaUtilsTest {
     private static final String TEST_MEDIA_TYPE_ANIMATED_GIF = "animated_gif";
     private static final String TEST_CONTENT_TYPE_MP4 = "video/mp4";
     private static final String TEST_CONTENT_TYPE_DASH = "video/dash+xml";
+    private static final String TEST_MEDIA_URL = "https://pbs.twimg.com/media/photo.jpg";
+    private static final String TEST_VIDEO_URL = "https://video.twimg.com/ext_tw_video/1/vid.mp4";
+    private static final VideoInfo.Variant TEST_VARIANT_180P = new VideoInfo.Variant(320000,
+            TEST_CONTENT_TYPE_MP4, "https://video.twimg.com/ext_tw_video/1/vid/320x180/v.mp4");
+    private static final VideoInfo.Variant TEST_VARIANT_360P = new VideoInfo.Variant(832000,
+            TEST_CONTENT_TYPE_MP4, "https://video.twimg.com/ext_tw_video/1/vid/640x360/v.mp4");
+    private static final VideoInfo.Variant TEST_VARIANT_720P = new VideoInfo.Variant(2176000,
+            TEST_CONTENT_TYPE_MP4, "https://video.twimg.com/ext_tw_video/1/vid/1280x720/v.mp4");
+    private static final VideoInfo.Variant TEST_VARIANT_HLS = new VideoInfo.Variant(0,
+            "application/x-mpegURL", "https://video.twimg.com/ext_tw_video/1/pl/v.m3u8");
+    private static final MediaEntity.Sizes TEST_SIZES = new MediaEntity.Sizes(
+            new MediaEntity.Size(150, 150, "crop"), new MediaEntity.Size(340, 255, "fit"),
+            new MediaEntity.Size(600, 450, "fit"), new MediaEntity.Size(1024, 768, "fit"));
 
     @Test
     public void testGetPhotoEntity_nullEntities() {
@@ -301,4 +315,123 @@ public class TweetMediaUtilsTest {
                 TEST_MEDIA_TYPE_ANIMATED_GIF);
         assertTrue(TweetMediaUtils.isLooping(entity));
     }
+
+    @Test
+    public void testGetPhotoUrl_smallestCoveringVariant() {
+        final MediaEntity entity = newPhotoEntity(TEST_SIZES);
+        assertEquals(TEST_MEDIA_URL + ":small", TweetMediaUtils.getPhotoUrl(entity, 300, 200));
+        assertEquals(TEST_MEDIA_URL + ":medium", TweetMediaUtils.getPhotoUrl(entity, 600, 450));
+        assertEquals(TEST_MEDIA_URL + ":large", TweetMediaUtils.getPhotoUrl(entity, 340, 500));
+    }
+
+    @Test
+    public void testGetPhotoUrl_noCoveringVariant() {
+        final MediaEntity entity = newPhotoEntity(TEST_SIZES);
+        assertEquals(TEST_MEDIA_URL + ":large", TweetMediaUtils.getPhotoUrl(entity, 1440, 1080));
+    }
+
+    @Test
+    public void testGetPhotoUrl_croppedVariantOnlyForSquareTargets() {
+        final MediaEntity entity = newPhotoEntity(TEST_SIZES);
+        assertEquals(TEST_MEDIA_URL + ":thumb", TweetMediaUtils.getPhotoUrl(entity, 120, 120));
+        assertEquals(TEST_MEDIA_URL + ":small", TweetMediaUtils.getPhotoUrl(entity, 120, 90));
+    }
+
+    @Test
+    public void testGetPhotoUrl_unknownSize() {
+        final MediaEntity entity = newPhotoEntity(TEST_SIZES);
+        assertEquals(TEST_MEDIA_URL, TweetMediaUtils.getPhotoUrl(entity, 0, 0));
+    }
+
+    @Test
+    public void testGetPhotoUrl_nullSizes() {
+        final MediaEntity entity = newPhotoEntity(null);
+        assertEquals(TEST_MEDIA_URL, TweetMediaUtils.getPhotoUrl(entity, 300, 200));
+    }
+
+    @Test
+    public void testGetPhotoUrl_missingVariants() {
+        final MediaEntity entity = newPhotoEntity(new MediaEntity.Sizes(null, null,
+                new MediaEntity.Size(600, 450, "fit"), null));
+        assertEquals(TEST_MEDIA_URL + ":medium", TweetMediaUtils.getPhotoUrl(entity, 300, 200));
+        assertEquals(TEST_MEDIA_URL + ":medium", TweetMediaUtils.getPhotoUrl(entity, 1440, 1080));
+    }
+
+    @Test
+    public void testGetLargestPhotoUrl() {
+        final MediaEntity entity = newPhotoEntity(TEST_SIZES);
+        assertEquals(TEST_MEDIA_URL + ":large", TweetMediaUtils.getLargestPhotoUrl(entity));
+    }
+
+    @Test
+    public void testGetLargestPhotoUrl_skipsCroppedVariant() {
+        final MediaEntity entity = newPhotoEntity(new MediaEntity.Sizes(
+                new MediaEntity.Size(150, 150, "crop"), null, null, null));
+        assertEquals(TEST_MEDIA_URL, TweetMediaUtils.getLargestPhotoUrl(entity));
+    }
+
+    @Test
+    public void testGetLargestPhotoUrl_nullSizes() {
+        final MediaEntity entity = newPhotoEntity(null);
+        assertEquals(TEST_MEDIA_URL, TweetMediaUtils.getLargestPhotoUrl(entity));
+    }
+
+    @Test
+    public void testGetBestVariant_highestBitrateWithinScreen() {
+        final MediaEntity entity = newVideoEntity();
+        assertEquals(TEST_VARIANT_720P, TweetMediaUtils.getBestVariant(entity, 1080, 1920, 0));
+        assertEquals(TEST_VARIANT_360P, TweetMediaUtils.getBestVariant(entity, 480, 800, 0));
+    }
+
+    @Test
+    public void testGetBestVariant_unknownScreenSize() {
+        final MediaEntity entity = newVideoEntity();
+        assertEquals(TEST_VARIANT_720P, TweetMediaUtils.getBestVariant(entity, 0, 0, 0));
+    }
+
+    @Test
+    public void testGetBestVariant_limitedByBandwidth() {
+        final MediaEntity entity = newVideoEntity();
+        assertEquals(TEST_VARIANT_360P,
+                TweetMediaUtils.getBestVariant(entity, 1080, 1920, 1500000));
+    }
+
+    @Test
+    public void testGetBestVariant_noVariantFitsReturnsLowestBitrate() {
+        final MediaEntity entity = newVideoEntity();
+        assertEquals(TEST_VARIANT_180P, TweetMediaUtils.getBestVariant(entity, 100, 100, 100000));
+    }
+
+    @Test
+    public void testGetBestVariant_noSupportedVariant() {
+        final VideoInfo.Variant variant = new VideoInfo.Variant(0, TEST_CONTENT_TYPE_DASH,
+                TEST_VIDEO_URL);
+        final MediaEntity entity = TestFixtures.createEntityWithVideo(
+                TestFixtures.createVideoInfoWithVariant(variant));
+        assertNull(TweetMediaUtils.getBestVariant(entity, 1080, 1920, 0));
+    }
+
+    @Test
+    public void testGetBestVariant_nullVideoInfo() {
+        final MediaEntity entity = TestFixtures.createEntityWithVideo(null);
+        assertNull(TweetMediaUtils.getBestVariant(entity, 1080, 1920, 0));
+    }
+
+    @Test
+    public void testIsVariantWithinScreen_unknownVariantSize() {
+        final VideoInfo.Variant variant = new VideoInfo.Variant(2176000, TEST_CONTENT_TYPE_MP4,
+                TEST_VIDEO_URL);
+        assertTrue(TweetMediaUtils.isVariantWithinScreen(variant, 100, 100));
+    }
+
+    private MediaEntity newVideoEntity() {
+        final VideoInfo videoInfo = new VideoInfo(null, 0, Arrays.asList(TEST_VARIANT_360P,
+                TEST_VARIANT_HLS, TEST_VARIANT_720P, TEST_VARIANT_180P));
+        return TestFixtures.createEntityWithVideo(videoInfo);
+    }
+
+    private MediaEntity newPhotoEntity(MediaEntity.Sizes sizes) {
+        return new MediaEntity(null, null, null, TEST_INDICES_START, TEST_INDICES_END, 0L, null,
+                null, TEST_MEDIA_URL, sizes, 0L, null, TEST_MEDIA_TYPE_PHOTO, null);
+    }
 }
@@ -68,6 +68,15 @@ public class TwitterApiClientTest extends FabricAndroidTestCase {
         assertNotSame(service, client.getService(StatusesService.class));
     }
 
+    public void testWarmUp_cachesServices() throws Exception {
+        final TwitterApiClient client = newTwitterApiClient();
+        client.warmUp();
+        final int serviceCount = client.services.size();
+        assertTrue(serviceCount > 0);
+        assertSame(client.services.get(StatusesService.class), client.getStatusesService());
+        assertEquals(serviceCount, client.services.size());
+    }
+
     private TwitterApiClient newTwitterApiClient() {
         return new TwitterApiClient(mock(TwitterAuthConfig.class), mock(Session.class),
                 new TwitterApi(), mock(SSLSocketFactory.class), mock(ExecutorService.class));
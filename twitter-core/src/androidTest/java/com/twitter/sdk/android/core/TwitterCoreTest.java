@@ -27,9 +27,12 @@ import io.fabric.sdk.android.KitStub;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.net.ssl.SSLSocketFactory;
 
@@ -213,6 +216,41 @@ public class TwitterCoreTest extends FabricAndroidTestCase {
         }
     }
 
+    public void testGetActiveSessionAsync_afterSessionsRestored() throws Exception {
+        FabricTestUtils.with(getContext(), twitterCore);
+        final TwitterSession session = mock(TwitterSession.class);
+        twitterCore.twitterSessionManager = setUpSessionManager(session);
+        twitterCore.onSessionsRestored();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<TwitterSession> delivered = new AtomicReference<>();
+        twitterCore.getActiveSessionAsync(new Callback<TwitterSession>() {
+            @Override
+            public void success(Result<TwitterSession> result) {
+                delivered.set(result.data);
+                latch.countDown();
+            }
+
+            @Override
+            public void failure(TwitterException exception) {
+                fail("Should deliver the active session");
+            }
+        });
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(session, delivered.get());
+    }
+
+    public void testGetActiveSessionAsync_twitterNotInitialized() throws Exception {
+        FabricTestUtils.with(getContext(), new KitStub<Result>());
+        try {
+            twitterCore.getActiveSessionAsync(mock(Callback.class));
+            fail("Should fail if Twitter is not instantiated with Fabric.");
+        } catch (IllegalStateException ex) {
+            assertEquals(TWITTER_NOT_INIT_ERROR_MSG, ex.getMessage());
+        }
+    }
+
     private <T extends Session> SessionManager<T> setUpSessionManager(T session) {
         final SessionManager<T> sessionManager = mock(SessionManager.class);
         when(sessionManager.getActiveSession()).thenReturn(session);
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of {@link TwitterApiClient}s by session id. A cached client is only returned for
+ * the session it was created with, so a refreshed or replaced session gets a new client and the
+ * stale one is dropped. The least recently used client is evicted when the cache is full.
+ */
+public class ApiClientCache {
+    private final int maxSize;
+    // Entries by session id, in access order
+    private final LinkedHashMap<Long, Entry> entries;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    ApiClientCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Max size must be greater than 0.");
+        }
+        this.maxSize = maxSize;
+        entries = new LinkedHashMap<Long, Entry>(maxSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > ApiClientCache.this.maxSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return the client cached for the session, or null.
+     */
+    synchronized TwitterApiClient get(Session session) {
+        final Entry entry = entries.get(session.getId());
+        if (entry != null && entry.session.equals(session)) {
+            hitCount++;
+            return entry.client;
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Caches the client unless a client for the same session was cached in the meantime.
+     *
+     * @return the cached client for the session.
+     */
+    synchronized TwitterApiClient putIfAbsent(Session session, TwitterApiClient client) {
+        final Entry entry = entries.get(session.getId());
+        if (entry != null && entry.session.equals(session)) {
+            return entry.client;
+        }
+        entries.put(session.getId(), new Entry(session, client));
+        return client;
+    }
+
+    /**
+     * Removes the client of the session with the id.
+     */
+    synchronized void invalidate(long sessionId) {
+        entries.remove(sessionId);
+    }
+
+    /**
+     * @return number of cached clients.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return number of lookups which returned a cached client.
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return number of lookups which required a new client.
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return number of clients evicted to stay within the maximum size.
+     */
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static class Entry {
+        final Session session;
+        final TwitterApiClient client;
+
+        Entry(Session session, TwitterApiClient client) {
+            this.session = session;
+            this.client = client;
+        }
+    }
+}
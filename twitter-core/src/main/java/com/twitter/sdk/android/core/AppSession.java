@@ -20,7 +20,7 @@ package com.twitter.sdk.android.core;
 import android.text.TextUtils;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 import com.twitter.sdk.android.core.internal.oauth.GuestAuthToken;
 import com.twitter.sdk.android.core.internal.oauth.OAuth2Token;
 
@@ -42,9 +42,7 @@ public class AppSession extends Session<OAuth2Token> {
         private final Gson gson;
 
         public Serializer() {
-            this.gson = new GsonBuilder()
-                    .registerTypeAdapter(OAuth2Token.class, new AuthTokenAdapter())
-                    .create();
+            this.gson = GsonRegistry.getSessionGson();
         }
 
         @Override
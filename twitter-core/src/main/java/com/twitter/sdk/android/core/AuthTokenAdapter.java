@@ -26,6 +26,7 @@ import com.google.gson.JsonParseException;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 import com.twitter.sdk.android.core.internal.oauth.AppAuthToken;
 import com.twitter.sdk.android.core.internal.oauth.GuestAuthToken;
 import com.twitter.sdk.android.core.internal.oauth.OAuth2Token;
@@ -55,7 +56,7 @@ public class AuthTokenAdapter implements JsonSerializer<AuthToken>, JsonDeserial
     private final Gson gson;
 
     public AuthTokenAdapter() {
-        this.gson = new Gson();
+        this.gson = GsonRegistry.getDefaultGson();
     }
 
     @Override
@@ -17,10 +17,15 @@
 
 package com.twitter.sdk.android.core;
 
+import android.os.SystemClock;
+
+import com.twitter.sdk.android.core.internal.RequestAttempt;
+import com.twitter.sdk.android.core.internal.RequestHandle;
 import com.twitter.sdk.android.core.internal.TwitterRequestHeaders;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
@@ -38,33 +43,141 @@ import retrofit.client.Header;
 import retrofit.client.Request;
 import retrofit.client.Response;
 import retrofit.mime.FormUrlEncodedTypedOutput;
+import retrofit.mime.TypedInput;
 import retrofit.mime.TypedOutput;
 
 /**
  * Provides all functionality of {@link DefaultClient} and
  * additionally adds header signing via {@link com.twitter.sdk.android.core.Session}
+ *
+ * Idempotent requests which fail with a network error, server error or rate limit are retried
+ * according to the {@link RetryPolicy}. Each attempt is signed again. Asynchronous requests
+ * hand the retry back to their executor through {@link RequestAttempt} instead of waiting.
+ *
+ * Requests bound to a cancelled {@link RequestHandle} are not retried, and their responses are
+ * discarded instead of being returned for parsing.
  */
 public class AuthenticatedClient extends DefaultClient {
     private final Session session;
     private final TwitterAuthConfig authConfig;
+    private final RetryPolicy retryPolicy;
 
     public AuthenticatedClient(TwitterAuthConfig config, Session session,
             SSLSocketFactory sslSocketFactory) {
+        this(config, session, sslSocketFactory, new RetryPolicy());
+    }
+
+    AuthenticatedClient(TwitterAuthConfig config, Session session,
+            SSLSocketFactory sslSocketFactory, RetryPolicy retryPolicy) {
         super(sslSocketFactory);
         authConfig = config;
         this.session = session;
+        this.retryPolicy = retryPolicy;
     }
 
     @Override
     public Response execute(Request request) throws IOException {
-        request = new Request(request.getMethod(), request.getUrl(),
-                getAuthHeaders(request), request.getBody());
+        final RequestAttempt attempt = RequestAttempt.current();
+        if (attempt != null) {
+            return executeAttempt(request, attempt);
+        }
+
+        // Synchronous calls run on the caller's own thread, which waits for the retries
+        final long startTime = SystemClock.elapsedRealtime();
+        final RequestHandle handle = RequestHandle.current();
+        int retryCount = 0;
+        while (true) {
+            checkCancelled(handle, null);
+            Response response = null;
+            IOException error = null;
+            try {
+                response = executeSigned(request);
+            } catch (IOException e) {
+                error = e;
+            }
+            checkCancelled(handle, response);
 
+            final long delayMs = retryPolicy.getRetryDelayMs(request, response, retryCount,
+                    SystemClock.elapsedRealtime() - startTime);
+            if (delayMs == RetryPolicy.NO_RETRY) {
+                return getResult(response, error);
+            }
+
+            closeQuietly(response);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to retry request");
+            }
+            retryCount++;
+        }
+    }
+
+    /*
+     * Runs one attempt of an asynchronous request. A retry is scheduled on the attempt rather
+     * than waited for, so the shared executor thread is released during the backoff.
+     */
+    Response executeAttempt(Request request, RequestAttempt attempt) throws IOException {
+        final RequestHandle handle = RequestHandle.current();
+        checkCancelled(handle, null);
+        Response response = null;
+        IOException error = null;
+        try {
+            response = executeSigned(request);
+        } catch (IOException e) {
+            error = e;
+        }
+        checkCancelled(handle, response);
 
-        final Response response = wrappedClient.execute(request);
+        final long delayMs = retryPolicy.getRetryDelayMs(request, response,
+                attempt.getRetryCount(), attempt.getElapsedMs());
+        if (delayMs == RetryPolicy.NO_RETRY) {
+            return getResult(response, error);
+        }
+
+        closeQuietly(response);
+        attempt.scheduleRetry(delayMs);
+        throw new InterruptedIOException("Request retry scheduled");
+    }
+
+    private static Response getResult(Response response, IOException error) throws IOException {
+        if (error != null) {
+            throw error;
+        }
         return response;
     }
 
+    Response executeSigned(Request request) throws IOException {
+        return wrappedClient.execute(new Request(request.getMethod(), request.getUrl(),
+                getAuthHeaders(request), request.getBody()));
+    }
+
+    /*
+     * Discards the response and aborts the request if its handle has been cancelled.
+     */
+    private static void checkCancelled(RequestHandle handle, Response response)
+            throws InterruptedIOException {
+        if (handle != null && handle.isCancelled()) {
+            closeQuietly(response);
+            throw new InterruptedIOException("Request canceled");
+        }
+    }
+
+    /*
+     * Releases the connection of a response which is discarded.
+     */
+    private static void closeQuietly(Response response) {
+        final TypedInput body = response == null ? null : response.getBody();
+        if (body != null) {
+            try {
+                body.in().close();
+            } catch (IOException e) {
+                // ignore, the response is discarded
+            }
+        }
+    }
+
     protected List<Header> getAuthHeaders(Request request) throws IOException {
         final TwitterRequestHeaders authHeaders = new TwitterRequestHeaders(request.getMethod(),
                 request.getUrl(), authConfig, session, null, getPostParams(request));
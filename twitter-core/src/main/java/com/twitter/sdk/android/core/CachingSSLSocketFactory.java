@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import android.text.format.DateUtils;
+
+import io.fabric.sdk.android.Fabric;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Wraps the pinned {@link SSLSocketFactory} shared by all API, upload, OAuth and scribe clients.
+ * All connections share the SSL context of the wrapped factory, whose client session cache is
+ * enlarged on the first handshake so repeat connections to each host can resume their TLS
+ * session with an abbreviated handshake.
+ *
+ * Counts and durations of full and resumed handshakes are recorded, measured from socket
+ * creation to handshake completion.
+ */
+public class CachingSSLSocketFactory extends SSLSocketFactory {
+    // Enough sessions for the api, upload, syndication and scribe hosts, with room to spare
+    static final int SESSION_CACHE_SIZE = 32;
+    static final int SESSION_TIMEOUT_SECONDS = (int) (DateUtils.HOUR_IN_MILLIS / 1000);
+
+    private final SSLSocketFactory delegate;
+    private final AtomicBoolean sessionCacheConfigured = new AtomicBoolean(false);
+    private final AtomicInteger fullHandshakeCount = new AtomicInteger();
+    private final AtomicInteger resumedHandshakeCount = new AtomicInteger();
+    private final AtomicLong fullHandshakeMillis = new AtomicLong();
+    private final AtomicLong resumedHandshakeMillis = new AtomicLong();
+
+    public CachingSSLSocketFactory(SSLSocketFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return number of handshakes which established a new TLS session.
+     */
+    public int getFullHandshakeCount() {
+        return fullHandshakeCount.get();
+    }
+
+    /**
+     * @return number of handshakes which resumed a cached TLS session.
+     */
+    public int getResumedHandshakeCount() {
+        return resumedHandshakeCount.get();
+    }
+
+    /**
+     * @return total duration in milliseconds of handshakes which established a new TLS session.
+     */
+    public long getFullHandshakeMillis() {
+        return fullHandshakeMillis.get();
+    }
+
+    /**
+     * @return total duration in milliseconds of handshakes which resumed a cached TLS session.
+     */
+    public long getResumedHandshakeMillis() {
+        return resumedHandshakeMillis.get();
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+        return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+        return delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket(Socket s, String host, int port, boolean autoClose)
+            throws IOException {
+        return observe(delegate.createSocket(s, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return observe(delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return observe(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort)
+            throws IOException {
+        return observe(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return observe(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress,
+            int localPort) throws IOException {
+        return observe(delegate.createSocket(address, port, localAddress, localPort));
+    }
+
+    private Socket observe(Socket socket) {
+        if (socket instanceof SSLSocket) {
+            ((SSLSocket) socket).addHandshakeCompletedListener(new HandshakeTimer());
+        }
+        return socket;
+    }
+
+    void onHandshakeCompleted(HandshakeCompletedEvent event, long socketCreationTime,
+            long durationMillis) {
+        if (sessionCacheConfigured.compareAndSet(false, true)) {
+            configureSessionCache(event.getSession().getSessionContext());
+        }
+
+        // A resumed session was created by an earlier handshake
+        if (event.getSession().getCreationTime() < socketCreationTime) {
+            resumedHandshakeCount.incrementAndGet();
+            resumedHandshakeMillis.addAndGet(durationMillis);
+        } else {
+            fullHandshakeCount.incrementAndGet();
+            fullHandshakeMillis.addAndGet(durationMillis);
+        }
+    }
+
+    private void configureSessionCache(SSLSessionContext sessionContext) {
+        if (sessionContext == null) {
+            return;
+        }
+        // Zero means unlimited, only raise limits which are lower than ours
+        try {
+            final int cacheSize = sessionContext.getSessionCacheSize();
+            if (cacheSize > 0 && cacheSize < SESSION_CACHE_SIZE) {
+                sessionContext.setSessionCacheSize(SESSION_CACHE_SIZE);
+            }
+            final int timeout = sessionContext.getSessionTimeout();
+            if (timeout > 0 && timeout < SESSION_TIMEOUT_SECONDS) {
+                sessionContext.setSessionTimeout(SESSION_TIMEOUT_SECONDS);
+            }
+        } catch (IllegalArgumentException e) {
+            Fabric.getLogger().w(TwitterCore.TAG, "Failed to configure TLS session cache", e);
+        }
+    }
+
+    private class HandshakeTimer implements HandshakeCompletedListener {
+        private final long creationTime = System.currentTimeMillis();
+
+        @Override
+        public void handshakeCompleted(HandshakeCompletedEvent event) {
+            onHandshakeCompleted(event, creationTime,
+                    System.currentTimeMillis() - creationTime);
+        }
+    }
+}
@@ -68,20 +68,37 @@ public class GuestCallback<T> extends Callback<T> {
     @Override
     public void failure(TwitterException exception) {
         if (exception instanceof TwitterApiException) {
-            final TwitterApiException apiException = (TwitterApiException) exception;
-            final int errorCode = apiException.getErrorCode();
-            Fabric.getLogger().e(TwitterCore.TAG, "API call failure.", apiException);
+            Fabric.getLogger().e(TwitterCore.TAG, "API call failure.", exception);
 
             // clear session if guest auth token or app auth token invalid
-            if (errorCode == TwitterApiConstants.Errors.APP_AUTH_ERROR_CODE ||
-                    errorCode == TwitterApiConstants.Errors.GUEST_AUTH_ERROR_CODE) {
-                if (appSessionManager != null) {
-                    appSessionManager.clearSession(TwitterSession.LOGGED_OUT_USER_ID);
-                }
+            if (isGuestAuthError(exception)) {
+                clearGuestSession();
             }
         }
         if (cb != null) {
             cb.failure(exception);
         }
     }
+
+    /**
+     * Clears the AppSession so the next guest auth request obtains a new guest token.
+     */
+    protected void clearGuestSession() {
+        if (appSessionManager != null) {
+            appSessionManager.clearSession(TwitterSession.LOGGED_OUT_USER_ID);
+        }
+    }
+
+    /**
+     * @param exception A Twitter Error.
+     * @return true if the error was caused by an invalid or expired guest or app auth token.
+     */
+    public static boolean isGuestAuthError(TwitterException exception) {
+        if (exception instanceof TwitterApiException) {
+            final int errorCode = ((TwitterApiException) exception).getErrorCode();
+            return errorCode == TwitterApiConstants.Errors.APP_AUTH_ERROR_CODE ||
+                    errorCode == TwitterApiConstants.Errors.GUEST_AUTH_ERROR_CODE;
+        }
+        return false;
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import android.widget.ImageView;
+
+/**
+ * Loads the images shown by Twitter Kit views. Kits load images with Picasso by default. Apps
+ * with their own image pipeline can set their implementation on TweetUi and TweetComposer, so
+ * bitmap caches, memory budgets and disk caches are shared with the rest of the app.
+ *
+ * Methods are called on the main thread.
+ */
+public interface ImageLoader {
+
+    /**
+     * Loads the image into the target, replacing any load pending for the target. Until the
+     * image is loaded, the target shows the placeholder of the request.
+     * @param request the image to load
+     * @param target the view to show the image in
+     * @param listener notified once the load completes, may be null
+     */
+    void load(ImageRequest request, ImageView target, Listener listener);
+
+    /**
+     * Loads the image into the caches at low priority, without a target.
+     * @param request the image to prefetch
+     */
+    void prefetch(ImageRequest request);
+
+    /**
+     * Pauses loads with the given tag until they are resumed.
+     */
+    void pauseTag(Object tag);
+
+    /**
+     * Resumes loads with the given tag.
+     */
+    void resumeTag(Object tag);
+
+    /**
+     * Cancels loads with the given tag.
+     */
+    void cancelTag(Object tag);
+
+    /**
+     * Notified once an image load completes.
+     */
+    interface Listener {
+        void onSuccess();
+
+        void onError();
+    }
+}
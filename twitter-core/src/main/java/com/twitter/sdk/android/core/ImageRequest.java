@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import android.graphics.drawable.Drawable;
+
+/**
+ * Describes an image load for an {@link ImageLoader}: the image source, the placeholder shown
+ * while loading, how the image is sized and rounded, and the tag the load can be paused or
+ * cancelled by.
+ */
+public final class ImageRequest {
+    /**
+     * Url of the image, may be null if the image is a resource or unavailable. Requests without
+     * a url or resource only show the placeholder.
+     */
+    public final String url;
+
+    /**
+     * Drawable resource id of the image, or 0 if the image is loaded from the url.
+     */
+    public final int resourceId;
+
+    /**
+     * Drawable shown while the image loads, may be null.
+     */
+    public final Drawable placeholder;
+
+    /**
+     * True if the image is resized to the size of its target once the target is measured.
+     */
+    public final boolean fit;
+
+    /**
+     * Size in pixels the image is resized to, or 0 if the image is not resized to a fixed size.
+     */
+    public final int targetWidth;
+    public final int targetHeight;
+
+    /**
+     * True if the image is scaled to cover its size and cropped, false if it is scaled to fit.
+     */
+    public final boolean centerCrop;
+
+    /**
+     * Radii in pixels of the top left, top right, bottom right and bottom left corners, as x and
+     * y pairs, or null if corners are not rounded.
+     */
+    public final float[] cornerRadii;
+
+    /**
+     * Tag for pausing or cancelling the load, may be null.
+     */
+    public final Object tag;
+
+    private ImageRequest(Builder builder) {
+        url = builder.url;
+        resourceId = builder.resourceId;
+        placeholder = builder.placeholder;
+        fit = builder.fit;
+        targetWidth = builder.targetWidth;
+        targetHeight = builder.targetHeight;
+        centerCrop = builder.centerCrop;
+        cornerRadii = builder.cornerRadii;
+        tag = builder.tag;
+    }
+
+    /**
+     * ImageRequest Builder
+     */
+    public static class Builder {
+        private String url;
+        private int resourceId;
+        private Drawable placeholder;
+        private boolean fit;
+        private int targetWidth;
+        private int targetHeight;
+        private boolean centerCrop;
+        private float[] cornerRadii;
+        private Object tag;
+
+        public Builder setUrl(String url) {
+            this.url = url;
+            return this;
+        }
+
+        public Builder setResourceId(int resourceId) {
+            this.resourceId = resourceId;
+            return this;
+        }
+
+        public Builder setPlaceholder(Drawable placeholder) {
+            this.placeholder = placeholder;
+            return this;
+        }
+
+        /**
+         * Resizes the image to the size of its target once the target is measured.
+         */
+        public Builder fit() {
+            this.fit = true;
+            return this;
+        }
+
+        /**
+         * Resizes the image to the given size in pixels.
+         */
+        public Builder resize(int targetWidth, int targetHeight) {
+            this.targetWidth = targetWidth;
+            this.targetHeight = targetHeight;
+            return this;
+        }
+
+        public Builder centerCrop() {
+            this.centerCrop = true;
+            return this;
+        }
+
+        /**
+         * Rounds the corners of the image with the given radii in pixels.
+         */
+        public Builder setCornerRadii(int topLeftRadius, int topRightRadius,
+                int bottomRightRadius, int bottomLeftRadius) {
+            if (topLeftRadius < 0 || topRightRadius < 0 ||
+                    bottomRightRadius < 0 || bottomLeftRadius < 0) {
+                throw new IllegalArgumentException("Radius must not be negative");
+            }
+            cornerRadii = new float[] {topLeftRadius, topLeftRadius,
+                    topRightRadius, topRightRadius,
+                    bottomRightRadius, bottomRightRadius,
+                    bottomLeftRadius, bottomLeftRadius};
+            return this;
+        }
+
+        public Builder setTag(Object tag) {
+            this.tag = tag;
+            return this;
+        }
+
+        /**
+         * @throws java.lang.IllegalStateException if both a url and a resource are set, if a
+         * resize is combined with fit, or if the resize is not to a positive size
+         */
+        public ImageRequest build() {
+            if (url != null && resourceId != 0) {
+                throw new IllegalStateException("Url and resource must not both be set");
+            }
+            if (targetWidth != 0 || targetHeight != 0) {
+                if (fit) {
+                    throw new IllegalStateException("Fit must not be used with resize");
+                }
+                if (targetWidth <= 0 || targetHeight <= 0) {
+                    throw new IllegalStateException("Resize size must be positive");
+                }
+            }
+            return new ImageRequest(this);
+        }
+    }
+}
@@ -18,7 +18,6 @@
 package com.twitter.sdk.android.core;
 
 import io.fabric.sdk.android.services.persistence.PreferenceStore;
-import io.fabric.sdk.android.services.persistence.PreferenceStoreStrategy;
 import io.fabric.sdk.android.services.persistence.SerializationStrategy;
 
 import java.util.Collections;
@@ -28,41 +27,37 @@ import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Implementation of {@link com.twitter.sdk.android.core.SessionManager} that persists sessions.
+ * All sessions are stored together in one versioned preference entry, written in the background.
  */
 public class PersistedSessionManager<T extends Session> implements SessionManager<T> {
 
     private static final int NUM_SESSIONS = 1;
 
-    private final PreferenceStore preferenceStore;
-    private final SerializationStrategy<T> serializer;
     private final ConcurrentHashMap<Long, T> sessionMap;
-    private final ConcurrentHashMap<Long, PreferenceStoreStrategy<T>> storageMap;
-    private final PreferenceStoreStrategy<T> activeSessionStorage;
+    private final SessionStore<T> sessionStore;
     private final AtomicReference<T> activeSessionRef;
-    private final String prefKeySession;
     private volatile boolean restorePending = true;
+    private volatile ClearSessionListener clearSessionListener;
 
     public PersistedSessionManager(PreferenceStore preferenceStore,
             SerializationStrategy<T> serializer, String prefKeyActiveSession,
             String prefKeySession) {
-        this(preferenceStore, serializer, new ConcurrentHashMap<Long, T>(NUM_SESSIONS),
-                new ConcurrentHashMap<Long, PreferenceStoreStrategy<T>>(NUM_SESSIONS),
-                new PreferenceStoreStrategy<>(preferenceStore, serializer,
-                        prefKeyActiveSession), prefKeySession);
+        this(new ConcurrentHashMap<Long, T>(NUM_SESSIONS),
+                new SessionStore<>(preferenceStore, serializer, prefKeyActiveSession,
+                        prefKeySession, SessionStore.getDefaultWriteExecutor()));
     }
 
-    PersistedSessionManager(PreferenceStore preferenceStore,
-            SerializationStrategy<T> serializer, ConcurrentHashMap<Long, T> sessionMap,
-            ConcurrentHashMap<Long, PreferenceStoreStrategy<T>> storageMap,
-            PreferenceStoreStrategy<T> activesSessionStorage,
-            String prefKeySession) {
-        this.preferenceStore = preferenceStore;
-        this.serializer = serializer;
+    PersistedSessionManager(ConcurrentHashMap<Long, T> sessionMap, SessionStore<T> sessionStore) {
         this.sessionMap = sessionMap;
-        this.storageMap = storageMap;
-        this.activeSessionStorage = activesSessionStorage;
+        this.sessionStore = sessionStore;
         this.activeSessionRef = new AtomicReference<>();
-        this.prefKeySession = prefKeySession;
+    }
+
+    /**
+     * @param listener notified when a session is cleared, may be null
+     */
+    public void setClearSessionListener(ClearSessionListener listener) {
+        this.clearSessionListener = listener;
     }
 
     void restoreAllSessionsIfNecessary() {
@@ -74,38 +69,25 @@ public class PersistedSessionManager<T extends Session> implements SessionManage
 
     private synchronized void restoreAllSessions() {
         if (restorePending) {
-            restoreActiveSession();
-            restoreSessions();
-            restorePending = false;
-        }
-    }
-
-    private void restoreSessions() {
-        T session;
-
-        final Map<String, ?> preferences = preferenceStore.get().getAll();
-        for (Map.Entry<String, ?> entry : preferences.entrySet()) {
-            if (isSessionPreferenceKey(entry.getKey())) {
-                session = serializer.deserialize((String) entry.getValue());
-                if (session != null) {
-                    internalSetSession(session.getId(), session, false);
-                }
+            final SessionStore.Contents<T> contents = sessionStore.restore();
+            if (contents.activeSession != null) {
+                internalSetSession(contents.activeSession.getId(), contents.activeSession, false,
+                        false);
+            }
+            for (Map.Entry<Long, T> entry : contents.sessions.entrySet()) {
+                internalSetSession(entry.getKey(), entry.getValue(), false, false);
             }
-        }
-
-    }
 
-    private void restoreActiveSession() {
-        final T session = activeSessionStorage.restore();
-        if (session != null) {
-            internalSetSession(session.getId(), session, false);
+            // Without a stored active session the first restored session became active, store
+            // it as active so the same session is active after the next restart
+            final T activeSession = activeSessionRef.get();
+            if (contents.activeSession == null && activeSession != null) {
+                sessionStore.setActiveSession(activeSession.getId());
+            }
+            restorePending = false;
         }
     }
 
-    boolean isSessionPreferenceKey(String preferenceKey) {
-        return preferenceKey.startsWith(prefKeySession);
-    }
-
     /**
      * @return the active session, may return {@code null} if there's no session.
      */
@@ -124,7 +106,7 @@ public class PersistedSessionManager<T extends Session> implements SessionManage
             throw new IllegalArgumentException("Session must not be null!");
         }
         restoreAllSessionsIfNecessary();
-        internalSetSession(session.getId(), session, true);
+        internalSetSession(session.getId(), session, true, true);
     }
 
     /**
@@ -157,7 +139,7 @@ public class PersistedSessionManager<T extends Session> implements SessionManage
             throw new IllegalArgumentException("Session must not be null!");
         }
         restoreAllSessionsIfNecessary();
-        internalSetSession(id, session, false);
+        internalSetSession(id, session, false, true);
     }
 
     @Override
@@ -166,26 +148,25 @@ public class PersistedSessionManager<T extends Session> implements SessionManage
         return Collections.unmodifiableMap(sessionMap);
     }
 
-    private void internalSetSession(long id, T session, boolean forceUpdate) {
-        sessionMap.put(id, session);
-        PreferenceStoreStrategy<T> storage = storageMap.get(id);
-        if (storage == null) {
-            storage = new PreferenceStoreStrategy<>(preferenceStore, serializer, getPrefKey(id));
-            storageMap.putIfAbsent(id, storage);
-        }
-        storage.save(session);
+    /*
+     * Sessions are only stored when they changed. Restored sessions are already stored and are
+     * not written back.
+     */
+    private void internalSetSession(long id, T session, boolean forceUpdate, boolean persist) {
+        final T previousSession = sessionMap.put(id, session);
 
         final T activeSession = activeSessionRef.get();
+        boolean active = false;
         if (activeSession == null || activeSession.getId() == id || forceUpdate) {
             synchronized (this) {
-                activeSessionRef.compareAndSet(activeSession, session);
-                activeSessionStorage.save(session);
+                active = activeSessionRef.compareAndSet(activeSession, session);
             }
         }
-    }
 
-    String getPrefKey(long id) {
-        return prefKeySession + "_" + id;
+        if (persist && (!session.equals(previousSession)
+                || (active && !session.equals(activeSession)))) {
+            sessionStore.save(id, session, active);
+        }
     }
 
     /**
@@ -197,14 +178,22 @@ public class PersistedSessionManager<T extends Session> implements SessionManage
         if (activeSessionRef.get() != null && activeSessionRef.get().getId() == id) {
             synchronized (this) {
                 activeSessionRef.set(null);
-                activeSessionStorage.clear();
             }
         }
 
         sessionMap.remove(id);
-        final PreferenceStoreStrategy<T> storage = storageMap.remove(id);
-        if (storage != null) {
-            storage.clear();
+        sessionStore.clear(id);
+
+        final ClearSessionListener listener = clearSessionListener;
+        if (listener != null) {
+            listener.onSessionCleared(id);
         }
     }
+
+    /**
+     * Listener for sessions being cleared, to release resources held for them.
+     */
+    public interface ClearSessionListener {
+        void onSessionCleared(long id);
+    }
 }
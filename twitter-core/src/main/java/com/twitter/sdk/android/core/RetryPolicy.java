@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import java.util.Locale;
+import java.util.Random;
+
+import retrofit.client.Request;
+import retrofit.client.Response;
+
+/**
+ * Decides whether a failed API request is retried and how long to wait before the retry.
+ *
+ * Only idempotent requests (GET and HEAD, such as statuses/show, statuses/lookup and the
+ * timeline endpoints) are retried, since repeating a POST such as statuses/update could
+ * create a duplicate. Network errors and 5xx server errors are retried with jittered
+ * exponential backoff. Rate limited requests wait for the rate limit reset. No retry is
+ * scheduled past the deadline, measured from the first attempt.
+ */
+class RetryPolicy {
+    static final long NO_RETRY = -1L;
+
+    static final int DEFAULT_MAX_RETRIES = 2;
+    static final long DEFAULT_BASE_DELAY_MS = 500L;
+    static final long DEFAULT_DEADLINE_MS = 10 * 1000L;
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long deadlineMs;
+    private final Random random;
+
+    RetryPolicy() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_MS, DEFAULT_DEADLINE_MS, new Random());
+    }
+
+    RetryPolicy(int maxRetries, long baseDelayMs, long deadlineMs, Random random) {
+        this.maxRetries = maxRetries;
+        this.baseDelayMs = baseDelayMs;
+        this.deadlineMs = deadlineMs;
+        this.random = random;
+    }
+
+    /**
+     * @param request the request that was sent
+     * @param response the response, or null if the request failed with a network error
+     * @param retryCount number of retries already made for the request
+     * @param elapsedMs time since the first attempt was started
+     * @return delay in milliseconds before retrying the request, or {@link #NO_RETRY}
+     */
+    long getRetryDelayMs(Request request, Response response, int retryCount, long elapsedMs) {
+        if (retryCount >= maxRetries || !isIdempotent(request)) {
+            return NO_RETRY;
+        }
+
+        final long delayMs;
+        if (response == null || isServerError(response.getStatus())) {
+            delayMs = getBackoffMs(retryCount);
+        } else if (response.getStatus() == TOO_MANY_REQUESTS) {
+            final TwitterRateLimit rateLimit = new TwitterRateLimit(response.getHeaders());
+            delayMs = Math.max(rateLimit.getRemainingTime() * 1000L, getBackoffMs(retryCount));
+        } else {
+            return NO_RETRY;
+        }
+
+        return elapsedMs + delayMs > deadlineMs ? NO_RETRY : delayMs;
+    }
+
+    /*
+     * Exponential backoff with equal jitter, so retries from many clients do not line up.
+     */
+    long getBackoffMs(int retryCount) {
+        final long backoffMs = baseDelayMs << retryCount;
+        final long halfMs = backoffMs / 2;
+        return halfMs + (long) (random.nextDouble() * (backoffMs - halfMs));
+    }
+
+    static boolean isIdempotent(Request request) {
+        final String method = request.getMethod().toUpperCase(Locale.US);
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    static boolean isServerError(int status) {
+        return status >= 500 && status < 600;
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import android.content.SharedPreferences;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
+
+import io.fabric.sdk.android.Fabric;
+import io.fabric.sdk.android.services.persistence.PreferenceStore;
+import io.fabric.sdk.android.services.persistence.SerializationStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persists the sessions of a {@link PersistedSessionManager} as one compact, versioned entry in
+ * its preference store, so lookups never scan the preferences and a session update costs one
+ * write however many sessions there are. Updates are applied in memory and committed on the
+ * write executor. Updates made while a write is pending are coalesced into it.
+ *
+ * Sessions saved by earlier versions, under one preference key per session plus a key for the
+ * active session, are copied into the entry when it is first restored. The old keys are kept so
+ * an app rolled back to an earlier version still finds its sessions, and are removed when their
+ * session is cleared so a rollback does not restore sessions the user logged out of.
+ */
+class SessionStore<T extends Session> {
+    static final int VERSION = 1;
+    static final String STORE_KEY_SUFFIX = "_store";
+
+    private static Executor defaultWriteExecutor;
+
+    private final PreferenceStore preferenceStore;
+    private final SerializationStrategy<T> serializer;
+    private final String prefKeyActiveSession;
+    private final String prefKeySession;
+    private final String prefKeyStore;
+    private final Executor writeExecutor;
+    private final Gson gson;
+    private final AtomicBoolean writePending = new AtomicBoolean();
+    private final Object writeLock = new Object();
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            write();
+        }
+    };
+
+    // Serialized sessions by id and the active session id, as the next write stores them
+    private final Map<Long, String> serializedSessions = new LinkedHashMap<>();
+    private Long activeSessionId;
+    // Ids of sessions cleared since the last write, whose keys of earlier versions it removes
+    private final List<Long> clearedSessionIds = new ArrayList<>();
+
+    /**
+     * @param prefKeyActiveSession key of the active session saved by earlier versions
+     * @param prefKeySession prefix of the keys of sessions saved by earlier versions, and of the
+     *          key of the store entry
+     */
+    SessionStore(PreferenceStore preferenceStore, SerializationStrategy<T> serializer,
+            String prefKeyActiveSession, String prefKeySession, Executor writeExecutor) {
+        this.preferenceStore = preferenceStore;
+        this.serializer = serializer;
+        this.prefKeyActiveSession = prefKeyActiveSession;
+        this.prefKeySession = prefKeySession;
+        this.prefKeyStore = prefKeySession + STORE_KEY_SUFFIX;
+        this.writeExecutor = writeExecutor;
+        this.gson = GsonRegistry.getDefaultGson();
+    }
+
+    /**
+     * Reads the stored sessions, replacing the sessions held in memory.
+     */
+    synchronized Contents<T> restore() {
+        serializedSessions.clear();
+        activeSessionId = null;
+
+        final Map<Long, T> sessions = new LinkedHashMap<>();
+        final String storeJson = preferenceStore.get().getString(prefKeyStore, null);
+        if (storeJson != null) {
+            readEntry(storeJson, sessions);
+        } else {
+            migrateLegacySessions(sessions);
+        }
+
+        final T activeSession = activeSessionId == null ? null : sessions.get(activeSessionId);
+        if (activeSession == null) {
+            activeSessionId = null;
+        }
+        return new Contents<>(sessions, activeSession);
+    }
+
+    /**
+     * Stores the session under the id.
+     * @param active true to also store the session as the active session
+     */
+    void save(long id, T session, boolean active) {
+        final String serializedSession = serializer.serialize(session);
+        synchronized (this) {
+            serializedSessions.put(id, serializedSession);
+            if (active) {
+                activeSessionId = id;
+            }
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * Stores the session with the id, which must already be stored, as the active session.
+     */
+    void setActiveSession(long id) {
+        synchronized (this) {
+            if (!serializedSessions.containsKey(id)
+                    || (activeSessionId != null && activeSessionId == id)) {
+                return;
+            }
+            activeSessionId = id;
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * Removes the session with the id, and clears the active session if it is that session.
+     */
+    void clear(long id) {
+        synchronized (this) {
+            final boolean removed = serializedSessions.remove(id) != null;
+            final boolean active = activeSessionId != null && activeSessionId == id;
+            if (active) {
+                activeSessionId = null;
+            }
+            if (!removed && !active) {
+                return;
+            }
+            clearedSessionIds.add(id);
+        }
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (writePending.compareAndSet(false, true)) {
+            writeExecutor.execute(writeTask);
+        }
+    }
+
+    /*
+     * Writes the latest state. Writes are serialized so an older state never overwrites a newer
+     * one when the write executor has several threads. The write commits synchronously, as an
+     * applied write is only queued for disk and lost if the process is killed before it lands.
+     */
+    void write() {
+        synchronized (writeLock) {
+            writePending.set(false);
+            final String storeJson;
+            final List<Long> clearedIds;
+            synchronized (this) {
+                storeJson = gson.toJson(new Entry(VERSION, activeSessionId,
+                        new LinkedHashMap<>(serializedSessions)));
+                clearedIds = new ArrayList<>(clearedSessionIds);
+                clearedSessionIds.clear();
+            }
+            final SharedPreferences.Editor editor = preferenceStore.edit();
+            if (!clearedIds.isEmpty()) {
+                removeLegacySessions(editor, clearedIds);
+            }
+            if (!editor.putString(prefKeyStore, storeJson).commit()) {
+                Fabric.getLogger().e(TwitterCore.TAG, "Failed to write session store");
+            }
+        }
+    }
+
+    private void readEntry(String storeJson, Map<Long, T> sessions) {
+        final Entry entry;
+        try {
+            entry = gson.fromJson(storeJson, Entry.class);
+        } catch (RuntimeException e) {
+            Fabric.getLogger().e(TwitterCore.TAG, "Failed to read session store", e);
+            return;
+        }
+        if (entry == null || entry.version != VERSION || entry.sessions == null) {
+            Fabric.getLogger().e(TwitterCore.TAG, "Unsupported session store version");
+            return;
+        }
+
+        for (Map.Entry<Long, String> session : entry.sessions.entrySet()) {
+            final T restored = serializer.deserialize(session.getValue());
+            if (restored != null) {
+                sessions.put(session.getKey(), restored);
+                serializedSessions.put(session.getKey(), session.getValue());
+            }
+        }
+        activeSessionId = entry.activeSessionId;
+    }
+
+    /*
+     * Removes the keys earlier versions saved the cleared sessions under.
+     */
+    private void removeLegacySessions(SharedPreferences.Editor editor, List<Long> clearedIds) {
+        for (Long id : clearedIds) {
+            editor.remove(getPrefKey(id));
+        }
+        final String legacyActiveSession =
+                preferenceStore.get().getString(prefKeyActiveSession, null);
+        if (legacyActiveSession != null) {
+            final T session = serializer.deserialize(legacyActiveSession);
+            if (session != null && clearedIds.contains(session.getId())) {
+                editor.remove(prefKeyActiveSession);
+            }
+        }
+    }
+
+    /*
+     * Copies sessions saved under separate keys by earlier versions into the store entry. Runs
+     * once, as the entry exists afterwards. The old keys are left in place for rollbacks.
+     */
+    private void migrateLegacySessions(Map<Long, T> sessions) {
+        final Map<String, ?> preferences = preferenceStore.get().getAll();
+        boolean migrated = false;
+
+        for (Map.Entry<String, ?> preference : preferences.entrySet()) {
+            if (isSessionPreferenceKey(preference.getKey())) {
+                migrated = true;
+                migrateLegacySession(preference.getValue(), sessions);
+            }
+        }
+        if (preferences.containsKey(prefKeyActiveSession)) {
+            migrated = true;
+            final T activeSession =
+                    migrateLegacySession(preferences.get(prefKeyActiveSession), sessions);
+            if (activeSession != null) {
+                activeSessionId = activeSession.getId();
+            }
+        }
+
+        if (migrated) {
+            preferenceStore.save(preferenceStore.edit().putString(prefKeyStore, gson.toJson(
+                    new Entry(VERSION, activeSessionId, serializedSessions))));
+        }
+    }
+
+    private T migrateLegacySession(Object value, Map<Long, T> sessions) {
+        if (!(value instanceof String)) {
+            return null;
+        }
+        final T session = serializer.deserialize((String) value);
+        if (session != null) {
+            sessions.put(session.getId(), session);
+            serializedSessions.put(session.getId(), (String) value);
+        }
+        return session;
+    }
+
+    boolean isSessionPreferenceKey(String preferenceKey) {
+        return preferenceKey.startsWith(prefKeySession) && !preferenceKey.equals(prefKeyStore);
+    }
+
+    /**
+     * @return key a session was saved under by earlier versions
+     */
+    String getPrefKey(long id) {
+        return prefKeySession + "_" + id;
+    }
+
+    String getStoreKey() {
+        return prefKeyStore;
+    }
+
+    /*
+     * Store writes only hand the entry to SharedPreferences, so one thread serves all stores.
+     */
+    static synchronized Executor getDefaultWriteExecutor() {
+        if (defaultWriteExecutor == null) {
+            defaultWriteExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "TwitterSessionStore");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return defaultWriteExecutor;
+    }
+
+    /**
+     * Sessions read by {@link #restore()}.
+     */
+    static class Contents<T> {
+        // Sessions by id, in the order they were stored
+        final Map<Long, T> sessions;
+        // The active session, or null if none is stored
+        final T activeSession;
+
+        Contents(Map<Long, T> sessions, T activeSession) {
+            this.sessions = Collections.unmodifiableMap(sessions);
+            this.activeSession = activeSession;
+        }
+    }
+
+    static class Entry {
+        @SerializedName("version")
+        final int version;
+
+        @SerializedName("active_session_id")
+        final Long activeSessionId;
+
+        // Sessions by id, each serialized by the serialization strategy of the store
+        @SerializedName("sessions")
+        final Map<Long, String> sessions;
+
+        Entry(int version, Long activeSessionId, Map<Long, String> sessions) {
+            this.version = version;
+            this.activeSessionId = activeSessionId;
+            this.sessions = sessions;
+        }
+    }
+}
@@ -17,9 +17,12 @@
 
 package com.twitter.sdk.android.core;
 
+import com.twitter.sdk.android.core.internal.CancellableCallbackExecutor;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
+import com.twitter.sdk.android.core.internal.PriorityExecutor;
 import com.twitter.sdk.android.core.internal.TwitterApi;
-import com.twitter.sdk.android.core.models.SafeListAdapter;
-import com.twitter.sdk.android.core.models.SafeMapAdapter;
+import com.twitter.sdk.android.core.models.FieldProjection;
+import com.twitter.sdk.android.core.models.UserPool;
 import com.twitter.sdk.android.core.services.AccountService;
 import com.twitter.sdk.android.core.services.CollectionService;
 import com.twitter.sdk.android.core.services.ConfigurationService;
@@ -30,7 +33,6 @@ import com.twitter.sdk.android.core.services.SearchService;
 import com.twitter.sdk.android.core.services.StatusesService;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
@@ -38,7 +40,6 @@ import java.util.concurrent.ExecutorService;
 import javax.net.ssl.SSLSocketFactory;
 
 import retrofit.RestAdapter;
-import retrofit.android.MainThreadExecutor;
 import retrofit.converter.GsonConverter;
 
 /**
@@ -47,7 +48,6 @@ import retrofit.converter.GsonConverter;
  * interfaces to {@link com.twitter.sdk.android.core.TwitterApiClient#getService(Class)}
  */
 public class TwitterApiClient {
-    private static final String UPLOAD_ENDPOINT = "https://upload.twitter.com";
     final ConcurrentHashMap<Class, Object> services;
     final RestAdapter apiAdapter;
     final RestAdapter uploadAdapter;
@@ -56,6 +56,15 @@ public class TwitterApiClient {
                      Session session,
                      TwitterApi twitterApi,
                      SSLSocketFactory sslSocketFactory, ExecutorService executorService) {
+        this(authConfig, session, twitterApi, sslSocketFactory, executorService,
+                FieldProjection.ALL, null);
+    }
+
+    TwitterApiClient(TwitterAuthConfig authConfig,
+                     Session session,
+                     TwitterApi twitterApi,
+                     SSLSocketFactory sslSocketFactory, ExecutorService executorService,
+                     FieldProjection projection, UserPool userPool) {
 
         if (session == null) {
             throw new IllegalArgumentException("Session must not be null.");
@@ -63,23 +72,21 @@ public class TwitterApiClient {
 
         this.services = new ConcurrentHashMap<>();
 
-        final Gson gson = new GsonBuilder()
-                .registerTypeAdapterFactory(new SafeListAdapter())
-                .registerTypeAdapterFactory(new SafeMapAdapter())
-                .create();
+        final Gson gson = GsonRegistry.getApiGson(projection, userPool);
+        final PriorityExecutor requestExecutor = new PriorityExecutor(executorService);
 
         apiAdapter = new RestAdapter.Builder()
                 .setClient(new AuthenticatedClient(authConfig, session, sslSocketFactory))
                 .setEndpoint(twitterApi.getBaseHostUrl())
                 .setConverter(new GsonConverter(gson))
-                .setExecutors(executorService, new MainThreadExecutor())
+                .setExecutors(requestExecutor, new CancellableCallbackExecutor())
                 .build();
 
         uploadAdapter = new RestAdapter.Builder()
                 .setClient(new AuthenticatedClient(authConfig, session, sslSocketFactory))
-                .setEndpoint(UPLOAD_ENDPOINT)
+                .setEndpoint(twitterApi.getUploadHostUrl())
                 .setConverter(new GsonConverter(gson))
-                .setExecutors(executorService, new MainThreadExecutor())
+                .setExecutors(requestExecutor, new CancellableCallbackExecutor())
                 .build();
     }
 
@@ -92,9 +99,26 @@ public class TwitterApiClient {
      * @throws java.lang.IllegalArgumentException if TwitterSession argument is null
      */
     public TwitterApiClient(Session session) {
+        this(session, FieldProjection.ALL);
+    }
+
+    /**
+     * Creates a client that only parses the Tweet and User fields declared by the given
+     * projection. Undeclared fields are left at their default values in returned models.
+     *
+     * Must be instantiated after {@link com.twitter.sdk.android.core.TwitterCore} has been
+     * initialized via {@link io.fabric.sdk.android.Fabric#with(android.content.Context, io.fabric.sdk.android.Kit[])}.
+     *
+     * @param session Session to be used to create the API calls.
+     * @param projection Tweet and User fields to parse from responses.
+     *
+     * @throws java.lang.IllegalArgumentException if TwitterSession argument is null
+     */
+    public TwitterApiClient(Session session, FieldProjection projection) {
         this(TwitterCore.getInstance().getAuthConfig(), session, new TwitterApi(),
                 TwitterCore.getInstance().getSSLSocketFactory(),
-                TwitterCore.getInstance().getFabric().getExecutorService());
+                TwitterCore.getInstance().getFabric().getExecutorService(), projection,
+                TwitterCore.getInstance().getUserPool());
     }
 
     /**
@@ -174,9 +198,20 @@ public class TwitterApiClient {
      */
     @SuppressWarnings("unchecked")
     protected <T> T getAdapterService(RestAdapter adapter, Class<T> cls) {
-        if (!services.contains(cls)) {
+        if (!services.containsKey(cls)) {
             services.putIfAbsent(cls, adapter.create(cls));
         }
         return (T) services.get(cls);
     }
+
+    /**
+     * Creates the service instances used to load and act on Tweets ahead of their first use.
+     */
+    void warmUp() {
+        getStatusesService();
+        getFavoriteService();
+        getSearchService();
+        getListService();
+        getCollectionService();
+    }
 }
@@ -22,6 +22,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 import io.fabric.sdk.android.Fabric;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 import com.twitter.sdk.android.core.internal.TwitterApiConstants;
 import com.twitter.sdk.android.core.models.ApiError;
 
@@ -130,7 +131,7 @@ public class TwitterApiException extends TwitterException {
     }
 
     static ApiError parseApiError(String response) {
-        final Gson gson = new Gson();
+        final Gson gson = GsonRegistry.getDefaultGson();
         try {
             // Get the "errors" object
             final JsonObject responseObj = new JsonParser().parse(response).getAsJsonObject();
@@ -18,23 +18,29 @@
 package com.twitter.sdk.android.core;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
 
 import io.fabric.sdk.android.Fabric;
 import io.fabric.sdk.android.Kit;
+import io.fabric.sdk.android.services.common.TimingMetric;
 import io.fabric.sdk.android.services.network.NetworkUtils;
 import io.fabric.sdk.android.services.persistence.PreferenceStoreImpl;
 
 import com.twitter.sdk.android.core.identity.TwitterAuthClient;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 import com.twitter.sdk.android.core.internal.MigrationHelper;
 import com.twitter.sdk.android.core.internal.SessionMonitor;
+import com.twitter.sdk.android.core.internal.StartupTasks;
 import com.twitter.sdk.android.core.internal.TwitterApi;
 import com.twitter.sdk.android.core.internal.TwitterSessionVerifier;
 import com.twitter.sdk.android.core.internal.oauth.OAuth2Service;
 import com.twitter.sdk.android.core.internal.scribe.TwitterCoreScribeClientHolder;
+import com.twitter.sdk.android.core.models.UserPool;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
 
 import javax.net.ssl.SSLSocketFactory;
 
@@ -50,24 +56,69 @@ public class TwitterCore extends Kit<Boolean> {
     static final String PREF_KEY_ACTIVE_APP_SESSION = "active_appsession";
     static final String PREF_KEY_APP_SESSION = "appsession";
     static final String SESSION_PREF_FILE_NAME = "session_store";
+    // Number of distinct Users shared between parsed Tweets of all API clients
+    static final int USER_POOL_SIZE = 200;
+    // Number of API clients cached for distinct sessions
+    static final int MAX_API_CLIENTS = 10;
+    // Startup stage timings are logged when this tag is loggable at VERBOSE level
+    static final String STARTUP_TIMING_TAG = "TwitterCoreStartup";
+    // Startup task names
+    static final String TASK_RESTORE_SESSIONS = "restoreSessions";
+    static final String TASK_CREATE_SSL_SOCKET_FACTORY = "createSSLSocketFactory";
+    static final String TASK_INITIALIZE_SCRIBE_CLIENT = "initializeScribeClient";
+    static final String TASK_WARM_UP_GSON = "warmUpGson";
+    static final String TASK_WARM_UP_API_CLIENTS = "warmUpApiClients";
+    static final String TASK_MONITOR_ACTIVITY_LIFECYCLE = "monitorActivityLifecycle";
 
     SessionManager<TwitterSession> twitterSessionManager;
     SessionManager<AppSession> appSessionManager;
     SessionMonitor<TwitterSession> sessionMonitor;
 
     private final TwitterAuthConfig authConfig;
-    private final ConcurrentHashMap<Session, TwitterApiClient> apiClients;
+    private final ApiClientCache apiClients;
+    private final UserPool userPool;
+    private final boolean deferInitialization;
+    private final StartupTasks startupTasks;
     private volatile SSLSocketFactory sslSocketFactory;
+    // Callbacks waiting for session restoration, guarded by itself
+    private final List<Callback<TwitterSession>> sessionRestoreCallbacks = new ArrayList<>();
+    private boolean sessionsRestored;
+    // Releases the API client of a session when it is cleared
+    private final PersistedSessionManager.ClearSessionListener apiClientInvalidator =
+            new PersistedSessionManager.ClearSessionListener() {
+                @Override
+                public void onSessionCleared(long id) {
+                    apiClients.invalidate(id);
+                }
+            };
 
     public TwitterCore(TwitterAuthConfig authConfig) {
-        this.authConfig = authConfig;
-        apiClients = new ConcurrentHashMap<>();
+        this(authConfig, false);
+    }
+
+    /**
+     * @param authConfig the auth config
+     * @param deferInitialization if true, background initialization such as restoring sessions
+     *          and creating the SSLSocketFactory is scheduled as independent tasks instead of
+     *          completing before kits which depend on TwitterCore are initialized. Each task
+     *          still runs on demand when its result is first needed.
+     */
+    public TwitterCore(TwitterAuthConfig authConfig, boolean deferInitialization) {
+        this(authConfig, new ApiClientCache(MAX_API_CLIENTS), deferInitialization);
     }
 
-    TwitterCore(TwitterAuthConfig authConfig,
-                ConcurrentHashMap<Session, TwitterApiClient> apiClients) {
+    TwitterCore(TwitterAuthConfig authConfig, ApiClientCache apiClients) {
+        this(authConfig, apiClients, false);
+    }
+
+    TwitterCore(TwitterAuthConfig authConfig, ApiClientCache apiClients,
+                boolean deferInitialization) {
         this.authConfig = authConfig;
         this.apiClients = apiClients;
+        this.deferInitialization = deferInitialization;
+        userPool = new UserPool(USER_POOL_SIZE);
+        startupTasks = new StartupTasks(getIdentifier(), STARTUP_TIMING_TAG);
+        addStartupTasks();
     }
 
     public static TwitterCore getInstance() {
@@ -84,9 +135,17 @@ public class TwitterCore extends Kit<Boolean> {
         return authConfig;
     }
 
+    /**
+     * @return the pool of Users shared by Tweets parsed from any API client.
+     */
+    UserPool getUserPool() {
+        return userPool;
+    }
+
     /**
      *
-     * @return the SSLSocketFactory
+     * @return the SSLSocketFactory, a {@link CachingSSLSocketFactory} which reports TLS handshake
+     *          counts and times, or null if SSL pinning could not be set up
      *
      * @throws java.lang.IllegalStateException if {@link io.fabric.sdk.android.Fabric}
      *          or {@link TwitterCore} has not been initialized.
@@ -103,8 +162,8 @@ public class TwitterCore extends Kit<Boolean> {
     private synchronized void createSSLSocketFactory() {
         if (sslSocketFactory == null) {
             try {
-                sslSocketFactory = NetworkUtils.getSSLSocketFactory(
-                        new TwitterPinningInfoProvider(getContext()));
+                sslSocketFactory = new CachingSSLSocketFactory(NetworkUtils.getSSLSocketFactory(
+                        new TwitterPinningInfoProvider(getContext())));
                 Fabric.getLogger().d(TAG, "Custom SSL pinning enabled");
             } catch (Exception e) {
                 Fabric.getLogger().e(TAG, "Exception setting up custom SSL pinning", e);
@@ -114,36 +173,137 @@ public class TwitterCore extends Kit<Boolean> {
 
     @Override
     protected boolean onPreExecute() {
+        final TimingMetric preExecuteTiming = startTiming("onPreExecute");
+
+        final TimingMetric migrationTiming = startTiming("migrateSessionStore");
         final MigrationHelper migrationHelper = new MigrationHelper();
         migrationHelper.migrateSessionStore(getContext(), getIdentifier(),
                 getIdentifier() + ":" + SESSION_PREF_FILE_NAME + ".xml");
+        migrationTiming.stopMeasuring();
 
-        twitterSessionManager = new PersistedSessionManager<>(
-                new PreferenceStoreImpl(getContext(), SESSION_PREF_FILE_NAME),
-                new TwitterSession.Serializer(), PREF_KEY_ACTIVE_TWITTER_SESSION,
-                PREF_KEY_TWITTER_SESSION);
+        final PersistedSessionManager<TwitterSession> persistedTwitterSessionManager =
+                new PersistedSessionManager<>(
+                        new PreferenceStoreImpl(getContext(), SESSION_PREF_FILE_NAME),
+                        new TwitterSession.Serializer(), PREF_KEY_ACTIVE_TWITTER_SESSION,
+                        PREF_KEY_TWITTER_SESSION);
+        persistedTwitterSessionManager.setClearSessionListener(apiClientInvalidator);
+        twitterSessionManager = persistedTwitterSessionManager;
 
         sessionMonitor = new SessionMonitor<>(twitterSessionManager,
                 getFabric().getExecutorService(), new TwitterSessionVerifier());
 
-        appSessionManager = new PersistedSessionManager<>(
-                new PreferenceStoreImpl(getContext(), SESSION_PREF_FILE_NAME),
-                new AppSession.Serializer(), PREF_KEY_ACTIVE_APP_SESSION, PREF_KEY_APP_SESSION);
+        final PersistedSessionManager<AppSession> persistedAppSessionManager =
+                new PersistedSessionManager<>(
+                        new PreferenceStoreImpl(getContext(), SESSION_PREF_FILE_NAME),
+                        new AppSession.Serializer(), PREF_KEY_ACTIVE_APP_SESSION,
+                        PREF_KEY_APP_SESSION);
+        persistedAppSessionManager.setClearSessionListener(apiClientInvalidator);
+        appSessionManager = persistedAppSessionManager;
 
+        preExecuteTiming.stopMeasuring();
         return true;
     }
 
     @Override
     protected Boolean doInBackground() {
-        // Trigger restoration of session
-        twitterSessionManager.getActiveSession();
-        appSessionManager.getActiveSession();
-        getSSLSocketFactory();
-        initializeScribeClient();
+        if (deferInitialization) {
+            startupTasks.schedule(getFabric().getExecutorService());
+        } else {
+            startupTasks.runAll();
+        }
+        return true;
+    }
+
+    private void addStartupTasks() {
+        // Restore sessions off the main thread, before they are first needed
+        startupTasks.add(TASK_RESTORE_SESSIONS, new Runnable() {
+            @Override
+            public void run() {
+                twitterSessionManager.getActiveSession();
+                appSessionManager.getActiveSession();
+                onSessionsRestored();
+            }
+        });
+        startupTasks.add(TASK_CREATE_SSL_SOCKET_FACTORY, new Runnable() {
+            @Override
+            public void run() {
+                getSSLSocketFactory();
+            }
+        });
+        startupTasks.add(TASK_INITIALIZE_SCRIBE_CLIENT, new Runnable() {
+            @Override
+            public void run() {
+                initializeScribeClient();
+            }
+        }, TASK_RESTORE_SESSIONS);
+        startupTasks.add(TASK_WARM_UP_GSON, new Runnable() {
+            @Override
+            public void run() {
+                GsonRegistry.warmUp(userPool);
+            }
+        });
+        startupTasks.add(TASK_WARM_UP_API_CLIENTS, new Runnable() {
+            @Override
+            public void run() {
+                warmUpApiClients();
+            }
+        }, TASK_RESTORE_SESSIONS, TASK_CREATE_SSL_SOCKET_FACTORY, TASK_WARM_UP_GSON);
         // Monitor activity lifecycle after sessions have been restored. Otherwise we would not
         // have any sessions to monitor anyways.
-        sessionMonitor.monitorActivityLifecycle(getFabric().getActivityLifecycleManager());
-        return true;
+        startupTasks.add(TASK_MONITOR_ACTIVITY_LIFECYCLE, new Runnable() {
+            @Override
+            public void run() {
+                sessionMonitor.monitorActivityLifecycle(
+                        getFabric().getActivityLifecycleManager());
+            }
+        }, TASK_RESTORE_SESSIONS);
+    }
+
+    /*
+     * Builds the API clients and service instances of the restored active sessions, so the first
+     * API requests after startup do not pay for creating them.
+     */
+    void warmUpApiClients() {
+        final Session twitterSession = twitterSessionManager.getActiveSession();
+        if (twitterSession != null) {
+            getApiClient(twitterSession).warmUp();
+        }
+        final Session appSession = appSessionManager.getActiveSession();
+        if (appSession != null) {
+            getApiClient(appSession).warmUp();
+        }
+    }
+
+    private TimingMetric startTiming(String stage) {
+        final TimingMetric timingMetric = new TimingMetric(getIdentifier() + "." + stage,
+                STARTUP_TIMING_TAG);
+        timingMetric.startMeasuring();
+        return timingMetric;
+    }
+
+    /*
+     * Delivers the active session to callbacks which were waiting for session restoration.
+     */
+    void onSessionsRestored() {
+        final List<Callback<TwitterSession>> callbacks;
+        synchronized (sessionRestoreCallbacks) {
+            sessionsRestored = true;
+            callbacks = new ArrayList<>(sessionRestoreCallbacks);
+            sessionRestoreCallbacks.clear();
+        }
+        for (Callback<TwitterSession> callback : callbacks) {
+            deliverActiveSession(callback);
+        }
+    }
+
+    private void deliverActiveSession(final Callback<TwitterSession> callback) {
+        final TwitterSession session = twitterSessionManager.getActiveSession();
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                callback.success(new Result<>(session, null));
+            }
+        });
     }
 
     @Override
@@ -211,6 +371,18 @@ public class TwitterCore extends Kit<Boolean> {
         }
     }
 
+    /**
+     * @return durations in milliseconds of the background initialization tasks which have
+     *          completed, by task name.
+     *
+     * @throws java.lang.IllegalStateException if {@link io.fabric.sdk.android.Fabric}
+     *          or {@link TwitterCore} has not been initialized.
+     */
+    public Map<String, Long> getStartupTimings() {
+        checkInitialized();
+        return startupTasks.getTimings();
+    }
+
     /**
      * @return the {@link com.twitter.sdk.android.core.SessionManager} for user sessions.
      *
@@ -233,6 +405,33 @@ public class TwitterCore extends Kit<Boolean> {
         return appSessionManager;
     }
 
+    /**
+     * Provides the active user session without blocking the calling thread on reading persisted
+     * sessions. The callback is invoked on the main thread, once sessions have been restored in
+     * the background, with the active session or a null session if no user is logged in.
+     *
+     * {@link #getSessionManager()} restores sessions synchronously if they have not been restored
+     * yet, prefer this method when calling from the main thread during startup.
+     *
+     * @param callback The callback interface to invoke with the active session.
+     *
+     * @throws java.lang.IllegalStateException if {@link io.fabric.sdk.android.Fabric}
+     *          or {@link TwitterCore} has not been initialized.
+     */
+    public void getActiveSessionAsync(Callback<TwitterSession> callback) {
+        checkInitialized();
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback must not be null.");
+        }
+        synchronized (sessionRestoreCallbacks) {
+            if (!sessionsRestored) {
+                sessionRestoreCallbacks.add(callback);
+                return;
+            }
+        }
+        deliverActiveSession(callback);
+    }
+
     private Session getActiveSession() {
         // Prefer user session over app session.
         Session session = twitterSessionManager.getActiveSession();
@@ -274,9 +473,22 @@ public class TwitterCore extends Kit<Boolean> {
      */
     public TwitterApiClient getApiClient(Session session) {
         checkInitialized();
-        if (!apiClients.containsKey(session)) {
-            apiClients.putIfAbsent(session, new TwitterApiClient(session));
+        final TwitterApiClient apiClient = apiClients.get(session);
+        if (apiClient != null) {
+            return apiClient;
         }
-        return apiClients.get(session);
+        return apiClients.putIfAbsent(session, new TwitterApiClient(session));
+    }
+
+    /**
+     * @return the cache of API clients returned by {@link #getApiClient(Session)}, for
+     *          monitoring its size and hit rate.
+     *
+     * @throws java.lang.IllegalStateException if {@link io.fabric.sdk.android.Fabric}
+     *          or {@link TwitterCore} has not been initialized.
+     */
+    public ApiClientCache getApiClientCache() {
+        checkInitialized();
+        return apiClients;
     }
 }
@@ -24,6 +24,7 @@ import io.fabric.sdk.android.services.persistence.SerializationStrategy;
 
 import com.google.gson.annotations.SerializedName;
 import com.google.gson.Gson;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 
 /**
  * Represents a Twitter session that is associated with a {@link com.twitter.sdk.android.core.TwitterAuthToken}.
@@ -89,7 +90,7 @@ public class TwitterSession extends Session<TwitterAuthToken> {
         private final Gson gson;
 
         public Serializer() {
-            this.gson = new Gson();
+            this.gson = GsonRegistry.getDefaultGson();
         }
 
         @Override
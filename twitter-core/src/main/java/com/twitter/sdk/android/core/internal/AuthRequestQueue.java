@@ -21,6 +21,7 @@ import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.Result;
 import com.twitter.sdk.android.core.Session;
 import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.internal.oauth.GuestAuthToken;
 
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -38,6 +39,8 @@ public class AuthRequestQueue {
     // We use this to flag to mark that a session is either being restored from file or
     // requested from the server
     final AtomicBoolean awaitingSession;
+    // Marks that a replacement for a soon to expire session is being requested in the background
+    final AtomicBoolean refreshingSession;
 
     private final SessionProvider sessionProvider;
 
@@ -45,6 +48,7 @@ public class AuthRequestQueue {
         this.sessionProvider = sessionProvider;
         queue = new ConcurrentLinkedQueue<>();
         awaitingSession = new AtomicBoolean(true);
+        refreshingSession = new AtomicBoolean(false);
     }
 
     /*
@@ -67,6 +71,7 @@ public class AuthRequestQueue {
             final Session session = getValidSession();
             if (session != null) {
                 callback.success(new Result<>(session, null));
+                refreshIfExpiring(session);
             } else {
                 queue.add(callback);
                 awaitingSession.set(true);
@@ -96,6 +101,45 @@ public class AuthRequestQueue {
         }
     }
 
+    /*
+     * Requests a session ahead of the first request, so the first request does not wait on a
+     * network round trip. Does nothing while session restoration is pending or if a valid session
+     * is already available.
+     */
+    public synchronized void prewarm() {
+        if (!awaitingSession.get()) {
+            final Session session = getValidSession();
+            if (session == null) {
+                awaitingSession.set(true);
+                requestAuth();
+            } else {
+                refreshIfExpiring(session);
+            }
+        }
+    }
+
+    /*
+     * Guest tokens expire after a fixed period. Once the active guest token is close to expiring
+     * a replacement is requested in the background while the current token keeps serving requests.
+     */
+    void refreshIfExpiring(Session session) {
+        final boolean expiring = session.getAuthToken() instanceof GuestAuthToken &&
+                ((GuestAuthToken) session.getAuthToken()).isExpiring();
+        if (expiring && refreshingSession.compareAndSet(false, true)) {
+            sessionProvider.requestAuth(new Callback<Session>() {
+                @Override
+                public void success(Result<Session> result) {
+                    refreshingSession.set(false);
+                }
+
+                @Override
+                public void failure(TwitterException exception) {
+                    refreshingSession.set(false);
+                }
+            });
+        }
+    }
+
     void requestAuth() {
         sessionProvider.requestAuth(new Callback<Session>() {
             @Override
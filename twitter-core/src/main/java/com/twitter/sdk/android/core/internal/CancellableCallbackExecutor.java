@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import retrofit.android.MainThreadExecutor;
+
+/**
+ * Delivers Retrofit callbacks on the main thread, unless the {@link RequestHandle} of the request
+ * has been cancelled by the time the callback would run. The callback of an attempt which
+ * scheduled a retry is dropped, the retried request delivers it instead.
+ */
+public class CancellableCallbackExecutor extends MainThreadExecutor {
+
+    @Override
+    public void execute(final Runnable command) {
+        final RequestAttempt attempt = RequestAttempt.current();
+        if (attempt != null && attempt.isRetryScheduled()) {
+            return;
+        }
+
+        final RequestHandle handle = RequestHandle.current();
+        if (handle == null) {
+            super.execute(command);
+            return;
+        }
+        super.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!handle.isCancelled()) {
+                    command.run();
+                }
+            }
+        });
+    }
+}
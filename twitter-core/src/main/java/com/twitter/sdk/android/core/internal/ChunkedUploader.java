@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.Result;
+import com.twitter.sdk.android.core.TwitterApiException;
+import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.models.Media;
+import com.twitter.sdk.android.core.services.MediaService;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+import retrofit.client.Response;
+import retrofit.mime.TypedString;
+
+/**
+ * Uploads a file with the chunked INIT, APPEND and FINALIZE media upload commands. The upload
+ * session is saved after every acknowledged segment, so uploading the same unchanged file again
+ * after a failure continues from the first segment the server has not acknowledged.
+ */
+public class ChunkedUploader {
+    // Small enough that a dropped connection on a slow network loses little progress
+    public static final int DEFAULT_CHUNK_SIZE = 512 * 1024;
+    // Used when INIT does not say how long the media id is valid for
+    static final long DEFAULT_EXPIRES_AFTER_SECS = TimeUnit.HOURS.toSeconds(1);
+
+    private final MediaService mediaService;
+    private final PersistenceStrategy<UploadSession> sessionStore;
+    private final int chunkSize;
+
+    public ChunkedUploader(MediaService mediaService,
+            PersistenceStrategy<UploadSession> sessionStore, int chunkSize) {
+        this.mediaService = mediaService;
+        this.sessionStore = sessionStore;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Uploads the file, resuming a saved session for it if there is one which has not expired.
+     * @param file the media file
+     * @param mimeType MIME-type of the file
+     * @param cb invoked with the finalized Media, or the first error
+     */
+    public void upload(File file, String mimeType, Callback<Media> cb) {
+        final UploadSession session = sessionStore.restore();
+        if (session != null && session.matches(file)
+                && !session.isExpired(System.currentTimeMillis())) {
+            append(file, session, cb);
+        } else {
+            sessionStore.clear();
+            init(file, mimeType, cb);
+        }
+    }
+
+    void init(final File file, String mimeType, final Callback<Media> cb) {
+        mediaService.uploadInit(file.length(), mimeType, new Callback<Media>() {
+            @Override
+            public void success(Result<Media> result) {
+                final long expiresAfterSecs = result.data.expiresAfterSecs > 0 ?
+                        result.data.expiresAfterSecs : DEFAULT_EXPIRES_AFTER_SECS;
+                final long expiresAt = System.currentTimeMillis()
+                        + TimeUnit.SECONDS.toMillis(expiresAfterSecs);
+                final UploadSession session =
+                        UploadSession.create(result.data.mediaId, file, expiresAt);
+                sessionStore.save(session);
+                append(file, session, cb);
+            }
+
+            @Override
+            public void failure(TwitterException exception) {
+                cb.failure(exception);
+            }
+        });
+    }
+
+    void append(final File file, final UploadSession session, final Callback<Media> cb) {
+        final long offset = (long) session.nextSegment * chunkSize;
+        if (offset >= session.length) {
+            finalizeUpload(session, cb);
+            return;
+        }
+
+        final long length = Math.min(chunkSize, session.length - offset);
+        mediaService.uploadAppend(new TypedString(Long.toString(session.mediaId)),
+                new TypedString(Integer.toString(session.nextSegment)),
+                new FileChunk(file, offset, length), new Callback<Response>() {
+                    @Override
+                    public void success(Result<Response> result) {
+                        final UploadSession next = session.advance();
+                        sessionStore.save(next);
+                        append(file, next, cb);
+                    }
+
+                    @Override
+                    public void failure(TwitterException exception) {
+                        if (isRejected(exception)) {
+                            // the server no longer knows this media id, start over next time
+                            sessionStore.clear();
+                        }
+                        cb.failure(exception);
+                    }
+                });
+    }
+
+    void finalizeUpload(UploadSession session, final Callback<Media> cb) {
+        mediaService.uploadFinalize(session.mediaId, new Callback<Media>() {
+            @Override
+            public void success(Result<Media> result) {
+                sessionStore.clear();
+                cb.success(result);
+            }
+
+            @Override
+            public void failure(TwitterException exception) {
+                if (isRejected(exception)) {
+                    sessionStore.clear();
+                }
+                cb.failure(exception);
+            }
+        });
+    }
+
+    /**
+     * @return true if the server answered with a client error, which retrying the same session
+     *          will not fix. Network errors keep the session so the upload can resume.
+     */
+    static boolean isRejected(TwitterException exception) {
+        if (!(exception instanceof TwitterApiException)) {
+            return false;
+        }
+        final TwitterApiException apiException = (TwitterApiException) exception;
+        if (apiException.getRetrofitError() == null
+                || apiException.getRetrofitError().getResponse() == null) {
+            return false;
+        }
+        final int status = apiException.getRetrofitError().getResponse().getStatus();
+        return status >= 400 && status <= 499;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+
+import io.fabric.sdk.android.services.common.CommonUtils;
+import retrofit.mime.TypedOutput;
+
+/**
+ * A byte range of a file, sent as one segment of a chunked media upload.
+ */
+public class FileChunk implements TypedOutput {
+    static final String MIME_TYPE = "application/octet-stream";
+    private static final int BUFFER_SIZE = 8192;
+
+    private final File file;
+    private final long offset;
+    private final long length;
+
+    /**
+     * @param file the file to read from
+     * @param offset position of the first byte of the chunk
+     * @param length number of bytes in the chunk
+     */
+    public FileChunk(File file, long offset, long length) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public String fileName() {
+        return file.getName();
+    }
+
+    @Override
+    public String mimeType() {
+        return MIME_TYPE;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        final RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            in.seek(offset);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                final int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IOException("File ended before the end of the chunk");
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        } finally {
+            CommonUtils.closeQuietly(in);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.twitter.sdk.android.core.AppSession;
+import com.twitter.sdk.android.core.AuthTokenAdapter;
+import com.twitter.sdk.android.core.TwitterSession;
+import com.twitter.sdk.android.core.internal.oauth.OAuth2Token;
+import com.twitter.sdk.android.core.internal.scribe.ScribeEvent;
+import com.twitter.sdk.android.core.models.FieldProjection;
+import com.twitter.sdk.android.core.models.ModelAdapterFactory;
+import com.twitter.sdk.android.core.models.SafeListAdapter;
+import com.twitter.sdk.android.core.models.SafeMapAdapter;
+import com.twitter.sdk.android.core.models.Search;
+import com.twitter.sdk.android.core.models.Tweet;
+import com.twitter.sdk.android.core.models.User;
+import com.twitter.sdk.android.core.models.UserPool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared, pre-configured Gson instances. Gson is thread safe and caches the TypeAdapters it
+ * discovers by reflection, so sharing instances between kits avoids repeating that work.
+ */
+public final class GsonRegistry {
+    // Enough for the default configuration and a few app defined projections
+    static final int MAX_API_GSONS = 4;
+    // API Gson instances by configuration, in access order. Bounded since each instance holds
+    // its projection and user pool, the least recently used one is evicted when full.
+    private static final LinkedHashMap<ApiConfig, Gson> API_GSONS =
+            new LinkedHashMap<ApiConfig, Gson>(MAX_API_GSONS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ApiConfig, Gson> eldest) {
+                    return size() > MAX_API_GSONS;
+                }
+            };
+
+    private GsonRegistry() {}
+
+    /**
+     * @return Gson with the default configuration.
+     */
+    public static Gson getDefaultGson() {
+        return DefaultHolder.GSON;
+    }
+
+    /**
+     * @return Gson which maps camel case field names to lower case with underscores, as used by
+     * scribe events.
+     */
+    public static Gson getScribeGson() {
+        return ScribeHolder.GSON;
+    }
+
+    /**
+     * @return Gson which can serialize sessions holding any type of auth token.
+     */
+    public static Gson getSessionGson() {
+        return SessionHolder.GSON;
+    }
+
+    /**
+     * @param projection Tweet and User fields to parse from responses.
+     * @param userPool pool to share parsed Users through, may be null.
+     * @return Gson for parsing Twitter API responses.
+     */
+    public static Gson getApiGson(FieldProjection projection, UserPool userPool) {
+        final ApiConfig config = new ApiConfig(projection, userPool);
+        synchronized (API_GSONS) {
+            Gson gson = API_GSONS.get(config);
+            if (gson == null) {
+                gson = new GsonBuilder()
+                        .registerTypeAdapterFactory(new SafeListAdapter())
+                        .registerTypeAdapterFactory(new SafeMapAdapter())
+                        .registerTypeAdapterFactory(new ModelAdapterFactory(projection, userPool))
+                        .create();
+                API_GSONS.put(config, gson);
+            }
+            return gson;
+        }
+    }
+
+    // testing purposes
+    static int getApiGsonCount() {
+        synchronized (API_GSONS) {
+            return API_GSONS.size();
+        }
+    }
+
+    /**
+     * Creates the shared instances and the TypeAdapters of commonly parsed classes ahead of
+     * their first use. Should be called on a background thread.
+     * @param userPool pool used by the default API Gson, may be null.
+     */
+    public static void warmUp(UserPool userPool) {
+        final Gson apiGson = getApiGson(FieldProjection.ALL, userPool);
+        apiGson.getAdapter(Tweet.class);
+        apiGson.getAdapter(User.class);
+        apiGson.getAdapter(Search.class);
+        apiGson.getAdapter(TwitterCollection.class);
+
+        final Gson sessionGson = getSessionGson();
+        sessionGson.getAdapter(TwitterSession.class);
+        sessionGson.getAdapter(AppSession.class);
+
+        getScribeGson().getAdapter(ScribeEvent.class);
+    }
+
+    private static class DefaultHolder {
+        static final Gson GSON = new Gson();
+    }
+
+    private static class ScribeHolder {
+        static final Gson GSON = new GsonBuilder()
+                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
+                .create();
+    }
+
+    private static class SessionHolder {
+        static final Gson GSON = new GsonBuilder()
+                .registerTypeAdapter(OAuth2Token.class, new AuthTokenAdapter())
+                .create();
+    }
+
+    /*
+     * Identity based key of an API Gson configuration.
+     */
+    private static class ApiConfig {
+        final FieldProjection projection;
+        final UserPool userPool;
+
+        ApiConfig(FieldProjection projection, UserPool userPool) {
+            this.projection = projection;
+            this.userPool = userPool;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ApiConfig)) return false;
+            final ApiConfig other = (ApiConfig) o;
+            return projection == other.projection && userPool == other.userPool;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(projection) + System.identityHashCode(userPool);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import android.widget.ImageView;
+
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.ImageRequest;
+
+/**
+ * The default {@link ImageLoader} of the kits, which loads images with Picasso.
+ */
+public class PicassoImageLoader implements ImageLoader {
+    private final Picasso picasso;
+
+    public PicassoImageLoader(Picasso picasso) {
+        if (picasso == null) {
+            throw new IllegalArgumentException("Picasso must not be null");
+        }
+        this.picasso = picasso;
+    }
+
+    @Override
+    public void load(ImageRequest request, ImageView target, final Listener listener) {
+        final RequestCreator creator = createRequest(request);
+        if (listener == null) {
+            creator.into(target);
+        } else {
+            creator.into(target, new com.squareup.picasso.Callback() {
+                @Override
+                public void onSuccess() {
+                    listener.onSuccess();
+                }
+
+                @Override
+                public void onError() {
+                    listener.onError();
+                }
+            });
+        }
+    }
+
+    @Override
+    public void prefetch(ImageRequest request) {
+        createRequest(request).priority(Picasso.Priority.LOW).fetch();
+    }
+
+    @Override
+    public void pauseTag(Object tag) {
+        picasso.pauseTag(tag);
+    }
+
+    @Override
+    public void resumeTag(Object tag) {
+        picasso.resumeTag(tag);
+    }
+
+    @Override
+    public void cancelTag(Object tag) {
+        picasso.cancelTag(tag);
+    }
+
+    RequestCreator createRequest(ImageRequest request) {
+        // Picasso shows only the placeholder for null urls
+        final RequestCreator creator = request.resourceId != 0
+                ? picasso.load(request.resourceId) : picasso.load(request.url);
+        if (request.placeholder != null) {
+            creator.placeholder(request.placeholder);
+        }
+        if (request.fit) {
+            creator.fit();
+        } else if (request.targetWidth > 0) {
+            creator.resize(request.targetWidth, request.targetHeight);
+        }
+        if (request.centerCrop) {
+            creator.centerCrop();
+        }
+        if (request.cornerRadii != null) {
+            creator.transform(new RoundedCornerTransformation(request.cornerRadii));
+        }
+        if (request.tag != null) {
+            creator.tag(request.tag);
+        }
+        return creator;
+    }
+}
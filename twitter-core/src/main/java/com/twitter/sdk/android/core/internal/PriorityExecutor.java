@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import io.fabric.sdk.android.services.concurrency.Priority;
+import io.fabric.sdk.android.services.concurrency.PriorityRunnable;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor for Retrofit requests which tags each request with the {@link RequestPriority} of the
+ * thread submitting it. The Fabric executor queues tasks by priority, so interactive requests
+ * are not stuck behind queued prefetch and background work.
+ *
+ * Requests also stay bound to the {@link RequestHandle} of the submitting thread while they run,
+ * and are dropped without running if the handle was cancelled while they were queued.
+ *
+ * A request which schedules a retry through its {@link RequestAttempt} is submitted again with
+ * the same priority and handle once the retry delay has passed, so no executor thread is held
+ * while waiting.
+ */
+public class PriorityExecutor implements Executor {
+    private static ScheduledExecutorService retryScheduler;
+
+    private final Executor executor;
+    private final ScheduledExecutorService scheduler;
+
+    public PriorityExecutor(Executor executor) {
+        this(executor, getRetryScheduler());
+    }
+
+    PriorityExecutor(Executor executor, ScheduledExecutorService scheduler) {
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submit(command, RequestPriority.current(), RequestHandle.current(),
+                new RequestAttempt());
+    }
+
+    void submit(final Runnable command, final RequestPriority priority,
+            final RequestHandle handle, final RequestAttempt attempt) {
+        executor.execute(new PriorityRunnable() {
+            @Override
+            public Priority getPriority() {
+                return priority.executorPriority;
+            }
+
+            @Override
+            public void run() {
+                if (handle == null) {
+                    attempt.run(command);
+                } else if (!handle.isCancelled()) {
+                    handle.run(new Runnable() {
+                        @Override
+                        public void run() {
+                            attempt.run(command);
+                        }
+                    });
+                }
+
+                if (attempt.isRetryScheduled()) {
+                    scheduleRetry(command, priority, handle, attempt);
+                }
+            }
+        });
+    }
+
+    void scheduleRetry(final Runnable command, final RequestPriority priority,
+            final RequestHandle handle, final RequestAttempt attempt) {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                submit(command, priority, handle, attempt);
+            }
+        }, attempt.takeRetryDelayMs(), TimeUnit.MILLISECONDS);
+    }
+
+    /*
+     * The scheduler only hands requests back to their executor, so one thread serves all clients.
+     */
+    private static synchronized ScheduledExecutorService getRetryScheduler() {
+        if (retryScheduler == null) {
+            retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "TwitterRequestRetry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return retryScheduler;
+    }
+}
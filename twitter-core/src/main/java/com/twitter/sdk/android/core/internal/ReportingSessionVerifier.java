@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.Session;
+
+/**
+ * A {@link SessionVerifier} which reports the outcome of each verification. It is a separate
+ * interface so verifiers built against {@link SessionVerifier} keep working.
+ */
+public interface ReportingSessionVerifier extends SessionVerifier {
+
+    /**
+     * Outcome of verifying a single session.
+     */
+    enum VerificationResult {
+        // credentials were accepted
+        VALID,
+        // credentials were rejected, the token has been revoked or expired
+        REVOKED,
+        // verification could not complete, e.g. due to a network error
+        FAILED
+    }
+
+    VerificationResult verifySessionWithResult(Session session);
+}
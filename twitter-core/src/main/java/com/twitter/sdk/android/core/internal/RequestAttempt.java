@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import android.os.SystemClock;
+
+/**
+ * Retry state of an asynchronous API request submitted through a {@link PriorityExecutor}.
+ * Instead of waiting on the executor thread, the http client asks for a retry with
+ * {@link #scheduleRetry(long)} and fails the current attempt. The executor then submits the
+ * request again once the delay has passed, and the callback of the failed attempt is dropped.
+ */
+public class RequestAttempt {
+    private static final ThreadLocal<RequestAttempt> CURRENT = new ThreadLocal<>();
+    private static final long NO_RETRY = -1L;
+
+    private int retryCount;
+    private long startTime = -1L;
+    private long retryDelayMs = NO_RETRY;
+
+    /**
+     * @return the attempt of the asynchronous request running on the calling thread, or null.
+     */
+    public static RequestAttempt current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return number of retries made before this attempt.
+     */
+    public int getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * @return time in milliseconds since the first attempt of the request was started.
+     */
+    public long getElapsedMs() {
+        return SystemClock.elapsedRealtime() - startTime;
+    }
+
+    /**
+     * Runs the request again after the delay, once this attempt has finished.
+     */
+    public void scheduleRetry(long delayMs) {
+        retryDelayMs = delayMs;
+    }
+
+    /**
+     * @return true if this attempt failed and the request will be retried.
+     */
+    public boolean isRetryScheduled() {
+        return retryDelayMs != NO_RETRY;
+    }
+
+    /**
+     * Runs an attempt of the request on the calling thread, binding requests it makes to this
+     * attempt.
+     */
+    public void run(Runnable runnable) {
+        if (startTime < 0) {
+            startTime = SystemClock.elapsedRealtime();
+        }
+        retryDelayMs = NO_RETRY;
+        CURRENT.set(this);
+        try {
+            runnable.run();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return delay before the scheduled retry, counting it as made.
+     */
+    long takeRetryDelayMs() {
+        final long delayMs = retryDelayMs;
+        retryDelayMs = NO_RETRY;
+        retryCount++;
+        return delayMs;
+    }
+}
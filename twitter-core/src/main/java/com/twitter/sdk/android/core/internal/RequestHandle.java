@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+/**
+ * Handle for cancelling asynchronous API requests. Requests started within {@link #run(Runnable)}
+ * are bound to the handle. Once it is cancelled, bound requests which have not started are
+ * dropped, running requests are aborted before their response is parsed and their callbacks are
+ * not delivered.
+ */
+public class RequestHandle {
+    private static final ThreadLocal<RequestHandle> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean cancelled;
+
+    /**
+     * @return the handle of requests started on the calling thread, or null.
+     */
+    public static RequestHandle current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Cancels the requests bound to this handle.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return true if {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs the runnable on the calling thread, binding requests it starts to this handle.
+     */
+    public void run(Runnable runnable) {
+        final RequestHandle previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            runnable.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import io.fabric.sdk.android.services.concurrency.Priority;
+
+/**
+ * Priority classes of asynchronous API requests. Requests are tagged with the priority of the
+ * thread which starts them, {@link #INTERACTIVE} unless started within {@link #run(Runnable)},
+ * and are dispatched ahead of lower priority requests by {@link PriorityExecutor}.
+ */
+public enum RequestPriority {
+    /**
+     * Requests for content the user is waiting to see.
+     */
+    INTERACTIVE(Priority.HIGH),
+    /**
+     * Requests for content the user is likely to see soon, such as the next page of a timeline.
+     */
+    PREFETCH(Priority.NORMAL),
+    /**
+     * Housekeeping requests the user is not waiting for.
+     */
+    BACKGROUND(Priority.LOW);
+
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    final Priority executorPriority;
+
+    RequestPriority(Priority executorPriority) {
+        this.executorPriority = executorPriority;
+    }
+
+    /**
+     * @return the priority of requests started on the calling thread.
+     */
+    public static RequestPriority current() {
+        final RequestPriority priority = CURRENT.get();
+        return priority == null ? INTERACTIVE : priority;
+    }
+
+    /**
+     * Runs the runnable on the calling thread, tagging requests it starts with this priority.
+     */
+    public void run(Runnable runnable) {
+        final RequestPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            runnable.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -15,7 +15,7 @@
  *
  */
 
-package com.twitter.sdk.android.tweetcomposer;
+package com.twitter.sdk.android.core.internal;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapShader;
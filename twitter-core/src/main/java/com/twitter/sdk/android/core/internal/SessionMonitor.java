@@ -18,29 +18,56 @@
 package com.twitter.sdk.android.core.internal;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
 import android.text.format.DateUtils;
 
 import io.fabric.sdk.android.ActivityLifecycleManager;
 import io.fabric.sdk.android.services.common.SystemCurrentTimeProvider;
+import io.fabric.sdk.android.services.concurrency.Priority;
+import io.fabric.sdk.android.services.concurrency.PriorityRunnable;
 
 import com.twitter.sdk.android.core.Session;
 import com.twitter.sdk.android.core.SessionManager;
+import com.twitter.sdk.android.core.internal.ReportingSessionVerifier.VerificationResult;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A session monitor for validating sessions.
  * @param <T>
  */
 public class SessionMonitor<T extends Session> {
+    // Sessions are verified in parallel, by at most this many threads
+    static final int MAX_PARALLEL_VERIFICATIONS = 3;
+    // Verifications which have not completed by this deadline are abandoned
+    static final long VERIFICATION_DEADLINE_MILLIS = 30 * DateUtils.SECOND_IN_MILLIS;
+    // Idle verification threads exit after this time
+    private static final long VERIFICATION_KEEP_ALIVE_SECONDS = 60;
+
+    private static Executor defaultVerificationExecutor;
+
     protected final MonitorState monitorState;
 
     private final SystemCurrentTimeProvider time;
     private final SessionManager<T> sessionManager;
     private final ExecutorService executorService;
+    private final Executor verificationExecutor;
+    private final Handler deadlineHandler;
     private final SessionVerifier sessionVerifier;
+    private volatile VerificationListener verificationListener;
 
     /**
      * @param sessionManager A user auth based session manager
@@ -48,20 +75,29 @@ public class SessionMonitor<T extends Session> {
      */
     public SessionMonitor(SessionManager<T> sessionManager, ExecutorService executorService,
             SessionVerifier sessionVerifier) {
-        this(sessionManager, new SystemCurrentTimeProvider(),
-                executorService, new MonitorState(), sessionVerifier);
+        this(sessionManager, new SystemCurrentTimeProvider(), executorService,
+                getDefaultVerificationExecutor(), new MonitorState(), sessionVerifier);
     }
 
     SessionMonitor(SessionManager<T> sessionManager, SystemCurrentTimeProvider time,
-            ExecutorService executorService, MonitorState monitorState, SessionVerifier
-            sessionVerifier) {
+            ExecutorService executorService, Executor verificationExecutor,
+            MonitorState monitorState, SessionVerifier sessionVerifier) {
         this.time = time;
         this.sessionManager = sessionManager;
         this.executorService = executorService;
+        this.verificationExecutor = verificationExecutor;
+        this.deadlineHandler = new Handler(Looper.getMainLooper());
         this.monitorState = monitorState;
         this.sessionVerifier = sessionVerifier;
     }
 
+    /**
+     * @param listener notified of the result of each session verification, may be null
+     */
+    public void setVerificationListener(VerificationListener listener) {
+        this.verificationListener = listener;
+    }
+
     /**
      * This is how we hook into the activity lifecycle to detect if the user is using the app.
      * @param activityLifecycleManager
@@ -91,7 +127,13 @@ public class SessionMonitor<T extends Session> {
         final boolean startVerification = session != null &&
                 monitorState.beginVerification(currentTime);
         if (startVerification) {
-            executorService.submit(new Runnable() {
+            // Verification is housekeeping, queue it behind API requests
+            executorService.submit(new PriorityRunnable() {
+                @Override
+                public Priority getPriority() {
+                    return RequestPriority.BACKGROUND.executorPriority;
+                }
+
                 @Override
                 public void run() {
                     verifyAll();
@@ -100,11 +142,97 @@ public class SessionMonitor<T extends Session> {
         }
     }
 
+    /**
+     * Submits the verification of every session to the verification executor and returns. The
+     * verification ends once all sessions are verified, or at the deadline if some are still
+     * running then.
+     */
     protected void verifyAll() {
-        for (T session : sessionManager.getSessionMap().values()) {
+        final List<T> sessions = new ArrayList<>(sessionManager.getSessionMap().values());
+        if (sessions.isEmpty()) {
+            monitorState.endVerification(time.getCurrentTimeMillis());
+            return;
+        }
+
+        final AtomicBoolean ended = new AtomicBoolean();
+        final Runnable endVerification = new Runnable() {
+            @Override
+            public void run() {
+                if (ended.compareAndSet(false, true)) {
+                    deadlineHandler.removeCallbacks(this);
+                    monitorState.endVerification(time.getCurrentTimeMillis());
+                }
+            }
+        };
+        deadlineHandler.postDelayed(endVerification, VERIFICATION_DEADLINE_MILLIS);
+
+        final AtomicInteger remaining = new AtomicInteger(sessions.size());
+        for (final T session : sessions) {
+            verificationExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!ended.get()) {
+                            verifySession(session);
+                        }
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            endVerification.run();
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    void verifySession(T session) {
+        if (!(sessionVerifier instanceof ReportingSessionVerifier)) {
             sessionVerifier.verifySession(session);
+            return;
+        }
+        final VerificationResult result =
+                ((ReportingSessionVerifier) sessionVerifier).verifySessionWithResult(session);
+        final VerificationListener listener = verificationListener;
+        if (listener != null && result != null) {
+            listener.onSessionVerified(session, result);
         }
-        monitorState.endVerification(time.getCurrentTimeMillis());
+    }
+
+    /*
+     * Verification threads are shared by all monitors and exit when idle, so no threads are kept
+     * between the verification runs hours apart.
+     */
+    static synchronized Executor getDefaultVerificationExecutor() {
+        if (defaultVerificationExecutor == null) {
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_VERIFICATIONS,
+                    MAX_PARALLEL_VERIFICATIONS, VERIFICATION_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(new Runnable() {
+                                @Override
+                                public void run() {
+                                    Process.setThreadPriority(
+                                            Process.THREAD_PRIORITY_BACKGROUND);
+                                    runnable.run();
+                                }
+                            }, "TwitterSessionVerifier");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            defaultVerificationExecutor = executor;
+        }
+        return defaultVerificationExecutor;
+    }
+
+    /**
+     * Receives the result of each session verification, if the verifier is a
+     * {@link ReportingSessionVerifier}. Called on a background thread.
+     */
+    public interface VerificationListener {
+        void onSessionVerified(Session session, VerificationResult result);
     }
 
     /**
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import android.os.SystemClock;
+
+import io.fabric.sdk.android.Fabric;
+import io.fabric.sdk.android.services.common.TimingMetric;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Named kit initialization tasks with dependencies between them. Each task runs at most once,
+ * after its dependencies, either when it is first needed ({@link #run(String)}), eagerly in
+ * order ({@link #runAll()}) or as independently scheduled jobs ({@link #schedule(Executor)}).
+ * A task which throws is marked failed and logged, and the tasks depending on it are skipped.
+ * Task durations are logged as {@link TimingMetric}s and available from {@link #getTimings()}.
+ */
+public class StartupTasks {
+    private final String timingPrefix;
+    private final String timingTag;
+    // Tasks in registration order, dependencies are always registered before their dependents
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+    /**
+     * @param timingPrefix prefix of the event names of task timings, usually the kit identifier
+     * @param timingTag log tag of the task timings
+     */
+    public StartupTasks(String timingPrefix, String timingTag) {
+        this.timingPrefix = timingPrefix;
+        this.timingTag = timingTag;
+    }
+
+    /**
+     * Registers a task.
+     *
+     * @param name unique name of the task
+     * @param runnable the work of the task
+     * @param dependencies names of already registered tasks which must complete first
+     * @throws IllegalArgumentException if the name is taken or a dependency is unknown
+     */
+    public synchronized void add(String name, Runnable runnable, String... dependencies) {
+        if (tasks.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate task: " + name);
+        }
+        for (String dependency : dependencies) {
+            if (!tasks.containsKey(dependency)) {
+                throw new IllegalArgumentException("Unknown dependency: " + dependency);
+            }
+        }
+        tasks.put(name, new Task(name, runnable, dependencies));
+    }
+
+    /**
+     * Runs the task and its dependencies on the calling thread, unless they have already run.
+     * Blocks while any of them is running on another thread. The task is skipped and marked
+     * failed if one of its dependencies failed.
+     *
+     * @param name name of the task
+     * @return true if the task has completed, false if it or one of its dependencies failed
+     * @throws IllegalArgumentException if the task is unknown
+     */
+    public boolean run(String name) {
+        final Task task = getTask(name);
+        if (task.isComplete()) {
+            return true;
+        }
+        for (String dependency : task.dependencies) {
+            if (!run(dependency)) {
+                task.skip(dependency);
+                return false;
+            }
+        }
+        return task.run();
+    }
+
+    /**
+     * Runs all tasks on the calling thread in registration order.
+     */
+    public void runAll() {
+        for (String name : getNames()) {
+            run(name);
+        }
+    }
+
+    /**
+     * Submits each task to the executor as a separate job.
+     */
+    public void schedule(Executor executor) {
+        for (final String name : getNames()) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    StartupTasks.this.run(name);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return true if the task has run successfully.
+     */
+    public boolean isComplete(String name) {
+        return getTask(name).isComplete();
+    }
+
+    /**
+     * @return true if the task threw, or was skipped because one of its dependencies failed.
+     */
+    public boolean isFailed(String name) {
+        return getTask(name).isFailed();
+    }
+
+    /**
+     * @return durations in milliseconds of the tasks which have run, by task name.
+     */
+    public synchronized Map<String, Long> getTimings() {
+        final Map<String, Long> timings = new LinkedHashMap<>();
+        for (Task task : tasks.values()) {
+            if (task.isComplete()) {
+                timings.put(task.name, task.durationMillis);
+            }
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    private synchronized Task getTask(String name) {
+        final Task task = tasks.get(name);
+        if (task == null) {
+            throw new IllegalArgumentException("Unknown task: " + name);
+        }
+        return task;
+    }
+
+    private synchronized List<String> getNames() {
+        return new ArrayList<>(tasks.keySet());
+    }
+
+    private class Task {
+        final String name;
+        final Runnable runnable;
+        final String[] dependencies;
+        volatile boolean complete;
+        volatile boolean failed;
+        volatile long durationMillis;
+
+        Task(String name, Runnable runnable, String[] dependencies) {
+            this.name = name;
+            this.runnable = runnable;
+            this.dependencies = dependencies;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        boolean isFailed() {
+            return failed;
+        }
+
+        synchronized boolean run() {
+            if (complete || failed) {
+                return complete;
+            }
+            final TimingMetric timingMetric = new TimingMetric(timingPrefix + "." + name,
+                    timingTag);
+            timingMetric.startMeasuring();
+            final long start = SystemClock.elapsedRealtime();
+            try {
+                runnable.run();
+                complete = true;
+            } catch (RuntimeException e) {
+                failed = true;
+                Fabric.getLogger().e(timingTag, "Startup task failed: " + name, e);
+            } finally {
+                durationMillis = SystemClock.elapsedRealtime() - start;
+                timingMetric.stopMeasuring();
+            }
+            return complete;
+        }
+
+        synchronized void skip(String failedDependency) {
+            if (complete || failed) {
+                return;
+            }
+            failed = true;
+            Fabric.getLogger().e(timingTag, "Startup task skipped: " + name
+                    + ", dependency failed: " + failedDependency);
+        }
+    }
+}
@@ -24,21 +24,36 @@ public class TwitterApi {
 
     public static final String BASE_HOST = "api.twitter.com";
     public static final String BASE_HOST_URL = "https://" + BASE_HOST;
+    public static final String UPLOAD_HOST = "upload.twitter.com";
+    public static final String UPLOAD_HOST_URL = "https://" + UPLOAD_HOST;
 
     private final String baseHostUrl;
+    private final String uploadHostUrl;
 
     public TwitterApi() {
         this(BASE_HOST_URL);
     }
 
     public TwitterApi(String baseHostUrl) {
+        this(baseHostUrl, UPLOAD_HOST_URL);
+    }
+
+    public TwitterApi(String baseHostUrl, String uploadHostUrl) {
         this.baseHostUrl = baseHostUrl;
+        this.uploadHostUrl = uploadHostUrl;
     }
 
     public String getBaseHostUrl() {
         return baseHostUrl;
     }
 
+    /**
+     * @return url of the host media is uploaded to
+     */
+    public String getUploadHostUrl() {
+        return uploadHostUrl;
+    }
+
     /**
      * Builds upon the base host url by appending paths to the url.
      *
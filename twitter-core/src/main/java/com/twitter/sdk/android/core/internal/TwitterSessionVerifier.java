@@ -18,15 +18,17 @@
 package com.twitter.sdk.android.core.internal;
 
 import com.twitter.sdk.android.core.Session;
-import com.twitter.sdk.android.core.TwitterApiClient;
+import com.twitter.sdk.android.core.TwitterCore;
 import com.twitter.sdk.android.core.internal.scribe.DefaultScribeClient;
 import com.twitter.sdk.android.core.internal.scribe.EventNamespace;
 import com.twitter.sdk.android.core.internal.scribe.TwitterCoreScribeClientHolder;
 import com.twitter.sdk.android.core.services.AccountService;
 
+import java.net.HttpURLConnection;
+
 import retrofit.RetrofitError;
 
-public class TwitterSessionVerifier implements SessionVerifier {
+public class TwitterSessionVerifier implements ReportingSessionVerifier {
     static final String SCRIBE_CLIENT = "android";
     static final String SCRIBE_PAGE = "credentials";
     static final String SCRIBE_SECTION = ""; // intentionally blank
@@ -53,14 +55,28 @@ public class TwitterSessionVerifier implements SessionVerifier {
      * @param session
      */
     public void verifySession(final Session session) {
+        verifySessionWithResult(session);
+    }
+
+    /**
+     * @param session
+     * @return REVOKED if the credentials were rejected, FAILED on other errors.
+     */
+    public VerificationResult verifySessionWithResult(final Session session) {
         final AccountService accountService = accountServiceProvider.getAccountService(session);
         try {
             scribeVerifySession();
             accountService.verifyCredentials(true, false);
+            return VerificationResult.VALID;
         } catch (RetrofitError e) {
             // We ignore failures since we will attempt the verification again the next time
             // the verification period comes up. This has the potential to lose events, but we
             // are not aiming towards 100% capture rate.
+            if (e.getResponse() != null &&
+                    e.getResponse().getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                return VerificationResult.REVOKED;
+            }
+            return VerificationResult.FAILED;
         }
     }
 
@@ -80,12 +96,12 @@ public class TwitterSessionVerifier implements SessionVerifier {
     }
 
     /**
-     * Produces new service instances, this code is a separate class so that we can more easily test
-     * SessionMonitor
+     * Provides service instances from the cached api clients, this code is a separate class so
+     * that we can more easily test SessionMonitor
      */
     protected static class AccountServiceProvider {
         public AccountService getAccountService(Session session) {
-            return new TwitterApiClient(session).getAccountService();
+            return TwitterCore.getInstance().getApiClient(session).getAccountService();
         }
     }
 }
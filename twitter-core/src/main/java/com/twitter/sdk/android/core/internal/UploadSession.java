@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import android.text.TextUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.twitter.sdk.android.core.TwitterCore;
+
+import java.io.File;
+
+import io.fabric.sdk.android.Fabric;
+import io.fabric.sdk.android.services.persistence.SerializationStrategy;
+
+/**
+ * Progress of a chunked media upload, persisted after every acknowledged segment so an
+ * interrupted upload can continue with the next segment.
+ */
+public class UploadSession {
+
+    @SerializedName("media_id")
+    public final long mediaId;
+
+    @SerializedName("path")
+    public final String path;
+
+    @SerializedName("length")
+    public final long length;
+
+    @SerializedName("last_modified")
+    public final long lastModified;
+
+    @SerializedName("next_segment")
+    public final int nextSegment;
+
+    @SerializedName("expires_at")
+    public final long expiresAt;
+
+    public UploadSession(long mediaId, String path, long length, long lastModified,
+            int nextSegment, long expiresAt) {
+        this.mediaId = mediaId;
+        this.path = path;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.nextSegment = nextSegment;
+        this.expiresAt = expiresAt;
+    }
+
+    static UploadSession create(long mediaId, File file, long expiresAt) {
+        return new UploadSession(mediaId, file.getAbsolutePath(), file.length(),
+                file.lastModified(), 0, expiresAt);
+    }
+
+    /**
+     * @return a copy of this session with the next segment acknowledged
+     */
+    UploadSession advance() {
+        return new UploadSession(mediaId, path, length, lastModified, nextSegment + 1,
+                expiresAt);
+    }
+
+    /**
+     * @return true if this session uploads the given file and the file has not changed since
+     */
+    boolean matches(File file) {
+        return file.getAbsolutePath().equals(path) && file.length() == length
+                && file.lastModified() == lastModified;
+    }
+
+    boolean isExpired(long currentTimeMillis) {
+        return currentTimeMillis >= expiresAt;
+    }
+
+    public static class Serializer implements SerializationStrategy<UploadSession> {
+
+        private final Gson gson;
+
+        public Serializer() {
+            this.gson = GsonRegistry.getDefaultGson();
+        }
+
+        @Override
+        public String serialize(UploadSession session) {
+            if (session != null) {
+                try {
+                    return gson.toJson(session);
+                } catch (Exception e) {
+                    Fabric.getLogger().d(TwitterCore.TAG, e.getMessage());
+                }
+            }
+            return "";
+        }
+
+        @Override
+        public UploadSession deserialize(String serializedSession) {
+            if (!TextUtils.isEmpty(serializedSession)) {
+                try {
+                    return gson.fromJson(serializedSession, UploadSession.class);
+                } catch (Exception e) {
+                    Fabric.getLogger().d(TwitterCore.TAG, e.getMessage());
+                }
+            }
+            return null;
+        }
+    }
+}
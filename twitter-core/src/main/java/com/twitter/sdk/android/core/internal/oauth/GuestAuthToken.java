@@ -33,6 +33,8 @@ public class GuestAuthToken extends OAuth2Token {
      * https://cgit.twitter.biz/birdcage/tree/passbird/server/src/main/scala/com/twitter/passbird/profile/PassbirdServerProfile.scala#n186
      */
     private static final long EXPIRES_IN_MS = DateUtils.HOUR_IN_MILLIS * 3;
+    // Tokens are refreshed in the background once they are this old, ahead of expiration.
+    private static final long REFRESH_AFTER_MS = EXPIRES_IN_MS - DateUtils.MINUTE_IN_MILLIS * 30;
 
     @SerializedName("guest_token")
     private final String guestToken;
@@ -58,6 +60,13 @@ public class GuestAuthToken extends OAuth2Token {
         return System.currentTimeMillis() >= this.createdAt + EXPIRES_IN_MS;
     }
 
+    /**
+     * @return true if the token is close to expiring and should be replaced by a new guest token.
+     */
+    public boolean isExpiring() {
+        return System.currentTimeMillis() >= this.createdAt + REFRESH_AFTER_MS;
+    }
+
     @Override
     public Map<String, String> getAuthHeaders(TwitterAuthConfig authConfig, String method,
             String url, Map<String, String> postParams) {
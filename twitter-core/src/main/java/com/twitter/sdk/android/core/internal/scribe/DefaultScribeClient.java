@@ -20,14 +20,13 @@ package com.twitter.sdk.android.core.internal.scribe;
 import android.os.Build;
 import android.text.TextUtils;
 
-import com.google.gson.FieldNamingPolicy;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.twitter.sdk.android.core.BuildConfig;
 import com.twitter.sdk.android.core.Session;
 import com.twitter.sdk.android.core.SessionManager;
 import com.twitter.sdk.android.core.TwitterCore;
 import com.twitter.sdk.android.core.TwitterSession;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 
 import java.util.Collections;
 import java.util.List;
@@ -134,9 +133,7 @@ public class DefaultScribeClient extends ScribeClient {
     }
 
     private static Gson getGson() {
-        return new GsonBuilder()
-                .setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES)
-                .create();
+        return GsonRegistry.getScribeGson();
     }
 
     private static ScheduledExecutorService getExecutor() {
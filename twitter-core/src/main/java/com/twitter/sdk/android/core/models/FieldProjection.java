@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Declares which JSON fields of {@link Tweet} and {@link User} objects are parsed from API
+ * responses. Fields that are not declared are skipped at the token level and keep their default
+ * value (null, 0 or false) in the resulting models, which lowers parse time and memory per Tweet.
+ *
+ * Field names are the JSON names from the Twitter API (e.g. "created_at", "screen_name"). The
+ * "id" field is always parsed since models are identified by it.
+ */
+public class FieldProjection {
+    private static final String ID_FIELD = "id";
+
+    /**
+     * Projection that parses every field.
+     */
+    public static final FieldProjection ALL = new FieldProjection(null, null);
+
+    // null means all fields are included
+    private final Set<String> tweetFields;
+    private final Set<String> userFields;
+
+    FieldProjection(Set<String> tweetFields, Set<String> userFields) {
+        this.tweetFields = tweetFields;
+        this.userFields = userFields;
+    }
+
+    boolean includesTweetField(String name) {
+        return tweetFields == null || tweetFields.contains(name);
+    }
+
+    boolean includesUserField(String name) {
+        return userFields == null || userFields.contains(name);
+    }
+
+    public static class Builder {
+        private Set<String> tweetFields;
+        private Set<String> userFields;
+
+        /**
+         * @param fields the Tweet JSON fields to parse, all other Tweet fields are skipped.
+         */
+        public Builder tweetFields(String... fields) {
+            this.tweetFields = toFieldSet(fields);
+            return this;
+        }
+
+        /**
+         * @param fields the User JSON fields to parse, all other User fields are skipped.
+         */
+        public Builder userFields(String... fields) {
+            this.userFields = toFieldSet(fields);
+            return this;
+        }
+
+        public FieldProjection build() {
+            return new FieldProjection(tweetFields, userFields);
+        }
+
+        private static Set<String> toFieldSet(String... fields) {
+            if (fields == null) {
+                throw new IllegalArgumentException("Fields must not be null.");
+            }
+            final Set<String> set = new HashSet<>(Arrays.asList(fields));
+            set.add(ID_FIELD);
+            return Collections.unmodifiableSet(set);
+        }
+    }
+}
@@ -36,10 +36,23 @@ public class Media {
     @SerializedName("image")
     public final Image image;
 
+    /**
+     * Seconds until an uploaded media id can no longer be appended to or attached, returned by
+     * the chunked upload INIT and FINALIZE commands.
+     */
+    @SerializedName("expires_after_secs")
+    public final long expiresAfterSecs;
+
     public Media(long mediaID, String mediaIdString, long size, Image image) {
+        this(mediaID, mediaIdString, size, image, 0);
+    }
+
+    public Media(long mediaID, String mediaIdString, long size, Image image,
+            long expiresAfterSecs) {
         this.mediaId = mediaID;
         this.mediaIdString = mediaIdString;
         this.size = size;
         this.image = image;
+        this.expiresAfterSecs = expiresAfterSecs;
     }
 }
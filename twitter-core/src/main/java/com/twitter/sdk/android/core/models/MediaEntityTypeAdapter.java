@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextIndices;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextLong;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextString;
+
+/**
+ * Reads {@link MediaEntity} without reflection. Writing is delegated to the reflective adapter.
+ */
+class MediaEntityTypeAdapter extends TypeAdapter<MediaEntity> {
+    private final TypeAdapter<MediaEntity> delegate;
+    private final TypeAdapter<MediaEntity.Sizes> sizesAdapter;
+    private final TypeAdapter<VideoInfo> videoInfoAdapter;
+
+    MediaEntityTypeAdapter(Gson gson, TypeAdapter<MediaEntity> delegate) {
+        this.delegate = delegate;
+        this.sizesAdapter = gson.getAdapter(MediaEntity.Sizes.class);
+        this.videoInfoAdapter = gson.getAdapter(VideoInfo.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, MediaEntity value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public MediaEntity read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        String url = null;
+        String expandedUrl = null;
+        String displayUrl = null;
+        final int[] indices = new int[2];
+        long id = 0L;
+        String idStr = null;
+        String mediaUrl = null;
+        String mediaUrlHttps = null;
+        MediaEntity.Sizes sizes = null;
+        long sourceStatusId = 0L;
+        String sourceStatusIdStr = null;
+        String type = null;
+        VideoInfo videoInfo = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "url":
+                    url = nextString(in);
+                    break;
+                case "expanded_url":
+                    expandedUrl = nextString(in);
+                    break;
+                case "display_url":
+                    displayUrl = nextString(in);
+                    break;
+                case "indices":
+                    nextIndices(in, indices);
+                    break;
+                case "id":
+                    id = nextLong(in);
+                    break;
+                case "id_str":
+                    idStr = nextString(in);
+                    break;
+                case "media_url":
+                    mediaUrl = nextString(in);
+                    break;
+                case "media_url_https":
+                    mediaUrlHttps = nextString(in);
+                    break;
+                case "sizes":
+                    sizes = sizesAdapter.read(in);
+                    break;
+                case "source_status_id":
+                    sourceStatusId = nextLong(in);
+                    break;
+                case "source_status_id_str":
+                    sourceStatusIdStr = nextString(in);
+                    break;
+                case "type":
+                    type = nextString(in);
+                    break;
+                case "video_info":
+                    videoInfo = videoInfoAdapter.read(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new MediaEntity(url, expandedUrl, displayUrl, indices[0], indices[1], id, idStr,
+                mediaUrl, mediaUrlHttps, sizes, sourceStatusId, sourceStatusIdStr, type,
+                videoInfo);
+    }
+}
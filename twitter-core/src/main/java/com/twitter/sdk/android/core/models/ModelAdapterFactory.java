@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.twitter.sdk.android.core.internal.TwitterCollection;
+
+/**
+ * Provides hand written, non-reflective type adapters for the models that dominate API response
+ * parsing: {@link Tweet}, {@link User}, {@link TweetEntities}, {@link MediaEntity},
+ * {@link UrlEntity}, {@link Search} and {@link TwitterCollection}. Any other type is left to the
+ * default Gson adapters.
+ *
+ * Register this factory after {@link SafeListAdapter} and {@link SafeMapAdapter} so it is
+ * consulted first.
+ */
+public class ModelAdapterFactory implements TypeAdapterFactory {
+    private final FieldProjection projection;
+    private final UserPool userPool;
+
+    public ModelAdapterFactory() {
+        this(FieldProjection.ALL);
+    }
+
+    /**
+     * @param projection the Tweet and User fields to parse, other fields are skipped.
+     */
+    public ModelAdapterFactory(FieldProjection projection) {
+        this(projection, null);
+    }
+
+    /**
+     * @param projection the Tweet and User fields to parse, other fields are skipped.
+     * @param userPool pool used to share User instances between parsed Tweets, or null to
+     *                 disable sharing.
+     */
+    public ModelAdapterFactory(FieldProjection projection, UserPool userPool) {
+        if (projection == null) {
+            throw new IllegalArgumentException("FieldProjection must not be null.");
+        }
+        this.projection = projection;
+        this.userPool = userPool;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> typeToken) {
+        final Class<? super T> rawType = typeToken.getRawType();
+        if (rawType == Tweet.class) {
+            return (TypeAdapter<T>) new TweetTypeAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(Tweet.class)), projection);
+        } else if (rawType == User.class) {
+            return (TypeAdapter<T>) new UserTypeAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(User.class)), projection,
+                    userPool);
+        } else if (rawType == TweetEntities.class) {
+            return (TypeAdapter<T>) new TweetEntitiesTypeAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(TweetEntities.class)));
+        } else if (rawType == MediaEntity.class) {
+            return (TypeAdapter<T>) new MediaEntityTypeAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(MediaEntity.class)));
+        } else if (rawType == UrlEntity.class) {
+            return (TypeAdapter<T>) new UrlEntityTypeAdapter(
+                    gson.getDelegateAdapter(this, TypeToken.get(UrlEntity.class)));
+        } else if (rawType == Search.class) {
+            return (TypeAdapter<T>) new SearchTypeAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(Search.class)));
+        } else if (rawType == TwitterCollection.class) {
+            return (TypeAdapter<T>) new TwitterCollectionTypeAdapter(gson,
+                    gson.getDelegateAdapter(this, TypeToken.get(TwitterCollection.class)));
+        }
+        return null;
+    }
+}
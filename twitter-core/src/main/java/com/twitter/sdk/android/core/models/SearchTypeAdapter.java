@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextList;
+
+/**
+ * Reads {@link Search} results without reflection. Writing is delegated to the reflective adapter.
+ */
+class SearchTypeAdapter extends TypeAdapter<Search> {
+    private final TypeAdapter<Search> delegate;
+    private final TypeAdapter<Tweet> tweetAdapter;
+    private final TypeAdapter<SearchMetadata> metadataAdapter;
+
+    SearchTypeAdapter(Gson gson, TypeAdapter<Search> delegate) {
+        this.delegate = delegate;
+        this.tweetAdapter = gson.getAdapter(Tweet.class);
+        this.metadataAdapter = gson.getAdapter(SearchMetadata.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, Search value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public Search read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        List<Tweet> tweets = null;
+        SearchMetadata searchMetadata = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "statuses":
+                    tweets = nextList(in, tweetAdapter);
+                    break;
+                case "search_metadata":
+                    searchMetadata = metadataAdapter.read(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new Search(tweets, searchMetadata);
+    }
+}
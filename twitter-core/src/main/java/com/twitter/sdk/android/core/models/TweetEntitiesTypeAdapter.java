@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.List;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextList;
+
+/**
+ * Reads {@link TweetEntities} without reflection. Writing is delegated to the reflective adapter.
+ */
+class TweetEntitiesTypeAdapter extends TypeAdapter<TweetEntities> {
+    private final TypeAdapter<TweetEntities> delegate;
+    private final TypeAdapter<UrlEntity> urlAdapter;
+    private final TypeAdapter<MentionEntity> mentionAdapter;
+    private final TypeAdapter<MediaEntity> mediaAdapter;
+    private final TypeAdapter<HashtagEntity> hashtagAdapter;
+
+    TweetEntitiesTypeAdapter(Gson gson, TypeAdapter<TweetEntities> delegate) {
+        this.delegate = delegate;
+        this.urlAdapter = gson.getAdapter(UrlEntity.class);
+        this.mentionAdapter = gson.getAdapter(MentionEntity.class);
+        this.mediaAdapter = gson.getAdapter(MediaEntity.class);
+        this.hashtagAdapter = gson.getAdapter(HashtagEntity.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, TweetEntities value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public TweetEntities read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        List<UrlEntity> urls = null;
+        List<MentionEntity> userMentions = null;
+        List<MediaEntity> media = null;
+        List<HashtagEntity> hashtags = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "urls":
+                    urls = nextList(in, urlAdapter);
+                    break;
+                case "user_mentions":
+                    userMentions = nextList(in, mentionAdapter);
+                    break;
+                case "media":
+                    media = nextList(in, mediaAdapter);
+                    break;
+                case "hashtags":
+                    hashtags = nextList(in, hashtagAdapter);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new TweetEntities(urls, userMentions, media, hashtags);
+    }
+}
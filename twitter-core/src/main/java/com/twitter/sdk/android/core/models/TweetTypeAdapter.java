@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextBoolean;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextInt;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextInteger;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextLong;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextString;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextStringList;
+
+/**
+ * Reads {@link Tweet} objects field by field without reflection, skipping fields excluded by the
+ * {@link FieldProjection}. Writing is delegated to the reflective adapter so serialized output is
+ * unchanged.
+ */
+class TweetTypeAdapter extends TypeAdapter<Tweet> {
+    private final TypeAdapter<Tweet> delegate;
+    private final FieldProjection projection;
+    private final TypeAdapter<Coordinates> coordinatesAdapter;
+    private final TypeAdapter<TweetEntities> entitiesAdapter;
+    private final TypeAdapter<Place> placeAdapter;
+    private final TypeAdapter<User> userAdapter;
+    private final TypeAdapter<Object> objectAdapter;
+
+    TweetTypeAdapter(Gson gson, TypeAdapter<Tweet> delegate, FieldProjection projection) {
+        this.delegate = delegate;
+        this.projection = projection;
+        this.coordinatesAdapter = gson.getAdapter(Coordinates.class);
+        this.entitiesAdapter = gson.getAdapter(TweetEntities.class);
+        this.placeAdapter = gson.getAdapter(Place.class);
+        this.userAdapter = gson.getAdapter(User.class);
+        this.objectAdapter = gson.getAdapter(Object.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, Tweet value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public Tweet read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        final TweetBuilder builder = new TweetBuilder();
+        in.beginObject();
+        while (in.hasNext()) {
+            final String name = in.nextName();
+            if (!projection.includesTweetField(name)) {
+                in.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "coordinates":
+                    builder.setCoordinates(coordinatesAdapter.read(in));
+                    break;
+                case "created_at":
+                    builder.setCreatedAt(nextString(in));
+                    break;
+                case "current_user_retweet":
+                    builder.setCurrentUserRetweet(objectAdapter.read(in));
+                    break;
+                case "entities":
+                    builder.setEntities(entitiesAdapter.read(in));
+                    break;
+                case "extended_entities":
+                    builder.setExtendedEntities(entitiesAdapter.read(in));
+                    break;
+                case "favorite_count":
+                    builder.setFavoriteCount(nextInteger(in));
+                    break;
+                case "favorited":
+                    builder.setFavorited(nextBoolean(in));
+                    break;
+                case "filter_level":
+                    builder.setFilterLevel(nextString(in));
+                    break;
+                case "id":
+                    builder.setId(nextLong(in));
+                    break;
+                case "id_str":
+                    builder.setIdStr(nextString(in));
+                    break;
+                case "in_reply_to_screen_name":
+                    builder.setInReplyToScreenName(nextString(in));
+                    break;
+                case "in_reply_to_status_id":
+                    builder.setInReplyToStatusId(nextLong(in));
+                    break;
+                case "in_reply_to_status_id_str":
+                    builder.setInReplyToStatusIdStr(nextString(in));
+                    break;
+                case "in_reply_to_user_id":
+                    builder.setInReplyToUserId(nextLong(in));
+                    break;
+                case "in_reply_to_user_id_str":
+                    builder.setInReplyToUserIdStr(nextString(in));
+                    break;
+                case "lang":
+                    builder.setLang(nextString(in));
+                    break;
+                case "place":
+                    builder.setPlace(placeAdapter.read(in));
+                    break;
+                case "possibly_sensitive":
+                    builder.setPossiblySensitive(nextBoolean(in));
+                    break;
+                case "scopes":
+                    builder.setScopes(objectAdapter.read(in));
+                    break;
+                case "retweet_count":
+                    builder.setRetweetCount(nextInt(in));
+                    break;
+                case "retweeted":
+                    builder.setRetweeted(nextBoolean(in));
+                    break;
+                case "retweeted_status":
+                    builder.setRetweetedStatus(read(in));
+                    break;
+                case "source":
+                    builder.setSource(nextString(in));
+                    break;
+                case "text":
+                    builder.setText(nextString(in));
+                    break;
+                case "truncated":
+                    builder.setTruncated(nextBoolean(in));
+                    break;
+                case "user":
+                    builder.setUser(userAdapter.read(in));
+                    break;
+                case "withheld_copyright":
+                    builder.setWithheldCopyright(nextBoolean(in));
+                    break;
+                case "withheld_in_countries":
+                    builder.setWithheldInCountries(nextStringList(in));
+                    break;
+                case "withheld_scope":
+                    builder.setWithheldScope(nextString(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return builder.build();
+    }
+}
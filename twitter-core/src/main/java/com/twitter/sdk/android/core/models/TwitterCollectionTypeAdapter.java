@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.twitter.sdk.android.core.internal.TwitterCollection;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextLongObject;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextString;
+
+/**
+ * Reads {@link TwitterCollection} responses without reflection. Tweets and Users in the decomposed
+ * object maps are read with the registered model adapters. Writing is delegated to the reflective
+ * adapter.
+ */
+class TwitterCollectionTypeAdapter extends TypeAdapter<TwitterCollection> {
+    private final TypeAdapter<TwitterCollection> delegate;
+    private final TypeAdapter<Tweet> tweetAdapter;
+    private final TypeAdapter<User> userAdapter;
+
+    TwitterCollectionTypeAdapter(Gson gson, TypeAdapter<TwitterCollection> delegate) {
+        this.delegate = delegate;
+        this.tweetAdapter = gson.getAdapter(Tweet.class);
+        this.userAdapter = gson.getAdapter(User.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, TwitterCollection value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public TwitterCollection read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        TwitterCollection.Content contents = null;
+        TwitterCollection.Metadata metadata = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "objects":
+                    contents = readContent(in);
+                    break;
+                case "response":
+                    metadata = readMetadata(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new TwitterCollection(contents, metadata);
+    }
+
+    TwitterCollection.Content readContent(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        Map<Long, Tweet> tweetMap = null;
+        Map<Long, User> userMap = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "tweets":
+                    tweetMap = readIdMap(in, tweetAdapter);
+                    break;
+                case "users":
+                    userMap = readIdMap(in, userAdapter);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new TwitterCollection.Content(tweetMap, userMap);
+    }
+
+    TwitterCollection.Metadata readMetadata(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        String timelineId = null;
+        TwitterCollection.Metadata.Position position = null;
+        List<TwitterCollection.TimelineItem> timelineItems = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "timeline_id":
+                    timelineId = nextString(in);
+                    break;
+                case "position":
+                    position = readPosition(in);
+                    break;
+                case "timeline":
+                    timelineItems = readTimelineItems(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new TwitterCollection.Metadata(timelineId, position, timelineItems);
+    }
+
+    TwitterCollection.Metadata.Position readPosition(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        Long minPosition = null;
+        Long maxPosition = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "min_position":
+                    minPosition = nextLongObject(in);
+                    break;
+                case "max_position":
+                    maxPosition = nextLongObject(in);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new TwitterCollection.Metadata.Position(maxPosition, minPosition);
+    }
+
+    List<TwitterCollection.TimelineItem> readTimelineItems(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return Collections.emptyList();
+        }
+
+        final List<TwitterCollection.TimelineItem> items = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (consumeNull(in)) {
+                items.add(null);
+                continue;
+            }
+            TwitterCollection.TimelineItem.TweetItem tweetItem = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("tweet".equals(in.nextName())) {
+                    tweetItem = readTweetItem(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            items.add(new TwitterCollection.TimelineItem(tweetItem));
+        }
+        in.endArray();
+        return Collections.unmodifiableList(items);
+    }
+
+    TwitterCollection.TimelineItem.TweetItem readTweetItem(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        Long id = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("id".equals(in.nextName())) {
+                id = nextLongObject(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new TwitterCollection.TimelineItem.TweetItem(id);
+    }
+
+    static <T> Map<Long, T> readIdMap(JsonReader in, TypeAdapter<T> valueAdapter)
+            throws IOException {
+        if (consumeNull(in)) {
+            return Collections.emptyMap();
+        }
+
+        final Map<Long, T> map = new HashMap<>();
+        in.beginObject();
+        while (in.hasNext()) {
+            final Long id = Long.valueOf(in.nextName());
+            map.put(id, valueAdapter.read(in));
+        }
+        in.endObject();
+        return Collections.unmodifiableMap(map);
+    }
+}
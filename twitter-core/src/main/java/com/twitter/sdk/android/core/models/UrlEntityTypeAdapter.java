@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextIndices;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextString;
+
+/**
+ * Reads {@link UrlEntity} without reflection. Writing is delegated to the reflective adapter.
+ */
+class UrlEntityTypeAdapter extends TypeAdapter<UrlEntity> {
+    private final TypeAdapter<UrlEntity> delegate;
+
+    UrlEntityTypeAdapter(TypeAdapter<UrlEntity> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(JsonWriter out, UrlEntity value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public UrlEntity read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        String url = null;
+        String expandedUrl = null;
+        String displayUrl = null;
+        final int[] indices = new int[2];
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "url":
+                    url = nextString(in);
+                    break;
+                case "expanded_url":
+                    expandedUrl = nextString(in);
+                    break;
+                case "display_url":
+                    displayUrl = nextString(in);
+                    break;
+                case "indices":
+                    nextIndices(in, indices);
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new UrlEntity(url, expandedUrl, displayUrl, indices[0], indices[1]);
+    }
+}
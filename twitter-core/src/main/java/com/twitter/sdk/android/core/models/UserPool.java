@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded pool of weakly referenced {@link User} instances keyed by user id. Parsed Users with the
+ * same content as a pooled User are replaced by the pooled instance so Tweets by the same author
+ * share a single User across timeline pages and caches. A parsed User whose content differs (e.g.
+ * an updated follower count or a trimmed User) replaces the pooled instance.
+ *
+ * Thread safe.
+ */
+public class UserPool {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final LinkedHashMap<Long, WeakReference<User>> users;
+
+    /**
+     * @param maxSize the maximum number of Users to keep, least recently used Users are evicted.
+     */
+    public UserPool(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0.");
+        }
+        // access ordered map so the eldest entry is the least recently used User
+        this.users = new LinkedHashMap<Long, WeakReference<User>>(maxSize, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, WeakReference<User>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param user the freshly parsed User
+     * @return the pooled User if it has the same content as the given User, otherwise the given
+     * User, which then becomes the pooled instance.
+     */
+    public synchronized User intern(User user) {
+        if (user == null || user.id == User.INVALID_ID) {
+            return user;
+        }
+
+        final WeakReference<User> ref = users.get(user.id);
+        final User pooled = ref == null ? null : ref.get();
+        if (pooled != null && isSameUser(pooled, user)) {
+            return pooled;
+        }
+        users.put(user.id, new WeakReference<>(user));
+        return user;
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    public synchronized void clear() {
+        users.clear();
+    }
+
+    /**
+     * Compares the fields parsed from the API. UserEntities are derived from the url and
+     * description fields, so they are covered by comparing those.
+     */
+    static boolean isSameUser(User a, User b) {
+        return a.id == b.id
+                && a.contributorsEnabled == b.contributorsEnabled
+                && a.defaultProfile == b.defaultProfile
+                && a.defaultProfileImage == b.defaultProfileImage
+                && a.favouritesCount == b.favouritesCount
+                && a.followRequestSent == b.followRequestSent
+                && a.followersCount == b.followersCount
+                && a.friendsCount == b.friendsCount
+                && a.geoEnabled == b.geoEnabled
+                && a.isTranslator == b.isTranslator
+                && a.listedCount == b.listedCount
+                && a.profileBackgroundTile == b.profileBackgroundTile
+                && a.profileUseBackgroundImage == b.profileUseBackgroundImage
+                && a.protectedUser == b.protectedUser
+                && a.showAllInlineMedia == b.showAllInlineMedia
+                && a.statusesCount == b.statusesCount
+                && a.utcOffset == b.utcOffset
+                && a.verified == b.verified
+                && (a.entities == null) == (b.entities == null)
+                && sameStatus(a.status, b.status)
+                && equal(a.createdAt, b.createdAt)
+                && equal(a.description, b.description)
+                && equal(a.email, b.email)
+                && equal(a.idStr, b.idStr)
+                && equal(a.lang, b.lang)
+                && equal(a.location, b.location)
+                && equal(a.name, b.name)
+                && equal(a.profileBackgroundColor, b.profileBackgroundColor)
+                && equal(a.profileBackgroundImageUrl, b.profileBackgroundImageUrl)
+                && equal(a.profileBackgroundImageUrlHttps, b.profileBackgroundImageUrlHttps)
+                && equal(a.profileBannerUrl, b.profileBannerUrl)
+                && equal(a.profileImageUrl, b.profileImageUrl)
+                && equal(a.profileImageUrlHttps, b.profileImageUrlHttps)
+                && equal(a.profileLinkColor, b.profileLinkColor)
+                && equal(a.profileSidebarBorderColor, b.profileSidebarBorderColor)
+                && equal(a.profileSidebarFillColor, b.profileSidebarFillColor)
+                && equal(a.profileTextColor, b.profileTextColor)
+                && equal(a.screenName, b.screenName)
+                && equal(a.timeZone, b.timeZone)
+                && equal(a.url, b.url)
+                && equal(a.withheldInCountries, b.withheldInCountries)
+                && equal(a.withheldScope, b.withheldScope);
+    }
+
+    private static boolean sameStatus(Tweet a, Tweet b) {
+        return a == null ? b == null : b != null && a.id == b.id;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.consumeNull;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextBoolean;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextInt;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextLong;
+import static com.twitter.sdk.android.core.models.JsonReaderUtils.nextString;
+
+/**
+ * Reads {@link User} objects field by field without reflection, skipping fields excluded by the
+ * {@link FieldProjection}. Parsed Users are interned through the {@link UserPool}, if one is
+ * given. Writing is delegated to the reflective adapter so serialized output is
+ * unchanged.
+ */
+class UserTypeAdapter extends TypeAdapter<User> {
+    private final TypeAdapter<User> delegate;
+    private final FieldProjection projection;
+    private final UserPool userPool;
+    private final TypeAdapter<UserEntities> entitiesAdapter;
+    private final TypeAdapter<Tweet> tweetAdapter;
+
+    UserTypeAdapter(Gson gson, TypeAdapter<User> delegate, FieldProjection projection,
+            UserPool userPool) {
+        this.delegate = delegate;
+        this.projection = projection;
+        this.userPool = userPool;
+        this.entitiesAdapter = gson.getAdapter(UserEntities.class);
+        this.tweetAdapter = gson.getAdapter(Tweet.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, User value) throws IOException {
+        delegate.write(out, value);
+    }
+
+    @Override
+    public User read(JsonReader in) throws IOException {
+        if (consumeNull(in)) {
+            return null;
+        }
+
+        final UserBuilder builder = new UserBuilder();
+        in.beginObject();
+        while (in.hasNext()) {
+            final String name = in.nextName();
+            if (!projection.includesUserField(name)) {
+                in.skipValue();
+                continue;
+            }
+            switch (name) {
+                case "contributors_enabled":
+                    builder.setContributorsEnabled(nextBoolean(in));
+                    break;
+                case "created_at":
+                    builder.setCreatedAt(nextString(in));
+                    break;
+                case "default_profile":
+                    builder.setDefaultProfile(nextBoolean(in));
+                    break;
+                case "default_profile_image":
+                    builder.setDefaultProfileImage(nextBoolean(in));
+                    break;
+                case "description":
+                    builder.setDescription(nextString(in));
+                    break;
+                case "email":
+                    builder.setEmail(nextString(in));
+                    break;
+                case "entities":
+                    builder.setEntities(entitiesAdapter.read(in));
+                    break;
+                case "favourites_count":
+                    builder.setFavouritesCount(nextInt(in));
+                    break;
+                case "follow_request_sent":
+                    builder.setFollowRequestSent(nextBoolean(in));
+                    break;
+                case "followers_count":
+                    builder.setFollowersCount(nextInt(in));
+                    break;
+                case "friends_count":
+                    builder.setFriendsCount(nextInt(in));
+                    break;
+                case "geo_enabled":
+                    builder.setGeoEnabled(nextBoolean(in));
+                    break;
+                case "id":
+                    builder.setId(nextLong(in));
+                    break;
+                case "id_str":
+                    builder.setIdStr(nextString(in));
+                    break;
+                case "is_translator":
+                    builder.setIsTranslator(nextBoolean(in));
+                    break;
+                case "lang":
+                    builder.setLang(nextString(in));
+                    break;
+                case "listed_count":
+                    builder.setListedCount(nextInt(in));
+                    break;
+                case "location":
+                    builder.setLocation(nextString(in));
+                    break;
+                case "name":
+                    builder.setName(nextString(in));
+                    break;
+                case "profile_background_color":
+                    builder.setProfileBackgroundColor(nextString(in));
+                    break;
+                case "profile_background_image_url":
+                    builder.setProfileBackgroundImageUrl(nextString(in));
+                    break;
+                case "profile_background_image_url_https":
+                    builder.setProfileBackgroundImageUrlHttps(nextString(in));
+                    break;
+                case "profile_background_tile":
+                    builder.setProfileBackgroundTile(nextBoolean(in));
+                    break;
+                case "profile_banner_url":
+                    builder.setProfileBannerUrl(nextString(in));
+                    break;
+                case "profile_image_url":
+                    builder.setProfileImageUrl(nextString(in));
+                    break;
+                case "profile_image_url_https":
+                    builder.setProfileImageUrlHttps(nextString(in));
+                    break;
+                case "profile_link_color":
+                    builder.setProfileLinkColor(nextString(in));
+                    break;
+                case "profile_sidebar_border_color":
+                    builder.setProfileSidebarBorderColor(nextString(in));
+                    break;
+                case "profile_sidebar_fill_color":
+                    builder.setProfileSidebarFillColor(nextString(in));
+                    break;
+                case "profile_text_color":
+                    builder.setProfileTextColor(nextString(in));
+                    break;
+                case "profile_use_background_image":
+                    builder.setProfileUseBackgroundImage(nextBoolean(in));
+                    break;
+                case "protected":
+                    builder.setProtectedUser(nextBoolean(in));
+                    break;
+                case "screen_name":
+                    builder.setScreenName(nextString(in));
+                    break;
+                case "show_all_inline_media":
+                    builder.setShowAllInlineMedia(nextBoolean(in));
+                    break;
+                case "status":
+                    builder.setStatus(tweetAdapter.read(in));
+                    break;
+                case "statuses_count":
+                    builder.setStatusesCount(nextInt(in));
+                    break;
+                case "time_zone":
+                    builder.setTimeZone(nextString(in));
+                    break;
+                case "url":
+                    builder.setUrl(nextString(in));
+                    break;
+                case "utc_offset":
+                    builder.setUtcOffset(nextInt(in));
+                    break;
+                case "verified":
+                    builder.setVerified(nextBoolean(in));
+                    break;
+                case "withheld_in_countries":
+                    builder.setWithheldInCountries(nextString(in));
+                    break;
+                case "withheld_scope":
+                    builder.setWithheldScope(nextString(in));
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        final User user = builder.build();
+        return userPool == null ? user : userPool.intern(user);
+    }
+}
@@ -20,10 +20,14 @@ package com.twitter.sdk.android.core.services;
 import com.twitter.sdk.android.core.Callback;
 import com.twitter.sdk.android.core.models.Media;
 
+import retrofit.client.Response;
+import retrofit.http.Field;
+import retrofit.http.FormUrlEncoded;
 import retrofit.http.Multipart;
 import retrofit.http.POST;
 import retrofit.http.Part;
 import retrofit.mime.TypedFile;
+import retrofit.mime.TypedOutput;
 import retrofit.mime.TypedString;
 
 public interface MediaService {
@@ -46,4 +50,42 @@ public interface MediaService {
                 @Part("media_data") TypedFile mediaData,
                 @Part("additional_owners") TypedString additionalOwners,
                 Callback<Media> cb);
+
+    /**
+     * Starts a chunked media upload. The returned media id is then sent segment by segment with
+     * {@link #uploadAppend} and completed with {@link #uploadFinalize}.
+     * @param totalBytes the size of the media in bytes.
+     * @param mediaType the MIME-type of the media.
+     * @param cb The callback to invoke when the request completes.
+     */
+    @FormUrlEncoded
+    @POST("/1.1/media/upload.json?command=INIT")
+    void uploadInit(@Field("total_bytes") long totalBytes,
+                    @Field("media_type") String mediaType,
+                    Callback<Media> cb);
+
+    /**
+     * Uploads one segment of a chunked media upload. Segments may be up to 5MB and are
+     * numbered from 0.
+     * @param mediaId the media id returned by {@link #uploadInit}.
+     * @param segmentIndex the index of this segment.
+     * @param media the bytes of this segment.
+     * @param cb The callback to invoke when the request completes. The response has no body.
+     */
+    @Multipart
+    @POST("/1.1/media/upload.json?command=APPEND")
+    void uploadAppend(@Part("media_id") TypedString mediaId,
+                      @Part("segment_index") TypedString segmentIndex,
+                      @Part("media") TypedOutput media,
+                      Callback<Response> cb);
+
+    /**
+     * Completes a chunked media upload once all segments have been appended.
+     * @param mediaId the media id returned by {@link #uploadInit}.
+     * @param cb The callback to invoke when the request completes.
+     */
+    @FormUrlEncoded
+    @POST("/1.1/media/upload.json?command=FINALIZE")
+    void uploadFinalize(@Field("media_id") long mediaId,
+                        Callback<Media> cb);
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ApiClientCacheTest {
+    private static final int MAX_SIZE = 2;
+
+    private ApiClientCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new ApiClientCache(MAX_SIZE);
+    }
+
+    @Test
+    public void testConstructor_invalidMaxSize() {
+        try {
+            new ApiClientCache(0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Max size must be greater than 0.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testGet_miss() {
+        assertNull(cache.get(createSession(1L, "token")));
+        assertEquals(0, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testGet_hit() {
+        final TwitterSession session = createSession(1L, "token");
+        final TwitterApiClient client = mock(TwitterApiClient.class);
+        cache.putIfAbsent(session, client);
+
+        assertSame(client, cache.get(createSession(1L, "token")));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testGet_replacedSession() {
+        cache.putIfAbsent(createSession(1L, "token"), mock(TwitterApiClient.class));
+
+        assertNull(cache.get(createSession(1L, "refreshedToken")));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testPutIfAbsent_replacesStaleClient() {
+        cache.putIfAbsent(createSession(1L, "token"), mock(TwitterApiClient.class));
+        final TwitterSession refreshedSession = createSession(1L, "refreshedToken");
+        final TwitterApiClient client = mock(TwitterApiClient.class);
+
+        assertSame(client, cache.putIfAbsent(refreshedSession, client));
+        assertSame(client, cache.get(refreshedSession));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testPutIfAbsent_keepsExistingClient() {
+        final TwitterSession session = createSession(1L, "token");
+        final TwitterApiClient client = mock(TwitterApiClient.class);
+        cache.putIfAbsent(session, client);
+
+        assertSame(client, cache.putIfAbsent(session, mock(TwitterApiClient.class)));
+    }
+
+    @Test
+    public void testPutIfAbsent_evictsLeastRecentlyUsed() {
+        final TwitterSession first = createSession(1L, "token");
+        final TwitterSession second = createSession(2L, "token");
+        cache.putIfAbsent(first, mock(TwitterApiClient.class));
+        cache.putIfAbsent(second, mock(TwitterApiClient.class));
+        // Use the first session so the second one is least recently used
+        cache.get(first);
+
+        cache.putIfAbsent(createSession(3L, "token"), mock(TwitterApiClient.class));
+        assertEquals(MAX_SIZE, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get(second));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final TwitterSession session = createSession(1L, "token");
+        cache.putIfAbsent(session, mock(TwitterApiClient.class));
+
+        cache.invalidate(session.getId());
+        assertEquals(0, cache.size());
+        assertNull(cache.get(session));
+    }
+
+    private static TwitterSession createSession(long id, String token) {
+        return new TwitterSession(new TwitterAuthToken(token, "secret"), id, "user" + id);
+    }
+}
@@ -17,6 +17,8 @@
 
 package com.twitter.sdk.android.core;
 
+import com.twitter.sdk.android.core.internal.RequestAttempt;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,21 +26,31 @@ import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import retrofit.client.Header;
 import retrofit.client.Request;
+import retrofit.client.Response;
 import retrofit.mime.FormUrlEncodedTypedOutput;
 import retrofit.mime.TypedByteArray;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @RunWith(RobolectricGradleTestRunner.class)
 @Config(constants = BuildConfig.class, sdk = 21)
@@ -165,4 +177,99 @@ public class AuthenticatedClientTest  {
             assertEquals("bad parameter encoding", e.getMessage());
         }
     }
+
+    @Test
+    public void testExecute_retriesIdempotentRequest() throws IOException {
+        final AuthenticatedClient retryClient = createRetryClient();
+        final Response response = new Response(ANY_URL, 200, "", new ArrayList<Header>(), null);
+        doThrow(new IOException()).doReturn(response).when(retryClient)
+                .executeSigned(any(Request.class));
+
+        assertEquals(response, retryClient.execute(new Request("GET", ANY_URL, null, null)));
+        verify(retryClient, times(2)).executeSigned(any(Request.class));
+    }
+
+    @Test
+    public void testExecute_doesNotRetryPost() throws IOException {
+        final AuthenticatedClient retryClient = createRetryClient();
+        doThrow(new IOException()).when(retryClient).executeSigned(any(Request.class));
+
+        try {
+            retryClient.execute(new Request(POST_VERB, ANY_URL, null, null));
+            fail("Expected IOException");
+        } catch (IOException e) {
+            verify(retryClient, times(1)).executeSigned(any(Request.class));
+        }
+    }
+
+    @Test
+    public void testExecute_returnsLastResponseAfterMaxRetries() throws IOException {
+        final AuthenticatedClient retryClient = createRetryClient();
+        final Response response = new Response(ANY_URL, 503, "", new ArrayList<Header>(), null);
+        doReturn(response).when(retryClient).executeSigned(any(Request.class));
+
+        assertEquals(response, retryClient.execute(new Request("GET", ANY_URL, null, null)));
+        verify(retryClient, times(3)).executeSigned(any(Request.class));
+    }
+
+    @Test
+    public void testExecute_asyncRequestSchedulesRetry() throws IOException {
+        final AuthenticatedClient retryClient = createRetryClient();
+        doThrow(new IOException()).when(retryClient).executeSigned(any(Request.class));
+
+        final RequestAttempt attempt = new RequestAttempt();
+        final IOException error = executeAttempt(retryClient, attempt,
+                new Request("GET", ANY_URL, null, null));
+
+        assertTrue(error instanceof InterruptedIOException);
+        assertTrue(attempt.isRetryScheduled());
+        verify(retryClient, times(1)).executeSigned(any(Request.class));
+    }
+
+    @Test
+    public void testExecute_asyncPostDoesNotScheduleRetry() throws IOException {
+        final AuthenticatedClient retryClient = createRetryClient();
+        final IOException networkError = new IOException();
+        doThrow(networkError).when(retryClient).executeSigned(any(Request.class));
+
+        final RequestAttempt attempt = new RequestAttempt();
+        final IOException error = executeAttempt(retryClient, attempt,
+                new Request(POST_VERB, ANY_URL, null, null));
+
+        assertEquals(networkError, error);
+        assertFalse(attempt.isRetryScheduled());
+    }
+
+    @Test
+    public void testExecute_asyncRequestSucceeds() throws IOException {
+        final AuthenticatedClient retryClient = createRetryClient();
+        final Response response = new Response(ANY_URL, 200, "", new ArrayList<Header>(), null);
+        doReturn(response).when(retryClient).executeSigned(any(Request.class));
+
+        final RequestAttempt attempt = new RequestAttempt();
+        assertNull(executeAttempt(retryClient, attempt, new Request("GET", ANY_URL, null, null)));
+        assertFalse(attempt.isRetryScheduled());
+    }
+
+    private static IOException executeAttempt(final AuthenticatedClient retryClient,
+            RequestAttempt attempt, final Request request) {
+        final IOException[] error = new IOException[1];
+        attempt.run(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    retryClient.execute(request);
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            }
+        });
+        return error[0];
+    }
+
+    private AuthenticatedClient createRetryClient() {
+        final RetryPolicy retryPolicy = new RetryPolicy(2, 0, 1000, new Random());
+        return spy(new AuthenticatedClient(mock(TwitterAuthConfig.class),
+                mock(TwitterSession.class), null, retryPolicy));
+    }
 }
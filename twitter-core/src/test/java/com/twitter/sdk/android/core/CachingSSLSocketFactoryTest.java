@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.net.Socket;
+
+import javax.net.ssl.HandshakeCompletedEvent;
+import javax.net.ssl.HandshakeCompletedListener;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class CachingSSLSocketFactoryTest {
+    private static final String HOST = "api.twitter.com";
+    private static final int PORT = 443;
+    private static final long SOCKET_CREATION_TIME = 1000L;
+
+    private SSLSocketFactory mockDelegate;
+    private SSLSocket mockSocket;
+    private SSLSessionContext mockSessionContext;
+    private CachingSSLSocketFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        mockDelegate = mock(SSLSocketFactory.class);
+        mockSocket = mock(SSLSocket.class);
+        mockSessionContext = mock(SSLSessionContext.class);
+        when(mockDelegate.createSocket(HOST, PORT)).thenReturn(mockSocket);
+        factory = new CachingSSLSocketFactory(mockDelegate);
+    }
+
+    @Test
+    public void testCreateSocket_observesHandshake() throws Exception {
+        final Socket socket = factory.createSocket(HOST, PORT);
+
+        assertSame(mockSocket, socket);
+        verify(mockSocket).addHandshakeCompletedListener(any(HandshakeCompletedListener.class));
+    }
+
+    @Test
+    public void testCreateSocket_layeredSocket() throws Exception {
+        final Socket plainSocket = mock(Socket.class);
+        when(mockDelegate.createSocket(plainSocket, HOST, PORT, true)).thenReturn(mockSocket);
+
+        assertSame(mockSocket, factory.createSocket(plainSocket, HOST, PORT, true));
+        verify(mockSocket).addHandshakeCompletedListener(any(HandshakeCompletedListener.class));
+    }
+
+    @Test
+    public void testOnHandshakeCompleted_fullHandshake() {
+        factory.onHandshakeCompleted(createEvent(SOCKET_CREATION_TIME + 10), SOCKET_CREATION_TIME,
+                200L);
+
+        assertEquals(1, factory.getFullHandshakeCount());
+        assertEquals(200L, factory.getFullHandshakeMillis());
+        assertEquals(0, factory.getResumedHandshakeCount());
+        assertEquals(0L, factory.getResumedHandshakeMillis());
+    }
+
+    @Test
+    public void testOnHandshakeCompleted_resumedHandshake() {
+        factory.onHandshakeCompleted(createEvent(SOCKET_CREATION_TIME - 10), SOCKET_CREATION_TIME,
+                50L);
+
+        assertEquals(0, factory.getFullHandshakeCount());
+        assertEquals(1, factory.getResumedHandshakeCount());
+        assertEquals(50L, factory.getResumedHandshakeMillis());
+    }
+
+    @Test
+    public void testOnHandshakeCompleted_configuresSessionCacheOnce() {
+        when(mockSessionContext.getSessionCacheSize()).thenReturn(10);
+        when(mockSessionContext.getSessionTimeout()).thenReturn(60);
+
+        factory.onHandshakeCompleted(createEvent(SOCKET_CREATION_TIME), SOCKET_CREATION_TIME, 0);
+        factory.onHandshakeCompleted(createEvent(SOCKET_CREATION_TIME), SOCKET_CREATION_TIME, 0);
+
+        verify(mockSessionContext).setSessionCacheSize(CachingSSLSocketFactory.SESSION_CACHE_SIZE);
+        verify(mockSessionContext)
+                .setSessionTimeout(CachingSSLSocketFactory.SESSION_TIMEOUT_SECONDS);
+    }
+
+    @Test
+    public void testOnHandshakeCompleted_keepsUnlimitedSessionCache() {
+        when(mockSessionContext.getSessionCacheSize()).thenReturn(0);
+        when(mockSessionContext.getSessionTimeout()).thenReturn(0);
+
+        factory.onHandshakeCompleted(createEvent(SOCKET_CREATION_TIME), SOCKET_CREATION_TIME, 0);
+
+        verify(mockSessionContext, never()).setSessionCacheSize(anyInt());
+        verify(mockSessionContext, never()).setSessionTimeout(anyInt());
+    }
+
+    private HandshakeCompletedEvent createEvent(long sessionCreationTime) {
+        final SSLSession mockSession = mock(SSLSession.class);
+        when(mockSession.getCreationTime()).thenReturn(sessionCreationTime);
+        when(mockSession.getSessionContext()).thenReturn(mockSessionContext);
+        return new HandshakeCompletedEvent(mockSocket, mockSession);
+    }
+}
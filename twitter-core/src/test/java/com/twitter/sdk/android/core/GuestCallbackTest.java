@@ -136,4 +136,17 @@ public class GuestCallbackTest  {
         guestCallback.failure(twitterException);
         verify(developerCallback).failure(twitterException);
     }
+
+    @Test
+    public void testIsGuestAuthError() {
+        final TwitterApiException guestAuthException = mock(TwitterApiException.class);
+        when(guestAuthException.getErrorCode()).thenReturn(
+                TwitterApiConstants.Errors.GUEST_AUTH_ERROR_CODE);
+        final TwitterApiException otherApiException = mock(TwitterApiException.class);
+        when(otherApiException.getErrorCode()).thenReturn(
+                TwitterApiConstants.Errors.LEGACY_ERROR);
+        Assert.assertTrue(GuestCallback.isGuestAuthError(guestAuthException));
+        Assert.assertFalse(GuestCallback.isGuestAuthError(otherApiException));
+        Assert.assertFalse(GuestCallback.isGuestAuthError(mock(TwitterException.class)));
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ImageRequestTest {
+    static final float MAX_DELTA = 0.01f;
+    static final String TEST_URL = "https://pbs.twimg.com/media/test.jpg";
+    static final int TEST_RESOURCE_ID = 1;
+    static final Object TEST_TAG = new Object();
+
+    @Test
+    public void testBuild_defaults() {
+        final ImageRequest request = new ImageRequest.Builder().build();
+
+        assertNull(request.url);
+        assertEquals(0, request.resourceId);
+        assertNull(request.placeholder);
+        assertFalse(request.fit);
+        assertEquals(0, request.targetWidth);
+        assertEquals(0, request.targetHeight);
+        assertFalse(request.centerCrop);
+        assertNull(request.cornerRadii);
+        assertNull(request.tag);
+    }
+
+    @Test
+    public void testBuild() {
+        final ImageRequest request = new ImageRequest.Builder()
+                .setUrl(TEST_URL)
+                .resize(100, 50)
+                .centerCrop()
+                .setTag(TEST_TAG)
+                .build();
+
+        assertEquals(TEST_URL, request.url);
+        assertEquals(100, request.targetWidth);
+        assertEquals(50, request.targetHeight);
+        assertTrue(request.centerCrop);
+        assertEquals(TEST_TAG, request.tag);
+    }
+
+    @Test
+    public void testSetCornerRadii() {
+        final ImageRequest request = new ImageRequest.Builder()
+                .setCornerRadii(1, 2, 3, 4)
+                .build();
+
+        assertArrayEquals(new float[] {1, 1, 2, 2, 3, 3, 4, 4}, request.cornerRadii, MAX_DELTA);
+    }
+
+    @Test
+    public void testSetCornerRadii_negativeRadius() {
+        try {
+            new ImageRequest.Builder().setCornerRadii(1, -1, 0, 0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Radius must not be negative", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBuild_urlAndResource() {
+        try {
+            new ImageRequest.Builder()
+                    .setUrl(TEST_URL)
+                    .setResourceId(TEST_RESOURCE_ID)
+                    .build();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("Url and resource must not both be set", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBuild_fitWithResize() {
+        try {
+            new ImageRequest.Builder()
+                    .fit()
+                    .resize(100, 50)
+                    .build();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("Fit must not be used with resize", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBuild_resizeWithZeroHeight() {
+        try {
+            new ImageRequest.Builder()
+                    .resize(100, 0)
+                    .build();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertEquals("Resize size must be positive", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.twitter.sdk.android.core.internal.ChunkedUploader;
+import com.twitter.sdk.android.core.internal.TwitterApi;
+import com.twitter.sdk.android.core.internal.UploadSession;
+import com.twitter.sdk.android.core.models.Media;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs chunked uploads through the MediaService of a {@link TwitterApiClient} against a local
+ * server, covering the request encoding of the INIT, APPEND and FINALIZE commands.
+ */
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class MediaServiceUploadTest {
+    private static final String UPLOAD_PATH = "/1.1/media/upload.json";
+    private static final int TEST_CHUNK_SIZE = 4;
+    private static final String TEST_CONTENT = "0123456789";
+    private static final String TEST_MIME_TYPE = "image/png";
+    private static final long TEST_MEDIA_ID = 123L;
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    private MockWebServer server;
+    private ExecutorService executorService;
+    private File file;
+    private TestSessionStore sessionStore;
+    private ChunkedUploader uploader;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        executorService = Executors.newSingleThreadExecutor();
+
+        file = File.createTempFile("upload", ".png");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(TEST_CONTENT.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        final String serverUrl = server.getUrl("").toString().replaceAll("/$", "");
+        final TwitterSession session = new TwitterSession(
+                new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
+                TestFixtures.USER_ID, TestFixtures.SCREEN_NAME);
+        final TwitterApiClient apiClient = new TwitterApiClient(
+                new TwitterAuthConfig(TestFixtures.KEY, TestFixtures.SECRET), session,
+                new TwitterApi(serverUrl, serverUrl), null, executorService);
+        sessionStore = new TestSessionStore();
+        uploader = new ChunkedUploader(apiClient.getMediaService(), sessionStore,
+                TEST_CHUNK_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executorService.shutdownNow();
+        server.shutdown();
+        file.delete();
+    }
+
+    @Test
+    public void testUpload() throws Exception {
+        server.enqueue(createMediaResponse());
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(204));
+        }
+        server.enqueue(createMediaResponse());
+
+        final TestCallback callback = upload();
+        assertNotNull(callback.media);
+        assertEquals(TEST_MEDIA_ID, callback.media.mediaId);
+
+        final RecordedRequest init = server.takeRequest();
+        assertEquals("POST", init.getMethod());
+        assertEquals(UPLOAD_PATH + "?command=INIT", init.getPath());
+        assertTrue(init.getHeader("Content-Type").startsWith("application/x-www-form-urlencoded"));
+        assertTrue(init.getHeader("Authorization").startsWith("OAuth"));
+        assertEquals("total_bytes=10&media_type=image%2Fpng", init.getBody().readUtf8());
+
+        assertAppend(server.takeRequest(), 0, "0123");
+        assertAppend(server.takeRequest(), 1, "4567");
+        assertAppend(server.takeRequest(), 2, "89");
+
+        final RecordedRequest finalize = server.takeRequest();
+        assertEquals(UPLOAD_PATH + "?command=FINALIZE", finalize.getPath());
+        assertEquals("media_id=" + TEST_MEDIA_ID, finalize.getBody().readUtf8());
+        assertNull(sessionStore.restore());
+    }
+
+    @Test
+    public void testUpload_resumesAfterServerError() throws Exception {
+        server.enqueue(createMediaResponse());
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        final TestCallback failed = upload();
+        assertNotNull(failed.exception);
+        assertEquals(1, sessionStore.restore().nextSegment);
+
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(createMediaResponse());
+
+        final TestCallback resumed = upload();
+        assertNotNull(resumed.media);
+
+        assertEquals(UPLOAD_PATH + "?command=INIT", server.takeRequest().getPath());
+        assertAppend(server.takeRequest(), 0, "0123");
+        assertAppend(server.takeRequest(), 1, "4567");
+        // the resumed upload starts with the segment the server did not acknowledge
+        assertAppend(server.takeRequest(), 1, "4567");
+        assertAppend(server.takeRequest(), 2, "89");
+        assertEquals(UPLOAD_PATH + "?command=FINALIZE", server.takeRequest().getPath());
+        assertEquals(7, server.getRequestCount());
+    }
+
+    private TestCallback upload() throws InterruptedException {
+        final TestCallback callback = new TestCallback();
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+        // callbacks are delivered through the main looper
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!callback.isDone() && System.currentTimeMillis() < deadline) {
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+            Thread.sleep(10);
+        }
+        assertTrue("Upload timed out", callback.isDone());
+        return callback;
+    }
+
+    private static void assertAppend(RecordedRequest request, int segmentIndex, String bytes) {
+        assertEquals(UPLOAD_PATH + "?command=APPEND", request.getPath());
+        assertTrue(request.getHeader("Content-Type").startsWith("multipart/form-data"));
+        final String body = request.getBody().readUtf8();
+        assertTrue(body, body.contains("name=\"media_id\""));
+        assertTrue(body, body.contains(Long.toString(TEST_MEDIA_ID)));
+        assertTrue(body, body.contains("name=\"segment_index\""));
+        assertTrue(body, body.contains("\r\n\r\n" + segmentIndex + "\r\n"));
+        assertTrue(body, body.contains("name=\"media\""));
+        assertTrue(body, body.contains("Content-Type: application/octet-stream"));
+        assertTrue(body, body.contains("\r\n\r\n" + bytes + "\r\n"));
+    }
+
+    private static MockResponse createMediaResponse() {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"media_id\":" + TEST_MEDIA_ID + ",\"media_id_string\":\""
+                        + TEST_MEDIA_ID + "\",\"expires_after_secs\":3600}");
+    }
+
+    static class TestSessionStore implements PersistenceStrategy<UploadSession> {
+        private volatile UploadSession session;
+
+        @Override
+        public void save(UploadSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public UploadSession restore() {
+            return session;
+        }
+
+        @Override
+        public void clear() {
+            session = null;
+        }
+    }
+
+    static class TestCallback extends Callback<Media> {
+        volatile Media media;
+        volatile TwitterException exception;
+
+        @Override
+        public void success(Result<Media> result) {
+            media = result.data;
+        }
+
+        @Override
+        public void failure(TwitterException exception) {
+            this.exception = exception;
+        }
+
+        boolean isDone() {
+            return media != null || exception != null;
+        }
+    }
+}
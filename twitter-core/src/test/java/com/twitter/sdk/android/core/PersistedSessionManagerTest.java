@@ -29,20 +29,25 @@ import org.robolectric.annotation.Config;
 
 import io.fabric.sdk.android.services.persistence.PreferenceStore;
 import io.fabric.sdk.android.services.persistence.PreferenceStoreImpl;
-import io.fabric.sdk.android.services.persistence.PreferenceStoreStrategy;
-import io.fabric.sdk.android.services.persistence.SerializationStrategy;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,29 +55,31 @@ import static org.mockito.Mockito.when;
 @Config(constants = BuildConfig.class, sdk = 21)
 public class PersistedSessionManagerTest {
 
+    static final String PREF_KEY_ACTIVE_SESSION = "active_session";
     static final String PREF_KEY_SESSION = "session";
 
     private static final long TEST_SESSION_ID = 1L;
     private static final String PREF_RANDOM_KEY = "random_key";
     private static final String RESTORED_USER = "restoredUser";
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
 
     private PreferenceStore preferenceStore;
-    private SerializationStrategy<TwitterSession> mockSerializer;
     private ConcurrentHashMap<Long, TwitterSession> sessionMap;
-    private ConcurrentHashMap<Long, PreferenceStoreStrategy<TwitterSession>> storageMap;
-    private PreferenceStoreStrategy<TwitterSession> mockActiveSessionStorage;
+    private SessionStore<TwitterSession> mockSessionStore;
     private PersistedSessionManager<TwitterSession> sessionManager;
 
     @Before
     public void setUp() throws Exception {
         preferenceStore = new PreferenceStoreImpl(RuntimeEnvironment.application, "testSession");
-        mockSerializer = mock(SerializationStrategy.class);
         sessionMap = new ConcurrentHashMap<>();
-        storageMap = new ConcurrentHashMap<>();
-        mockActiveSessionStorage = mock(PreferenceStoreStrategy.class);
-        sessionManager = new PersistedSessionManager<>(preferenceStore,
-                mockSerializer, sessionMap, storageMap, mockActiveSessionStorage,
-                PREF_KEY_SESSION);
+        mockSessionStore = mock(SessionStore.class);
+        setUpRestoredContents(Collections.<Long, TwitterSession>emptyMap(), null);
+        sessionManager = new PersistedSessionManager<>(sessionMap, mockSessionStore);
     }
 
     @After
@@ -80,20 +87,28 @@ public class PersistedSessionManagerTest {
         preferenceStore.edit().clear().commit();
     }
 
-    @Test
-    public void testIsSessionPreferenceKey_validKey() {
-        final String preferenceKey = PREF_KEY_SESSION + "_" + TestFixtures.USER_ID;
-        assertTrue(sessionManager.isSessionPreferenceKey(preferenceKey));
+    private void setUpRestoredContents(Map<Long, TwitterSession> sessions,
+            TwitterSession activeSession) {
+        when(mockSessionStore.restore())
+                .thenReturn(new SessionStore.Contents<>(sessions, activeSession));
     }
 
-    @Test
-    public void testIsSessionPreferenceKey_invalidKey() {
-        assertFalse(sessionManager.isSessionPreferenceKey(PREF_RANDOM_KEY));
+    private void setUpRestoredActiveSession(TwitterSession activeSession) {
+        setUpRestoredContents(Collections.singletonMap(activeSession.getId(), activeSession),
+                activeSession);
+    }
+
+    private SessionStore<TwitterSession> createSessionStore() {
+        return new SessionStore<>(preferenceStore, new TwitterSession.Serializer(),
+                PREF_KEY_ACTIVE_SESSION, PREF_KEY_SESSION, DIRECT_EXECUTOR);
+    }
+
+    private PersistedSessionManager<TwitterSession> createStoredSessionManager() {
+        return new PersistedSessionManager<>(sessionMap, createSessionStore());
     }
 
     @Test
     public void testRestoreSession_noSavedSession() {
-        when(mockActiveSessionStorage.restore()).thenReturn(null);
         sessionManager.restoreAllSessionsIfNecessary();
         assertNull(sessionManager.getActiveSession());
     }
@@ -101,7 +116,7 @@ public class PersistedSessionManagerTest {
     @Test
     public void testRestoreSession_savedSession() {
         final TwitterSession mockSession = mock(TwitterSession.class);
-        when(mockActiveSessionStorage.restore()).thenReturn(mockSession);
+        setUpRestoredActiveSession(mockSession);
         sessionManager.restoreAllSessionsIfNecessary();
         assertEquals(mockSession, sessionManager.getActiveSession());
     }
@@ -109,57 +124,107 @@ public class PersistedSessionManagerTest {
     @Test
     public void testRestoreSession_multipleSavedSessions() {
         // Set up test by creating and serializing some test TwitterSessions.
-        final SharedPreferences.Editor editor = preferenceStore.edit();
         final TwitterSession[] sessions = new TwitterSession[]{
                 new TwitterSession(new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
                         TestFixtures.USER_ID, TestFixtures.SCREEN_NAME),
                 new TwitterSession(new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
                         TestFixtures.USER_ID + 1, TestFixtures.SCREEN_NAME + "1")
         };
-        final TwitterSession.Serializer serializer = new TwitterSession.Serializer();
-        final PersistedSessionManager<TwitterSession> localSessionManager =
-                new PersistedSessionManager<>(preferenceStore,
-                        serializer, sessionMap, storageMap, mockActiveSessionStorage,
-                        PREF_KEY_SESSION);
+        final SessionStore<TwitterSession> sessionStore = createSessionStore();
         for (TwitterSession session : sessions) {
-            final String serializedObject = serializer.serialize(session);
-            editor.putString(localSessionManager.getPrefKey(session.getId()), serializedObject);
+            sessionStore.save(session.getId(), session, false);
         }
-        preferenceStore.save(editor);
 
+        final PersistedSessionManager<TwitterSession> localSessionManager =
+                createStoredSessionManager();
         localSessionManager.restoreAllSessionsIfNecessary();
-        assertMapSizes(sessions.length);
+        assertEquals(sessions.length, sessionMap.size());
         for (TwitterSession session : sessions) {
             assertEquals(session, localSessionManager.getSession(session.getId()));
         }
     }
 
+    @Test
+    public void testRestoreSession_legacySessions() {
+        final TwitterSession session = new TwitterSession(
+                new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
+                TestFixtures.USER_ID, TestFixtures.SCREEN_NAME);
+        final SharedPreferences.Editor editor = preferenceStore.edit();
+        final TwitterSession.Serializer serializer = new TwitterSession.Serializer();
+        editor.putString(PREF_KEY_ACTIVE_SESSION, serializer.serialize(session));
+        editor.putString(createSessionStore().getPrefKey(session.getId()),
+                serializer.serialize(session));
+        preferenceStore.save(editor);
+
+        final PersistedSessionManager<TwitterSession> localSessionManager =
+                createStoredSessionManager();
+        assertEquals(session, localSessionManager.getActiveSession());
+        assertEquals(1, sessionMap.size());
+    }
+
     @Test
     public void testRestoreSession_invalidPreferenceKey() {
         final SharedPreferences.Editor editor = preferenceStore.edit();
         editor.putString(PREF_RANDOM_KEY, "random value");
         preferenceStore.save(editor);
 
-        sessionManager.restoreAllSessionsIfNecessary();
-        assertMapSizes(0);
+        createStoredSessionManager().restoreAllSessionsIfNecessary();
+        assertEquals(0, sessionMap.size());
     }
 
     @Test
     public void testRestoreSession_multipleRestoreCalls() throws Exception {
         final TwitterSession mockSession = mock(TwitterSession.class);
-        when(mockActiveSessionStorage.restore()).thenReturn(mockSession);
+        setUpRestoredActiveSession(mockSession);
 
         assertEquals(mockSession, sessionManager.getActiveSession());
         sessionManager.restoreAllSessionsIfNecessary();
 
         // restore should only be called once.
-        verify(mockActiveSessionStorage).restore();
+        verify(mockSessionStore).restore();
+    }
+
+    @Test
+    public void testRestoreSession_doesNotSaveRestoredSession() {
+        final TwitterSession mockSession = mock(TwitterSession.class);
+        setUpRestoredActiveSession(mockSession);
+        sessionManager.restoreAllSessionsIfNecessary();
+        verify(mockSessionStore, never()).save(anyLong(), any(TwitterSession.class),
+                anyBoolean());
+        verify(mockSessionStore, never()).setActiveSession(anyLong());
+    }
+
+    @Test
+    public void testRestoreSession_noStoredActiveSession() {
+        final TwitterSession mockSession = mock(TwitterSession.class);
+        when(mockSession.getId()).thenReturn(TEST_SESSION_ID);
+        setUpRestoredContents(Collections.singletonMap(TEST_SESSION_ID, mockSession), null);
+
+        assertEquals(mockSession, sessionManager.getActiveSession());
+        // The restored session which became active is stored as active
+        verify(mockSessionStore).setActiveSession(TEST_SESSION_ID);
+        verify(mockSessionStore, never()).save(anyLong(), any(TwitterSession.class),
+                anyBoolean());
+    }
+
+    @Test
+    public void testRestoreSession_noStoredActiveSessionPersisted() {
+        final TwitterSession session = new TwitterSession(
+                new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
+                TestFixtures.USER_ID, TestFixtures.SCREEN_NAME);
+        createSessionStore().save(session.getId(), session, false);
+
+        assertEquals(session, createStoredSessionManager().getActiveSession());
+
+        // Restoring again, as after a restart, finds the same session stored as active
+        final SessionStore.Contents<TwitterSession> contents = createSessionStore().restore();
+        assertEquals(session, contents.activeSession);
     }
 
     @Test
     public void testRestoreSession_afterActiveSessionSetExternally() throws Exception {
         final TwitterSession mockRestoredSession = mock(TwitterSession.class);
-        when(mockActiveSessionStorage.restore()).thenReturn(mockRestoredSession);
+        setUpRestoredActiveSession(mockRestoredSession);
 
         final TwitterSession mockActiveSession = mock(TwitterSession.class);
         sessionManager.setActiveSession(mockActiveSession);
@@ -171,11 +236,11 @@ public class PersistedSessionManagerTest {
     @Test
     public void testGetActiveSession_restoredSession() {
         final TwitterSession mockRestoredSession = mock(TwitterSession.class);
-        when(mockActiveSessionStorage.restore()).thenReturn(mockRestoredSession);
+        setUpRestoredActiveSession(mockRestoredSession);
 
         final TwitterSession activeSession = sessionManager.getActiveSession();
         assertEquals(mockRestoredSession, activeSession);
-        verify(mockActiveSessionStorage).restore();
+        verify(mockSessionStore).restore();
     }
 
     @Test
@@ -209,44 +274,51 @@ public class PersistedSessionManagerTest {
     @Test
     public void testSetActiveSession_validSession() {
         final TwitterSession session = setupActiveSessionTest();
-        final int numSessionsThisTest = 1;
-        assertMapSizes(numSessionsThisTest);
+        assertEquals(1, sessionMap.size());
 
-        verify(mockActiveSessionStorage).save(session);
+        verify(mockSessionStore).save(TEST_SESSION_ID, session, true);
         assertEquals(session, sessionManager.getActiveSession());
         assertEquals(session, sessionManager.getSession(session.getId()));
     }
 
-    private void assertMapSizes(int count) {
-        assertEquals(count, sessionMap.size());
-        assertEquals(count, storageMap.size());
-    }
-
     @Test
     public void testSetActiveSession_differentSession() {
         final TwitterSession session = setupActiveSessionTest();
-        int numSessionsThisTest = 1;
-        assertMapSizes(numSessionsThisTest);
-        verify(mockActiveSessionStorage).save(session);
+        assertEquals(1, sessionMap.size());
+        verify(mockSessionStore).save(TEST_SESSION_ID, session, true);
         assertEquals(session, sessionManager.getActiveSession());
 
         final TwitterSession session2 = mock(TwitterSession.class);
         final long differentSessionId = session.getId() + 1;
         when(session2.getId()).thenReturn(differentSessionId);
         sessionManager.setActiveSession(session2);
-        numSessionsThisTest++;
-        assertMapSizes(numSessionsThisTest);
-        verify(mockActiveSessionStorage).save(session2);
+        assertEquals(2, sessionMap.size());
+        verify(mockSessionStore).save(differentSessionId, session2, true);
         assertNotSame(session, session2);
         assertEquals(session2, sessionManager.getActiveSession());
     }
 
+    @Test
+    public void testSetActiveSession_stored() {
+        final PersistedSessionManager<TwitterSession> localSessionManager =
+                createStoredSessionManager();
+        final TwitterSession session = new TwitterSession(
+                new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
+                TestFixtures.USER_ID, TestFixtures.SCREEN_NAME);
+        localSessionManager.setActiveSession(session);
+
+        final Map<String, ?> preferences = preferenceStore.get().getAll();
+        assertEquals(1, preferences.size());
+        assertTrue(preferences.containsKey(createSessionStore().getStoreKey()));
+        assertEquals(session, createSessionStore().restore().activeSession);
+    }
+
     @Test
     public void testClearActiveSession() {
         setupActiveSessionTest();
         sessionManager.clearActiveSession();
-        assertMapSizes(0);
-        verify(mockActiveSessionStorage).clear();
+        assertEquals(0, sessionMap.size());
+        verify(mockSessionStore).clear(TEST_SESSION_ID);
         assertNull(sessionManager.getActiveSession());
     }
 
@@ -309,11 +381,10 @@ public class PersistedSessionManagerTest {
         final TwitterSession session = mock(TwitterSession.class);
         when(session.getId()).thenReturn(TEST_SESSION_ID);
         sessionManager.setSession(TEST_SESSION_ID, session);
-        final int numSessionsThisTest = 1;
-        assertMapSizes(numSessionsThisTest);
+        assertEquals(1, sessionMap.size());
         // Verify that when setSession is called and there is no active session, the specified
         // session becomes the active session.
-        verify(mockActiveSessionStorage).save(session);
+        verify(mockSessionStore).save(TEST_SESSION_ID, session, true);
         assertEquals(session, sessionManager.getSession(TEST_SESSION_ID));
         assertEquals(session, sessionManager.getActiveSession());
     }
@@ -322,7 +393,7 @@ public class PersistedSessionManagerTest {
     public void testSetSession_multipleSessions() {
         final int count = 2;
         final List<TwitterSession> sessions = setupMultipleSessionsTest(count);
-        assertMapSizes(count);
+        assertEquals(count, sessionMap.size());
 
         for (int i = 0; i < count; i++) {
             final TwitterSession session = sessions.get(i);
@@ -330,6 +401,8 @@ public class PersistedSessionManagerTest {
         }
         // Verify that the first session is still the active session.
         assertEquals(sessions.get(0), sessionManager.getActiveSession());
+        verify(mockSessionStore).save(0L, sessions.get(0), true);
+        verify(mockSessionStore).save(1L, sessions.get(1), false);
     }
 
     @Test
@@ -341,19 +414,31 @@ public class PersistedSessionManagerTest {
         sessionManager.setSession(sessionId, session);
         assertEquals(session, sessionManager.getSession(sessionId));
         assertEquals(session, sessionManager.getActiveSession());
-        assertMapSizes(1);
+        assertEquals(1, sessionMap.size());
 
         final TwitterSession sessionWithDifferentUserName = new TwitterSession(authToken, sessionId,
                 "differentUserName");
         sessionManager.setSession(sessionId, sessionWithDifferentUserName);
         assertEquals(sessionWithDifferentUserName, sessionManager.getSession(sessionId));
         assertEquals(sessionWithDifferentUserName, sessionManager.getActiveSession());
-        assertMapSizes(1);
+        assertEquals(1, sessionMap.size());
+        verify(mockSessionStore).save(sessionId, sessionWithDifferentUserName, true);
+    }
+
+    @Test
+    public void testSetSession_unchangedSessionNotSavedAgain() {
+        final TwitterSession session = new TwitterSession(mock(TwitterAuthToken.class),
+                TestFixtures.USER_ID, TestFixtures.SCREEN_NAME);
+        sessionManager.setSession(session.getId(), session);
+        sessionManager.setSession(session.getId(), session);
+        verify(mockSessionStore, times(1)).save(anyLong(), any(TwitterSession.class),
+                anyBoolean());
     }
 
     @Test
     public void testSetSession_beforeRestoreSession() {
-        final TwitterAuthToken authToken = mock(TwitterAuthToken.class);
+        final TwitterAuthToken authToken = new TwitterAuthToken(TestFixtures.TOKEN,
+                TestFixtures.SECRET);
 
         final TwitterSession newSession = new TwitterSession(authToken, TestFixtures.USER_ID,
                 TestFixtures.SCREEN_NAME);
@@ -362,31 +447,41 @@ public class PersistedSessionManagerTest {
 
         setupSessionForRestore(restoredSession);
 
-        sessionManager.setSession(newSession.getId(), newSession);
-        sessionManager.restoreAllSessionsIfNecessary();
+        final PersistedSessionManager<TwitterSession> localSessionManager =
+                createStoredSessionManager();
+        localSessionManager.setSession(newSession.getId(), newSession);
+        localSessionManager.restoreAllSessionsIfNecessary();
 
         // We want to make sure that even if restore sessions is called after setSession.
         // session set in setSession will not be overwritten.
-        assertEquals(newSession, sessionManager.getSession(newSession.getId()));
+        assertEquals(newSession, localSessionManager.getSession(newSession.getId()));
     }
 
     private void setupSessionForRestore(final TwitterSession restoredSession) {
-        final SharedPreferences.Editor editor = preferenceStore.edit();
-        final TwitterSession.Serializer serializer = new TwitterSession.Serializer();
-        final String serializedObject = serializer.serialize(restoredSession);
-        editor.putString(sessionManager.getPrefKey(restoredSession.getId()), serializedObject);
-        editor.commit();
+        createSessionStore().save(restoredSession.getId(), restoredSession, false);
     }
 
     @Test
     public void testClearSession() {
         final TwitterSession session = setupActiveSessionTest();
         sessionManager.clearSession(session.getId());
-        assertMapSizes(0);
+        assertEquals(0, sessionMap.size());
+        verify(mockSessionStore).clear(session.getId());
         assertNull(sessionManager.getActiveSession());
         assertNull(sessionManager.getSession(session.getId()));
     }
 
+    @Test
+    public void testClearSession_notifiesListener() {
+        final PersistedSessionManager.ClearSessionListener mockListener =
+                mock(PersistedSessionManager.ClearSessionListener.class);
+        sessionManager.setClearSessionListener(mockListener);
+        final TwitterSession session = setupActiveSessionTest();
+
+        sessionManager.clearSession(session.getId());
+        verify(mockListener).onSessionCleared(session.getId());
+    }
+
     @Test
     public void testClearSession_noSessions() {
         try {
@@ -401,13 +496,13 @@ public class PersistedSessionManagerTest {
         final int count = 2;
         final List<TwitterSession> sessions = setupMultipleSessionsTest(count);
         int numSessionsThisTest = count;
-        assertMapSizes(numSessionsThisTest);
+        assertEquals(numSessionsThisTest, sessionMap.size());
 
         // Clear the first session
         final long firstSessionId = sessions.get(0).getId();
         sessionManager.clearSession(firstSessionId);
         numSessionsThisTest--;
-        assertMapSizes(numSessionsThisTest);
+        assertEquals(numSessionsThisTest, sessionMap.size());
         assertNull(sessionManager.getSession(firstSessionId));
         // Make sure the second session is still there
         final long secondSessionId = sessions.get(1).getId();
@@ -419,13 +514,13 @@ public class PersistedSessionManagerTest {
         final int count = 2;
         final List<TwitterSession> sessions = setupMultipleSessionsTest(count);
         int numSessionsThisTest = count;
-        assertMapSizes(numSessionsThisTest);
+        assertEquals(numSessionsThisTest, sessionMap.size());
 
         // Clear the second session
         final long secondSessionId = sessions.get(1).getId();
         sessionManager.clearSession(secondSessionId);
         numSessionsThisTest--;
-        assertMapSizes(numSessionsThisTest);
+        assertEquals(numSessionsThisTest, sessionMap.size());
         assertNull(sessionManager.getSession(secondSessionId));
         // Make sure the first session is still there
         final long firstSessionId = sessions.get(0).getId();
@@ -434,20 +529,18 @@ public class PersistedSessionManagerTest {
 
     @Test
     public void testClearSession_beforeRestoreSession() {
-        final TwitterSession restoredSession =
-                new TwitterSession(mock(TwitterAuthToken.class), TestFixtures.USER_ID,
-                        RESTORED_USER);
+        final TwitterSession restoredSession = new TwitterSession(
+                new TwitterAuthToken(TestFixtures.TOKEN, TestFixtures.SECRET),
+                TestFixtures.USER_ID, RESTORED_USER);
         setupSessionForRestore(restoredSession);
-        sessionManager.clearSession(TestFixtures.USER_ID);
-        sessionManager.restoreAllSessionsIfNecessary();
 
-        assertNull(sessionManager.getSession(TestFixtures.USER_ID));
-    }
+        final PersistedSessionManager<TwitterSession> localSessionManager =
+                createStoredSessionManager();
+        localSessionManager.clearSession(TestFixtures.USER_ID);
+        localSessionManager.restoreAllSessionsIfNecessary();
 
-    @Test
-    public void testGetPrefKey() {
-        assertEquals(PREF_KEY_SESSION + "_" + TEST_SESSION_ID,
-                sessionManager.getPrefKey(TEST_SESSION_ID));
+        assertNull(localSessionManager.getSession(TestFixtures.USER_ID));
+        assertNull(createSessionStore().restore().sessions.get(TestFixtures.USER_ID));
     }
 
     @Test
@@ -463,7 +556,7 @@ public class PersistedSessionManagerTest {
     @Test
     public void testGetSessionMap_restoresSessionsIfNecessary() {
         final TwitterSession mockSession = mock(TwitterSession.class);
-        when(mockActiveSessionStorage.restore()).thenReturn(mockSession);
+        setUpRestoredActiveSession(mockSession);
         sessionManager.getSessionMap();
         assertEquals(mockSession, sessionManager.getActiveSession());
     }
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import retrofit.client.Header;
+import retrofit.client.Request;
+import retrofit.client.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class RetryPolicyTest {
+    static final String ANY_URL = "testurl";
+    static final int MAX_RETRIES = 2;
+    static final long BASE_DELAY_MS = 100L;
+    static final long DEADLINE_MS = 5000L;
+
+    private RetryPolicy retryPolicy;
+    private Request getRequest;
+    private Request postRequest;
+
+    @Before
+    public void setUp() throws Exception {
+        final Random random = mock(Random.class);
+        when(random.nextDouble()).thenReturn(0.5);
+        retryPolicy = new RetryPolicy(MAX_RETRIES, BASE_DELAY_MS, DEADLINE_MS, random);
+        getRequest = new Request("GET", ANY_URL, null, null);
+        postRequest = new Request("POST", ANY_URL, null, null);
+    }
+
+    private Response createResponse(int status, List<Header> headers) {
+        return new Response(ANY_URL, status, "", headers, null);
+    }
+
+    @Test
+    public void testIsIdempotent() {
+        assertTrue(RetryPolicy.isIdempotent(getRequest));
+        assertTrue(RetryPolicy.isIdempotent(new Request("head", ANY_URL, null, null)));
+        assertFalse(RetryPolicy.isIdempotent(postRequest));
+    }
+
+    @Test
+    public void testGetBackoffMs() {
+        assertEquals(75L, retryPolicy.getBackoffMs(0));
+        assertEquals(150L, retryPolicy.getBackoffMs(1));
+        assertEquals(300L, retryPolicy.getBackoffMs(2));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_networkError() {
+        assertEquals(75L, retryPolicy.getRetryDelayMs(getRequest, null, 0, 0));
+        assertEquals(150L, retryPolicy.getRetryDelayMs(getRequest, null, 1, 0));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_serverError() {
+        final Response response = createResponse(503, Collections.<Header>emptyList());
+        assertEquals(75L, retryPolicy.getRetryDelayMs(getRequest, response, 0, 0));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_clientError() {
+        final Response response = createResponse(404, Collections.<Header>emptyList());
+        assertEquals(RetryPolicy.NO_RETRY,
+                retryPolicy.getRetryDelayMs(getRequest, response, 0, 0));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_nonIdempotentRequest() {
+        assertEquals(RetryPolicy.NO_RETRY, retryPolicy.getRetryDelayMs(postRequest, null, 0, 0));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_maxRetries() {
+        assertEquals(RetryPolicy.NO_RETRY,
+                retryPolicy.getRetryDelayMs(getRequest, null, MAX_RETRIES, 0));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_pastDeadline() {
+        assertEquals(RetryPolicy.NO_RETRY,
+                retryPolicy.getRetryDelayMs(getRequest, null, 0, DEADLINE_MS));
+    }
+
+    @Test
+    public void testGetRetryDelayMs_rateLimitWaitsForReset() {
+        final long reset = System.currentTimeMillis() / 1000L + 2;
+        final List<Header> headers = new ArrayList<>();
+        headers.add(new Header("x-rate-limit-reset", Long.toString(reset)));
+        final long delayMs = retryPolicy.getRetryDelayMs(getRequest, createResponse(429, headers),
+                0, 0);
+        assertTrue(delayMs >= 1000L && delayMs <= 2000L);
+    }
+
+    @Test
+    public void testGetRetryDelayMs_rateLimitResetPastDeadline() {
+        final long reset = System.currentTimeMillis() / 1000L + 60;
+        final List<Header> headers = new ArrayList<>();
+        headers.add(new Header("x-rate-limit-reset", Long.toString(reset)));
+        assertEquals(RetryPolicy.NO_RETRY,
+                retryPolicy.getRetryDelayMs(getRequest, createResponse(429, headers), 0, 0));
+    }
+}
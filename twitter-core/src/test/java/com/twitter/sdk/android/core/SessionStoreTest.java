@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core;
+
+import android.content.SharedPreferences;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import io.fabric.sdk.android.services.persistence.PreferenceStore;
+import io.fabric.sdk.android.services.persistence.PreferenceStoreImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class SessionStoreTest {
+    private static final String PREF_KEY_ACTIVE_SESSION = "active_session";
+    private static final String PREF_KEY_SESSION = "session";
+    private static final String PREF_RANDOM_KEY = "random_key";
+
+    private PreferenceStore preferenceStore;
+    private TwitterSession.Serializer serializer;
+    private List<Runnable> writes;
+    private SessionStore<TwitterSession> sessionStore;
+    private TwitterSession session;
+    private TwitterSession otherSession;
+
+    @Before
+    public void setUp() throws Exception {
+        preferenceStore = new PreferenceStoreImpl(RuntimeEnvironment.application,
+                "testSessionStore");
+        serializer = new TwitterSession.Serializer();
+        writes = new ArrayList<>();
+        sessionStore = createSessionStore();
+        session = new TwitterSession(new TwitterAuthToken(TestFixtures.TOKEN,
+                TestFixtures.SECRET), TestFixtures.USER_ID, TestFixtures.SCREEN_NAME);
+        otherSession = new TwitterSession(new TwitterAuthToken(TestFixtures.TOKEN,
+                TestFixtures.SECRET), TestFixtures.USER_ID + 1, TestFixtures.SCREEN_NAME + "1");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        preferenceStore.edit().clear().commit();
+    }
+
+    private SessionStore<TwitterSession> createSessionStore() {
+        return new SessionStore<>(preferenceStore, serializer, PREF_KEY_ACTIVE_SESSION,
+                PREF_KEY_SESSION, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        writes.add(command);
+                    }
+                });
+    }
+
+    private void runWrites() {
+        final List<Runnable> pending = new ArrayList<>(writes);
+        writes.clear();
+        for (Runnable write : pending) {
+            write.run();
+        }
+    }
+
+    @Test
+    public void testIsSessionPreferenceKey_validKey() {
+        assertTrue(sessionStore.isSessionPreferenceKey(
+                PREF_KEY_SESSION + "_" + TestFixtures.USER_ID));
+    }
+
+    @Test
+    public void testIsSessionPreferenceKey_invalidKey() {
+        assertFalse(sessionStore.isSessionPreferenceKey(PREF_RANDOM_KEY));
+    }
+
+    @Test
+    public void testIsSessionPreferenceKey_storeKey() {
+        assertFalse(sessionStore.isSessionPreferenceKey(sessionStore.getStoreKey()));
+    }
+
+    @Test
+    public void testGetPrefKey() {
+        assertEquals(PREF_KEY_SESSION + "_" + TestFixtures.USER_ID,
+                sessionStore.getPrefKey(TestFixtures.USER_ID));
+    }
+
+    @Test
+    public void testRestore_empty() {
+        final SessionStore.Contents<TwitterSession> contents = sessionStore.restore();
+        assertTrue(contents.sessions.isEmpty());
+        assertNull(contents.activeSession);
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    public void testSaveAndRestore() {
+        sessionStore.save(session.getId(), session, true);
+        sessionStore.save(otherSession.getId(), otherSession, false);
+        runWrites();
+
+        final Map<String, ?> preferences = preferenceStore.get().getAll();
+        assertEquals(1, preferences.size());
+        final String storeJson = (String) preferences.get(sessionStore.getStoreKey());
+        assertTrue(storeJson.contains("\"version\":" + SessionStore.VERSION));
+
+        final SessionStore.Contents<TwitterSession> contents = createSessionStore().restore();
+        assertEquals(2, contents.sessions.size());
+        assertEquals(session, contents.sessions.get(session.getId()));
+        assertEquals(otherSession, contents.sessions.get(otherSession.getId()));
+        assertEquals(session, contents.activeSession);
+    }
+
+    @Test
+    public void testSave_coalescesPendingWrites() {
+        sessionStore.save(session.getId(), session, true);
+        sessionStore.save(otherSession.getId(), otherSession, false);
+        sessionStore.setActiveSession(otherSession.getId());
+        assertEquals(1, writes.size());
+        assertNull(preferenceStore.get().getString(sessionStore.getStoreKey(), null));
+
+        runWrites();
+        final SessionStore.Contents<TwitterSession> contents = createSessionStore().restore();
+        assertEquals(2, contents.sessions.size());
+        assertEquals(otherSession, contents.activeSession);
+
+        // Updates after the write schedule the next one
+        sessionStore.clear(otherSession.getId());
+        assertEquals(1, writes.size());
+    }
+
+    @Test
+    public void testWrite_commitsSynchronously() {
+        final PreferenceStore mockPreferenceStore = mock(PreferenceStore.class);
+        final SharedPreferences.Editor editor = mock(SharedPreferences.Editor.class);
+        when(mockPreferenceStore.edit()).thenReturn(editor);
+        when(editor.putString(anyString(), anyString())).thenReturn(editor);
+        when(editor.commit()).thenReturn(true);
+        final SessionStore<TwitterSession> store = new SessionStore<>(mockPreferenceStore,
+                serializer, PREF_KEY_ACTIVE_SESSION, PREF_KEY_SESSION, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        command.run();
+                    }
+                });
+
+        store.save(session.getId(), session, true);
+
+        verify(editor).putString(eq(store.getStoreKey()), anyString());
+        verify(editor).commit();
+        verify(editor, never()).apply();
+        verify(mockPreferenceStore, never()).save(any(SharedPreferences.Editor.class));
+    }
+
+    @Test
+    public void testSetActiveSession_unknownSession() {
+        sessionStore.setActiveSession(session.getId());
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    public void testClear() {
+        sessionStore.save(session.getId(), session, true);
+        sessionStore.save(otherSession.getId(), otherSession, false);
+        sessionStore.clear(session.getId());
+        runWrites();
+
+        final SessionStore.Contents<TwitterSession> contents = createSessionStore().restore();
+        assertEquals(1, contents.sessions.size());
+        assertEquals(otherSession, contents.sessions.get(otherSession.getId()));
+        assertNull(contents.activeSession);
+    }
+
+    @Test
+    public void testClear_unknownSession() {
+        sessionStore.clear(session.getId());
+        assertTrue(writes.isEmpty());
+    }
+
+    @Test
+    public void testRestore_migratesLegacySessions() {
+        final SharedPreferences.Editor editor = preferenceStore.edit();
+        editor.putString(PREF_KEY_ACTIVE_SESSION, serializer.serialize(otherSession));
+        editor.putString(sessionStore.getPrefKey(session.getId()), serializer.serialize(session));
+        editor.putString(sessionStore.getPrefKey(otherSession.getId()),
+                serializer.serialize(otherSession));
+        editor.putString(PREF_RANDOM_KEY, "random value");
+        preferenceStore.save(editor);
+
+        SessionStore.Contents<TwitterSession> contents = sessionStore.restore();
+        assertEquals(2, contents.sessions.size());
+        assertEquals(otherSession, contents.activeSession);
+
+        // The legacy keys are kept next to the store entry for rollbacks
+        final Map<String, ?> preferences = preferenceStore.get().getAll();
+        assertEquals(5, preferences.size());
+        assertTrue(preferences.containsKey(sessionStore.getStoreKey()));
+        assertTrue(preferences.containsKey(PREF_KEY_ACTIVE_SESSION));
+        assertTrue(preferences.containsKey(sessionStore.getPrefKey(session.getId())));
+        assertTrue(preferences.containsKey(sessionStore.getPrefKey(otherSession.getId())));
+        assertTrue(preferences.containsKey(PREF_RANDOM_KEY));
+
+        contents = createSessionStore().restore();
+        assertEquals(2, contents.sessions.size());
+        assertEquals(session, contents.sessions.get(session.getId()));
+        assertEquals(otherSession, contents.activeSession);
+    }
+
+    @Test
+    public void testClear_removesLegacySession() {
+        final SharedPreferences.Editor editor = preferenceStore.edit();
+        editor.putString(PREF_KEY_ACTIVE_SESSION, serializer.serialize(otherSession));
+        editor.putString(sessionStore.getPrefKey(session.getId()), serializer.serialize(session));
+        editor.putString(sessionStore.getPrefKey(otherSession.getId()),
+                serializer.serialize(otherSession));
+        preferenceStore.save(editor);
+        sessionStore.restore();
+
+        sessionStore.clear(session.getId());
+        runWrites();
+        Map<String, ?> preferences = preferenceStore.get().getAll();
+        assertFalse(preferences.containsKey(sessionStore.getPrefKey(session.getId())));
+        assertTrue(preferences.containsKey(sessionStore.getPrefKey(otherSession.getId())));
+        assertTrue(preferences.containsKey(PREF_KEY_ACTIVE_SESSION));
+
+        sessionStore.clear(otherSession.getId());
+        runWrites();
+        preferences = preferenceStore.get().getAll();
+        assertEquals(1, preferences.size());
+        assertTrue(preferences.containsKey(sessionStore.getStoreKey()));
+    }
+
+    @Test
+    public void testRestore_unsupportedVersion() {
+        final SharedPreferences.Editor editor = preferenceStore.edit();
+        editor.putString(sessionStore.getStoreKey(),
+                "{\"version\":" + (SessionStore.VERSION + 1) + ",\"sessions\":{}}");
+        preferenceStore.save(editor);
+
+        final SessionStore.Contents<TwitterSession> contents = sessionStore.restore();
+        assertTrue(contents.sessions.isEmpty());
+        assertNull(contents.activeSession);
+    }
+
+    @Test
+    public void testRestore_invalidEntry() {
+        final SharedPreferences.Editor editor = preferenceStore.edit();
+        editor.putString(sessionStore.getStoreKey(), "not json");
+        preferenceStore.save(editor);
+
+        final SessionStore.Contents<TwitterSession> contents = sessionStore.restore();
+        assertTrue(contents.sessions.isEmpty());
+        assertNull(contents.activeSession);
+    }
+}
@@ -145,6 +145,50 @@ public class AuthRequestQueueTest {
         verify(mockRequest, times(1)).success(any(Result.class));
     }
 
+    @Test
+    public void testAddRequest_expiringGuestTokenRefreshesOnce() {
+        final AppSession appSession = mock(AppSession.class);
+        when(appSession.getAuthToken()).thenReturn(mockGuestAuthToken);
+        when(mockGuestAuthToken.isExpiring()).thenReturn(true);
+        final AuthRequestQueue authRequestQueue = setupQueue(appSession);
+        authRequestQueue.awaitingSession.set(false);
+        authRequestQueue.addRequest(mockRequest);
+        authRequestQueue.addRequest(mockRequest);
+        // asserts that the expiring session still serves requests while a single replacement
+        // session is requested in the background
+        verify(mockRequest, times(2)).success(any(Result.class));
+        verify(mockSessionProvider, times(1)).requestAuth(any(Callback.class));
+        assertTrue(authRequestQueue.refreshingSession.get());
+        assertFalse(authRequestQueue.awaitingSession.get());
+    }
+
+    @Test
+    public void testPrewarm_noSession() {
+        final AuthRequestQueue authRequestQueue = setupQueue(null);
+        authRequestQueue.awaitingSession.set(false);
+        authRequestQueue.prewarm();
+        verify(mockSessionProvider, times(1)).requestAuth(any(Callback.class));
+        assertTrue(authRequestQueue.awaitingSession.get());
+    }
+
+    @Test
+    public void testPrewarm_validSession() {
+        final AppSession appSession = mock(AppSession.class);
+        when(appSession.getAuthToken()).thenReturn(mockGuestAuthToken);
+        final AuthRequestQueue authRequestQueue = setupQueue(appSession);
+        authRequestQueue.awaitingSession.set(false);
+        authRequestQueue.prewarm();
+        verify(mockSessionProvider, times(0)).requestAuth(any(Callback.class));
+        assertFalse(authRequestQueue.awaitingSession.get());
+    }
+
+    @Test
+    public void testPrewarm_awaitingSession() {
+        final AuthRequestQueue authRequestQueue = setupQueue(null);
+        authRequestQueue.prewarm();
+        verify(mockSessionProvider, times(0)).requestAuth(any(Callback.class));
+    }
+
     /*
      * Test flushQueueOnSuccess
      */
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.BuildConfig;
+import com.twitter.sdk.android.core.Callback;
+import com.twitter.sdk.android.core.Result;
+import com.twitter.sdk.android.core.TwitterApiException;
+import com.twitter.sdk.android.core.TwitterException;
+import com.twitter.sdk.android.core.models.Media;
+import com.twitter.sdk.android.core.services.MediaService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric.sdk.android.services.persistence.PersistenceStrategy;
+import retrofit.RetrofitError;
+import retrofit.client.Header;
+import retrofit.client.Response;
+import retrofit.mime.TypedFile;
+import retrofit.mime.TypedOutput;
+import retrofit.mime.TypedString;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ChunkedUploaderTest {
+    private static final int TEST_CHUNK_SIZE = 4;
+    private static final byte[] TEST_CONTENT = "0123456789".getBytes();
+    private static final String TEST_MIME_TYPE = "image/png";
+    private static final long TEST_MEDIA_ID = 123L;
+    private static final long TEST_EXPIRES_AFTER_SECS = 3600;
+    private static final String TEST_URL = "https://upload.twitter.com/1.1/media/upload.json";
+
+    private File file;
+    private FakeMediaService mediaService;
+    private InMemorySessionStore sessionStore;
+    private RecordingCallback callback;
+    private ChunkedUploader uploader;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("upload", ".png");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(TEST_CONTENT);
+        } finally {
+            out.close();
+        }
+        mediaService = new FakeMediaService();
+        sessionStore = new InMemorySessionStore();
+        callback = new RecordingCallback();
+        uploader = new ChunkedUploader(mediaService, sessionStore, TEST_CHUNK_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void testUpload() {
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+
+        assertNotNull(callback.media);
+        assertEquals(TEST_MEDIA_ID, callback.media.mediaId);
+        assertArrayEquals(TEST_CONTENT, mediaService.received.toByteArray());
+        assertEquals(TEST_MIME_TYPE, mediaService.mediaType);
+        assertEquals(1, mediaService.initCount);
+        assertEquals(3, mediaService.appendCount);
+        assertNull(sessionStore.restore());
+    }
+
+    @Test
+    public void testUpload_resumesAfterNetworkError() {
+        mediaService.failSegment = 1;
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+
+        assertNotNull(callback.exception);
+        assertEquals(1, sessionStore.restore().nextSegment);
+
+        mediaService.failSegment = -1;
+        callback = new RecordingCallback();
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+
+        assertNotNull(callback.media);
+        assertArrayEquals(TEST_CONTENT, mediaService.received.toByteArray());
+        // segment 0 is not sent again, segment 1 is sent twice
+        assertEquals(1, mediaService.initCount);
+        assertEquals(4, mediaService.appendCount);
+        assertNull(sessionStore.restore());
+    }
+
+    @Test
+    public void testUpload_rejectedSessionIsCleared() {
+        mediaService.failSegment = 1;
+        mediaService.failStatus = 400;
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+
+        assertNotNull(callback.exception);
+        assertNull(sessionStore.restore());
+    }
+
+    @Test
+    public void testUpload_fileChanged() {
+        sessionStore.save(new UploadSession(TEST_MEDIA_ID, file.getAbsolutePath(),
+                TEST_CONTENT.length + 1, file.lastModified(), 1, getFutureTime()));
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+
+        assertNotNull(callback.media);
+        assertEquals(1, mediaService.initCount);
+        assertArrayEquals(TEST_CONTENT, mediaService.received.toByteArray());
+    }
+
+    @Test
+    public void testUpload_sessionExpired() {
+        sessionStore.save(new UploadSession(TEST_MEDIA_ID, file.getAbsolutePath(),
+                file.length(), file.lastModified(), 1, System.currentTimeMillis() - 1));
+        uploader.upload(file, TEST_MIME_TYPE, callback);
+
+        assertNotNull(callback.media);
+        assertEquals(1, mediaService.initCount);
+        assertArrayEquals(TEST_CONTENT, mediaService.received.toByteArray());
+    }
+
+    @Test
+    public void testIsRejected() {
+        assertFalse(ChunkedUploader.isRejected(new TwitterException("")));
+        assertFalse(ChunkedUploader.isRejected(createException(-1)));
+        assertFalse(ChunkedUploader.isRejected(createException(503)));
+        assertTrue(ChunkedUploader.isRejected(createException(404)));
+    }
+
+    @Test
+    public void testSerializer() {
+        final UploadSession.Serializer serializer = new UploadSession.Serializer();
+        final UploadSession session = new UploadSession(TEST_MEDIA_ID, file.getAbsolutePath(),
+                file.length(), file.lastModified(), 2, getFutureTime());
+        final UploadSession restored = serializer.deserialize(serializer.serialize(session));
+
+        assertEquals(session.mediaId, restored.mediaId);
+        assertEquals(session.path, restored.path);
+        assertEquals(session.length, restored.length);
+        assertEquals(session.lastModified, restored.lastModified);
+        assertEquals(session.nextSegment, restored.nextSegment);
+        assertEquals(session.expiresAt, restored.expiresAt);
+        assertNull(serializer.deserialize(""));
+    }
+
+    private static long getFutureTime() {
+        return System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+    }
+
+    /**
+     * @param status HTTP status, or -1 for a network error
+     */
+    static TwitterApiException createException(int status) {
+        if (status == -1) {
+            return TwitterApiException.convert(
+                    RetrofitError.networkError(TEST_URL, new IOException()));
+        }
+        final Response response = new Response(TEST_URL, status, "",
+                Collections.<Header>emptyList(), null);
+        return TwitterApiException.convert(
+                RetrofitError.httpError(TEST_URL, response, null, null));
+    }
+
+    /**
+     * Stand-in for the upload server which keeps the appended bytes in memory and checks that
+     * segments arrive in order.
+     */
+    static class FakeMediaService implements MediaService {
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        String mediaType;
+        int initCount;
+        int appendCount;
+        int expectedSegment;
+        int failSegment = -1;
+        int failStatus = -1;
+
+        @Override
+        public void upload(TypedFile media, TypedFile mediaData, TypedString additionalOwners,
+                Callback<Media> cb) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void uploadInit(long totalBytes, String mediaType, Callback<Media> cb) {
+            initCount++;
+            this.mediaType = mediaType;
+            received.reset();
+            expectedSegment = 0;
+            cb.success(new Result<>(new Media(TEST_MEDIA_ID, Long.toString(TEST_MEDIA_ID), 0,
+                    null, TEST_EXPIRES_AFTER_SECS), null));
+        }
+
+        @Override
+        public void uploadAppend(TypedString mediaId, TypedString segmentIndex,
+                TypedOutput media, Callback<Response> cb) {
+            appendCount++;
+            final int segment = Integer.parseInt(asString(segmentIndex));
+            if (segment == failSegment) {
+                cb.failure(createException(failStatus));
+                return;
+            }
+            assertEquals(Long.toString(TEST_MEDIA_ID), asString(mediaId));
+            assertEquals(expectedSegment, segment);
+            try {
+                media.writeTo(received);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+            expectedSegment++;
+            cb.success(new Result<Response>(null, null));
+        }
+
+        @Override
+        public void uploadFinalize(long mediaId, Callback<Media> cb) {
+            assertEquals(TEST_MEDIA_ID, mediaId);
+            cb.success(new Result<>(new Media(mediaId, Long.toString(mediaId),
+                    received.size(), null), null));
+        }
+
+        private static String asString(TypedString typedString) {
+            return new String(typedString.getBytes());
+        }
+    }
+
+    static class InMemorySessionStore implements PersistenceStrategy<UploadSession> {
+        private UploadSession session;
+
+        @Override
+        public void save(UploadSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public UploadSession restore() {
+            return session;
+        }
+
+        @Override
+        public void clear() {
+            session = null;
+        }
+    }
+
+    static class RecordingCallback extends Callback<Media> {
+        Media media;
+        TwitterException exception;
+
+        @Override
+        public void success(Result<Media> result) {
+            media = result.data;
+        }
+
+        @Override
+        public void failure(TwitterException exception) {
+            this.exception = exception;
+        }
+    }
+}
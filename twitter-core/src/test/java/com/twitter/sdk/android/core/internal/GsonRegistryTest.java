@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.google.gson.Gson;
+import com.twitter.sdk.android.core.BuildConfig;
+import com.twitter.sdk.android.core.models.FieldProjection;
+import com.twitter.sdk.android.core.models.Tweet;
+import com.twitter.sdk.android.core.models.UserPool;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class GsonRegistryTest {
+
+    @Test
+    public void testGetDefaultGson_sharedInstance() {
+        assertSame(GsonRegistry.getDefaultGson(), GsonRegistry.getDefaultGson());
+    }
+
+    @Test
+    public void testGetScribeGson_usesUnderscoreNaming() {
+        final String json = GsonRegistry.getScribeGson().toJson(new NamingTest());
+        assertEquals("{\"camel_case\":1}", json);
+    }
+
+    @Test
+    public void testGetApiGson_sameConfiguration() {
+        final UserPool userPool = new UserPool(10);
+        assertSame(GsonRegistry.getApiGson(FieldProjection.ALL, userPool),
+                GsonRegistry.getApiGson(FieldProjection.ALL, userPool));
+    }
+
+    @Test
+    public void testGetApiGson_differentUserPool() {
+        assertNotSame(GsonRegistry.getApiGson(FieldProjection.ALL, new UserPool(10)),
+                GsonRegistry.getApiGson(FieldProjection.ALL, new UserPool(10)));
+    }
+
+    @Test
+    public void testGetApiGson_bounded() {
+        final UserPool userPool = new UserPool(10);
+        final Gson first = GsonRegistry.getApiGson(FieldProjection.ALL, userPool);
+        for (int i = 0; i < GsonRegistry.MAX_API_GSONS; i++) {
+            GsonRegistry.getApiGson(FieldProjection.ALL, new UserPool(10));
+        }
+
+        assertEquals(GsonRegistry.MAX_API_GSONS, GsonRegistry.getApiGsonCount());
+        // the least recently used instance was evicted
+        assertNotSame(first, GsonRegistry.getApiGson(FieldProjection.ALL, userPool));
+    }
+
+    @Test
+    public void testGetApiGson_parsesTweets() {
+        final Gson gson = GsonRegistry.getApiGson(FieldProjection.ALL, null);
+        final Tweet tweet = gson.fromJson("{\"id\":123,\"text\":\"hello\"}", Tweet.class);
+        assertEquals(123L, tweet.id);
+        assertEquals("hello", tweet.text);
+    }
+
+    @Test
+    public void testWarmUp() {
+        GsonRegistry.warmUp(null);
+        assertSame(GsonRegistry.getApiGson(FieldProjection.ALL, null),
+                GsonRegistry.getApiGson(FieldProjection.ALL, null));
+    }
+
+    static class NamingTest {
+        int camelCase = 1;
+    }
+}
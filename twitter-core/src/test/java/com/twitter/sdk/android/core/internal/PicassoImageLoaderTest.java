@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import com.squareup.picasso.Callback;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+import com.twitter.sdk.android.core.BuildConfig;
+import com.twitter.sdk.android.core.ImageLoader;
+import com.twitter.sdk.android.core.ImageRequest;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PicassoImageLoaderTest {
+    static final float MAX_DELTA = 0.01f;
+    static final String TEST_URL = "https://pbs.twimg.com/media/test.jpg";
+    static final int TEST_RESOURCE_ID = 1;
+    static final Object TEST_TAG = new Object();
+
+    private Picasso mockPicasso;
+    private RequestCreator mockRequestCreator;
+    private PicassoImageLoader imageLoader;
+
+    @Before
+    public void setUp() throws Exception {
+        mockPicasso = mock(Picasso.class);
+        mockRequestCreator = mock(RequestCreator.class);
+        when(mockPicasso.load(anyString())).thenReturn(mockRequestCreator);
+        when(mockPicasso.load(anyInt())).thenReturn(mockRequestCreator);
+        imageLoader = new PicassoImageLoader(mockPicasso);
+    }
+
+    @Test
+    public void testConstructor_nullPicasso() {
+        try {
+            new PicassoImageLoader(null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Picasso must not be null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCreateRequest_url() {
+        final Drawable placeholder = mock(Drawable.class);
+        imageLoader.createRequest(new ImageRequest.Builder()
+                .setUrl(TEST_URL)
+                .setPlaceholder(placeholder)
+                .fit()
+                .centerCrop()
+                .setTag(TEST_TAG)
+                .build());
+
+        verify(mockPicasso).load(TEST_URL);
+        verify(mockRequestCreator).placeholder(placeholder);
+        verify(mockRequestCreator).fit();
+        verify(mockRequestCreator).centerCrop();
+        verify(mockRequestCreator).tag(TEST_TAG);
+        verify(mockRequestCreator, never()).resize(anyInt(), anyInt());
+    }
+
+    @Test
+    public void testCreateRequest_resource() {
+        imageLoader.createRequest(new ImageRequest.Builder()
+                .setResourceId(TEST_RESOURCE_ID)
+                .resize(100, 50)
+                .build());
+
+        verify(mockPicasso).load(TEST_RESOURCE_ID);
+        verify(mockRequestCreator).resize(100, 50);
+        verify(mockRequestCreator, never()).fit();
+        verify(mockRequestCreator, never()).placeholder(any(Drawable.class));
+    }
+
+    @Test
+    public void testCreateRequest_cornerRadii() {
+        imageLoader.createRequest(new ImageRequest.Builder()
+                .setUrl(TEST_URL)
+                .setCornerRadii(2, 2, 0, 0)
+                .build());
+
+        final ArgumentCaptor<RoundedCornerTransformation> transformationCaptor =
+                ArgumentCaptor.forClass(RoundedCornerTransformation.class);
+        verify(mockRequestCreator).transform(transformationCaptor.capture());
+        assertArrayEquals(new float[] {2, 2, 2, 2, 0, 0, 0, 0},
+                transformationCaptor.getValue().radii, MAX_DELTA);
+    }
+
+    @Test
+    public void testLoad_withListener() {
+        final ImageView imageView = mock(ImageView.class);
+        final ImageLoader.Listener listener = mock(ImageLoader.Listener.class);
+        imageLoader.load(new ImageRequest.Builder().setUrl(TEST_URL).build(), imageView,
+                listener);
+
+        final ArgumentCaptor<Callback> callbackCaptor = ArgumentCaptor.forClass(Callback.class);
+        verify(mockRequestCreator).into(any(ImageView.class), callbackCaptor.capture());
+        callbackCaptor.getValue().onSuccess();
+        verify(listener).onSuccess();
+        callbackCaptor.getValue().onError();
+        verify(listener).onError();
+    }
+
+    @Test
+    public void testLoad_nullListener() {
+        final ImageView imageView = mock(ImageView.class);
+        imageLoader.load(new ImageRequest.Builder().setUrl(TEST_URL).build(), imageView, null);
+
+        verify(mockRequestCreator).into(imageView);
+    }
+
+    @Test
+    public void testPrefetch() {
+        when(mockRequestCreator.priority(any(Picasso.Priority.class)))
+                .thenReturn(mockRequestCreator);
+        imageLoader.prefetch(new ImageRequest.Builder().setUrl(TEST_URL).build());
+
+        verify(mockRequestCreator).priority(Picasso.Priority.LOW);
+        verify(mockRequestCreator).fetch();
+    }
+
+    @Test
+    public void testTags() {
+        imageLoader.pauseTag(TEST_TAG);
+        verify(mockPicasso).pauseTag(TEST_TAG);
+        imageLoader.resumeTag(TEST_TAG);
+        verify(mockPicasso).resumeTag(TEST_TAG);
+        imageLoader.cancelTag(TEST_TAG);
+        verify(mockPicasso).cancelTag(TEST_TAG);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric.sdk.android.services.concurrency.Priority;
+import io.fabric.sdk.android.services.concurrency.PriorityProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class PriorityExecutorTest {
+    private static final long TEST_RETRY_DELAY_MS = 500L;
+
+    private Executor mockExecutor;
+    private ScheduledExecutorService mockScheduler;
+    private PriorityExecutor priorityExecutor;
+
+    @Before
+    public void setUp() throws Exception {
+        mockExecutor = mock(Executor.class);
+        mockScheduler = mock(ScheduledExecutorService.class);
+        priorityExecutor = new PriorityExecutor(mockExecutor, mockScheduler);
+    }
+
+    @Test
+    public void testExecute_interactiveByDefault() {
+        priorityExecutor.execute(mock(Runnable.class));
+        assertEquals(Priority.HIGH, captureSubmitted().getPriority());
+    }
+
+    @Test
+    public void testExecute_usesCurrentPriority() {
+        RequestPriority.BACKGROUND.run(new Runnable() {
+            @Override
+            public void run() {
+                priorityExecutor.execute(mock(Runnable.class));
+            }
+        });
+        assertEquals(Priority.LOW, captureSubmitted().getPriority());
+    }
+
+    @Test
+    public void testExecute_runsCommand() {
+        final Runnable mockCommand = mock(Runnable.class);
+        priorityExecutor.execute(mockCommand);
+
+        ((Runnable) captureSubmitted()).run();
+        verify(mockCommand).run();
+    }
+
+    @Test
+    public void testExecute_bindsCurrentRequestHandle() {
+        final RequestHandle handle = new RequestHandle();
+        final RequestHandle[] current = new RequestHandle[1];
+        handle.run(new Runnable() {
+            @Override
+            public void run() {
+                priorityExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        current[0] = RequestHandle.current();
+                    }
+                });
+            }
+        });
+
+        ((Runnable) captureSubmitted()).run();
+        assertSame(handle, current[0]);
+    }
+
+    @Test
+    public void testExecute_dropsCancelledRequest() {
+        final RequestHandle handle = new RequestHandle();
+        final Runnable mockCommand = mock(Runnable.class);
+        handle.run(new Runnable() {
+            @Override
+            public void run() {
+                priorityExecutor.execute(mockCommand);
+            }
+        });
+        handle.cancel();
+
+        ((Runnable) captureSubmitted()).run();
+        verifyZeroInteractions(mockCommand);
+    }
+
+    @Test
+    public void testExecute_bindsRequestAttempt() {
+        final RequestAttempt[] current = new RequestAttempt[1];
+        priorityExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                current[0] = RequestAttempt.current();
+            }
+        });
+
+        ((Runnable) captureSubmitted()).run();
+        assertEquals(0, current[0].getRetryCount());
+        assertNull(RequestAttempt.current());
+        verifyZeroInteractions(mockScheduler);
+    }
+
+    @Test
+    public void testExecute_resubmitsScheduledRetry() {
+        final int[] retryCount = new int[1];
+        priorityExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final RequestAttempt attempt = RequestAttempt.current();
+                retryCount[0] = attempt.getRetryCount();
+                if (retryCount[0] == 0) {
+                    attempt.scheduleRetry(TEST_RETRY_DELAY_MS);
+                }
+            }
+        });
+        ((Runnable) captureSubmitted()).run();
+
+        final ArgumentCaptor<Runnable> retryCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler).schedule(retryCaptor.capture(), eq(TEST_RETRY_DELAY_MS),
+                eq(TimeUnit.MILLISECONDS));
+        retryCaptor.getValue().run();
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor, times(2)).execute(captor.capture());
+        captor.getValue().run();
+        assertEquals(1, retryCount[0]);
+        verify(mockScheduler, times(1)).schedule(any(Runnable.class), eq(TEST_RETRY_DELAY_MS),
+                eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testExecute_dropsRetryOfCancelledRequest() {
+        final RequestHandle handle = new RequestHandle();
+        final Runnable mockCommand = mock(Runnable.class);
+        handle.run(new Runnable() {
+            @Override
+            public void run() {
+                priorityExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        RequestAttempt.current().scheduleRetry(TEST_RETRY_DELAY_MS);
+                        mockCommand.run();
+                    }
+                });
+            }
+        });
+        ((Runnable) captureSubmitted()).run();
+        handle.cancel();
+
+        final ArgumentCaptor<Runnable> retryCaptor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockScheduler).schedule(retryCaptor.capture(), eq(TEST_RETRY_DELAY_MS),
+                eq(TimeUnit.MILLISECONDS));
+        retryCaptor.getValue().run();
+
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor, times(2)).execute(captor.capture());
+        captor.getValue().run();
+        verify(mockCommand, times(1)).run();
+    }
+
+    private PriorityProvider captureSubmitted() {
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor).execute(captor.capture());
+        return (PriorityProvider) captor.getValue();
+    }
+}
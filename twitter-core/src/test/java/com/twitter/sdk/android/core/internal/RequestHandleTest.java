@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class RequestHandleTest {
+
+    @Test
+    public void testCancel() {
+        final RequestHandle handle = new RequestHandle();
+        assertFalse(handle.isCancelled());
+        handle.cancel();
+        assertTrue(handle.isCancelled());
+    }
+
+    @Test
+    public void testCurrent_nullByDefault() {
+        assertNull(RequestHandle.current());
+    }
+
+    @Test
+    public void testRun_setsCurrentHandle() {
+        final RequestHandle handle = new RequestHandle();
+        handle.run(new Runnable() {
+            @Override
+            public void run() {
+                assertSame(handle, RequestHandle.current());
+            }
+        });
+        assertNull(RequestHandle.current());
+    }
+
+    @Test
+    public void testRun_nested() {
+        final RequestHandle outer = new RequestHandle();
+        final RequestHandle inner = new RequestHandle();
+        outer.run(new Runnable() {
+            @Override
+            public void run() {
+                inner.run(new Runnable() {
+                    @Override
+                    public void run() {
+                        assertSame(inner, RequestHandle.current());
+                    }
+                });
+                assertSame(outer, RequestHandle.current());
+            }
+        });
+    }
+
+    @Test
+    public void testRun_restoresHandleOnException() {
+        try {
+            new RequestHandle().run(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertNull(RequestHandle.current());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.BuildConfig;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class RequestPriorityTest {
+
+    @Test
+    public void testCurrent_defaultsToInteractive() {
+        assertEquals(RequestPriority.INTERACTIVE, RequestPriority.current());
+    }
+
+    @Test
+    public void testRun_setsCurrentPriority() {
+        RequestPriority.BACKGROUND.run(new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(RequestPriority.BACKGROUND, RequestPriority.current());
+            }
+        });
+        assertEquals(RequestPriority.INTERACTIVE, RequestPriority.current());
+    }
+
+    @Test
+    public void testRun_nested() {
+        RequestPriority.PREFETCH.run(new Runnable() {
+            @Override
+            public void run() {
+                RequestPriority.BACKGROUND.run(new Runnable() {
+                    @Override
+                    public void run() {
+                        assertEquals(RequestPriority.BACKGROUND, RequestPriority.current());
+                    }
+                });
+                assertEquals(RequestPriority.PREFETCH, RequestPriority.current());
+            }
+        });
+    }
+
+    @Test
+    public void testRun_restoresPriorityOnException() {
+        try {
+            RequestPriority.BACKGROUND.run(new Runnable() {
+                @Override
+                public void run() {
+                    throw new IllegalStateException();
+                }
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(RequestPriority.INTERACTIVE, RequestPriority.current());
+    }
+}
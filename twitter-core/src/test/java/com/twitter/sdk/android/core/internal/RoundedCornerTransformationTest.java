@@ -15,10 +15,12 @@
  *
  */
 
-package com.twitter.sdk.android.tweetcomposer;
+package com.twitter.sdk.android.core.internal;
 
 import android.graphics.Bitmap;
 
+import com.twitter.sdk.android.core.BuildConfig;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricGradleTestRunner;
@@ -32,9 +32,13 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.assertEquals;
@@ -43,6 +47,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -65,6 +70,8 @@ public class SessionMonitorTest {
     private SessionMonitor.MonitorState monitorState;
     private Map<Long, Session> sessionMap;
     private SessionVerifier mockSessionVerifier;
+    private List<Runnable> verifications;
+    private Executor queueingExecutor;
 
     @Before
     public void setUp() throws Exception {
@@ -74,8 +81,20 @@ public class SessionMonitorTest {
         mockExecutorService = mock(ExecutorService.class);
         mockMonitorState = mock(SessionMonitor.MonitorState.class);
         mockSessionVerifier = mock(SessionVerifier.class);
+        verifications = new ArrayList<>();
+        queueingExecutor = new Executor() {
+            @Override
+            public void execute(Runnable runnable) {
+                verifications.add(runnable);
+            }
+        };
         sessionMonitor = new SessionMonitor<>(mockSessionManager, mockSystemCurrentTimeProvider,
-                mockExecutorService, mockMonitorState, mockSessionVerifier);
+                mockExecutorService, new Executor() {
+                    @Override
+                    public void execute(Runnable runnable) {
+                        runnable.run();
+                    }
+                }, mockMonitorState, mockSessionVerifier);
         monitorState = new SessionMonitor.MonitorState();
         final Session testSession = new Session(null, 1L);
         sessionMap = new HashMap<>();
@@ -129,6 +148,89 @@ public class SessionMonitorTest {
         verify(mockSessionVerifier, times(2)).verifySession(any(Session.class));
     }
 
+    @Test
+    public void testVerifyAll_notifiesListener() {
+        final ReportingSessionVerifier mockReportingVerifier =
+                mock(ReportingSessionVerifier.class);
+        sessionMonitor = new SessionMonitor<>(mockSessionManager, mockSystemCurrentTimeProvider,
+                mockExecutorService, new Executor() {
+                    @Override
+                    public void execute(Runnable runnable) {
+                        runnable.run();
+                    }
+                }, mockMonitorState, mockReportingVerifier);
+        final Session revokedSession = new Session(null, 2L);
+        sessionMap.put(2L, revokedSession);
+        when(mockReportingVerifier.verifySessionWithResult(sessionMap.get(1L)))
+                .thenReturn(ReportingSessionVerifier.VerificationResult.VALID);
+        when(mockReportingVerifier.verifySessionWithResult(revokedSession))
+                .thenReturn(ReportingSessionVerifier.VerificationResult.REVOKED);
+        final SessionMonitor.VerificationListener mockListener =
+                mock(SessionMonitor.VerificationListener.class);
+        sessionMonitor.setVerificationListener(mockListener);
+
+        sessionMonitor.verifyAll();
+
+        verify(mockListener).onSessionVerified(sessionMap.get(1L),
+                ReportingSessionVerifier.VerificationResult.VALID);
+        verify(mockListener).onSessionVerified(revokedSession,
+                ReportingSessionVerifier.VerificationResult.REVOKED);
+    }
+
+    @Test
+    public void testVerifyAll_verifierWithoutResult() {
+        final SessionMonitor.VerificationListener mockListener =
+                mock(SessionMonitor.VerificationListener.class);
+        sessionMonitor.setVerificationListener(mockListener);
+
+        sessionMonitor.verifyAll();
+
+        verify(mockSessionVerifier).verifySession(sessionMap.get(1L));
+        verifyZeroInteractions(mockListener);
+    }
+
+    @Test
+    public void testVerifyAll_doesNotWaitForVerifications() {
+        sessionMap.put(2L, mock(Session.class));
+        sessionMonitor = new SessionMonitor<>(mockSessionManager, mockSystemCurrentTimeProvider,
+                mockExecutorService, queueingExecutor, mockMonitorState, mockSessionVerifier);
+
+        sessionMonitor.verifyAll();
+        assertEquals(2, verifications.size());
+        verify(mockMonitorState, never()).endVerification(anyLong());
+
+        verifications.get(0).run();
+        verify(mockMonitorState, never()).endVerification(anyLong());
+        verifications.get(1).run();
+        verify(mockMonitorState).endVerification(anyLong());
+
+        // the deadline passing afterwards does not end the verification again
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        verify(mockMonitorState, times(1)).endVerification(anyLong());
+    }
+
+    @Test
+    public void testVerifyAll_endsAtDeadline() {
+        sessionMonitor = new SessionMonitor<>(mockSessionManager, mockSystemCurrentTimeProvider,
+                mockExecutorService, queueingExecutor, mockMonitorState, mockSessionVerifier);
+
+        sessionMonitor.verifyAll();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        verify(mockMonitorState).endVerification(anyLong());
+
+        // verifications which had not started by the deadline are abandoned
+        verifications.get(0).run();
+        verifyZeroInteractions(mockSessionVerifier);
+        verify(mockMonitorState, times(1)).endVerification(anyLong());
+    }
+
+    @Test
+    public void testVerifyAll_noSessions() {
+        sessionMap.clear();
+        sessionMonitor.verifyAll();
+        verify(mockMonitorState).endVerification(anyLong());
+    }
+
     @Test
     public void testVerifyAll_shouldNotImmediatelyReverify() {
         when(mockSystemCurrentTimeProvider.getCurrentTimeMillis()).thenReturn(TEST_TIME_1200_UTC);
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.internal;
+
+import com.twitter.sdk.android.core.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class StartupTasksTest {
+    private static final String TIMING_TAG = "StartupTasksTest";
+
+    private StartupTasks startupTasks;
+    private List<String> runOrder;
+
+    @Before
+    public void setUp() throws Exception {
+        startupTasks = new StartupTasks("test", TIMING_TAG);
+        runOrder = new ArrayList<>();
+        startupTasks.add("a", new RecordingTask("a"));
+        startupTasks.add("b", new RecordingTask("b"), "a");
+        startupTasks.add("c", new RecordingTask("c"));
+    }
+
+    @Test
+    public void testAdd_unknownDependency() {
+        try {
+            startupTasks.add("d", new RecordingTask("d"), "unknown");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown dependency: unknown", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testAdd_duplicateName() {
+        try {
+            startupTasks.add("a", new RecordingTask("a"));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Duplicate task: a", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRun_runsDependenciesFirst() {
+        startupTasks.run("b");
+        assertEquals(Arrays.asList("a", "b"), runOrder);
+        assertTrue(startupTasks.isComplete("a"));
+        assertFalse(startupTasks.isComplete("c"));
+    }
+
+    @Test
+    public void testRun_returnsComplete() {
+        assertTrue(startupTasks.run("b"));
+        assertTrue(startupTasks.isComplete("b"));
+        assertFalse(startupTasks.isFailed("b"));
+    }
+
+    @Test
+    public void testRun_runsOnce() {
+        startupTasks.run("a");
+        startupTasks.run("b");
+        startupTasks.run("a");
+        assertEquals(Arrays.asList("a", "b"), runOrder);
+    }
+
+    @Test
+    public void testRun_unknownTask() {
+        try {
+            startupTasks.run("unknown");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Unknown task: unknown", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRunAll() {
+        startupTasks.runAll();
+        assertEquals(Arrays.asList("a", "b", "c"), runOrder);
+    }
+
+    @Test
+    public void testSchedule_submitsEachTask() {
+        final List<Runnable> jobs = new ArrayList<>();
+        startupTasks.schedule(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                jobs.add(command);
+            }
+        });
+        assertEquals(3, jobs.size());
+        assertTrue(runOrder.isEmpty());
+
+        jobs.get(1).run();
+        assertEquals(Arrays.asList("a", "b"), runOrder);
+    }
+
+    @Test
+    public void testSchedule_failureIsLogged() {
+        startupTasks.add("failing", new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        });
+        startupTasks.schedule(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        });
+        assertFalse(startupTasks.isComplete("failing"));
+        assertTrue(startupTasks.isFailed("failing"));
+        assertEquals(Arrays.asList("a", "b", "c"), runOrder);
+    }
+
+    @Test
+    public void testRun_failedTaskSkipsDependents() {
+        startupTasks.add("failing", new Runnable() {
+            @Override
+            public void run() {
+                runOrder.add("failing");
+                throw new IllegalStateException();
+            }
+        });
+        startupTasks.add("dependent", new RecordingTask("dependent"), "c", "failing");
+        startupTasks.add("transitive", new RecordingTask("transitive"), "dependent");
+
+        assertFalse(startupTasks.run("transitive"));
+        assertEquals(Arrays.asList("c", "failing"), runOrder);
+        assertTrue(startupTasks.isFailed("failing"));
+        assertTrue(startupTasks.isFailed("dependent"));
+        assertTrue(startupTasks.isFailed("transitive"));
+        assertFalse(startupTasks.isComplete("transitive"));
+        assertFalse(startupTasks.getTimings().containsKey("failing"));
+    }
+
+    @Test
+    public void testRun_failedTaskRunsOnce() {
+        final int[] runs = new int[1];
+        startupTasks.add("failing", new Runnable() {
+            @Override
+            public void run() {
+                runs[0]++;
+                throw new IllegalStateException();
+            }
+        });
+
+        assertFalse(startupTasks.run("failing"));
+        assertFalse(startupTasks.run("failing"));
+        assertEquals(1, runs[0]);
+    }
+
+    @Test
+    public void testRunAll_continuesAfterFailure() {
+        startupTasks.add("failing", new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException();
+            }
+        });
+        startupTasks.add("d", new RecordingTask("d"));
+
+        startupTasks.runAll();
+        assertEquals(Arrays.asList("a", "b", "c", "d"), runOrder);
+        assertTrue(startupTasks.isFailed("failing"));
+    }
+
+    @Test
+    public void testGetTimings() {
+        assertTrue(startupTasks.getTimings().isEmpty());
+
+        startupTasks.run("b");
+        final Map<String, Long> timings = startupTasks.getTimings();
+        assertEquals(2, timings.size());
+        assertTrue(timings.get("a") >= 0);
+        assertTrue(timings.get("b") >= 0);
+    }
+
+    private class RecordingTask implements Runnable {
+        private final String name;
+
+        RecordingTask(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            runOrder.add(name);
+        }
+    }
+}
@@ -32,7 +32,11 @@ import org.mockito.ArgumentCaptor;
 import org.robolectric.RobolectricGradleTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.Collections;
+
 import retrofit.RetrofitError;
+import retrofit.client.Header;
+import retrofit.client.Response;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -51,6 +55,7 @@ public class TwitterSessionVerifierTest {
     private static final String REQUIRED_IMPRESSION_COMPONENT = "";
     private static final String REQUIRED_IMPRESSION_ELEMENT = "";
     private static final String REQUIRED_IMPRESSION_ACTION = "impression";
+    private static final String TEST_URL = "https://api.twitter.com";
     private DefaultScribeClient mockScribeClient;
     private AccountServiceProvider mockAccountServiceProvider;
     private TwitterSessionVerifier verifier;
@@ -110,4 +115,28 @@ public class TwitterSessionVerifierTest {
         // success, we caught the exception
     }
 
+    @Test
+    public void testVerifySession_validCredentials() {
+        assertEquals(ReportingSessionVerifier.VerificationResult.VALID,
+                verifier.verifySessionWithResult(session));
+    }
+
+    @Test
+    public void testVerifySession_revokedCredentials() {
+        final RetrofitError error = mock(RetrofitError.class);
+        when(error.getResponse()).thenReturn(new Response(TEST_URL, 401, "",
+                Collections.<Header>emptyList(), null));
+        doThrow(error).when(mockAccountService).verifyCredentials(true, false);
+
+        assertEquals(ReportingSessionVerifier.VerificationResult.REVOKED,
+                verifier.verifySessionWithResult(session));
+    }
+
+    @Test
+    public void testVerifySession_networkError() {
+        doThrow(mock(RetrofitError.class)).when(mockAccountService).verifyCredentials(true, false);
+
+        assertEquals(ReportingSessionVerifier.VerificationResult.FAILED,
+                verifier.verifySessionWithResult(session));
+    }
 }
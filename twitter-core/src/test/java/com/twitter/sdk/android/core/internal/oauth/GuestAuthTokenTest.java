@@ -40,6 +40,8 @@ public class GuestAuthTokenTest  {
     private static final String GUEST_TOKEN = "guestToken";
     private static final long ONE_HOUR_AGE = System.currentTimeMillis() - (3600 * 1000);
     private static final long THREE_HOURS_AGO = System.currentTimeMillis() - (3600 * 3 * 1000);
+    private static final long TWO_AND_HALF_HOURS_AGO =
+            System.currentTimeMillis() - (3600 * 5 * 1000 / 2);
 
     @Test
     public void testGetAuthHeaders() {
@@ -76,4 +78,19 @@ public class GuestAuthTokenTest  {
         final GuestAuthToken token = new GuestAuthToken(TOKEN_TYPE, ACCESS_TOKEN, GUEST_TOKEN, 0);
         assertTrue(token.isExpired());
     }
+
+    @Test
+    public void testIsExpiring_oneHourOld() {
+        final GuestAuthToken token = new GuestAuthToken(TOKEN_TYPE, ACCESS_TOKEN, GUEST_TOKEN,
+                ONE_HOUR_AGE);
+        assertFalse(token.isExpiring());
+    }
+
+    @Test
+    public void testIsExpiring_twoAndHalfHoursOld() {
+        final GuestAuthToken token = new GuestAuthToken(TOKEN_TYPE, ACCESS_TOKEN, GUEST_TOKEN,
+                TWO_AND_HALF_HOURS_AGO);
+        assertTrue(token.isExpiring());
+        assertFalse(token.isExpired());
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import io.fabric.sdk.android.services.common.CommonUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.twitter.sdk.android.core.BuildConfig;
+import com.twitter.sdk.android.core.TestResources;
+import com.twitter.sdk.android.core.internal.TwitterCollection;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class ModelAdapterFactoryTest {
+    private static final long EXPECTED_TWEET_ID = 210462857140252672L;
+    private static final String EXPECTED_SCREEN_NAME = "twitterapi";
+    private static final long EXPECTED_MEDIA_ID = 606527664086781952L;
+    private static final int EXPECTED_MEDIA_START = 117;
+    private static final int EXPECTED_MEDIA_END = 139;
+    private static final int EXPECTED_NUM_TWEETS = 3;
+    private static final int EXPECTED_NUM_USERS = 2;
+
+    @Rule
+    public final TestResources testResources = new TestResources();
+
+    private Gson reflectiveGson;
+    private Gson gson;
+
+    @Before
+    public void setUp() throws Exception {
+        reflectiveGson = new GsonBuilder()
+                .registerTypeAdapterFactory(new SafeListAdapter())
+                .registerTypeAdapterFactory(new SafeMapAdapter())
+                .create();
+        gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new SafeListAdapter())
+                .registerTypeAdapterFactory(new SafeMapAdapter())
+                .registerTypeAdapterFactory(new ModelAdapterFactory())
+                .create();
+    }
+
+    @Test
+    public void testCreate_unsupportedType() {
+        assertNull(new ModelAdapterFactory().create(gson, TypeToken.get(Place.class)));
+    }
+
+    @Test
+    public void testReadTweet() throws IOException {
+        final Tweet tweet = read("model_tweet.json", Tweet.class);
+        assertEquals(EXPECTED_TWEET_ID, tweet.id);
+        assertNotNull(tweet.entities);
+        assertTrue(tweet.entities.media.isEmpty());
+        assertEquals(EXPECTED_SCREEN_NAME, tweet.user.screenName);
+        assertEquals(reflectiveGson.toJson(readReflective("model_tweet.json", Tweet.class).user),
+                reflectiveGson.toJson(tweet.user));
+    }
+
+    @Test
+    public void testReadUser() throws IOException {
+        final User user = read("model_user.json", User.class);
+        final User expected = readReflective("model_user.json", User.class);
+        assertEquals(expected.id, user.id);
+        assertEquals(expected.screenName, user.screenName);
+        assertEquals(expected.profileImageUrlHttps, user.profileImageUrlHttps);
+        assertEquals(expected.status.id, user.status.id);
+        assertEquals(expected.status.retweetedStatus.id, user.status.retweetedStatus.id);
+    }
+
+    @Test
+    public void testReadMediaEntity() throws IOException {
+        final MediaEntity mediaEntity = read("model_media_entity.json", MediaEntity.class);
+        assertEquals(EXPECTED_MEDIA_ID, mediaEntity.id);
+        assertEquals(EXPECTED_MEDIA_START, mediaEntity.getStart());
+        assertEquals(EXPECTED_MEDIA_END, mediaEntity.getEnd());
+        assertNotNull(mediaEntity.sizes);
+        assertNotNull(mediaEntity.videoInfo);
+        assertEquals(reflectiveGson.toJson(readReflective("model_media_entity.json",
+                MediaEntity.class)), reflectiveGson.toJson(mediaEntity));
+    }
+
+    @Test
+    public void testReadTwitterCollection() throws IOException {
+        final TwitterCollection collection
+                = read("model_twitter_collection.json", TwitterCollection.class);
+        assertEquals(EXPECTED_NUM_TWEETS, collection.contents.tweetMap.size());
+        assertEquals(EXPECTED_NUM_USERS, collection.contents.userMap.size());
+        assertEquals(EXPECTED_NUM_TWEETS, collection.metadata.timelineItems.size());
+        assertNotNull(collection.metadata.position.maxPosition);
+    }
+
+    @Test
+    public void testReadTweet_nullAndUnknownFields() {
+        final Tweet tweet = gson.fromJson(
+                "{\"id\":1,\"favorited\":null,\"unknown\":{\"a\":[1,2]},\"user\":null}",
+                Tweet.class);
+        assertEquals(1L, tweet.id);
+        assertNull(tweet.user);
+        assertNull(gson.fromJson("null", Tweet.class));
+    }
+
+    @Test
+    public void testReadTweet_withProjection() throws IOException {
+        final FieldProjection projection = new FieldProjection.Builder()
+                .tweetFields("text", "user")
+                .userFields("screen_name")
+                .build();
+        final Gson projectionGson = new GsonBuilder()
+                .registerTypeAdapterFactory(new ModelAdapterFactory(projection))
+                .create();
+
+        final Tweet tweet = read(projectionGson, "model_tweet.json", Tweet.class);
+        assertEquals(EXPECTED_TWEET_ID, tweet.id);
+        assertNotNull(tweet.text);
+        assertNull(tweet.createdAt);
+        assertNull(tweet.entities);
+        assertEquals(EXPECTED_SCREEN_NAME, tweet.user.screenName);
+        assertNull(tweet.user.name);
+        assertNull(tweet.user.profileImageUrlHttps);
+        assertTrue(tweet.user.id > 0);
+    }
+
+    @Test
+    public void testReadTweets_sharesPooledUsers() {
+        final Gson pooledGson = new GsonBuilder()
+                .registerTypeAdapterFactory(
+                        new ModelAdapterFactory(FieldProjection.ALL, new UserPool(1)))
+                .create();
+        final Tweet[] tweets = pooledGson.fromJson(
+                "[{\"id\":1,\"user\":{\"id\":2,\"screen_name\":\"twitterapi\"}},"
+                + "{\"id\":3,\"user\":{\"id\":2,\"screen_name\":\"twitterapi\"}}]",
+                Tweet[].class);
+        assertSame(tweets[0].user, tweets[1].user);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_nullProjection() {
+        new ModelAdapterFactory(null);
+    }
+
+    private <T> T read(String resource, Class<T> cls) throws IOException {
+        return read(gson, resource, cls);
+    }
+
+    private <T> T readReflective(String resource, Class<T> cls) throws IOException {
+        return read(reflectiveGson, resource, cls);
+    }
+
+    private <T> T read(Gson gson, String resource, Class<T> cls) throws IOException {
+        JsonReader reader = null;
+        try {
+            reader = new JsonReader(new InputStreamReader(testResources.getAsStream(resource)));
+            return gson.fromJson(reader, cls);
+        } finally {
+            CommonUtils.closeQuietly(reader);
+        }
+    }
+}
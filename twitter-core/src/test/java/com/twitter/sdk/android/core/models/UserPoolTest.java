@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 Twitter, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.twitter.sdk.android.core.models;
+
+import com.twitter.sdk.android.core.BuildConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricGradleTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+@RunWith(RobolectricGradleTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 21)
+public class UserPoolTest {
+    private static final int MAX_SIZE = 2;
+    private static final String SCREEN_NAME = "twitterapi";
+
+    private UserPool userPool;
+
+    @Before
+    public void setUp() throws Exception {
+        userPool = new UserPool(MAX_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructor_invalidSize() {
+        new UserPool(0);
+    }
+
+    @Test
+    public void testIntern_null() {
+        assertNull(userPool.intern(null));
+        assertEquals(0, userPool.size());
+    }
+
+    @Test
+    public void testIntern_sameContent() {
+        final User first = createUser(1L, SCREEN_NAME, 10);
+        final User second = createUser(1L, SCREEN_NAME, 10);
+
+        assertSame(first, userPool.intern(first));
+        assertSame(first, userPool.intern(second));
+        assertEquals(1, userPool.size());
+    }
+
+    @Test
+    public void testIntern_updatedContentReplacesPooledUser() {
+        final User first = createUser(1L, SCREEN_NAME, 10);
+        final User updated = createUser(1L, SCREEN_NAME, 11);
+
+        userPool.intern(first);
+        assertSame(updated, userPool.intern(updated));
+        assertSame(updated, userPool.intern(createUser(1L, SCREEN_NAME, 11)));
+    }
+
+    @Test
+    public void testIntern_evictsLeastRecentlyUsed() {
+        final User first = createUser(1L, SCREEN_NAME, 10);
+        userPool.intern(first);
+        userPool.intern(createUser(2L, SCREEN_NAME, 10));
+        // touch the first User so the second one is evicted
+        userPool.intern(createUser(1L, SCREEN_NAME, 10));
+        userPool.intern(createUser(3L, SCREEN_NAME, 10));
+
+        assertEquals(MAX_SIZE, userPool.size());
+        assertSame(first, userPool.intern(createUser(1L, SCREEN_NAME, 10)));
+    }
+
+    @Test
+    public void testIntern_invalidId() {
+        userPool.intern(new UserBuilder().build());
+        assertEquals(0, userPool.size());
+    }
+
+    @Test
+    public void testClear() {
+        userPool.intern(createUser(1L, SCREEN_NAME, 10));
+        userPool.clear();
+        assertEquals(0, userPool.size());
+    }
+
+    private User createUser(long id, String screenName, int followersCount) {
+        return new UserBuilder()
+                .setId(id)
+                .setScreenName(screenName)
+                .setFollowersCount(followersCount)
+                .build();
+    }
+}
@@ -21,6 +21,7 @@ import android.text.TextUtils;
 
 import com.google.gson.Gson;
 import com.twitter.sdk.android.core.TwitterCore;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 
 import io.fabric.sdk.android.Fabric;
 import io.fabric.sdk.android.services.persistence.SerializationStrategy;
@@ -39,7 +40,7 @@ class ApiError {
         private final Gson gson;
 
         public Serializer() {
-            this.gson = new Gson();
+            this.gson = GsonRegistry.getDefaultGson();
         }
 
         @Override
@@ -21,10 +21,10 @@ import android.app.Activity;
 import android.content.Intent;
 import android.net.Uri;
 
-import com.google.gson.Gson;
 import com.twitter.sdk.android.core.TwitterCore;
 import com.twitter.sdk.android.core.TwitterSession;
 import com.twitter.sdk.android.core.TwitterSessionHelper;
+import com.twitter.sdk.android.core.internal.GsonRegistry;
 import com.twitter.sdk.android.tweetcomposer.Card;
 import com.twitter.sdk.android.tweetcomposer.ComposerActivity;
 import com.unity3d.player.UnityPlayer;
@@ -78,7 +78,8 @@ public class TwitterKit {
      */
     public static void compose(String session, String config) {
         final Activity currentActivity = UnityPlayer.currentActivity;
-        final CardConfig cardConfig = new Gson().fromJson(config, CardConfig.class);
+        final CardConfig cardConfig = GsonRegistry.getDefaultGson()
+                .fromJson(config, CardConfig.class);
         final Card card = new Card.AppCardBuilder(currentActivity)
                 .imageUri(Uri.parse(cardConfig.imageUri))
                 .googlePlayId(cardConfig.appGooglePlayId)
@@ -62,8 +62,18 @@ public class Twitter extends Kit implements KitGroup {
     }
 
     public Twitter(TwitterAuthConfig config) {
-        core = new TwitterCore(config);
-        tweetUi = new TweetUi();
+        this(config, false);
+    }
+
+    /**
+     * @param config the auth config
+     * @param deferInitialization if true, TwitterCore and TweetUi schedule their background
+     *          initialization as independent tasks instead of completing it during kit
+     *          initialization.
+     */
+    public Twitter(TwitterAuthConfig config, boolean deferInitialization) {
+        core = new TwitterCore(config, deferInitialization);
+        tweetUi = new TweetUi(deferInitialization);
         tweetComposer = new TweetComposer();
         digits = new Digits();
         kits = Collections.unmodifiableCollection(Arrays.asList(core, tweetUi, tweetComposer,